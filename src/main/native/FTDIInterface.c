@@ -1,31 +1,218 @@
 #include <stdio.h>
 #include <stdlib.h>
+#include <string.h>
 
 #if defined (_WIN32)
 #include <windows.h>
+#else
+#include <errno.h>
+#include <pthread.h>
+#include <sys/time.h>
+#include <time.h>
+#endif
+
+#if defined (__APPLE__)
+#include <mach/mach_time.h>
 #endif
 
 #include "net_sf_yad2xx_FTDIInterface.h"
 #include "ftd2xx.h"
 
 /*
- * Utility method to make it easier to handle failures.
- *
- * Creates an FTDIException, sets the status and function name.
+ * Size of the stack buffer used to copy data between the driver and Java
+ * arrays. Larger transfers are made in several pieces.
  */
-void ThrowFTDIException(JNIEnv * env, const jint ftStatus, const char * functionName) {
+#define IO_CHUNK_SIZE 16384
+
+
+/*
+ * Transaction program op codes, must match net.sf.yad2xx.Transaction.
+ */
+#define OP_WRITE            1
+#define OP_EXPECT           2
+#define OP_EXPECT_DELIMITER 3
+#define OP_DELAY            4
+#define OP_PURGE            5
+#define OP_RTS              6
+#define OP_DTR              7
+
+
+/*
+ * Setting groups understood by applyConfig. Must match DeviceConfig.
+ */
+#define CONFIG_BAUD_RATE            0x01
+#define CONFIG_DATA_CHARACTERISTICS 0x02
+#define CONFIG_FLOW_CONTROL         0x04
+#define CONFIG_TIMEOUTS             0x08
+#define CONFIG_LATENCY_TIMER        0x10
+#define CONFIG_USB_PARAMETERS       0x20
+#define CONFIG_BIT_MODE             0x40
 
-	// Lookup exception class
-	jclass exceptionCls = (*env)->FindClass(env, "net/sf/yad2xx/FTDIException");
+
+/*
+ * Class, method and field IDs used by the native methods. Looked up once in
+ * JNI_OnLoad rather than on every call; the class references are global so
+ * the cached IDs remain valid for the lifetime of the library.
+ */
+static jclass    exceptionCls;		// net.sf.yad2xx.FTDIException
+static jmethodID exceptionInitID;	// FTDIException(int, String)
+static jclass    deviceCls;			// net.sf.yad2xx.Device
+static jmethodID deviceInitID;		// Device(FTDIInterface, int, int, int, int, int, String, String, long)
+static jfieldID  deviceIndexID;		// Device.index
+static jfieldID  deviceFlagsID;		// Device.flags
+static jfieldID  deviceHandleID;	// Device.ftHandle
+static jclass    statusCls;			// net.sf.yad2xx.DeviceStatus
+static jfieldID  statusRxQueueID;	// DeviceStatus.rxQueue
+static jfieldID  statusTxQueueID;	// DeviceStatus.txQueue
+static jfieldID  statusEventID;		// DeviceStatus.eventStatus
+static jfieldID  statusModemID;		// DeviceStatus.modemStatus
+static jclass    byteArrayCls;		// byte[]
+
+
+/*
+ * Lookup a class by name and return a global reference to it.
+ */
+static jclass FindGlobalClass(JNIEnv * env, const char * name) {
+	jclass localCls = (*env)->FindClass(env, name);
+	if (localCls == NULL) {
+		return NULL;  // Exception thrown
+	}
+	jclass globalCls = (jclass) (*env)->NewGlobalRef(env, localCls);
+	(*env)->DeleteLocalRef(env, localCls);
+	return globalCls;
+}
+
+
+/*
+ * Called by the JVM when the library is loaded. Caches the class, method and
+ * field IDs used by the native methods.
+ */
+JNIEXPORT jint JNICALL JNI_OnLoad(JavaVM * vm, void * reserved) {
+	JNIEnv * env;
+
+	if ((*vm)->GetEnv(vm, (void **) &env, JNI_VERSION_1_4) != JNI_OK) {
+		return JNI_ERR;
+	}
+
+	exceptionCls = FindGlobalClass(env, "net/sf/yad2xx/FTDIException");
 	if (exceptionCls == NULL) {
-		return;  // Exception thrown
+		return JNI_ERR;
+	}
+	exceptionInitID = (*env)->GetMethodID(env, exceptionCls, "<init>", "(ILjava/lang/String;)V");
+	if (exceptionInitID == NULL) {
+		return JNI_ERR;
+	}
+
+	deviceCls = FindGlobalClass(env, "net/sf/yad2xx/Device");
+	if (deviceCls == NULL) {
+		return JNI_ERR;
+	}
+	deviceInitID = (*env)->GetMethodID(env, deviceCls, "<init>", "(Lnet/sf/yad2xx/FTDIInterface;IIIIILjava/lang/String;Ljava/lang/String;J)V");
+	deviceIndexID = (*env)->GetFieldID(env, deviceCls, "index", "I");
+	deviceFlagsID = (*env)->GetFieldID(env, deviceCls, "flags", "I");
+	deviceHandleID = (*env)->GetFieldID(env, deviceCls, "ftHandle", "J");
+	if (deviceInitID == NULL || deviceIndexID == NULL || deviceFlagsID == NULL || deviceHandleID == NULL) {
+		return JNI_ERR;
+	}
+
+	statusCls = FindGlobalClass(env, "net/sf/yad2xx/DeviceStatus");
+	if (statusCls == NULL) {
+		return JNI_ERR;
+	}
+	statusRxQueueID = (*env)->GetFieldID(env, statusCls, "rxQueue", "I");
+	statusTxQueueID = (*env)->GetFieldID(env, statusCls, "txQueue", "I");
+	statusEventID = (*env)->GetFieldID(env, statusCls, "eventStatus", "I");
+	statusModemID = (*env)->GetFieldID(env, statusCls, "modemStatus", "I");
+	if (statusRxQueueID == NULL || statusTxQueueID == NULL || statusEventID == NULL || statusModemID == NULL) {
+		return JNI_ERR;
+	}
+
+	byteArrayCls = FindGlobalClass(env, "[B");
+	if (byteArrayCls == NULL) {
+		return JNI_ERR;
+	}
+
+	return JNI_VERSION_1_4;
+}
+
+
+/*
+ * Called by the JVM when the class loader containing the library is garbage
+ * collected. Releases the global class references.
+ */
+JNIEXPORT void JNICALL JNI_OnUnload(JavaVM * vm, void * reserved) {
+	JNIEnv * env;
+
+	if ((*vm)->GetEnv(vm, (void **) &env, JNI_VERSION_1_4) != JNI_OK) {
+		return;
+	}
+	if (exceptionCls != NULL) {
+		(*env)->DeleteGlobalRef(env, exceptionCls);
+		exceptionCls = NULL;
+	}
+	if (deviceCls != NULL) {
+		(*env)->DeleteGlobalRef(env, deviceCls);
+		deviceCls = NULL;
+	}
+	if (statusCls != NULL) {
+		(*env)->DeleteGlobalRef(env, statusCls);
+		statusCls = NULL;
 	}
+	if (byteArrayCls != NULL) {
+		(*env)->DeleteGlobalRef(env, byteArrayCls);
+		byteArrayCls = NULL;
+	}
+}
+
 
-	// Get the constructor for FTDIException(int, String)
-	jmethodID cid = (*env)->GetMethodID(env, exceptionCls, "<init>", "(ILjava/lang/String;)V");
-	if (cid == NULL) {
-		return;  // Exception thrown
+/*
+ * Returns a monotonic time in nanoseconds, used to enforce deadlines.
+ */
+static jlong MonotonicNanos(void) {
+#if defined (_WIN32)
+	static LARGE_INTEGER frequency;
+	LARGE_INTEGER counter;
+	if (frequency.QuadPart == 0) {
+		QueryPerformanceFrequency(&frequency);
+	}
+	QueryPerformanceCounter(&counter);
+	return (jlong) ((double) counter.QuadPart * 1.0e9 / (double) frequency.QuadPart);
+#elif defined (__APPLE__)
+	static mach_timebase_info_data_t timebase;
+	if (timebase.denom == 0) {
+		mach_timebase_info(&timebase);
 	}
+	return (jlong) (mach_absolute_time() * timebase.numer / timebase.denom);
+#else
+	struct timespec now;
+	clock_gettime(CLOCK_MONOTONIC, &now);
+	return (jlong) now.tv_sec * 1000000000LL + now.tv_nsec;
+#endif
+}
+
+
+/*
+ * Sleep for the given number of microseconds. Windows rounds up to whole
+ * milliseconds.
+ */
+static void SleepMicros(jint micros) {
+#if defined (_WIN32)
+	Sleep((micros + 999) / 1000);
+#else
+	struct timespec delay;
+	delay.tv_sec = micros / 1000000;
+	delay.tv_nsec = (micros % 1000000) * 1000L;
+	nanosleep(&delay, NULL);
+#endif
+}
+
+
+/*
+ * Utility method to make it easier to handle failures.
+ *
+ * Creates an FTDIException, sets the status and function name.
+ */
+void ThrowFTDIException(JNIEnv * env, const jint ftStatus, const char * functionName) {
 
 	// Convert C string to Java
 	jstring jFuncName = (*env)->NewStringUTF(env, functionName);
@@ -34,13 +221,170 @@ void ThrowFTDIException(JNIEnv * env, const jint ftStatus, const char * function
 	}
 
 	// Create and throw the exception
-	jthrowable theException = (*env)->NewObject(env, exceptionCls, cid, ftStatus, jFuncName);
+	jthrowable theException = (*env)->NewObject(env, exceptionCls, exceptionInitID, ftStatus, jFuncName);
 	if (theException != NULL) {
 		(*env)->Throw(env, theException);
+		(*env)->DeleteLocalRef(env, theException);
 	}
-	(*env)->DeleteLocalRef(env, exceptionCls);
 	(*env)->DeleteLocalRef(env, jFuncName);
-	(*env)->DeleteLocalRef(env, theException);
+}
+
+
+/*
+ * Sum the lengths of a scatter/gather list.
+ */
+static DWORD TotalLength(JNIEnv * env, jintArray lengths, jint count) {
+	jint * lens;
+	DWORD  total = 0;
+	jint   i;
+
+	lens = (*env)->GetIntArrayElements(env, lengths, NULL);
+	if (lens == NULL) {
+		return 0;  // OutOfMemoryError thrown
+	}
+	for (i = 0; i < count; i++) {
+		total += (DWORD) lens[i];
+	}
+	(*env)->ReleaseIntArrayElements(env, lengths, lens, JNI_ABORT);
+	return total;
+}
+
+
+/*
+ * Copy between a native buffer and a scatter/gather list. Each element of
+ * buffers is either a byte[] or a direct ByteBuffer. When toJava is true data
+ * flows from the native buffer into the list, otherwise from the list into the
+ * native buffer. At most limit bytes are copied.
+ *
+ * Returns JNI_FALSE, with an exception pending, if any element could not be
+ * copied; the native buffer must not be used then.
+ */
+static jboolean CopyScatterGather(JNIEnv * env, jbyte * data, DWORD limit, jobjectArray buffers,
+		jintArray offsets, jintArray lengths, jint count, jboolean toJava) {
+	jint *   offs;
+	jint *   lens;
+	DWORD    done = 0;
+	jint     i;
+	jboolean ok = JNI_TRUE;
+
+	offs = (*env)->GetIntArrayElements(env, offsets, NULL);
+	if (offs == NULL) {
+		return JNI_FALSE;  // OutOfMemoryError thrown
+	}
+	lens = (*env)->GetIntArrayElements(env, lengths, NULL);
+	if (lens == NULL) {
+		(*env)->ReleaseIntArrayElements(env, offsets, offs, JNI_ABORT);
+		return JNI_FALSE;  // OutOfMemoryError thrown
+	}
+
+	for (i = 0; i < count && done < limit && ok; i++) {
+		jobject buffer = (*env)->GetObjectArrayElement(env, buffers, i);
+		jsize   length = lens[i];
+		if ((DWORD) length > limit - done) {
+			length = (jsize) (limit - done);
+		}
+
+		if ((*env)->IsInstanceOf(env, buffer, byteArrayCls)) {
+			if (toJava) {
+				(*env)->SetByteArrayRegion(env, (jbyteArray) buffer, offs[i], length, data + done);
+			} else {
+				(*env)->GetByteArrayRegion(env, (jbyteArray) buffer, offs[i], length, data + done);
+			}
+			if ((*env)->ExceptionCheck(env)) {
+				ok = JNI_FALSE;  // ArrayIndexOutOfBoundsException thrown
+			}
+		} else {
+			jbyte * address = (jbyte *) (*env)->GetDirectBufferAddress(env, buffer);
+			if (address == NULL) {
+				ThrowFTDIException(env, FT_INVALID_PARAMETER, "GetDirectBufferAddress");
+				ok = JNI_FALSE;
+			} else if (toJava) {
+				memcpy(address + offs[i], data + done, length);
+			} else {
+				memcpy(data + done, address + offs[i], length);
+			}
+		}
+
+		(*env)->DeleteLocalRef(env, buffer);
+		done += length;
+	}
+
+	(*env)->ReleaseIntArrayElements(env, offsets, offs, JNI_ABORT);
+	(*env)->ReleaseIntArrayElements(env, lengths, lens, JNI_ABORT);
+	return ok;
+}
+
+
+/*
+ * Applies several settings in one call. The groups mask uses the values of
+ * the DeviceConfig group constants.
+ *
+ * Class:     net_sf_yad2xx_FTDIInterface
+ * Method:    applyConfig
+ * Signature: (JIIBBBSCCIIBIIBB)V
+ */
+JNIEXPORT void JNICALL Java_net_sf_yad2xx_FTDIInterface_applyConfig
+  (JNIEnv * env, jobject iFace, jlong handle, jint groups, jint baudRate,
+   jbyte wordLength, jbyte stopBits, jbyte parity,
+   jshort flowControl, jchar xOn, jchar xOff,
+   jint readTimeout, jint writeTimeout, jbyte latencyTimer,
+   jint inTransferSize, jint outTransferSize,
+   jbyte pinDirection, jbyte bitMode)
+{
+	FT_HANDLE ftHandle;
+	FT_STATUS ftStatus;
+
+	ftHandle = (FT_HANDLE) handle;
+
+	if (groups & CONFIG_USB_PARAMETERS) {
+		ftStatus = FT_SetUSBParameters(ftHandle, (ULONG) inTransferSize, (ULONG) outTransferSize);
+		if (ftStatus != FT_OK) {
+			ThrowFTDIException(env, ftStatus, "FT_SetUSBParameters");
+			return;
+		}
+	}
+	if (groups & CONFIG_BAUD_RATE) {
+		ftStatus = FT_SetBaudRate(ftHandle, (ULONG) baudRate);
+		if (ftStatus != FT_OK) {
+			ThrowFTDIException(env, ftStatus, "FT_SetBaudRate");
+			return;
+		}
+	}
+	if (groups & CONFIG_DATA_CHARACTERISTICS) {
+		ftStatus = FT_SetDataCharacteristics(ftHandle, (UCHAR) wordLength, (UCHAR) stopBits, (UCHAR) parity);
+		if (ftStatus != FT_OK) {
+			ThrowFTDIException(env, ftStatus, "FT_SetDataCharacteristics");
+			return;
+		}
+	}
+	if (groups & CONFIG_FLOW_CONTROL) {
+		ftStatus = FT_SetFlowControl(ftHandle, (USHORT) flowControl, (UCHAR) xOn, (UCHAR) xOff);
+		if (ftStatus != FT_OK) {
+			ThrowFTDIException(env, ftStatus, "FT_SetFlowControl");
+			return;
+		}
+	}
+	if (groups & CONFIG_TIMEOUTS) {
+		ftStatus = FT_SetTimeouts(ftHandle, (ULONG) readTimeout, (ULONG) writeTimeout);
+		if (ftStatus != FT_OK) {
+			ThrowFTDIException(env, ftStatus, "FT_SetTimeouts");
+			return;
+		}
+	}
+	if (groups & CONFIG_LATENCY_TIMER) {
+		ftStatus = FT_SetLatencyTimer(ftHandle, (UCHAR) latencyTimer);
+		if (ftStatus != FT_OK) {
+			ThrowFTDIException(env, ftStatus, "FT_SetLatencyTimer");
+			return;
+		}
+	}
+	if (groups & CONFIG_BIT_MODE) {
+		ftStatus = FT_SetBitMode(ftHandle, (UCHAR) pinDirection, (UCHAR) bitMode);
+		if (ftStatus != FT_OK) {
+			ThrowFTDIException(env, ftStatus, "FT_SetBitMode");
+			return;
+		}
+	}
 }
 
 
@@ -56,35 +400,19 @@ JNIEXPORT void JNICALL Java_net_sf_yad2xx_FTDIInterface_close
 	FT_HANDLE ftHandle;
 	FT_STATUS ftStatus;
 
-	// Get Device.class
-	jclass deviceCls = (*env)->GetObjectClass(env, device);
-	if (deviceCls == NULL) {
-		return; // Exception thrown
-	}
-
-	// get device field ftHandle
-	jfieldID handleID = (*env)->GetFieldID(env, deviceCls, "ftHandle", "J");
-	if (handleID == NULL) {
-		return; // Exception thrown
-	}
-	ftHandle = (FT_HANDLE) (*env)->GetLongField(env, device, handleID);
+	ftHandle = (FT_HANDLE) (*env)->GetLongField(env, device, deviceHandleID);
 
 	ftStatus = FT_Close(ftHandle);
 
 	if (ftStatus == FT_OK) {
 
 		// update device flags
-		jint flags;
-		jfieldID flagsID = (*env)->GetFieldID(env, deviceCls, "flags", "I");
-		if (flagsID == NULL) {
-			return; // Exception thrown
-		}
-		flags = (*env)->GetIntField(env, device, flagsID);
+		jint flags = (*env)->GetIntField(env, device, deviceFlagsID);
 		flags &= ~(FT_FLAGS_OPENED);
-		(*env)->SetIntField(env, device, flagsID, flags);
+		(*env)->SetIntField(env, device, deviceFlagsID, flags);
 
 		// update device handle
-		(*env)->SetLongField(env, device, handleID, 0);
+		(*env)->SetLongField(env, device, deviceHandleID, 0);
 
 	} else {
 		ThrowFTDIException(env, ftStatus, "FT_Close");
@@ -142,6 +470,74 @@ JNIEXPORT void JNICALL Java_net_sf_yad2xx_FTDIInterface_clrRts
 }
 
 
+/*
+ * Creates an event object for FT_SetEventNotification. Windows takes an
+ * auto-reset event handle, other platforms an EVENT_HANDLE holding a condition
+ * variable and its mutex.
+ *
+ * Class:     net_sf_yad2xx_FTDIInterface
+ * Method:    createEvent
+ * Signature: ()J
+ */
+JNIEXPORT jlong JNICALL Java_net_sf_yad2xx_FTDIInterface_createEvent
+  (JNIEnv * env, jobject iFace)
+{
+#if defined (_WIN32)
+	HANDLE event;
+
+	event = CreateEvent(NULL, FALSE, FALSE, NULL);
+	if (event == NULL) {
+		ThrowFTDIException(env, FT_INSUFFICIENT_RESOURCES, "CreateEvent");
+		return 0;
+	}
+	return (jlong) event;
+#else
+	EVENT_HANDLE * event;
+
+	event = (EVENT_HANDLE *) malloc(sizeof(EVENT_HANDLE));
+	if (event == NULL) {
+		ThrowFTDIException(env, FT_INSUFFICIENT_RESOURCES, "createEvent");
+		return 0;
+	}
+	if (pthread_mutex_init(&event->eMutex, NULL) != 0) {
+		free(event);
+		ThrowFTDIException(env, FT_INSUFFICIENT_RESOURCES, "pthread_mutex_init");
+		return 0;
+	}
+	if (pthread_cond_init(&event->eCondVar, NULL) != 0) {
+		pthread_mutex_destroy(&event->eMutex);
+		free(event);
+		ThrowFTDIException(env, FT_INSUFFICIENT_RESOURCES, "pthread_cond_init");
+		return 0;
+	}
+	event->iVar = 0;
+	return (jlong) event;
+#endif
+}
+
+
+/*
+ * Frees an event from createEvent.
+ *
+ * Class:     net_sf_yad2xx_FTDIInterface
+ * Method:    destroyEvent
+ * Signature: (J)V
+ */
+JNIEXPORT void JNICALL Java_net_sf_yad2xx_FTDIInterface_destroyEvent
+  (JNIEnv * env, jobject iFace, jlong eventPtr)
+{
+#if defined (_WIN32)
+	CloseHandle((HANDLE) eventPtr);
+#else
+	EVENT_HANDLE * event = (EVENT_HANDLE *) eventPtr;
+
+	pthread_cond_destroy(&event->eCondVar);
+	pthread_mutex_destroy(&event->eMutex);
+	free(event);
+#endif
+}
+
+
 /*
  * Erases the device EEPROM.
  *
@@ -261,12 +657,6 @@ JNIEXPORT jobjectArray JNICALL Java_net_sf_yad2xx_FTDIInterface_getDevices
 		return NULL;
 	}
 
-	// Lookup Device.class
-	jclass deviceCls = (*env)->FindClass(env, "net/sf/yad2xx/Device");
-	if (deviceCls == NULL) {
-		return NULL;  // Exception thrown
-	}
-
 	// Allocate an array to hold the correct number of attached Devices
 	jobjectArray devices = (*env)->NewObjectArray(env, dwNumDevs, deviceCls, NULL);
 	if (devices == NULL) {
@@ -276,239 +666,886 @@ JNIEXPORT jobjectArray JNICALL Java_net_sf_yad2xx_FTDIInterface_getDevices
 	if (dwNumDevs > 0) {
 		// allocate storage for list based on numDevs
 		FT_DEVICE_LIST_INFO_NODE * devInfo = (FT_DEVICE_LIST_INFO_NODE*) malloc(sizeof(FT_DEVICE_LIST_INFO_NODE) * dwNumDevs);
+		if (devInfo == NULL) {
+			ThrowFTDIException(env, FT_INSUFFICIENT_RESOURCES, "FT_GetDeviceInfoList");
+			return NULL;
+		}
 
 		// get the device information list
 		ftStatus = FT_GetDeviceInfoList(devInfo, &dwNumDevs);
-		if (ftStatus == FT_OK) {
+		if (ftStatus != FT_OK) {
+			free(devInfo);
+			ThrowFTDIException(env, ftStatus, "FT_GetDeviceInfoList");
+			return NULL;
+		}
 
-			// Get the constructor for Device(int,int,int,int,int,String,String,long)
-			jmethodID cid = (*env)->GetMethodID(env, deviceCls, "<init>", "(Lnet/sf/yad2xx/FTDIInterface;IIIIILjava/lang/String;Ljava/lang/String;J)V");
-			if (cid == NULL) {
-				return NULL;  // Exception thrown
+		DWORD i;
+		for (i = 0; i < dwNumDevs; i++) {
+
+			// Convert C strings to Java
+			jstring jSerial = (*env)->NewStringUTF(env, devInfo[i].SerialNumber);
+			if (jSerial == NULL) {
+				break; // Exception thrown
+			}
+			jstring jDesc = (*env)->NewStringUTF(env, devInfo[i].Description);
+			if (jDesc == NULL) {
+				break; // Exception thrown
 			}
 
-			int i;
-			for (i = 0; i < dwNumDevs; i++) {
+			// Construct the Device
+			jobject device = (*env)->NewObject(env, deviceCls, deviceInitID, iFace, i, devInfo[i].Flags, devInfo[i].Type, devInfo[i].ID,
+					devInfo[i].LocId, jSerial, jDesc, (jlong) devInfo[i].ftHandle);
+			if (device == NULL) {
+				break; // Exception thrown
+			}
+
+			// insert into result array
+			(*env)->SetObjectArrayElement(env, devices, i, device);
+
+			(*env)->DeleteLocalRef(env, jSerial);
+			(*env)->DeleteLocalRef(env, jDesc);
+			(*env)->DeleteLocalRef(env, device);
+		}
+
+		free(devInfo);
+
+		if ((*env)->ExceptionCheck(env)) {
+			return NULL;
+		}
+	}
+
+	return devices;
+}
+
+
+/*
+ * Decode a big-endian int from a transaction program.
+ */
+static jint ProgramInt(const jbyte * code) {
+	return ((code[0] & 0xFF) << 24) | ((code[1] & 0xFF) << 16) | ((code[2] & 0xFF) << 8) | (code[3] & 0xFF);
+}
+
+
+/*
+ * Run a compiled transaction program. See net.sf.yad2xx.Transaction for the
+ * program format. Bytes read by expect steps are collected in native memory
+ * and copied to the response array once, at the end.
+ *
+ * Class:     net_sf_yad2xx_FTDIInterface
+ * Method:    execute
+ * Signature: (J[BII[BI)I
+ */
+JNIEXPORT jint JNICALL Java_net_sf_yad2xx_FTDIInterface_execute
+  (JNIEnv * env, jobject iFace, jlong handle, jbyteArray program, jint attempts, jint timeoutMillis,
+		  jbyteArray response, jint offset)
+{
+	FT_HANDLE    ftHandle;
+	FT_STATUS    ftStatus = FT_OK;
+	const char * failedFunction = NULL;
+	DWORD        dwCount;
+	DWORD        dwTotal = 0;
+	jbyte        stackBuff[IO_CHUNK_SIZE];
+	jbyte *      collected = stackBuff;
+	jbyte *      code;
+	jsize        codeLength;
+	jsize        capacity;
+	jsize        pc;
+	jint         attempt;
+	jboolean     complete = JNI_FALSE;
+	jlong        deadline;
+
+	ftHandle = (FT_HANDLE) handle;
+
+	codeLength = (*env)->GetArrayLength(env, program);
+	code = (*env)->GetByteArrayElements(env, program, NULL);
+	if (code == NULL) {
+		return 0;  // OutOfMemoryError thrown
+	}
+
+	capacity = (*env)->GetArrayLength(env, response) - offset;
+	if (capacity < 0) {
+		capacity = 0;  // no room, any expect step fails
+	}
+	if (capacity > IO_CHUNK_SIZE) {
+		collected = (jbyte *) malloc(capacity);
+		if (collected == NULL) {
+			(*env)->ReleaseByteArrayElements(env, program, code, JNI_ABORT);
+			ThrowFTDIException(env, FT_INSUFFICIENT_RESOURCES, "execute");
+			return 0;
+		}
+	}
 
-				// Convert C strings to Java
-				jstring jSerial = (*env)->NewStringUTF(env, devInfo[i].SerialNumber);
-				if (jSerial == NULL) {
-					return NULL; // Exception thrown
+	for (attempt = 0; attempt < attempts && !complete && failedFunction == NULL; attempt++) {
+		deadline = MonotonicNanos() + (jlong) timeoutMillis * 1000000LL;
+		dwTotal = 0;
+		complete = JNI_TRUE;
+		pc = 0;
+
+		while (pc < codeLength && complete && failedFunction == NULL) {
+			jint  op = code[pc++];
+			jint  value;
+			DWORD dwTarget;
+
+			switch (op) {
+
+			case OP_WRITE:
+				value = ProgramInt(code + pc);
+				pc += 4;
+				ftStatus = FT_Write(ftHandle, code + pc, (DWORD) value, &dwCount);
+				if (ftStatus != FT_OK) {
+					failedFunction = "FT_Write";
+				} else if (dwCount != (DWORD) value) {
+					complete = JNI_FALSE;  // write timed out, retry rather than await a reply
+				}
+				pc += value;
+				break;
+
+			case OP_EXPECT:
+				value = ProgramInt(code + pc);
+				pc += 4;
+				if (value < 0 || (DWORD) value > (DWORD) capacity - dwTotal) {
+					ftStatus = FT_INVALID_PARAMETER;
+					failedFunction = "execute";
+					break;
+				}
+				dwTarget = dwTotal + (DWORD) value;
+				while (dwTotal < dwTarget) {
+					ftStatus = FT_Read(ftHandle, collected + dwTotal, dwTarget - dwTotal, &dwCount);
+					if (ftStatus != FT_OK) {
+						failedFunction = "FT_Read";
+						break;
+					}
+					dwTotal += dwCount;
+					if (dwTotal < dwTarget && MonotonicNanos() - deadline >= 0) {
+						complete = JNI_FALSE;
+						break;
+					}
+				}
+				break;
+
+			case OP_EXPECT_DELIMITER: {
+				jbyte    delimiter = code[pc++];
+				jboolean found = JNI_FALSE;
+				value = ProgramInt(code + pc);
+				pc += 4;
+				if (value < 0 || (DWORD) value > (DWORD) capacity - dwTotal) {
+					ftStatus = FT_INVALID_PARAMETER;
+					failedFunction = "execute";
+					break;
 				}
-				jstring jDesc = (*env)->NewStringUTF(env, devInfo[i].Description);
-				if (jDesc == NULL) {
-					return NULL; // Exception thrown
+				dwTarget = dwTotal + (DWORD) value;
+				while (dwTotal < dwTarget) {
+					ftStatus = FT_Read(ftHandle, collected + dwTotal, 1, &dwCount);
+					if (ftStatus != FT_OK) {
+						failedFunction = "FT_Read";
+						break;
+					}
+					if (dwCount == 1 && collected[dwTotal++] == delimiter) {
+						found = JNI_TRUE;
+						break;
+					}
+					if (MonotonicNanos() - deadline >= 0) {
+						break;
+					}
 				}
+				if (!found) {
+					complete = JNI_FALSE;
+				}
+				break;
+			}
+
+			case OP_DELAY:
+				SleepMicros(ProgramInt(code + pc));
+				pc += 4;
+				break;
 
-				// Construct the Device
-				jobject device = (*env)->NewObject(env, deviceCls, cid, iFace, i, devInfo[i].Flags, devInfo[i].Type, devInfo[i].ID,
-						devInfo[i].LocId, jSerial, jDesc, devInfo[i].ftHandle);
-				if (device == NULL) {
-					return NULL; // Exception thrown
+			case OP_PURGE:
+				ftStatus = FT_Purge(ftHandle, (ULONG) (code[pc++] & 0xFF));
+				if (ftStatus != FT_OK) {
+					failedFunction = "FT_Purge";
 				}
+				break;
+
+			case OP_RTS:
+				if (code[pc++]) {
+					ftStatus = FT_SetRts(ftHandle);
+					failedFunction = "FT_SetRts";
+				} else {
+					ftStatus = FT_ClrRts(ftHandle);
+					failedFunction = "FT_ClrRts";
+				}
+				if (ftStatus == FT_OK) {
+					failedFunction = NULL;
+				}
+				break;
+
+			case OP_DTR:
+				if (code[pc++]) {
+					ftStatus = FT_SetDtr(ftHandle);
+					failedFunction = "FT_SetDtr";
+				} else {
+					ftStatus = FT_ClrDtr(ftHandle);
+					failedFunction = "FT_ClrDtr";
+				}
+				if (ftStatus == FT_OK) {
+					failedFunction = NULL;
+				}
+				break;
+
+			default:
+				ftStatus = FT_INVALID_PARAMETER;
+				failedFunction = "execute";
+				break;
+			}
+		}
+	}
+
+	(*env)->ReleaseByteArrayElements(env, program, code, JNI_ABORT);
+
+	if (failedFunction == NULL && dwTotal > 0) {
+		(*env)->SetByteArrayRegion(env, response, offset, (jsize) dwTotal, collected);
+	}
+	if (collected != stackBuff) {
+		free(collected);
+	}
+
+	if (failedFunction != NULL) {
+		ThrowFTDIException(env, ftStatus, failedFunction);
+		return 0;
+	}
+	return complete ? (jint) dwTotal : ~((jint) dwTotal);
+}
+
+
+/*
+ * Gets the instantaneous value of the data bus.
+ *
+ * Class:     net_sf_yad2xx_FTDIInterface
+ * Method:    getBitMode
+ * Signature: (J)B
+ */
+JNIEXPORT jbyte JNICALL Java_net_sf_yad2xx_FTDIInterface_getBitMode
+  (JNIEnv * env, jobject iFace, jlong handle)
+{
+	FT_HANDLE ftHandle;
+	FT_STATUS ftStatus;
+	UCHAR BitMode;
+
+	ftHandle = (FT_HANDLE) handle;
+	ftStatus = FT_GetBitMode(ftHandle, &BitMode);
+
+	if (ftStatus == FT_OK) {
+		return (jbyte)BitMode;
+	} else {
+		ThrowFTDIException(env, ftStatus, "FT_GetBitMode");
+		return 0;
+	}
+}
+
+
+/*
+ * Get the current value of the latency timer.
+ *
+ * Class:     net_sf_yad2xx_FTDIInterface
+ * Method:    getLatencyTimer
+ * Signature: (J)B
+ */
+JNIEXPORT jbyte JNICALL Java_net_sf_yad2xx_FTDIInterface_getLatencyTimer
+  (JNIEnv * env, jobject iFace, jlong handle)
+{
+	FT_HANDLE ftHandle;
+	FT_STATUS ftStatus;
+	UCHAR LatencyTimer;
+
+	ftHandle = (FT_HANDLE) handle;
+	ftStatus = FT_GetLatencyTimer(ftHandle, &LatencyTimer);
+
+	if (ftStatus == FT_OK) {
+		return (jbyte)LatencyTimer;
+	} else {
+		ThrowFTDIException(env, ftStatus, "FT_GetLatencyTimer");
+		return 0;
+	}
+}
+
+
+/*
+ * Gets the modem status and the line status from the device.
+ *
+ * Class:     net_sf_yad2xx_FTDIInterface
+ * Method:    getModemStatus
+ * Signature: (J)I
+ */
+JNIEXPORT jint JNICALL Java_net_sf_yad2xx_FTDIInterface_getModemStatus
+  (JNIEnv * env, jobject iFace, jlong handle)
+{
+	FT_HANDLE ftHandle;
+	FT_STATUS ftStatus;
+	DWORD     dwModemStatus;
+
+	ftHandle = (FT_HANDLE) handle;
+	ftStatus = FT_GetModemStatus(ftHandle, &dwModemStatus);
+
+	if (ftStatus == FT_OK) {
+		return dwModemStatus;
+	} else {
+		ThrowFTDIException(env, ftStatus, "FT_GetModemStatus");
+		return 0;
+	}
+}
+
+
+/*
+ * Gets the number of bytes in the receive queue.
+ *
+ * Class:     net_sf_yad2xx_FTDIInterface
+ * Method:    getQueueStatus
+ * Signature: (J)I
+ */
+JNIEXPORT jint JNICALL Java_net_sf_yad2xx_FTDIInterface_getQueueStatus
+  (JNIEnv * env, jobject iFace, jlong handle)
+{
+	FT_HANDLE ftHandle;
+	FT_STATUS ftStatus;
+	DWORD     dwNumBytes;
+
+	ftHandle = (FT_HANDLE) handle;
+	ftStatus = FT_GetQueueStatus(ftHandle, &dwNumBytes);
+
+	if (ftStatus == FT_OK) {
+		return dwNumBytes;
+	} else {
+		ThrowFTDIException(env, ftStatus, "FT_GetQueueStatus");
+		return 0;
+	}
+}
+
+
+/*
+ * Gets the receive queue, transmit queue, event and modem status in one call.
+ *
+ * Class:     net_sf_yad2xx_FTDIInterface
+ * Method:    getStatus
+ * Signature: (JLnet/sf/yad2xx/DeviceStatus;)V
+ */
+JNIEXPORT void JNICALL Java_net_sf_yad2xx_FTDIInterface_getStatus
+  (JNIEnv * env, jobject iFace, jlong handle, jobject status)
+{
+	FT_HANDLE ftHandle;
+	FT_STATUS ftStatus;
+	DWORD     dwRxBytes;
+	DWORD     dwTxBytes;
+	DWORD     dwEventDWord;
+	DWORD     dwModemStatus;
+
+	ftHandle = (FT_HANDLE) handle;
+	ftStatus = FT_GetStatus(ftHandle, &dwRxBytes, &dwTxBytes, &dwEventDWord);
+	if (ftStatus != FT_OK) {
+		ThrowFTDIException(env, ftStatus, "FT_GetStatus");
+		return;
+	}
+
+	ftStatus = FT_GetModemStatus(ftHandle, &dwModemStatus);
+	if (ftStatus != FT_OK) {
+		ThrowFTDIException(env, ftStatus, "FT_GetModemStatus");
+		return;
+	}
+
+	(*env)->SetIntField(env, status, statusRxQueueID, (jint) dwRxBytes);
+	(*env)->SetIntField(env, status, statusTxQueueID, (jint) dwTxBytes);
+	(*env)->SetIntField(env, status, statusEventID, (jint) dwEventDWord);
+	(*env)->SetIntField(env, status, statusModemID, (jint) dwModemStatus);
+}
+
+
+/*
+ * Open the device and return a handle which will be used for subsequent accesses.
+ *
+ * Class:     net_sf_yad2xx_FTDIInterface
+ * Method:    open
+ * Signature: (Lnet/sf/yad2xx/Device;)V
+ */
+JNIEXPORT void JNICALL Java_net_sf_yad2xx_FTDIInterface_open
+  (JNIEnv * env, jobject iFace, jobject device) {
+	FT_HANDLE ftHandle;
+	FT_STATUS ftStatus;
+	DWORD dwDeviceIndex;
+
+	// get device index
+	dwDeviceIndex = (*env)->GetIntField(env, device, deviceIndexID);
+
+	ftStatus = FT_Open(dwDeviceIndex, &ftHandle);
+
+	if (ftStatus == FT_OK) {
+
+		// update device flags
+		jint flags = (*env)->GetIntField(env, device, deviceFlagsID);
+		flags |= FT_FLAGS_OPENED;
+		(*env)->SetIntField(env, device, deviceFlagsID, flags);
+
+		// update device handle
+		(*env)->SetLongField(env, device, deviceHandleID, (jlong) ftHandle);
+
+	} else {
+		ThrowFTDIException(env, ftStatus, "FT_Open");
+	}
+}
+
+
+/*
+ * Purges the receive and/or transmit buffers in the driver.
+ *
+ * Class:     net_sf_yad2xx_FTDIInterface
+ * Method:    purge
+ * Signature: (JI)V
+ */
+JNIEXPORT void JNICALL Java_net_sf_yad2xx_FTDIInterface_purge
+  (JNIEnv * env, jobject iFace, jlong handle, jint mask)
+{
+	FT_HANDLE ftHandle;
+	FT_STATUS ftStatus;
+
+	ftHandle = (FT_HANDLE) handle;
+	ftStatus = FT_Purge(ftHandle, (ULONG) mask);
+
+	if (ftStatus == FT_OK) {
+		return;
+	} else {
+		ThrowFTDIException(env, ftStatus, "FT_Purge");
+		return;
+	}
+}
+
+
+/*
+ * Read data from the device.
+ *
+ * Data is read in IO_CHUNK_SIZE pieces. A short piece means the read timeout
+ * expired, so no further pieces are requested.
+ *
+ * Class:     net_sf_yad2xx_FTDIInterface
+ * Method:    read
+ * Signature: (J[BI)I
+ */
+JNIEXPORT jint JNICALL Java_net_sf_yad2xx_FTDIInterface_read
+  (JNIEnv * env, jobject iFace, jlong handle, jbyteArray buffer, jint buffLength)
+{
+	FT_HANDLE ftHandle;
+	FT_STATUS ftStatus;
+	DWORD     dwNumBytesToRead;
+	DWORD     dwNumBytesRead;
+	DWORD     dwTotal = 0;
+	jbyte     inBuff[IO_CHUNK_SIZE];
+
+	ftHandle = (FT_HANDLE) handle;
+
+	while (dwTotal < (DWORD) buffLength) {
+		dwNumBytesToRead = (DWORD) buffLength - dwTotal;
+		if (dwNumBytesToRead > IO_CHUNK_SIZE) {
+			dwNumBytesToRead = IO_CHUNK_SIZE;
+		}
+
+		ftStatus = FT_Read(ftHandle, inBuff, dwNumBytesToRead, &dwNumBytesRead);
+		if (ftStatus != FT_OK) {
+			ThrowFTDIException(env, ftStatus, "FT_Read");
+			return 0;
+		}
+
+		(*env)->SetByteArrayRegion(env, buffer, (jsize) dwTotal, (jsize) dwNumBytesRead, inBuff);
+		dwTotal += dwNumBytesRead;
+
+		if (dwNumBytesRead < dwNumBytesToRead) {
+			break;  // timed out
+		}
+	}
+
+	return (jint) dwTotal;
+}
+
+
+/*
+ * Read into a byte[] or a direct ByteBuffer starting at offset. Direct
+ * buffers are filled by a single FT_Read with no intermediate copy; arrays are
+ * filled through the stack buffer, as in read.
+ *
+ * Class:     net_sf_yad2xx_FTDIInterface
+ * Method:    readBuffer
+ * Signature: (JLjava/lang/Object;II)I
+ */
+JNIEXPORT jint JNICALL Java_net_sf_yad2xx_FTDIInterface_readBuffer
+  (JNIEnv * env, jobject iFace, jlong handle, jobject target, jint offset, jint length)
+{
+	FT_HANDLE ftHandle;
+	FT_STATUS ftStatus;
+	DWORD     dwNumBytesToRead;
+	DWORD     dwNumBytesRead;
+	DWORD     dwTotal = 0;
+	jbyte *   address;
+	jbyte     inBuff[IO_CHUNK_SIZE];
+
+	ftHandle = (FT_HANDLE) handle;
 
-				// insert into result array
-				(*env)->SetObjectArrayElement(env, devices, i, device);
+	if (!(*env)->IsInstanceOf(env, target, byteArrayCls)) {
+		address = (jbyte *) (*env)->GetDirectBufferAddress(env, target);
+		if (address == NULL) {
+			ThrowFTDIException(env, FT_INVALID_PARAMETER, "GetDirectBufferAddress");
+			return 0;
+		}
+		ftStatus = FT_Read(ftHandle, address + offset, (DWORD) length, &dwNumBytesRead);
+		if (ftStatus != FT_OK) {
+			ThrowFTDIException(env, ftStatus, "FT_Read");
+			return 0;
+		}
+		return (jint) dwNumBytesRead;
+	}
 
-				(*env)->DeleteLocalRef(env, jSerial);
-				(*env)->DeleteLocalRef(env, jDesc);
-				(*env)->DeleteLocalRef(env, device);
-			}
+	while (dwTotal < (DWORD) length) {
+		dwNumBytesToRead = (DWORD) length - dwTotal;
+		if (dwNumBytesToRead > IO_CHUNK_SIZE) {
+			dwNumBytesToRead = IO_CHUNK_SIZE;
+		}
 
+		ftStatus = FT_Read(ftHandle, inBuff, dwNumBytesToRead, &dwNumBytesRead);
+		if (ftStatus != FT_OK) {
+			ThrowFTDIException(env, ftStatus, "FT_Read");
+			return 0;
 		}
 
-		free(devInfo);
+		(*env)->SetByteArrayRegion(env, (jbyteArray) target, (jsize) (offset + dwTotal), (jsize) dwNumBytesRead, inBuff);
+		dwTotal += dwNumBytesRead;
+
+		if (dwNumBytesRead < dwNumBytesToRead) {
+			break;  // timed out
+		}
 	}
 
-	return devices;
+	return (jint) dwTotal;
 }
 
 
 /*
- * Gets the instantaneous value of the data bus.
+ * Scattering read. Reads the total length of the list in a single FT_Read,
+ * then distributes the data over the list elements in order.
  *
  * Class:     net_sf_yad2xx_FTDIInterface
- * Method:    getBitMode
- * Signature: (J)B
+ * Method:    readScatter
+ * Signature: (J[Ljava/lang/Object;[I[II)I
  */
-JNIEXPORT jbyte JNICALL Java_net_sf_yad2xx_FTDIInterface_getBitMode
-  (JNIEnv * env, jobject iFace, jlong handle)
+JNIEXPORT jint JNICALL Java_net_sf_yad2xx_FTDIInterface_readScatter
+  (JNIEnv * env, jobject iFace, jlong handle, jobjectArray buffers, jintArray offsets, jintArray lengths, jint count)
 {
 	FT_HANDLE ftHandle;
 	FT_STATUS ftStatus;
-	UCHAR BitMode;
+	DWORD     dwNumBytesToRead;
+	DWORD     dwNumBytesRead;
+	jbyte     stackBuff[IO_CHUNK_SIZE];
+	jbyte *   inBuff = stackBuff;
 
 	ftHandle = (FT_HANDLE) handle;
-	ftStatus = FT_GetBitMode(ftHandle, &BitMode);
 
+	dwNumBytesToRead = TotalLength(env, lengths, count);
+	if ((*env)->ExceptionCheck(env)) {
+		return 0;
+	}
+	if (dwNumBytesToRead > IO_CHUNK_SIZE) {
+		inBuff = (jbyte *) malloc(dwNumBytesToRead);
+		if (inBuff == NULL) {
+			ThrowFTDIException(env, FT_INSUFFICIENT_RESOURCES, "FT_Read");
+			return 0;
+		}
+	}
+
+	ftStatus = FT_Read(ftHandle, inBuff, dwNumBytesToRead, &dwNumBytesRead);
 	if (ftStatus == FT_OK) {
-		return (jbyte)BitMode;
+		if (!CopyScatterGather(env, inBuff, dwNumBytesRead, buffers, offsets, lengths, count, JNI_TRUE)) {
+			dwNumBytesRead = 0;
+		}
 	} else {
-		ThrowFTDIException(env, ftStatus, "FT_GetBitMode");
-		return 0;
+		ThrowFTDIException(env, ftStatus, "FT_Read");
+		dwNumBytesRead = 0;
+	}
+
+	if (inBuff != stackBuff) {
+		free(inBuff);
 	}
+	return (jint) dwNumBytesRead;
 }
 
 
 /*
- * Get the current value of the latency timer.
+ * Read whatever is waiting in the receive queue, up to length bytes, without
+ * blocking. Combines FT_GetQueueStatus and FT_Read.
  *
  * Class:     net_sf_yad2xx_FTDIInterface
- * Method:    getLatencyTimer
- * Signature: (J)B
+ * Method:    readAvailable
+ * Signature: (J[BII)I
  */
-JNIEXPORT jbyte JNICALL Java_net_sf_yad2xx_FTDIInterface_getLatencyTimer
-  (JNIEnv * env, jobject iFace, jlong handle)
+JNIEXPORT jint JNICALL Java_net_sf_yad2xx_FTDIInterface_readAvailable
+  (JNIEnv * env, jobject iFace, jlong handle, jbyteArray buffer, jint offset, jint length)
 {
 	FT_HANDLE ftHandle;
 	FT_STATUS ftStatus;
-	UCHAR LatencyTimer;
+	DWORD     dwQueued;
+	DWORD     dwNumBytesToRead;
+	DWORD     dwNumBytesRead;
+	DWORD     dwTotal = 0;
+	jbyte     inBuff[IO_CHUNK_SIZE];
 
 	ftHandle = (FT_HANDLE) handle;
-	ftStatus = FT_GetLatencyTimer(ftHandle, &LatencyTimer);
 
-	if (ftStatus == FT_OK) {
-		return (jbyte)LatencyTimer;
-	} else {
-		ThrowFTDIException(env, ftStatus, "FT_GetLatencyTimer");
+	ftStatus = FT_GetQueueStatus(ftHandle, &dwQueued);
+	if (ftStatus != FT_OK) {
+		ThrowFTDIException(env, ftStatus, "FT_GetQueueStatus");
 		return 0;
 	}
+	if (dwQueued > (DWORD) length) {
+		dwQueued = (DWORD) length;
+	}
+
+	while (dwTotal < dwQueued) {
+		dwNumBytesToRead = dwQueued - dwTotal;
+		if (dwNumBytesToRead > IO_CHUNK_SIZE) {
+			dwNumBytesToRead = IO_CHUNK_SIZE;
+		}
+
+		ftStatus = FT_Read(ftHandle, inBuff, dwNumBytesToRead, &dwNumBytesRead);
+		if (ftStatus != FT_OK) {
+			ThrowFTDIException(env, ftStatus, "FT_Read");
+			return 0;
+		}
+
+		(*env)->SetByteArrayRegion(env, buffer, offset + (jsize) dwTotal, (jsize) dwNumBytesRead, inBuff);
+		dwTotal += dwNumBytesRead;
+
+		if (dwNumBytesRead < dwNumBytesToRead) {
+			break;
+		}
+	}
+
+	return (jint) dwTotal;
 }
 
 
 /*
- * Gets the modem status and the line status from the device.
+ * As readAvailable, but reads straight into the memory of a direct ByteBuffer
+ * with no intermediate copy.
  *
  * Class:     net_sf_yad2xx_FTDIInterface
- * Method:    getModemStatus
- * Signature: (J)I
+ * Method:    readAvailableDirect
+ * Signature: (JLjava/nio/ByteBuffer;II)I
  */
-JNIEXPORT jint JNICALL Java_net_sf_yad2xx_FTDIInterface_getModemStatus
-  (JNIEnv * env, jobject iFace, jlong handle)
+JNIEXPORT jint JNICALL Java_net_sf_yad2xx_FTDIInterface_readAvailableDirect
+  (JNIEnv * env, jobject iFace, jlong handle, jobject buffer, jint position, jint length)
 {
 	FT_HANDLE ftHandle;
 	FT_STATUS ftStatus;
-	DWORD     dwModemStatus;
+	DWORD     dwQueued;
+	DWORD     dwNumBytesRead;
+	jbyte *   address;
 
 	ftHandle = (FT_HANDLE) handle;
-	ftStatus = FT_GetModemStatus(ftHandle, &dwModemStatus);
 
-	if (ftStatus == FT_OK) {
-		return dwModemStatus;
-	} else {
-		ThrowFTDIException(env, ftStatus, "FT_GetModemStatus");
+	address = (jbyte *) (*env)->GetDirectBufferAddress(env, buffer);
+	if (address == NULL) {
+		ThrowFTDIException(env, FT_INVALID_PARAMETER, "GetDirectBufferAddress");
+		return 0;
+	}
+
+	ftStatus = FT_GetQueueStatus(ftHandle, &dwQueued);
+	if (ftStatus != FT_OK) {
+		ThrowFTDIException(env, ftStatus, "FT_GetQueueStatus");
+		return 0;
+	}
+	if (dwQueued > (DWORD) length) {
+		dwQueued = (DWORD) length;
+	}
+	if (dwQueued == 0) {
+		return 0;
+	}
+
+	ftStatus = FT_Read(ftHandle, address + position, dwQueued, &dwNumBytesRead);
+	if (ftStatus != FT_OK) {
+		ThrowFTDIException(env, ftStatus, "FT_Read");
 		return 0;
 	}
+
+	return (jint) dwNumBytesRead;
 }
 
 
 /*
- * Gets the number of bytes in the receive queue.
+ * Read until the requested number of bytes has been received or the timeout
+ * expires. The timeout is checked between FT_Read calls, each of which is
+ * bounded by the read timeout set with FT_SetTimeouts.
  *
  * Class:     net_sf_yad2xx_FTDIInterface
- * Method:    getQueueStatus
- * Signature: (J)I
+ * Method:    readFully
+ * Signature: (J[BIIJ)I
  */
-JNIEXPORT jint JNICALL Java_net_sf_yad2xx_FTDIInterface_getQueueStatus
-  (JNIEnv * env, jobject iFace, jlong handle)
+JNIEXPORT jint JNICALL Java_net_sf_yad2xx_FTDIInterface_readFully
+  (JNIEnv * env, jobject iFace, jlong handle, jbyteArray buffer, jint offset, jint length, jlong timeoutNanos)
 {
 	FT_HANDLE ftHandle;
 	FT_STATUS ftStatus;
-	DWORD     dwNumBytes;
+	DWORD     dwNumBytesToRead;
+	DWORD     dwNumBytesRead;
+	DWORD     dwTotal = 0;
+	jbyte     inBuff[IO_CHUNK_SIZE];
+	jlong     deadline = MonotonicNanos() + timeoutNanos;
 
 	ftHandle = (FT_HANDLE) handle;
-	ftStatus = FT_GetQueueStatus(ftHandle, &dwNumBytes);
 
-	if (ftStatus == FT_OK) {
-		return dwNumBytes;
-	} else {
-		ThrowFTDIException(env, ftStatus, "FT_GetQueueStatus");
-		return 0;
+	while (dwTotal < (DWORD) length) {
+		dwNumBytesToRead = (DWORD) length - dwTotal;
+		if (dwNumBytesToRead > IO_CHUNK_SIZE) {
+			dwNumBytesToRead = IO_CHUNK_SIZE;
+		}
+
+		ftStatus = FT_Read(ftHandle, inBuff, dwNumBytesToRead, &dwNumBytesRead);
+		if (ftStatus != FT_OK) {
+			ThrowFTDIException(env, ftStatus, "FT_Read");
+			return 0;
+		}
+
+		if (dwNumBytesRead > 0) {
+			(*env)->SetByteArrayRegion(env, buffer, offset + (jsize) dwTotal, (jsize) dwNumBytesRead, inBuff);
+			dwTotal += dwNumBytesRead;
+		}
+
+		if (dwTotal < (DWORD) length && MonotonicNanos() - deadline >= 0) {
+			break;  // deadline passed
+		}
 	}
+
+	return (jint) dwTotal;
 }
 
 
 /*
- * Open the device and return a handle which will be used for subsequent accesses.
+ * Read until the delimiter has been received, the buffer is full or the
+ * timeout expires. Bytes are taken from the driver one at a time so that
+ * nothing after the delimiter is consumed. Each FT_Read is a copy from the
+ * driver's receive queue, not a USB transfer.
  *
  * Class:     net_sf_yad2xx_FTDIInterface
- * Method:    open
- * Signature: (Lnet/sf/yad2xx/Device;)V
+ * Method:    readUntil
+ * Signature: (JB[BIIJ)I
  */
-JNIEXPORT void JNICALL Java_net_sf_yad2xx_FTDIInterface_open
-  (JNIEnv * env, jobject iFace, jobject device) {
+JNIEXPORT jint JNICALL Java_net_sf_yad2xx_FTDIInterface_readUntil
+  (JNIEnv * env, jobject iFace, jlong handle, jbyte delimiter, jbyteArray buffer, jint offset, jint length, jlong timeoutNanos)
+{
 	FT_HANDLE ftHandle;
 	FT_STATUS ftStatus;
-	DWORD dwDeviceIndex;
-
-	jclass deviceCls = (*env)->GetObjectClass(env, device);
-	if (deviceCls == NULL) {
-		return; // Exception thrown
-	}
+	DWORD     dwNumBytesRead;
+	DWORD     dwTotal = 0;
+	DWORD     dwCopied = 0;
+	jbyte     inBuff[IO_CHUNK_SIZE];
+	jlong     deadline = MonotonicNanos() + timeoutNanos;
 
-	// get device index
-	jfieldID indexID = (*env)->GetFieldID(env, deviceCls, "index", "I");
-	if (indexID == NULL) {
-		return; // Exception thrown
-	}
-	dwDeviceIndex = (*env)->GetIntField(env, device, indexID);
+	ftHandle = (FT_HANDLE) handle;
 
-	ftStatus = FT_Open(dwDeviceIndex, &ftHandle);
+	while (dwTotal < (DWORD) length) {
 
-	if (ftStatus == FT_OK) {
+		ftStatus = FT_Read(ftHandle, &inBuff[dwTotal - dwCopied], 1, &dwNumBytesRead);
+		if (ftStatus != FT_OK) {
+			ThrowFTDIException(env, ftStatus, "FT_Read");
+			return 0;
+		}
 
-		// update device flags
-		jint flags;
-		jfieldID flagsID = (*env)->GetFieldID(env, deviceCls, "flags", "I");
-		if (flagsID == NULL) {
-			return; // Exception thrown
+		if (dwNumBytesRead == 1) {
+			dwTotal++;
+			if (inBuff[dwTotal - dwCopied - 1] == delimiter) {
+				break;
+			}
+			if (dwTotal - dwCopied == IO_CHUNK_SIZE) {
+				(*env)->SetByteArrayRegion(env, buffer, offset + (jsize) dwCopied, IO_CHUNK_SIZE, inBuff);
+				dwCopied = dwTotal;
+			}
 		}
-		flags = (*env)->GetIntField(env, device, flagsID);
-		flags |= FT_FLAGS_OPENED;
-		(*env)->SetIntField(env, device, flagsID, flags);
 
-		// update device handle
-		jfieldID handleID = (*env)->GetFieldID(env, deviceCls, "ftHandle", "J");
-		if (handleID == NULL) {
-			return; // Exception thrown
+		if (MonotonicNanos() - deadline >= 0) {
+			break;  // deadline passed
 		}
-		(*env)->SetLongField(env, device, handleID, (jlong) ftHandle);
+	}
 
-	} else {
-		ThrowFTDIException(env, ftStatus, "FT_Open");
+	if (dwTotal > dwCopied) {
+		(*env)->SetByteArrayRegion(env, buffer, offset + (jsize) dwCopied, (jsize) (dwTotal - dwCopied), inBuff);
 	}
+
+	return (jint) dwTotal;
 }
 
 
 /*
- * Read data from the device.
+ * Read the receive queue chunk by chunk, taking a monotonic timestamp as soon
+ * as each FT_Read returns. Blocks for the first byte until the timeout
+ * expires, then drains whatever is queued without blocking. The timestamp
+ * and end offset of each chunk are stored in the caller's side arrays.
  *
  * Class:     net_sf_yad2xx_FTDIInterface
- * Method:    read
- * Signature: (J[BI)I
+ * Method:    readTimestamped
+ * Signature: (J[BII[J[IIJ)I
  */
-JNIEXPORT jint JNICALL Java_net_sf_yad2xx_FTDIInterface_read
-  (JNIEnv * env, jobject iFace, jlong handle, jbyteArray buffer, jint buffLength)
+JNIEXPORT jint JNICALL Java_net_sf_yad2xx_FTDIInterface_readTimestamped
+  (JNIEnv * env, jobject iFace, jlong handle, jbyteArray buffer, jint offset, jint length, jlongArray times, jintArray ends, jint maxChunks, jlong timeoutNanos)
 {
 	FT_HANDLE ftHandle;
 	FT_STATUS ftStatus;
+	DWORD     dwQueued;
 	DWORD     dwNumBytesToRead;
 	DWORD     dwNumBytesRead;
-	jbyte     inBuff[buffLength];
+	DWORD     dwTotal = 0;
+	jbyte     inBuff[IO_CHUNK_SIZE];
+	jlong     deadline = MonotonicNanos() + timeoutNanos;
+	jlong     stamp;
+	jint      end;
+	jint      chunks = 0;
 
 	ftHandle = (FT_HANDLE) handle;
-	dwNumBytesToRead = buffLength;
 
-	ftStatus = FT_Read(ftHandle, inBuff, dwNumBytesToRead, &dwNumBytesRead);
+	while (chunks < maxChunks && dwTotal < (DWORD) length) {
 
-	if (ftStatus == FT_OK) {
-		(*env)->SetByteArrayRegion(env, buffer, 0, (jsize) dwNumBytesRead, inBuff);
-		return dwNumBytesRead;
-	} else {
-		ThrowFTDIException(env, ftStatus, "FT_Read");
-		return 0;
+		ftStatus = FT_GetQueueStatus(ftHandle, &dwQueued);
+		if (ftStatus != FT_OK) {
+			ThrowFTDIException(env, ftStatus, "FT_GetQueueStatus");
+			return 0;
+		}
+
+		if (dwQueued == 0) {
+			if (chunks > 0) {
+				break;  // queue drained
+			}
+			dwNumBytesToRead = 1;  // wait for the first byte, bounded by the read timeout
+		} else {
+			dwNumBytesToRead = (DWORD) length - dwTotal;
+			if (dwNumBytesToRead > dwQueued) {
+				dwNumBytesToRead = dwQueued;
+			}
+			if (dwNumBytesToRead > IO_CHUNK_SIZE) {
+				dwNumBytesToRead = IO_CHUNK_SIZE;
+			}
+		}
+
+		ftStatus = FT_Read(ftHandle, inBuff, dwNumBytesToRead, &dwNumBytesRead);
+		stamp = MonotonicNanos();
+		if (ftStatus != FT_OK) {
+			ThrowFTDIException(env, ftStatus, "FT_Read");
+			return 0;
+		}
+
+		if (dwNumBytesRead > 0) {
+			(*env)->SetByteArrayRegion(env, buffer, offset + (jsize) dwTotal, (jsize) dwNumBytesRead, inBuff);
+			dwTotal += dwNumBytesRead;
+			end = offset + (jint) dwTotal;
+			(*env)->SetLongArrayRegion(env, times, chunks, 1, &stamp);
+			(*env)->SetIntArrayRegion(env, ends, chunks, 1, &end);
+			chunks++;
+		} else if (stamp - deadline >= 0) {
+			break;  // deadline passed
+		}
 	}
 
+	return chunks;
 }
 
 
@@ -748,6 +1785,31 @@ JNIEXPORT void JNICALL Java_net_sf_yad2xx_FTDIInterface_setDtr
 }
 
 
+/*
+ * Sets the events that signal an event object from createEvent.
+ *
+ * Class:     net_sf_yad2xx_FTDIInterface
+ * Method:    setEventNotification
+ * Signature: (JIJ)V
+ */
+JNIEXPORT void JNICALL Java_net_sf_yad2xx_FTDIInterface_setEventNotification
+  (JNIEnv * env, jobject iFace, jlong handle, jint mask, jlong event)
+{
+	FT_HANDLE ftHandle;
+	FT_STATUS ftStatus;
+
+	ftHandle = (FT_HANDLE) handle;
+	ftStatus = FT_SetEventNotification(ftHandle, (DWORD) mask, (PVOID) event);
+
+	if (ftStatus == FT_OK) {
+		return;
+	} else {
+		ThrowFTDIException(env, ftStatus, "FT_SetEventNotification");
+		return;
+	}
+}
+
+
 /*
  * Sets flow control for the device.
  *
@@ -910,6 +1972,43 @@ JNIEXPORT void JNICALL Java_net_sf_yad2xx_FTDIInterface_setVidPid
 }
 
 
+/*
+ * Waits for an event from createEvent to be signalled.
+ *
+ * Class:     net_sf_yad2xx_FTDIInterface
+ * Method:    waitEvent
+ * Signature: (JI)Z
+ */
+JNIEXPORT jboolean JNICALL Java_net_sf_yad2xx_FTDIInterface_waitEvent
+  (JNIEnv * env, jobject iFace, jlong eventPtr, jint timeoutMillis)
+{
+#if defined (_WIN32)
+	return WaitForSingleObject((HANDLE) eventPtr, (DWORD) timeoutMillis) == WAIT_OBJECT_0
+			? JNI_TRUE : JNI_FALSE;
+#else
+	EVENT_HANDLE * event = (EVENT_HANDLE *) eventPtr;
+	struct timeval now;
+	struct timespec until;
+	int rc;
+
+	// pthread_cond_timedwait takes an absolute CLOCK_REALTIME deadline
+	gettimeofday(&now, NULL);
+	until.tv_sec = now.tv_sec + timeoutMillis / 1000;
+	until.tv_nsec = now.tv_usec * 1000L + (timeoutMillis % 1000) * 1000000L;
+	if (until.tv_nsec >= 1000000000L) {
+		until.tv_sec++;
+		until.tv_nsec -= 1000000000L;
+	}
+
+	pthread_mutex_lock(&event->eMutex);
+	rc = pthread_cond_timedwait(&event->eCondVar, &event->eMutex, &until);
+	pthread_mutex_unlock(&event->eMutex);
+
+	return rc == ETIMEDOUT ? JNI_FALSE : JNI_TRUE;
+#endif
+}
+
+
 /*
  * Write data to the device.
  *
@@ -924,13 +2023,95 @@ JNIEXPORT jint JNICALL Java_net_sf_yad2xx_FTDIInterface_write
 	FT_STATUS ftStatus;
 	DWORD     dwByteCount;
 	DWORD     dwBytesWritten;
-	jbyte     writeBuffer[buffLength];
+	jbyte     stackBuff[IO_CHUNK_SIZE];
+	jbyte *   writeBuffer = stackBuff;
 
 	dwByteCount = (DWORD) buffLength;
 	ftHandle = (FT_HANDLE) handle;
+
+	if (dwByteCount > IO_CHUNK_SIZE) {
+		writeBuffer = (jbyte *) malloc(dwByteCount);
+		if (writeBuffer == NULL) {
+			ThrowFTDIException(env, FT_INSUFFICIENT_RESOURCES, "FT_Write");
+			return 0;
+		}
+	}
 	(*env)->GetByteArrayRegion(env, buffer, 0, dwByteCount, writeBuffer);
+	if ((*env)->ExceptionCheck(env)) {
+		// ArrayIndexOutOfBoundsException thrown, send nothing
+		if (writeBuffer != stackBuff) {
+			free(writeBuffer);
+		}
+		return 0;
+	}
+
+	ftStatus = FT_Write(ftHandle, writeBuffer, dwByteCount, &dwBytesWritten);
 
-	ftStatus = FT_Write(ftHandle, writeBuffer, (DWORD) buffLength, &dwBytesWritten);
+	if (writeBuffer != stackBuff) {
+		free(writeBuffer);
+	}
+
+	if (ftStatus == FT_OK) {
+		return (jint) dwBytesWritten;
+	} else {
+		ThrowFTDIException(env, ftStatus, "FT_Write");
+		return 0;
+	}
+
+}
+
+
+/*
+ * Write from a byte[] or a direct ByteBuffer starting at offset. Direct
+ * buffers are passed straight to FT_Write.
+ *
+ * Class:     net_sf_yad2xx_FTDIInterface
+ * Method:    writeBuffer
+ * Signature: (JLjava/lang/Object;II)I
+ */
+JNIEXPORT jint JNICALL Java_net_sf_yad2xx_FTDIInterface_writeBuffer
+  (JNIEnv * env, jobject iFace, jlong handle, jobject source, jint offset, jint length)
+{
+	FT_HANDLE ftHandle;
+	FT_STATUS ftStatus;
+	DWORD     dwBytesWritten;
+	jbyte     stackBuff[IO_CHUNK_SIZE];
+	jbyte *   writeBuffer = stackBuff;
+	jboolean  copied = JNI_FALSE;
+
+	ftHandle = (FT_HANDLE) handle;
+
+	if ((*env)->IsInstanceOf(env, source, byteArrayCls)) {
+		if (length > IO_CHUNK_SIZE) {
+			writeBuffer = (jbyte *) malloc((size_t) length);
+			if (writeBuffer == NULL) {
+				ThrowFTDIException(env, FT_INSUFFICIENT_RESOURCES, "FT_Write");
+				return 0;
+			}
+		}
+		(*env)->GetByteArrayRegion(env, (jbyteArray) source, offset, length, writeBuffer);
+		if ((*env)->ExceptionCheck(env)) {
+			// ArrayIndexOutOfBoundsException thrown, send nothing
+			if (writeBuffer != stackBuff) {
+				free(writeBuffer);
+			}
+			return 0;
+		}
+		copied = JNI_TRUE;
+	} else {
+		writeBuffer = (jbyte *) (*env)->GetDirectBufferAddress(env, source);
+		if (writeBuffer == NULL) {
+			ThrowFTDIException(env, FT_INVALID_PARAMETER, "GetDirectBufferAddress");
+			return 0;
+		}
+		writeBuffer += offset;
+	}
+
+	ftStatus = FT_Write(ftHandle, writeBuffer, (DWORD) length, &dwBytesWritten);
+
+	if (copied && writeBuffer != stackBuff) {
+		free(writeBuffer);
+	}
 
 	if (ftStatus == FT_OK) {
 		return (jint) dwBytesWritten;
@@ -938,7 +2119,60 @@ JNIEXPORT jint JNICALL Java_net_sf_yad2xx_FTDIInterface_write
 		ThrowFTDIException(env, ftStatus, "FT_Write");
 		return 0;
 	}
+}
+
+
+/*
+ * Gathering write. Copies each element of the list into one native buffer and
+ * submits it with a single FT_Write.
+ *
+ * Class:     net_sf_yad2xx_FTDIInterface
+ * Method:    writeGather
+ * Signature: (J[Ljava/lang/Object;[I[II)I
+ */
+JNIEXPORT jint JNICALL Java_net_sf_yad2xx_FTDIInterface_writeGather
+  (JNIEnv * env, jobject iFace, jlong handle, jobjectArray buffers, jintArray offsets, jintArray lengths, jint count)
+{
+	FT_HANDLE ftHandle;
+	FT_STATUS ftStatus;
+	DWORD     dwByteCount;
+	DWORD     dwBytesWritten;
+	jbyte     stackBuff[IO_CHUNK_SIZE];
+	jbyte *   writeBuffer = stackBuff;
+
+	ftHandle = (FT_HANDLE) handle;
+
+	dwByteCount = TotalLength(env, lengths, count);
+	if ((*env)->ExceptionCheck(env)) {
+		return 0;
+	}
+	if (dwByteCount > IO_CHUNK_SIZE) {
+		writeBuffer = (jbyte *) malloc(dwByteCount);
+		if (writeBuffer == NULL) {
+			ThrowFTDIException(env, FT_INSUFFICIENT_RESOURCES, "FT_Write");
+			return 0;
+		}
+	}
+	if (!CopyScatterGather(env, writeBuffer, dwByteCount, buffers, offsets, lengths, count, JNI_FALSE)) {
+		// send nothing rather than a partly filled buffer
+		if (writeBuffer != stackBuff) {
+			free(writeBuffer);
+		}
+		return 0;
+	}
+
+	ftStatus = FT_Write(ftHandle, writeBuffer, dwByteCount, &dwBytesWritten);
+
+	if (writeBuffer != stackBuff) {
+		free(writeBuffer);
+	}
 
+	if (ftStatus == FT_OK) {
+		return (jint) dwBytesWritten;
+	} else {
+		ThrowFTDIException(env, ftStatus, "FT_Write");
+		return 0;
+	}
 }
 
 
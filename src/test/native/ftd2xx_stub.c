@@ -0,0 +1,575 @@
+/*
+ * Copyright 2026 Stephen Davies
+ * 
+ * This file is part of yad2xx.
+ * 
+ * yad2xx is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * yad2xx is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with yad2xx.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+/*
+ * Test-only stand-in for FTDI's libftd2xx on Linux, so that the JNI library
+ * can be built, stress-tested and benchmarked without hardware. Only the
+ * FT_ functions called by FTDIInterface.c are provided.
+ *
+ * Each stub device has a receive queue of fixed size. Behavior is set by
+ * environment variables, read on first use:
+ *
+ *   FTSTUB_DEVICES     number of devices, default 1, at most 16. Devices
+ *                      report themselves as FT4232H channels, four to a chip.
+ *   FTSTUB_LOOPBACK    1 (default) to queue written bytes for reading back.
+ *                      0 to discard writes and make every read complete at
+ *                      once, an endless source. Each read is filled with
+ *                      one byte value, incremented from read to read, so
+ *                      that the stub adds little to the cost measured.
+ *   FTSTUB_LATENCY_US  delay added to every FT_Read and FT_Write, default 0.
+ *   FTSTUB_QUEUE_SIZE  receive queue size in bytes, default 65536. Written
+ *                      bytes that do not fit set the overrun bit in the
+ *                      line status.
+ *
+ * FT_Read blocks for the read timeout set by FT_SetTimeouts, as the driver
+ * does, and FT_EVENT_RXCHAR and FT_EVENT_MODEM_STATUS notifications are
+ * signalled through the EVENT_HANDLE passed to FT_SetEventNotification.
+ */
+#include <errno.h>
+#include <pthread.h>
+#include <stdio.h>
+#include <stdlib.h>
+#include <string.h>
+#include <time.h>
+
+#include "ftd2xx.h"
+
+#define MAX_DEVICES      16
+#define DEFAULT_QUEUE    65536
+#define MODEM_CTS        0x0010
+#define MODEM_DSR        0x0020
+#define LINE_OVERRUN     0x0200
+
+typedef struct {
+	int             open;
+	pthread_mutex_t lock;
+	pthread_cond_t  arrived;
+	unsigned char * rxQueue;
+	DWORD           rxHead;
+	DWORD           rxCount;
+	ULONG           readTimeout;
+	ULONG           writeTimeout;
+	UCHAR           latencyTimer;
+	UCHAR           bitMask;
+	UCHAR           bitMode;
+	ULONG           modemStatus;
+	DWORD           eventMask;
+	EVENT_HANDLE *  event;
+	DWORD           events;
+	unsigned char   pattern;
+	WORD            eeprom[64];
+} StubDevice;
+
+static StubDevice      devices[MAX_DEVICES];
+static pthread_once_t  initialized = PTHREAD_ONCE_INIT;
+static int             numDevices;
+static int             loopback;
+static long            latencyMicros;
+static DWORD           queueSize;
+
+
+/*
+ * Read an integer setting from the environment.
+ */
+static long Setting(const char * name, long defaultValue) {
+	const char * value = getenv(name);
+	return value != NULL ? atol(value) : defaultValue;
+}
+
+
+/*
+ * Read the settings and set up every device, once per process.
+ */
+static void Initialize(void) {
+	int i;
+
+	numDevices = (int) Setting("FTSTUB_DEVICES", 1);
+	if (numDevices < 0) {
+		numDevices = 0;
+	} else if (numDevices > MAX_DEVICES) {
+		numDevices = MAX_DEVICES;
+	}
+	loopback = Setting("FTSTUB_LOOPBACK", 1) != 0;
+	latencyMicros = Setting("FTSTUB_LATENCY_US", 0);
+	queueSize = (DWORD) Setting("FTSTUB_QUEUE_SIZE", DEFAULT_QUEUE);
+	if (queueSize == 0) {
+		queueSize = DEFAULT_QUEUE;
+	}
+
+	for (i = 0; i < MAX_DEVICES; i++) {
+		pthread_mutex_init(&devices[i].lock, NULL);
+		pthread_cond_init(&devices[i].arrived, NULL);
+		devices[i].rxQueue = malloc(queueSize);
+		devices[i].latencyTimer = 16;
+		memset(devices[i].eeprom, 0xff, sizeof(devices[i].eeprom));
+	}
+}
+
+
+/*
+ * Simulate the time a driver call spends on the USB bus.
+ */
+static void Latency(void) {
+	struct timespec delay;
+
+	if (latencyMicros > 0) {
+		delay.tv_sec = latencyMicros / 1000000;
+		delay.tv_nsec = (latencyMicros % 1000000) * 1000;
+		nanosleep(&delay, NULL);
+	}
+}
+
+
+/*
+ * Map a handle back to its device, or NULL if it is not an open stub device.
+ */
+static StubDevice * Lookup(FT_HANDLE ftHandle) {
+	StubDevice * device = (StubDevice *) ftHandle;
+
+	if (device < devices || device >= devices + MAX_DEVICES || !device->open) {
+		return NULL;
+	}
+	return device;
+}
+
+
+/*
+ * Record an event and signal the notification event if it is enabled.
+ */
+static void Notify(StubDevice * device, DWORD event) {
+	EVENT_HANDLE * handle;
+
+	pthread_mutex_lock(&device->lock);
+	device->events |= event;
+	handle = (device->eventMask & event) ? device->event : NULL;
+	pthread_mutex_unlock(&device->lock);
+
+	if (handle != NULL) {
+		pthread_mutex_lock(&handle->eMutex);
+		pthread_cond_signal(&handle->eCondVar);
+		pthread_mutex_unlock(&handle->eMutex);
+	}
+}
+
+
+/*
+ * Move up to count queued bytes into buffer. Called with the lock held.
+ */
+static DWORD Dequeue(StubDevice * device, unsigned char * buffer, DWORD count) {
+	DWORD first;
+
+	if (count > device->rxCount) {
+		count = device->rxCount;
+	}
+	first = queueSize - device->rxHead;
+	if (first > count) {
+		first = count;
+	}
+	memcpy(buffer, device->rxQueue + device->rxHead, first);
+	memcpy(buffer + first, device->rxQueue, count - first);
+	device->rxHead = (device->rxHead + count) % queueSize;
+	device->rxCount -= count;
+	return count;
+}
+
+
+/*
+ * Append count bytes to the receive queue, setting the overrun bit for any
+ * that do not fit. Called with the lock held.
+ */
+static void Enqueue(StubDevice * device, const unsigned char * buffer, DWORD count) {
+	DWORD tail;
+	DWORD first;
+
+	if (count > queueSize - device->rxCount) {
+		count = queueSize - device->rxCount;
+		device->modemStatus |= LINE_OVERRUN;
+	}
+	tail = (device->rxHead + device->rxCount) % queueSize;
+	first = queueSize - tail;
+	if (first > count) {
+		first = count;
+	}
+	memcpy(device->rxQueue + tail, buffer, first);
+	memcpy(device->rxQueue, buffer + first, count - first);
+	device->rxCount += count;
+}
+
+
+FT_STATUS FT_CreateDeviceInfoList(LPDWORD lpdwNumDevs) {
+	pthread_once(&initialized, Initialize);
+	*lpdwNumDevs = (DWORD) numDevices;
+	return FT_OK;
+}
+
+
+FT_STATUS FT_GetDeviceInfoList(FT_DEVICE_LIST_INFO_NODE * pDest, LPDWORD lpdwNumDevs) {
+	int i;
+
+	pthread_once(&initialized, Initialize);
+	for (i = 0; i < numDevices; i++) {
+		memset(&pDest[i], 0, sizeof(pDest[i]));
+		pDest[i].Flags = (devices[i].open ? FT_FLAGS_OPENED : 0) | FT_FLAGS_HISPEED;
+		pDest[i].Type = FT_DEVICE_4232H;
+		pDest[i].ID = 0x04036011;
+		pDest[i].LocId = 0x2111 + i;
+		snprintf(pDest[i].SerialNumber, sizeof(pDest[i].SerialNumber), "STUB%04d%c", i / 4, 'A' + i % 4);
+		snprintf(pDest[i].Description, sizeof(pDest[i].Description), "Stub FT4232H %c", 'A' + i % 4);
+		pDest[i].ftHandle = devices[i].open ? &devices[i] : NULL;
+	}
+	*lpdwNumDevs = (DWORD) numDevices;
+	return FT_OK;
+}
+
+
+FT_STATUS FT_Open(int deviceNumber, FT_HANDLE * pHandle) {
+	StubDevice * device;
+
+	pthread_once(&initialized, Initialize);
+	if (deviceNumber < 0 || deviceNumber >= numDevices) {
+		return FT_DEVICE_NOT_FOUND;
+	}
+	device = &devices[deviceNumber];
+
+	pthread_mutex_lock(&device->lock);
+	if (device->open) {
+		pthread_mutex_unlock(&device->lock);
+		return FT_DEVICE_NOT_OPENED;
+	}
+	device->open = 1;
+	device->rxHead = 0;
+	device->rxCount = 0;
+	device->readTimeout = 0;
+	device->writeTimeout = 0;
+	device->modemStatus = MODEM_CTS | MODEM_DSR;
+	device->eventMask = 0;
+	device->event = NULL;
+	device->events = 0;
+	pthread_mutex_unlock(&device->lock);
+
+	*pHandle = device;
+	return FT_OK;
+}
+
+
+FT_STATUS FT_Close(FT_HANDLE ftHandle) {
+	StubDevice * device = Lookup(ftHandle);
+
+	if (device == NULL) {
+		return FT_INVALID_HANDLE;
+	}
+	pthread_mutex_lock(&device->lock);
+	device->open = 0;
+	device->event = NULL;
+	pthread_cond_broadcast(&device->arrived);
+	pthread_mutex_unlock(&device->lock);
+	return FT_OK;
+}
+
+
+/*
+ * Wait up to the read timeout for the requested bytes, as the driver does.
+ * A read timeout of zero waits indefinitely.
+ */
+FT_STATUS FT_Read(FT_HANDLE ftHandle, LPVOID lpBuffer, DWORD dwBytesToRead, LPDWORD lpBytesReturned) {
+	StubDevice *    device = Lookup(ftHandle);
+	struct timespec until;
+
+	if (device == NULL) {
+		return FT_INVALID_HANDLE;
+	}
+	Latency();
+
+	pthread_mutex_lock(&device->lock);
+	if (!loopback) {
+		memset(lpBuffer, device->pattern++, dwBytesToRead);
+		*lpBytesReturned = dwBytesToRead;
+		pthread_mutex_unlock(&device->lock);
+		return FT_OK;
+	}
+
+	clock_gettime(CLOCK_REALTIME, &until);
+	until.tv_sec += device->readTimeout / 1000;
+	until.tv_nsec += (long) (device->readTimeout % 1000) * 1000000L;
+	if (until.tv_nsec >= 1000000000L) {
+		until.tv_sec++;
+		until.tv_nsec -= 1000000000L;
+	}
+	while (device->rxCount < dwBytesToRead && device->open) {
+		if (device->readTimeout == 0) {
+			pthread_cond_wait(&device->arrived, &device->lock);
+		} else if (pthread_cond_timedwait(&device->arrived, &device->lock, &until) == ETIMEDOUT) {
+			break;
+		}
+	}
+	*lpBytesReturned = Dequeue(device, (unsigned char *) lpBuffer, dwBytesToRead);
+	pthread_mutex_unlock(&device->lock);
+	return FT_OK;
+}
+
+
+FT_STATUS FT_Write(FT_HANDLE ftHandle, LPVOID lpBuffer, DWORD dwBytesToWrite, LPDWORD lpBytesWritten) {
+	StubDevice * device = Lookup(ftHandle);
+
+	if (device == NULL) {
+		return FT_INVALID_HANDLE;
+	}
+	Latency();
+
+	if (loopback) {
+		pthread_mutex_lock(&device->lock);
+		Enqueue(device, (const unsigned char *) lpBuffer, dwBytesToWrite);
+		pthread_cond_broadcast(&device->arrived);
+		pthread_mutex_unlock(&device->lock);
+		if (dwBytesToWrite > 0) {
+			Notify(device, FT_EVENT_RXCHAR);
+		}
+	}
+	*lpBytesWritten = dwBytesToWrite;
+	return FT_OK;
+}
+
+
+FT_STATUS FT_GetQueueStatus(FT_HANDLE ftHandle, DWORD * dwRxBytes) {
+	StubDevice * device = Lookup(ftHandle);
+
+	if (device == NULL) {
+		return FT_INVALID_HANDLE;
+	}
+	pthread_mutex_lock(&device->lock);
+	*dwRxBytes = loopback ? device->rxCount : queueSize;
+	pthread_mutex_unlock(&device->lock);
+	return FT_OK;
+}
+
+
+FT_STATUS FT_GetStatus(FT_HANDLE ftHandle, DWORD * dwRxBytes, DWORD * dwTxBytes, DWORD * dwEventDWord) {
+	StubDevice * device = Lookup(ftHandle);
+
+	if (device == NULL) {
+		return FT_INVALID_HANDLE;
+	}
+	pthread_mutex_lock(&device->lock);
+	*dwRxBytes = loopback ? device->rxCount : queueSize;
+	*dwTxBytes = 0;
+	*dwEventDWord = device->events;
+	device->events = 0;
+	pthread_mutex_unlock(&device->lock);
+	return FT_OK;
+}
+
+
+FT_STATUS FT_GetModemStatus(FT_HANDLE ftHandle, ULONG * pModemStatus) {
+	StubDevice * device = Lookup(ftHandle);
+
+	if (device == NULL) {
+		return FT_INVALID_HANDLE;
+	}
+	pthread_mutex_lock(&device->lock);
+	*pModemStatus = device->modemStatus;
+	device->modemStatus &= ~LINE_OVERRUN;
+	pthread_mutex_unlock(&device->lock);
+	return FT_OK;
+}
+
+
+FT_STATUS FT_SetEventNotification(FT_HANDLE ftHandle, DWORD Mask, PVOID Param) {
+	StubDevice * device = Lookup(ftHandle);
+
+	if (device == NULL) {
+		return FT_INVALID_HANDLE;
+	}
+	pthread_mutex_lock(&device->lock);
+	device->eventMask = Mask;
+	device->event = (EVENT_HANDLE *) Param;
+	pthread_mutex_unlock(&device->lock);
+	return FT_OK;
+}
+
+
+FT_STATUS FT_Purge(FT_HANDLE ftHandle, ULONG Mask) {
+	StubDevice * device = Lookup(ftHandle);
+
+	if (device == NULL) {
+		return FT_INVALID_HANDLE;
+	}
+	if (Mask & FT_PURGE_RX) {
+		pthread_mutex_lock(&device->lock);
+		device->rxHead = 0;
+		device->rxCount = 0;
+		pthread_mutex_unlock(&device->lock);
+	}
+	return FT_OK;
+}
+
+
+FT_STATUS FT_SetTimeouts(FT_HANDLE ftHandle, ULONG ReadTimeout, ULONG WriteTimeout) {
+	StubDevice * device = Lookup(ftHandle);
+
+	if (device == NULL) {
+		return FT_INVALID_HANDLE;
+	}
+	pthread_mutex_lock(&device->lock);
+	device->readTimeout = ReadTimeout;
+	device->writeTimeout = WriteTimeout;
+	pthread_mutex_unlock(&device->lock);
+	return FT_OK;
+}
+
+
+FT_STATUS FT_SetLatencyTimer(FT_HANDLE ftHandle, UCHAR ucLatency) {
+	StubDevice * device = Lookup(ftHandle);
+
+	if (device == NULL) {
+		return FT_INVALID_HANDLE;
+	}
+	device->latencyTimer = ucLatency;
+	return FT_OK;
+}
+
+
+FT_STATUS FT_GetLatencyTimer(FT_HANDLE ftHandle, PUCHAR pucLatency) {
+	StubDevice * device = Lookup(ftHandle);
+
+	if (device == NULL) {
+		return FT_INVALID_HANDLE;
+	}
+	*pucLatency = device->latencyTimer;
+	return FT_OK;
+}
+
+
+FT_STATUS FT_SetBitMode(FT_HANDLE ftHandle, UCHAR ucMask, UCHAR ucEnable) {
+	StubDevice * device = Lookup(ftHandle);
+
+	if (device == NULL) {
+		return FT_INVALID_HANDLE;
+	}
+	device->bitMask = ucMask;
+	device->bitMode = ucEnable;
+	return FT_OK;
+}
+
+
+/*
+ * Output pins read back as driven, inputs read as zero.
+ */
+FT_STATUS FT_GetBitMode(FT_HANDLE ftHandle, PUCHAR pucMode) {
+	StubDevice * device = Lookup(ftHandle);
+
+	if (device == NULL) {
+		return FT_INVALID_HANDLE;
+	}
+	*pucMode = device->bitMask;
+	return FT_OK;
+}
+
+
+/*
+ * Change modem status bits. DTR is looped back to DSR and RTS to CTS.
+ */
+static FT_STATUS SetModem(FT_HANDLE ftHandle, ULONG bit, int on) {
+	StubDevice * device = Lookup(ftHandle);
+
+	if (device == NULL) {
+		return FT_INVALID_HANDLE;
+	}
+	pthread_mutex_lock(&device->lock);
+	if (on) {
+		device->modemStatus |= bit;
+	} else {
+		device->modemStatus &= ~bit;
+	}
+	pthread_mutex_unlock(&device->lock);
+	Notify(device, FT_EVENT_MODEM_STATUS);
+	return FT_OK;
+}
+
+FT_STATUS FT_SetDtr(FT_HANDLE ftHandle) { return SetModem(ftHandle, MODEM_DSR, 1); }
+FT_STATUS FT_ClrDtr(FT_HANDLE ftHandle) { return SetModem(ftHandle, MODEM_DSR, 0); }
+FT_STATUS FT_SetRts(FT_HANDLE ftHandle) { return SetModem(ftHandle, MODEM_CTS, 1); }
+FT_STATUS FT_ClrRts(FT_HANDLE ftHandle) { return SetModem(ftHandle, MODEM_CTS, 0); }
+
+
+FT_STATUS FT_ReadEE(FT_HANDLE ftHandle, DWORD dwWordOffset, LPWORD lpwValue) {
+	StubDevice * device = Lookup(ftHandle);
+
+	if (device == NULL) {
+		return FT_INVALID_HANDLE;
+	}
+	*lpwValue = device->eeprom[dwWordOffset % 64];
+	return FT_OK;
+}
+
+
+FT_STATUS FT_WriteEE(FT_HANDLE ftHandle, DWORD dwWordOffset, WORD wValue) {
+	StubDevice * device = Lookup(ftHandle);
+
+	if (device == NULL) {
+		return FT_INVALID_HANDLE;
+	}
+	device->eeprom[dwWordOffset % 64] = wValue;
+	return FT_OK;
+}
+
+
+FT_STATUS FT_EraseEE(FT_HANDLE ftHandle) {
+	StubDevice * device = Lookup(ftHandle);
+
+	if (device == NULL) {
+		return FT_INVALID_HANDLE;
+	}
+	memset(device->eeprom, 0xff, sizeof(device->eeprom));
+	return FT_OK;
+}
+
+
+FT_STATUS FT_GetDriverVersion(FT_HANDLE ftHandle, LPDWORD lpdwVersion) {
+	if (Lookup(ftHandle) == NULL) {
+		return FT_INVALID_HANDLE;
+	}
+	*lpdwVersion = 0x00010427;
+	return FT_OK;
+}
+
+
+FT_STATUS FT_GetLibraryVersion(LPDWORD lpdwVersion) {
+	*lpdwVersion = 0x00010427;
+	return FT_OK;
+}
+
+
+FT_STATUS FT_SetVIDPID(DWORD dwVID, DWORD dwPID) {
+	return FT_OK;
+}
+
+
+/*
+ * Settings with no effect on the stub's behavior only validate the handle.
+ */
+#define ACCEPT { return Lookup(ftHandle) != NULL ? FT_OK : FT_INVALID_HANDLE; }
+
+FT_STATUS FT_SetBaudRate(FT_HANDLE ftHandle, ULONG BaudRate) ACCEPT
+FT_STATUS FT_SetDataCharacteristics(FT_HANDLE ftHandle, UCHAR WordLength, UCHAR StopBits, UCHAR Parity) ACCEPT
+FT_STATUS FT_SetFlowControl(FT_HANDLE ftHandle, USHORT FlowControl, UCHAR XonChar, UCHAR XoffChar) ACCEPT
+FT_STATUS FT_SetChars(FT_HANDLE ftHandle, UCHAR EventChar, UCHAR EventCharEnabled, UCHAR ErrorChar, UCHAR ErrorCharEnabled) ACCEPT
+FT_STATUS FT_SetUSBParameters(FT_HANDLE ftHandle, ULONG ulInTransferSize, ULONG ulOutTransferSize) ACCEPT
+FT_STATUS FT_SetBreakOn(FT_HANDLE ftHandle) ACCEPT
+FT_STATUS FT_SetBreakOff(FT_HANDLE ftHandle) ACCEPT
+FT_STATUS FT_ResetDevice(FT_HANDLE ftHandle) ACCEPT
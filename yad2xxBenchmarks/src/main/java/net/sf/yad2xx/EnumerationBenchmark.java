@@ -0,0 +1,73 @@
+/*
+ * Copyright 2026 Stephen Davies
+ * 
+ * This file is part of yad2xx.
+ * 
+ * yad2xx is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * yad2xx is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with yad2xx.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.yad2xx;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cost of enumerating devices, which builds a Device object per entry with
+ * NewObject and field lookups in the JNI backend, and in plain Java with FFM. Run against the stub libftd2xx with
+ * FTSTUB_DEVICES set to the device count of interest, up to 16. See
+ * {@link ReadBenchmark} for how to run it.
+ *
+ * @since October 19, 2026
+ * @since 0.3
+ * @author Stephen Davies
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EnumerationBenchmark {
+
+	@Param({ "jni" })
+	private String backend;
+
+	private FTDIInterface iFace;
+
+	@Setup
+	public void load() {
+		iFace = StubDevices.load(backend);
+	}
+
+	@Benchmark
+	public Device[] getDevices() throws FTDIException {
+		return iFace.getDevices();
+	}
+
+	@Benchmark
+	public int getDeviceCount() throws FTDIException {
+		return iFace.getDeviceCount();
+	}
+
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright 2026 Stephen Davies
+ * 
+ * This file is part of yad2xx.
+ * 
+ * yad2xx is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * yad2xx is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with yad2xx.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.yad2xx;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cost of the read paths, measured against the stub libftd2xx built by
+ * src/test/native/Makefile. The stub must be an endless source, so that
+ * every read completes at once and only the marshalling is measured:
+ * 
+ * <pre>
+ * make -C src/test/native
+ * mvn -P Benchmarks package
+ * FTSTUB_LOOPBACK=0 java -Djava.library.path=target/stub \
+ *     -jar yad2xxBenchmarks/target/benchmarks.jar ReadBenchmark
+ * </pre>
+ * 
+ * Built and run on Java 22, the same benchmarks compare the JNI library
+ * with the FFM backend, which calls the stub directly:
+ * 
+ * <pre>
+ * FTSTUB_LOOPBACK=0 java -Djava.library.path=target/stub \
+ *     -jar yad2xxBenchmarks/target/benchmarks.jar ReadBenchmark \
+ *     -p backend=jni,ffm -jvmArgsAppend \
+ *     "--enable-native-access=ALL-UNNAMED -Dyad2xx.ftd2xx=target/stub/libftd2xx.so"
+ * </pre>
+ * 
+ * readDirectBuffer is the zero-copy path with FFM, whether the buffer is
+ * from allocateDirect or a view of arena memory.
+ *
+ * @since October 19, 2026
+ * @since 0.3
+ * @author Stephen Davies
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReadBenchmark {
+
+	/**
+	 * The FFM backend needs Java 22: add -p backend=jni,ffm to compare.
+	 */
+	@Param({ "jni" })
+	private String backend;
+
+	@Param({ "16", "512", "16384" })
+	private int size;
+
+	private Device device;
+	private byte[] array;
+	private ByteBuffer heap;
+	private ByteBuffer direct;
+
+	@Setup
+	public void open() throws FTDIException {
+		device = StubDevices.open(backend, false);
+		array = new byte[size];
+		heap = ByteBuffer.allocate(size);
+		direct = ByteBuffer.allocateDirect(size);
+	}
+
+	@TearDown
+	public void close() throws FTDIException {
+		device.close();
+	}
+
+	@Benchmark
+	public int readArray() throws FTDIException {
+		return device.read(array);
+	}
+
+	@Benchmark
+	public int readAvailable() throws FTDIException {
+		return device.readAvailable(array, 0, size);
+	}
+
+	@Benchmark
+	public int readFully() throws FTDIException {
+		return device.readFully(array, 0, size, System.nanoTime() + 1000000000L);
+	}
+
+	@Benchmark
+	public int readHeapBuffer() throws FTDIException {
+		heap.clear();
+		return device.read(heap);
+	}
+
+	@Benchmark
+	public int readDirectBuffer() throws FTDIException {
+		direct.clear();
+		return device.read(direct);
+	}
+
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright 2026 Stephen Davies
+ * 
+ * This file is part of yad2xx.
+ * 
+ * yad2xx is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * yad2xx is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with yad2xx.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.yad2xx;
+
+import static net.sf.yad2xx.FTDIConstants.FT_PURGE_RX;
+
+/**
+ * Opens the first device of the stub libftd2xx for a benchmark, after
+ * checking that the stub is in the mode the benchmark expects.
+ *
+ * @since October 19, 2026
+ * @since 0.3
+ * @author Stephen Davies
+ */
+final class StubDevices {
+
+	private StubDevices() {
+	}
+
+	/**
+	 * Create the interface for a backend, as FTDIInterface.create() would, but
+	 * refuse to fall back so that results are not mislabelled.
+	 * 
+	 * @param backend "jni" or "ffm"
+	 * @throws IllegalStateException if the backend is not available
+	 */
+	static FTDIInterface load(String backend) {
+		System.setProperty(FTDIInterface.BACKEND_PROPERTY, backend);
+		FTDIInterface iFace = FTDIInterface.create();
+		if (backend.equals("ffm") != iFace.getClass().getSimpleName().equals("FfmInterface"))
+			throw new IllegalStateException("The " + backend + " backend is not available; FFM needs Java 22 and -Dyad2xx.ftd2xx");
+		return iFace;
+	}
+
+	/**
+	 * @param backend "jni" or "ffm"
+	 * @param loopback true if the benchmark reads back what it writes, false
+	 *    if it needs an endless source and sink
+	 * @return the first device, open with 100 ms timeouts
+	 * @throws FTDIException
+	 * @throws IllegalStateException if the stub is not in the expected mode
+	 */
+	static Device open(String backend, boolean loopback) throws FTDIException {
+		Device[] devices = load(backend).getDevices();
+		if (devices.length == 0)
+			throw new IllegalStateException("No devices; is the stub libftd2xx on java.library.path?");
+		Device device = devices[0];
+		device.open();
+		device.setTimeouts(100, 100);
+		device.purge(FT_PURGE_RX);
+		// an endless source always reports a full receive queue
+		if ((device.getQueueStatus() == 0) != loopback) {
+			device.close();
+			throw new IllegalStateException("Run with FTSTUB_LOOPBACK=" + (loopback ? 1 : 0));
+		}
+		return device;
+	}
+
+}
@@ -0,0 +1,159 @@
+/*
+ * Copyright 2026 Stephen Davies
+ * 
+ * This file is part of yad2xx.
+ * 
+ * yad2xx is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * yad2xx is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with yad2xx.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.yad2xx;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.util.concurrent.Future;
+
+/**
+ * Asynchronous facade over an open {@link Device}, in the shape of
+ * java.nio.channels.AsynchronousByteChannel. Each operation returns a Future,
+ * or reports to an {@link IoCompletionHandler}.
+ * 
+ * Reads are serviced by an {@link AsyncDispatcher}, so many devices can have
+ * reads outstanding without a blocked thread each. A read completes as soon as
+ * at least one byte is available, with the count of bytes placed in the
+ * buffer. Writes are passed to the dispatcher's executor, since FT_Write
+ * returns once the driver has queued the data.
+ * 
+ * As with AsynchronousByteChannel, only one read and one write may be
+ * outstanding at a time; starting another throws IllegalStateException. If the
+ * device is closed, outstanding reads fail with AsynchronousCloseException and
+ * new ones with ClosedChannelException.
+ *
+ * @since October 19, 2026
+ * @since 0.3
+ * @author Stephen Davies
+ */
+public class AsyncDevice {
+
+	private final Device device;
+	private final AsyncDispatcher dispatcher;
+	private AsyncDispatcher.Operation<?> pendingRead;
+	private AsyncDispatcher.Operation<?> pendingWrite;
+
+	/**
+	 * @param device device to read and write
+	 * @param dispatcher dispatcher that services reads
+	 */
+	public AsyncDevice(Device device, AsyncDispatcher dispatcher) {
+		this.device = device;
+		this.dispatcher = dispatcher;
+	}
+
+	/**
+	 * @return the underlying device
+	 */
+	public Device getDevice() {
+		return device;
+	}
+
+	/**
+	 * Read into the buffer, completing when at least one byte has arrived.
+	 * 
+	 * @param dst destination; its position is advanced by the bytes read
+	 * @return future number of bytes read
+	 */
+	public Future<Integer> read(ByteBuffer dst) {
+		return startRead(dst, null, null);
+	}
+
+	/**
+	 * Read into the buffer, reporting to the handler when at least one byte has
+	 * arrived.
+	 * 
+	 * @param dst destination; its position is advanced by the bytes read
+	 * @param attachment passed to the handler
+	 * @param handler called on the dispatcher's executor
+	 */
+	public <A> void read(ByteBuffer dst, A attachment, IoCompletionHandler<Integer, ? super A> handler) {
+		if (handler == null)
+			throw new NullPointerException("handler");
+		startRead(dst, attachment, handler);
+	}
+
+	/**
+	 * Write the buffer's remaining bytes.
+	 * 
+	 * @param src source; its position is advanced by the bytes written
+	 * @return future number of bytes written
+	 */
+	public Future<Integer> write(ByteBuffer src) {
+		return startWrite(src, null, null);
+	}
+
+	/**
+	 * Write the buffer's remaining bytes, reporting to the handler when done.
+	 * 
+	 * @param src source; its position is advanced by the bytes written
+	 * @param attachment passed to the handler
+	 * @param handler called on the dispatcher's executor
+	 */
+	public <A> void write(ByteBuffer src, A attachment, IoCompletionHandler<Integer, ? super A> handler) {
+		if (handler == null)
+			throw new NullPointerException("handler");
+		startWrite(src, attachment, handler);
+	}
+
+	private <A> Future<Integer> startRead(ByteBuffer dst, A attachment, IoCompletionHandler<Integer, ? super A> handler) {
+		if (dst.isReadOnly())
+			throw new IllegalArgumentException("Read-only buffer");
+		AsyncDispatcher.Operation<A> operation = new AsyncDispatcher.ReadOperation<A>(dispatcher, device, dst, attachment, handler);
+		synchronized (this) {
+			if (pendingRead != null && !pendingRead.isDone())
+				throw new IllegalStateException("Read already pending");
+			pendingRead = operation;
+		}
+		dispatcher.submitRead(operation);
+		return operation;
+	}
+
+	private <A> Future<Integer> startWrite(final ByteBuffer src, A attachment, IoCompletionHandler<Integer, ? super A> handler) {
+		final AsyncDispatcher.Operation<A> operation = new AsyncDispatcher.Operation<A>(dispatcher, device, attachment, handler) {
+			boolean poll() throws FTDIException {
+				if (isFinished()) {
+					return true;
+				}
+				if (!device.isOpen()) {
+					fail(new ClosedChannelException());
+					return true;
+				}
+				complete(device.write(src));
+				return true;
+			}
+		};
+		synchronized (this) {
+			if (pendingWrite != null && !pendingWrite.isDone())
+				throw new IllegalStateException("Write already pending");
+			pendingWrite = operation;
+		}
+		dispatcher.execute(new Runnable() {
+			public void run() {
+				try {
+					operation.poll();
+				} catch (FTDIException e) {
+					operation.fail(e);
+				}
+			}
+		});
+		return operation;
+	}
+
+}
@@ -0,0 +1,380 @@
+/*
+ * Copyright 2026 Stephen Davies
+ * 
+ * This file is part of yad2xx.
+ * 
+ * yad2xx is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * yad2xx is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with yad2xx.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.yad2xx;
+
+import static net.sf.yad2xx.FTDIConstants.FT_EVENT_RXCHAR;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousCloseException;
+import java.nio.channels.ClosedChannelException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Services asynchronous reads for any number of {@link AsyncDevice}s with a
+ * single thread.
+ * 
+ * All registered devices signal one native event through
+ * FT_SetEventNotification. The dispatcher thread sleeps on that event while
+ * reads are outstanding, then polls each pending read with a non-blocking
+ * readAvailable. On Linux and OS X the D2XX event is a condition variable,
+ * which forgets signals sent while nobody waits, so the wait is bounded by a
+ * short safety timeout. The dispatcher is idle, with no native wait at all,
+ * when nothing is pending.
+ * 
+ * Completion handlers and writes run on the supplied Executor, never on the
+ * dispatcher thread. The dispatcher takes over event notification of the
+ * devices it serves, so they should not also be used with other event
+ * notification clients. A device is registered by its first read and
+ * forgotten once it is closed.
+ *
+ * @since October 19, 2026
+ * @since 0.3
+ * @author Stephen Davies
+ */
+public class AsyncDispatcher {
+
+	/**
+	 * Longest wait on the native event, in ms, before pending reads are polled
+	 * again.
+	 */
+	public static final int SAFETY_TIMEOUT = 20;
+
+	private final FTDIInterface iFace;
+	private final Executor executor;
+	private final long event;
+	private final Thread thread;
+	private final List<Operation<?>> pending = new ArrayList<Operation<?>>();
+	private final Map<Device, Long> registered = new HashMap<Device, Long>();
+	private boolean shutdown;
+
+	/**
+	 * @param iFace interface used to create the native event
+	 * @param executor runs completion handlers and writes
+	 * @throws FTDIException if the native event cannot be created
+	 */
+	public AsyncDispatcher(FTDIInterface iFace, Executor executor) throws FTDIException {
+		this.iFace = iFace;
+		this.executor = executor;
+		this.event = iFace.createEvent();
+		thread = new Thread(new Runnable() {
+			public void run() {
+				dispatch();
+			}
+		}, "yad2xx-async-dispatcher");
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	/**
+	 * Stop the dispatcher. Pending reads fail with AsynchronousCloseException,
+	 * event notification is removed from devices that are still open and the
+	 * native event is freed.
+	 * 
+	 * @throws InterruptedException if interrupted while waiting for the
+	 *    dispatcher thread to stop
+	 */
+	public void shutdown() throws InterruptedException {
+		synchronized (this) {
+			if (shutdown)
+				return;
+			shutdown = true;
+			notifyAll();
+		}
+		thread.join();
+	}
+
+	/**
+	 * Queue a read, completing it at once if data is already waiting.
+	 */
+	void submitRead(Operation<?> operation) {
+		Device device = operation.device;
+		try {
+			if (!device.isOpen()) {
+				synchronized (this) {
+					prune();
+				}
+				operation.fail(new ClosedChannelException());
+				return;
+			}
+			synchronized (this) {
+				if (shutdown) {
+					operation.fail(new ClosedChannelException());
+					return;
+				}
+				prune();
+				Long handle = registered.get(device);
+				if (handle == null || handle.longValue() != device.getHandle()) {
+					device.setEventNotification(FT_EVENT_RXCHAR, event);
+					registered.put(device, Long.valueOf(device.getHandle()));
+				}
+			}
+			if (operation.poll()) {
+				return;
+			}
+		} catch (FTDIException e) {
+			operation.fail(e);
+			return;
+		}
+		synchronized (this) {
+			pending.add(operation);
+			notifyAll();
+		}
+	}
+
+	/**
+	 * @return number of devices with event notification from this dispatcher
+	 */
+	synchronized int getRegisteredCount() {
+		return registered.size();
+	}
+
+	/**
+	 * Forget devices that have been closed or reopened since they were
+	 * registered, so the dispatcher does not keep them reachable. A reopened
+	 * device registers again on its next read. Caller holds this.
+	 */
+	private void prune() {
+		Iterator<Map.Entry<Device, Long>> entries = registered.entrySet().iterator();
+		while (entries.hasNext()) {
+			Map.Entry<Device, Long> entry = entries.next();
+			Device device = entry.getKey();
+			if (!device.isOpen() || device.getHandle() != entry.getValue().longValue()) {
+				entries.remove();
+			}
+		}
+	}
+
+	/**
+	 * Run an operation on the executor.
+	 */
+	void execute(Runnable task) {
+		executor.execute(task);
+	}
+
+	private void dispatch() {
+		List<Operation<?>> batch = new ArrayList<Operation<?>>();
+		while (true) {
+			synchronized (this) {
+				while (pending.isEmpty() && !shutdown) {
+					try {
+						wait();
+					} catch (InterruptedException e) {
+						shutdown = true;
+					}
+				}
+				if (shutdown)
+					break;
+				batch.addAll(pending);
+			}
+
+			iFace.waitEvent(event, SAFETY_TIMEOUT);
+
+			for (Operation<?> operation : batch) {
+				boolean done;
+				try {
+					done = operation.poll();
+				} catch (FTDIException e) {
+					operation.fail(e);
+					done = true;
+				}
+				if (done) {
+					synchronized (this) {
+						pending.remove(operation);
+						if (!operation.device.isOpen()) {
+							prune();
+						}
+					}
+				}
+			}
+			batch.clear();
+		}
+		close();
+	}
+
+	private void close() {
+		List<Operation<?>> abandoned;
+		synchronized (this) {
+			abandoned = new ArrayList<Operation<?>>(pending);
+			pending.clear();
+			for (Map.Entry<Device, Long> entry : registered.entrySet()) {
+				Device device = entry.getKey();
+				if (device.isOpen() && device.getHandle() == entry.getValue().longValue()) {
+					try {
+						device.setEventNotification(0, 0);
+					} catch (FTDIException e) {
+						// device is going away regardless
+					}
+				}
+			}
+			registered.clear();
+		}
+		iFace.destroyEvent(event);
+		for (Operation<?> operation : abandoned) {
+			operation.fail(new AsynchronousCloseException());
+		}
+	}
+
+	/**
+	 * An outstanding operation. Acts as the Future returned to the caller and,
+	 * when a handler is supplied, delivers the result to it on the executor.
+	 */
+	static abstract class Operation<A> implements Future<Integer> {
+
+		final Device device;
+		private final A attachment;
+		private final IoCompletionHandler<Integer, ? super A> handler;
+		private final CountDownLatch done = new CountDownLatch(1);
+		private final AsyncDispatcher dispatcher;
+		private boolean finished;
+		private boolean cancelled;
+		private Integer result;
+		private Throwable failure;
+
+		Operation(AsyncDispatcher dispatcher, Device device, A attachment, IoCompletionHandler<Integer, ? super A> handler) {
+			this.dispatcher = dispatcher;
+			this.device = device;
+			this.attachment = attachment;
+			this.handler = handler;
+		}
+
+		/**
+		 * Try to make progress without blocking.
+		 * 
+		 * @return true once the operation has finished
+		 */
+		abstract boolean poll() throws FTDIException;
+
+		final void complete(int count) {
+			finish(Integer.valueOf(count), null);
+		}
+
+		final void fail(Throwable exc) {
+			finish(null, exc);
+		}
+
+		private void finish(final Integer value, final Throwable exc) {
+			synchronized (this) {
+				if (finished)
+					return;
+				finished = true;
+				result = value;
+				failure = exc;
+			}
+			done.countDown();
+			if (handler != null) {
+				dispatcher.execute(new Runnable() {
+					public void run() {
+						if (exc == null) {
+							handler.completed(value, attachment);
+						} else {
+							handler.failed(exc, attachment);
+						}
+					}
+				});
+			}
+		}
+
+		synchronized boolean isFinished() {
+			return finished;
+		}
+
+		public boolean cancel(boolean mayInterruptIfRunning) {
+			synchronized (this) {
+				if (finished)
+					return false;
+				finished = true;
+				cancelled = true;
+			}
+			done.countDown();
+			return true;
+		}
+
+		public synchronized boolean isCancelled() {
+			return cancelled;
+		}
+
+		public boolean isDone() {
+			return done.getCount() == 0;
+		}
+
+		public Integer get() throws InterruptedException, ExecutionException {
+			done.await();
+			return report();
+		}
+
+		public Integer get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+			if (!done.await(timeout, unit))
+				throw new TimeoutException();
+			return report();
+		}
+
+		private synchronized Integer report() throws ExecutionException {
+			if (cancelled)
+				throw new CancellationException();
+			if (failure != null)
+				throw new ExecutionException(failure);
+			return result;
+		}
+	}
+
+	/**
+	 * Completes when at least one byte has been read into the buffer.
+	 */
+	static class ReadOperation<A> extends Operation<A> {
+
+		private final ByteBuffer buffer;
+
+		ReadOperation(AsyncDispatcher dispatcher, Device device, ByteBuffer buffer, A attachment, IoCompletionHandler<Integer, ? super A> handler) {
+			super(dispatcher, device, attachment, handler);
+			this.buffer = buffer;
+		}
+
+		boolean poll() throws FTDIException {
+			if (isFinished()) {
+				return true;
+			}
+			if (!device.isOpen()) {
+				fail(new AsynchronousCloseException());
+				return true;
+			}
+			if (!buffer.hasRemaining()) {
+				complete(0);
+				return true;
+			}
+			int count = device.readAvailable(buffer);
+			if (count > 0) {
+				complete(count);
+				return true;
+			}
+			return false;
+		}
+	}
+
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright 2026 Stephen Davies
+ * 
+ * This file is part of yad2xx.
+ * 
+ * yad2xx is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * yad2xx is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with yad2xx.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.yad2xx;
+
+/**
+ * The eight data pins in asynchronous or synchronous bit-bang mode. Each state
+ * is one byte of data, and the pin directions are set with FT_SetBitMode.
+ * 
+ * In synchronous mode the device samples the pins as each byte is clocked
+ * out, and the samples collect in the receive queue. They are left there for
+ * the caller to read or purge.
+ *
+ * @since October 19, 2026
+ * @since 0.3
+ * @author Stephen Davies
+ */
+public class BitBangPort extends GpioPort {
+
+	private final FTDIBitMode mode;
+
+	/**
+	 * Put the device into bit-bang mode and drive the initial state.
+	 * 
+	 * @param device open device
+	 * @param synchronous true for FT_BITMODE_SYNC_BITBANG, false for
+	 *    FT_BITMODE_ASYNC_BITBANG
+	 * @param direction pin direction mask, 1 for output
+	 * @param output initial output levels
+	 * @throws FTDIException
+	 */
+	public BitBangPort(Device device, boolean synchronous, int direction, int output) throws FTDIException {
+		super(device, 0xff, 1, false);
+		this.mode = synchronous ? FTDIBitMode.FT_BITMODE_SYNC_BITBANG : FTDIBitMode.FT_BITMODE_ASYNC_BITBANG;
+		init(direction, output);
+	}
+
+	@Override
+	protected void directionChanged(int direction) throws FTDIException {
+		device.setBitMode((byte) direction, mode);
+	}
+
+	@Override
+	protected void encode(byte[] buffer, int offset, int output, int direction) {
+		buffer[offset] = (byte) output;
+	}
+
+	@Override
+	protected int readPins() throws FTDIException {
+		return device.readPins();
+	}
+
+}
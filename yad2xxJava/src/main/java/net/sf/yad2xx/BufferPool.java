@@ -0,0 +1,205 @@
+/*
+ * Copyright 2026 Stephen Davies
+ * 
+ * This file is part of yad2xx.
+ * 
+ * yad2xx is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * yad2xx is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with yad2xx.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.yad2xx;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A pool of equally sized transfer buffers, so that a streaming loop can read
+ * and write without creating garbage once the pool is warm. Buffers are
+ * normally sized to the device's USB transfer size, see
+ * {@link Device#getBufferPool()}.
+ * 
+ * acquire returns a cleared buffer, allocating a new one only when the pool is
+ * empty. release returns it; buffers beyond the pool's capacity are left to
+ * the garbage collector.
+ * 
+ * In debug mode, enabled per pool or for all pools with the system property
+ * yad2xx.bufferPool.debug=true, the pool records where each buffer was
+ * acquired. A buffer that becomes unreachable without being released is
+ * reported on System.err with that stack trace, and releasing a buffer that
+ * was not acquired from the pool throws IllegalStateException. Debug mode
+ * creates garbage of its own and is meant for testing. Releasing a buffer
+ * that is already idle in the pool throws IllegalStateException in either
+ * mode.
+ *
+ * @since October 19, 2026
+ * @since 0.3
+ * @author Stephen Davies
+ */
+public class BufferPool {
+
+	/**
+	 * System property that enables debug mode for pools created without an
+	 * explicit setting.
+	 */
+	public static final String DEBUG_PROPERTY = "yad2xx.bufferPool.debug";
+
+	private final int bufferSize;
+	private final boolean direct;
+	private final boolean debug;
+	private final ByteBuffer[] free;
+	private int available;
+	private int leaks;
+
+	private final ReferenceQueue<ByteBuffer> collected = new ReferenceQueue<ByteBuffer>();
+	private final List<Tracker> outstanding = new ArrayList<Tracker>();
+
+	/**
+	 * @param bufferSize capacity of each buffer
+	 * @param capacity maximum number of idle buffers kept
+	 * @param direct true for direct buffers, which the native layer fills
+	 *    without an intermediate copy
+	 */
+	public BufferPool(int bufferSize, int capacity, boolean direct) {
+		this(bufferSize, capacity, direct, Boolean.getBoolean(DEBUG_PROPERTY));
+	}
+
+	/**
+	 * @param bufferSize capacity of each buffer
+	 * @param capacity maximum number of idle buffers kept
+	 * @param direct true for direct buffers
+	 * @param debug true to track acquired buffers and report leaks
+	 */
+	public BufferPool(int bufferSize, int capacity, boolean direct, boolean debug) {
+		if (bufferSize < 1)
+			throw new IllegalArgumentException("Buffer size must be positive");
+		if (capacity < 0)
+			throw new IllegalArgumentException("Capacity must not be negative");
+		this.bufferSize = bufferSize;
+		this.direct = direct;
+		this.debug = debug;
+		this.free = new ByteBuffer[capacity];
+	}
+
+	/**
+	 * Take a cleared buffer from the pool, allocating one if none is idle.
+	 */
+	public synchronized ByteBuffer acquire() {
+		ByteBuffer buffer;
+		if (available > 0) {
+			buffer = free[--available];
+			free[available] = null;
+			buffer.clear();
+		} else {
+			buffer = direct ? ByteBuffer.allocateDirect(bufferSize) : ByteBuffer.allocate(bufferSize);
+		}
+		if (debug) {
+			reportLeaks();
+			outstanding.add(new Tracker(buffer, collected));
+		}
+		return buffer;
+	}
+
+	/**
+	 * Return a buffer obtained from acquire. The caller must not use it
+	 * afterwards.
+	 * 
+	 * @throws IllegalArgumentException if the buffer's size or kind does not
+	 *    match this pool
+	 * @throws IllegalStateException if the buffer is already idle in this
+	 *    pool or, in debug mode, is not currently acquired from it
+	 */
+	public synchronized void release(ByteBuffer buffer) {
+		if (buffer.capacity() != bufferSize || buffer.isDirect() != direct)
+			throw new IllegalArgumentException("Buffer does not belong to this pool");
+		for (int i = 0; i < available; i++) {
+			if (free[i] == buffer)
+				throw new IllegalStateException("Buffer released twice");
+		}
+		if (debug) {
+			untrack(buffer);
+		}
+		if (available < free.length) {
+			free[available++] = buffer;
+		}
+	}
+
+	/**
+	 * @return capacity of each buffer
+	 */
+	public int getBufferSize() {
+		return bufferSize;
+	}
+
+	/**
+	 * @return number of idle buffers held by the pool
+	 */
+	public synchronized int getAvailable() {
+		return available;
+	}
+
+	/**
+	 * @return number of buffers found to have been dropped without release.
+	 *    Always zero unless in debug mode.
+	 */
+	public synchronized int getLeakCount() {
+		if (debug) {
+			reportLeaks();
+		}
+		return leaks;
+	}
+
+	/**
+	 * @return true if the pool hands out direct buffers
+	 */
+	public boolean isDirect() {
+		return direct;
+	}
+
+	private void untrack(ByteBuffer buffer) {
+		for (int i = outstanding.size() - 1; i >= 0; i--) {
+			Tracker tracker = outstanding.get(i);
+			if (tracker.get() == buffer) {
+				outstanding.remove(i);
+				tracker.clear();
+				return;
+			}
+		}
+		throw new IllegalStateException("Buffer released twice or not acquired from this pool");
+	}
+
+	private void reportLeaks() {
+		Tracker tracker;
+		while ((tracker = (Tracker) collected.poll()) != null) {
+			if (outstanding.remove(tracker)) {
+				leaks++;
+				System.err.println("BufferPool: buffer of " + bufferSize + " bytes was not released");
+				tracker.acquiredAt.printStackTrace();
+			}
+		}
+	}
+
+	/**
+	 * Remembers where an acquired buffer came from.
+	 */
+	private static class Tracker extends WeakReference<ByteBuffer> {
+
+		final Throwable acquiredAt = new Throwable("Buffer acquired here");
+
+		Tracker(ByteBuffer buffer, ReferenceQueue<ByteBuffer> queue) {
+			super(buffer, queue);
+		}
+	}
+
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2026 Stephen Davies
+ * 
+ * This file is part of yad2xx.
+ * 
+ * yad2xx is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * yad2xx is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with yad2xx.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.yad2xx;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Finds a byte value in an array eight bytes at a time. Each long read from
+ * the array is tested for the value with the usual SWAR "has zero byte"
+ * expression, and the byte-by-byte loop only handles the tail.
+ *
+ * The array is accessed through a little-endian ByteBuffer view, which the JIT
+ * compiles to plain 64-bit loads. The view is kept while the same array is
+ * scanned, so callers reusing a read buffer cause no allocation.
+ *
+ * @since October 19, 2026
+ * @since 0.3
+ * @author Stephen Davies
+ */
+final class ByteScanner {
+
+	private static final long ONES = 0x0101010101010101L;
+	private static final long HIGHS = 0x8080808080808080L;
+
+	private byte[] array;
+	private ByteBuffer view;
+
+	/**
+	 * Returns the index of the first occurrence of value in
+	 * array[from..to), or -1 if there is none.
+	 */
+	int indexOf(byte[] array, int from, int to, byte value) {
+		int i = from;
+		if (to - from >= 8) {
+			ByteBuffer words = view(array);
+			long pattern = (value & 0xFFL) * ONES;
+			for (; i <= to - 8; i += 8) {
+				long word = words.getLong(i) ^ pattern;
+				long found = (word - ONES) & ~word & HIGHS;
+				if (found != 0) {
+					return i + (Long.numberOfTrailingZeros(found) >>> 3);
+				}
+			}
+		}
+		for (; i < to; i++) {
+			if (array[i] == value)
+				return i;
+		}
+		return -1;
+	}
+
+	/**
+	 * Returns the index of the first occurrence of either value in
+	 * array[from..to), or -1 if there is none.
+	 */
+	int indexOfEither(byte[] array, int from, int to, byte value1, byte value2) {
+		int i = from;
+		if (to - from >= 8) {
+			ByteBuffer words = view(array);
+			long pattern1 = (value1 & 0xFFL) * ONES;
+			long pattern2 = (value2 & 0xFFL) * ONES;
+			for (; i <= to - 8; i += 8) {
+				long word = words.getLong(i);
+				long word1 = word ^ pattern1;
+				long word2 = word ^ pattern2;
+				long found = ((word1 - ONES) & ~word1 | (word2 - ONES) & ~word2) & HIGHS;
+				if (found != 0) {
+					return i + (Long.numberOfTrailingZeros(found) >>> 3);
+				}
+			}
+		}
+		for (; i < to; i++) {
+			if (array[i] == value1 || array[i] == value2)
+				return i;
+		}
+		return -1;
+	}
+
+	private ByteBuffer view(byte[] array) {
+		if (array != this.array) {
+			this.array = array;
+			this.view = ByteBuffer.wrap(array).order(ByteOrder.LITTLE_ENDIAN);
+		}
+		return view;
+	}
+
+}
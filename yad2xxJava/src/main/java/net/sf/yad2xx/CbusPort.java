@@ -0,0 +1,63 @@
+/*
+ * Copyright 2026 Stephen Davies
+ * 
+ * This file is part of yad2xx.
+ * 
+ * yad2xx is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * yad2xx is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with yad2xx.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.yad2xx;
+
+/**
+ * The four CBUS pins in FT_BITMODE_CBUS_BITBANG. The pins must be configured
+ * as I/O in the device EEPROM.
+ * 
+ * CBUS levels and directions are set together by FT_SetBitMode, a control
+ * request rather than data, so a batch cannot replay intermediate states:
+ * flush sends only the final state, in a single request.
+ *
+ * @since October 19, 2026
+ * @since 0.3
+ * @author Stephen Davies
+ */
+public class CbusPort extends GpioPort {
+
+	/**
+	 * Enable CBUS bit-bang mode and drive the initial state.
+	 * 
+	 * @param device open device
+	 * @param direction pin direction mask, bits 0 to 3, 1 for output
+	 * @param output initial output levels, bits 0 to 3
+	 * @throws FTDIException
+	 */
+	public CbusPort(Device device, int direction, int output) throws FTDIException {
+		super(device, 0x0f, 1, true);
+		init(direction, output);
+	}
+
+	@Override
+	protected void encode(byte[] buffer, int offset, int output, int direction) {
+		buffer[offset] = (byte) (direction << 4 | output);
+	}
+
+	@Override
+	protected void transfer(byte[] buffer, int length) throws FTDIException {
+		device.setBitMode(buffer[length - 1], FTDIBitMode.FT_BITMODE_CBUS_BITBANG);
+	}
+
+	@Override
+	protected int readPins() throws FTDIException {
+		return device.readPins() & 0x0f;
+	}
+
+}
@@ -0,0 +1,43 @@
+/*
+ * Copyright 2026 Stephen Davies
+ * 
+ * This file is part of yad2xx.
+ * 
+ * yad2xx is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * yad2xx is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with yad2xx.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.yad2xx;
+
+/**
+ * Work run repeatedly on one channel of an {@link FTDIChip}, on that
+ * channel's own thread.
+ *
+ * @since October 19, 2026
+ * @since 0.3
+ * @author Stephen Davies
+ */
+public interface ChannelTask {
+
+	/**
+	 * Perform one unit of work on the channel, for example a read with a
+	 * timeout and the handling of what arrived. When idle, a step should
+	 * block briefly, on a device timeout or a short sleep, rather than return
+	 * at once, or the channel's thread will spin.
+	 * 
+	 * @param channel open device for this channel
+	 * @return false to stop the channel, true to be called again
+	 * @throws Exception stops the channel; kept for {@link FTDIChip#getError(int)}
+	 */
+	boolean step(Device channel) throws Exception;
+
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright 2026 Stephen Davies
+ * 
+ * This file is part of yad2xx.
+ * 
+ * yad2xx is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * yad2xx is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with yad2xx.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.yad2xx;
+
+/**
+ * Throughput of the channels of an {@link FTDIChip} over one sampling
+ * interval, and how much of the chip's shared USB link it used. All channels
+ * of a chip share a single USB connection, so a channel that cannot reach
+ * its expected rate while the link is near capacity is being limited by its
+ * neighbours rather than by its own line.
+ *
+ * @since October 19, 2026
+ * @since 0.3
+ * @author Stephen Davies
+ */
+public final class ChipStatistics {
+
+	/**
+	 * Share of the link rate above which the link is considered saturated.
+	 */
+	public static final double SATURATION = 0.9;
+
+	private final long intervalNanos;
+	private final long[] bytesRead;
+	private final long[] bytesWritten;
+	private final long linkRate;
+
+	/**
+	 * @param intervalNanos length of the interval
+	 * @param bytesRead bytes read by each channel during the interval
+	 * @param bytesWritten bytes written by each channel during the interval
+	 * @param linkRate usable bytes per second of the USB link
+	 */
+	ChipStatistics(long intervalNanos, long[] bytesRead, long[] bytesWritten, long linkRate) {
+		this.intervalNanos = intervalNanos;
+		this.bytesRead = bytesRead;
+		this.bytesWritten = bytesWritten;
+		this.linkRate = linkRate;
+	}
+
+	/**
+	 * @return length of the sampling interval in nanoseconds
+	 */
+	public long getIntervalNanos() {
+		return intervalNanos;
+	}
+
+	/**
+	 * @return bytes per second read by a channel, 0 for A
+	 */
+	public double getReadRate(int channel) {
+		return rate(bytesRead[channel]);
+	}
+
+	/**
+	 * @return bytes per second written by a channel, 0 for A
+	 */
+	public double getWriteRate(int channel) {
+		return rate(bytesWritten[channel]);
+	}
+
+	/**
+	 * @return bytes per second moved by all channels in both directions
+	 */
+	public double getTotalRate() {
+		long total = 0;
+		for (int i = 0; i < bytesRead.length; i++) {
+			total += bytesRead[i] + bytesWritten[i];
+		}
+		return rate(total);
+	}
+
+	/**
+	 * @return usable bytes per second of the chip's USB link
+	 */
+	public long getLinkRate() {
+		return linkRate;
+	}
+
+	/**
+	 * @return fraction of the link rate used, may exceed 1 where the estimate
+	 *    of the link rate is conservative
+	 */
+	public double getUtilization() {
+		return getTotalRate() / linkRate;
+	}
+
+	/**
+	 * @return true if the channels together are using at least
+	 *    {@link #SATURATION} of the link
+	 */
+	public boolean isSaturated() {
+		return getUtilization() >= SATURATION;
+	}
+
+	private double rate(long bytes) {
+		return intervalNanos <= 0 ? 0 : bytes * 1e9 / intervalNanos;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder result = new StringBuilder("ChipStatistics(");
+		for (int i = 0; i < bytesRead.length; i++) {
+			result.append((char) ('A' + i));
+			result.append(": rx ");
+			result.append(Math.round(getReadRate(i)));
+			result.append(" B/s, tx ");
+			result.append(Math.round(getWriteRate(i)));
+			result.append(" B/s, ");
+		}
+		result.append("link ");
+		result.append(Math.round(getUtilization() * 100));
+		result.append("%");
+		if (isSaturated()) {
+			result.append(" saturated");
+		}
+		result.append(")");
+		return result.toString();
+	}
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright 2026 Stephen Davies
+ * 
+ * This file is part of yad2xx.
+ * 
+ * yad2xx is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * yad2xx is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with yad2xx.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.yad2xx;
+
+/**
+ * Consistent Overhead Byte Stuffing framing. Each encoded frame contains no
+ * zero bytes and is terminated by one. Frames are collected in the frame buffer
+ * and decoded in place there.
+ *
+ * @since October 19, 2026
+ * @since 0.3
+ * @author Stephen Davies
+ */
+public class CobsFrameDecoder extends FrameDecoder {
+
+	private final byte[] frame;
+	private int length;
+	private boolean overflow;
+
+	/**
+	 * @param maxFrameLength longest decoded frame accepted
+	 */
+	public CobsFrameDecoder(int maxFrameLength) {
+		super(maxFrameLength);
+		// encoding adds one byte per 254, plus the leading code byte
+		this.frame = new byte[maxFrameLength + maxFrameLength / 254 + 1];
+	}
+
+	@Override
+	public void decode(byte[] data, int offset, int count, FrameListener listener) {
+		int end = offset + count;
+		int start = offset;
+
+		while (start < end) {
+			int index = scanner.indexOf(data, start, end, (byte) 0);
+			int segmentEnd = index < 0 ? end : index;
+
+			if (!overflow) {
+				if (length + segmentEnd - start > frame.length) {
+					overflow = true;
+				} else {
+					System.arraycopy(data, start, frame, length, segmentEnd - start);
+					length += segmentEnd - start;
+				}
+			}
+
+			if (index < 0)
+				return;
+
+			if (overflow) {
+				drop();
+			} else if (length > 0) {
+				int decoded = decodeInPlace();
+				if (decoded < 0) {
+					drop();
+				} else {
+					emit(frame, 0, decoded, listener);
+				}
+			}
+			reset();
+			start = index + 1;
+		}
+	}
+
+	@Override
+	public void reset() {
+		length = 0;
+		overflow = false;
+	}
+
+	/**
+	 * Decode the frame buffer in place. Output never overtakes input, as each
+	 * code byte is replaced by at most one zero.
+	 *
+	 * @return decoded length, or -1 if the encoding is invalid
+	 */
+	private int decodeInPlace() {
+		int read = 0;
+		int write = 0;
+		while (read < length) {
+			int code = frame[read++] & 0xFF;
+			if (code == 0 || read + code - 1 > length) {
+				return -1;
+			}
+			for (int i = 1; i < code; i++) {
+				frame[write++] = frame[read++];
+			}
+			if (code < 0xFF && read < length) {
+				frame[write++] = 0;
+			}
+		}
+		return write;
+	}
+
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright 2026 Stephen Davies
+ * 
+ * This file is part of yad2xx.
+ * 
+ * yad2xx is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * yad2xx is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with yad2xx.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.yad2xx;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Receives the data stream of a {@link DevicePublisher}. The signals follow
+ * the Reactive Streams rules, as used by java.util.concurrent.Flow, with the
+ * addition of {@link #onOverrun()}. Signals are delivered serially from the
+ * publisher's thread.
+ *
+ * @since October 19, 2026
+ * @since 0.3
+ * @author Stephen Davies
+ */
+public interface DataSubscriber {
+
+	/**
+	 * Called once, before any other signal. No data is sent until the
+	 * subscriber calls {@link DataSubscription#request(long)}.
+	 */
+	void onSubscribe(DataSubscription subscription);
+
+	/**
+	 * Called with the next chunk of received data, at most once per unit of
+	 * demand. The buffer is ready for reading and is owned by the subscriber.
+	 */
+	void onNext(ByteBuffer chunk);
+
+	/**
+	 * Called when the device reports a receive overrun, meaning data was lost
+	 * before it could be read. The stream continues.
+	 */
+	void onOverrun();
+
+	/**
+	 * Called when reading fails. No further signals are sent.
+	 */
+	void onError(Throwable throwable);
+
+	/**
+	 * Called when the device is closed. No further signals are sent.
+	 */
+	void onComplete();
+
+}
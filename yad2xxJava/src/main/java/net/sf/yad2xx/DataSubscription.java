@@ -0,0 +1,42 @@
+/*
+ * Copyright 2026 Stephen Davies
+ * 
+ * This file is part of yad2xx.
+ * 
+ * yad2xx is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * yad2xx is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with yad2xx.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.yad2xx;
+
+/**
+ * Link between a {@link DevicePublisher} and its {@link DataSubscriber}.
+ *
+ * @since October 19, 2026
+ * @since 0.3
+ * @author Stephen Davies
+ */
+public interface DataSubscription {
+
+	/**
+	 * Add n to the number of chunks the subscriber is prepared to receive.
+	 * Long.MAX_VALUE means unbounded. A non-positive n is a protocol error and
+	 * ends the subscription with onError.
+	 */
+	void request(long n);
+
+	/**
+	 * Stop sending data. Signals already in progress may still arrive.
+	 */
+	void cancel();
+
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2026 Stephen Davies
+ * 
+ * This file is part of yad2xx.
+ * 
+ * yad2xx is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * yad2xx is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with yad2xx.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.yad2xx;
+
+/**
+ * Frames separated by a single delimiter byte, for example LF or NUL. The
+ * delimiter is not included in the delivered frame.
+ *
+ * @since October 19, 2026
+ * @since 0.3
+ * @author Stephen Davies
+ */
+public class DelimitedFrameDecoder extends FrameDecoder {
+
+	private final byte delimiter;
+	private final byte[] frame;
+	private int length;
+	private boolean overflow;
+
+	/**
+	 * @param delimiter byte ending each frame
+	 * @param maxFrameLength longest frame accepted, excluding the delimiter
+	 */
+	public DelimitedFrameDecoder(byte delimiter, int maxFrameLength) {
+		super(maxFrameLength);
+		this.delimiter = delimiter;
+		this.frame = new byte[maxFrameLength];
+	}
+
+	@Override
+	public void decode(byte[] data, int offset, int count, FrameListener listener) {
+		int end = offset + count;
+		int start = offset;
+
+		while (start < end) {
+			int index = scanner.indexOf(data, start, end, delimiter);
+			if (index < 0) {
+				append(data, start, end - start);
+				return;
+			}
+
+			if (length == 0 && !overflow) {
+				// whole frame in this chunk, deliver in place
+				emit(data, start, index - start, listener);
+			} else {
+				append(data, start, index - start);
+				if (overflow) {
+					drop();
+				} else {
+					emit(frame, 0, length, listener);
+				}
+				length = 0;
+				overflow = false;
+			}
+			start = index + 1;
+		}
+	}
+
+	@Override
+	public void reset() {
+		length = 0;
+		overflow = false;
+	}
+
+	private void append(byte[] data, int offset, int count) {
+		if (overflow) {
+			return;
+		}
+		if (length + count > frame.length) {
+			overflow = true;
+			return;
+		}
+		System.arraycopy(data, offset, frame, length, count);
+		length += count;
+	}
+
+}
@@ -21,24 +21,107 @@ package net.sf.yad2xx;
 import static net.sf.yad2xx.FTDIConstants.FT_FLAGS_HISPEED;
 import static net.sf.yad2xx.FTDIConstants.FT_FLAGS_OPENED;
 
+import java.nio.ByteBuffer;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
 /**
  * Client proxy for an FTDI USB device. Data values here are sourced from
  * FT_GetDeviceInfoList. Most important is the ftHandle.
+ * 
+ * Device is safe for use by multiple threads, and is full duplex: one thread
+ * may block in a read while another writes and a third polls status.
+ * Operations fall into four groups, each with its own rules.
+ * <ul>
+ * <li>Receive: read, readAvailable, readFully, readUntil and
+ *     readTimestamped. These are serialized with each other, so concurrent
+ *     reads never interleave their data.</li>
+ * <li>Transmit: write. Serialized with each other, independent of
+ *     receive.</li>
+ * <li>Control: setters, EEPROM access, purge, reset and other
+ *     configuration. Serialized with each other, independent of receive and
+ *     transmit.</li>
+ * <li>Status: getStatus, getQueueStatus and getModemStatus. Never wait for
+ *     the other groups, nor for an open or close that is waiting on them;
+ *     they wait only while the handle itself is being opened or closed.</li>
+ * </ul>
+ * execute runs a transaction that both sends and receives, so it holds the
+ * receive, transmit and control paths together, taken in that order.
+ * 
+ * Every operation holds off open and close for its duration, so the handle
+ * cannot be freed under a call in progress. close therefore waits for a
+ * blocked read to return; with a read timeout of zero (infinite) that may
+ * never happen, so set a finite timeout on devices that are closed from
+ * another thread.
  *
  * @since May 24, 2012
  * @author Stephen Davies
  */
 public class Device {
 
+	private static final ModemStatusListener[] NO_LISTENERS = new ModemStatusListener[0];
+
+	/**
+	 * USB IN transfer size used by the driver until setUSBParameters is called.
+	 */
+	public static final int DEFAULT_TRANSFER_SIZE = 4096;
+
+	/**
+	 * Idle buffers kept by the pool from {@link #getBufferPool()}.
+	 */
+	private static final int POOL_CAPACITY = 8;
+
 	private FTDIInterface iFace;
 	private int index;
-	private int flags;
+	private volatile int flags;
 	private int type;
 	private int id;
 	private int locationId;
 	private String serialNumber;
 	private String description;
 	private long ftHandle;
+	private final ReadWriteLock lifecycle = new ReentrantReadWriteLock();
+	
+	/**
+	 * Held off by status calls, taken for writing by open and close only once
+	 * they hold lifecycle, so status never queues behind a pending close.
+	 */
+	private final ReadWriteLock statusGate = new ReentrantReadWriteLock();
+	private final Lock rxLock = new ReentrantLock();
+	private final Lock txLock = new ReentrantLock();
+	private final Lock controlLock = new ReentrantLock();
+	private volatile ModemStatusListener[] modemListeners = NO_LISTENERS;
+	private int inTransferSize = DEFAULT_TRANSFER_SIZE;
+	private BufferPool bufferPool;
+	
+	/**
+	 * Settings known to be in effect on the device. Written under controlLock,
+	 * read without locking by the getters that serve from memory.
+	 */
+	private volatile DeviceConfig applied = DeviceConfig.EMPTY;
+	
+	/**
+	 * Driver version of the current session, null until first asked.
+	 */
+	private volatile String driverVersion;
+	
+	/**
+	 * Optional capture of this device's traffic, null when not recording.
+	 */
+	private volatile TrafficRecorder recorder;
+	
+	/**
+	 * Totals since the Device was created, written under rxLock and txLock.
+	 */
+	private volatile long bytesRead;
+	private volatile long bytesWritten;
+	
+	/**
+	 * Last status sampled by the ModemStatusMonitor, -1 if unknown.
+	 */
+	int lastModemStatus = -1;
 	
 	public Device(FTDIInterface iFace, int index, int flags, int type, int id, int locationId, String serialNumber, String description, long ftHandle) {
 		this.iFace = iFace;
@@ -52,6 +135,84 @@ public class Device {
 		this.ftHandle = ftHandle;
 	}
 	
+	/**
+	 * Register a listener to be told of modem and line status changes. Devices
+	 * with listeners are polled by the shared {@link ModemStatusMonitor} while
+	 * open. A RuntimeException thrown by the listener is passed to the polling
+	 * thread's uncaught exception handler, and delivery continues.
+	 *
+	 * @param listener
+	 * @since 0.3
+	 */
+	public void addModemStatusListener(ModemStatusListener listener) {
+		synchronized (this) {
+			ModemStatusListener[] updated = new ModemStatusListener[modemListeners.length + 1];
+			System.arraycopy(modemListeners, 0, updated, 0, modemListeners.length);
+			updated[modemListeners.length] = listener;
+			modemListeners = updated;
+		}
+		ModemStatusMonitor.register(this);
+	}
+
+	/**
+	 * Apply the settings specified by config in a single native call. Groups
+	 * already in effect, as recorded from earlier calls to apply and the
+	 * individual setters, are skipped, so reapplying a config or switching
+	 * between similar ones sends only the differences. Groups the config does
+	 * not specify are left alone.
+	 * 
+	 * If a setting fails the device's state is uncertain, so everything
+	 * recorded is forgotten and the next apply sends every group.
+	 * 
+	 * @param config settings to apply
+	 * @throws FTDIException naming the FT_ function that failed
+	 * @since 0.3
+	 */
+	public void apply(DeviceConfig config) throws FTDIException {
+		enter(controlLock);
+		try {
+			int changed = config.changesFrom(applied);
+			if (changed == 0)
+				return;
+			
+			DeviceConfig previous = applied;
+			applied = DeviceConfig.EMPTY;
+			iFace.applyConfig(ftHandle, changed, config.getBaudRate(),
+					config.getWordLength(), config.getStopBits(), config.getParity(),
+					config.getFlowControl(), config.getXOn(), config.getXOff(),
+					config.getReadTimeout(), config.getWriteTimeout(), (byte) config.getLatencyTimer(),
+					config.getInTransferSize(), config.getOutTransferSize(),
+					config.getPinDirection(), config.isSpecified(DeviceConfig.BIT_MODE) ? config.getBitMode().getMode() : 0);
+			applied = previous.merge(config, changed);
+			recordConfig(config, changed);
+			if ((changed & DeviceConfig.USB_PARAMETERS) != 0) {
+				transferSizeChanged(config.getInTransferSize());
+			}
+		} finally {
+			exit(controlLock);
+		}
+	}
+
+	/**
+	 * Advance the positions of a scatter/gather list by count bytes in total,
+	 * filling or draining each buffer before moving to the next.
+	 */
+	private static void advance(ByteBuffer[] buffers, int count) {
+		for (int i = 0; i < buffers.length && count > 0; i++) {
+			int step = Math.min(count, buffers[i].remaining());
+			buffers[i].position(buffers[i].position() + step);
+			count -= step;
+		}
+	}
+
+	/**
+	 * Validate an array region before handing it to native code.
+	 */
+	private static void checkBounds(byte[] buffer, int offset, int length) {
+		if (offset < 0 || length < 0 || length > buffer.length - offset)
+			throw new IndexOutOfBoundsException();
+	}
+
 	/**
 	 * Close the opened device.
 	 * 
@@ -59,7 +220,145 @@ public class Device {
 	 * @since 0.1
 	 */
 	public void close() throws FTDIException {
-		iFace.close(this);
+		lifecycle.writeLock().lock();
+		statusGate.writeLock().lock();
+		try {
+			iFace.close(this);
+			applied = DeviceConfig.EMPTY;
+			driverVersion = null;
+		} finally {
+			statusGate.writeLock().unlock();
+			lifecycle.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Run a transaction. All steps execute in native code, with no JNI
+	 * crossings or garbage collection between them.
+	 * 
+	 * @param transaction steps to run
+	 * @param response destination for the bytes read by expect steps. Must
+	 *    have room for {@link Transaction#getResponseCapacity()} bytes.
+	 * @param offset first byte of response to fill
+	 * The steps of the final attempt are counted and recorded in program
+	 * order; earlier attempts that were retried are not.
+	 * 
+	 * @return number of response bytes collected. If the final attempt timed
+	 *    out the result is negative, and its complement (~result) is the number
+	 *    of bytes that attempt collected.
+	 * @throws FTDIException
+	 * @since 0.3
+	 */
+	public int execute(Transaction transaction, byte[] response, int offset) throws FTDIException {
+		checkBounds(response, offset, transaction.getResponseCapacity());
+		enter(rxLock);
+		txLock.lock();
+		controlLock.lock();
+		try {
+			byte[] program = transaction.getProgram();
+			int count = iFace.execute(ftHandle, program, transaction.getAttempts(),
+					transaction.getTimeout(), response, offset);
+			executed(program, response, offset, count < 0 ? ~count : count);
+			return count;
+		} finally {
+			controlLock.unlock();
+			txLock.unlock();
+			exit(rxLock);
+		}
+	}
+
+	/**
+	 * Count and record the steps of a transaction program, with the collected
+	 * response bytes split among its expect steps. Called with all three paths
+	 * held.
+	 */
+	private void executed(byte[] program, byte[] response, int offset, int collected) {
+		int end = offset + collected;
+		int pc = 0;
+		while (pc < program.length) {
+			int length;
+			switch (program[pc++]) {
+			case Transaction.OP_WRITE:
+				length = Transaction.getInt(program, pc);
+				pc += 4;
+				transferred(TrafficRecorder.WRITE, program, pc, length);
+				pc += length;
+				break;
+			case Transaction.OP_EXPECT:
+				length = Math.min(Transaction.getInt(program, pc), end - offset);
+				pc += 4;
+				transferred(TrafficRecorder.READ, response, offset, length);
+				offset += length;
+				break;
+			case Transaction.OP_EXPECT_DELIMITER:
+				byte delimiter = program[pc++];
+				int limit = offset + Math.min(Transaction.getInt(program, pc), end - offset);
+				pc += 4;
+				length = 0;
+				while (offset + length < limit && response[offset + length++] != delimiter) {
+					// scan to the delimiter
+				}
+				transferred(TrafficRecorder.READ, response, offset, length);
+				offset += length;
+				break;
+			case Transaction.OP_DELAY:
+				pc += 4;
+				break;
+			case Transaction.OP_PURGE:
+				recordControl(TrafficRecorder.PURGE, program[pc++]);
+				break;
+			case Transaction.OP_RTS:
+				recordControl(TrafficRecorder.RTS, program[pc++]);
+				break;
+			case Transaction.OP_DTR:
+				recordControl(TrafficRecorder.DTR, program[pc++]);
+				break;
+			default:
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Describe a scatter/gather list for native code. Heap buffers are passed as
+	 * their backing array, direct buffers as themselves. A read-only heap
+	 * buffer in a gather list is passed as a copy of its remaining bytes; in
+	 * a scatter list it fails with ReadOnlyBufferException.
+	 */
+	private static void describe(ByteBuffer[] buffers, boolean gather, Object[] targets, int[] offsets, int[] lengths) {
+		for (int i = 0; i < buffers.length; i++) {
+			ByteBuffer buffer = buffers[i];
+			if (buffer.isDirect()) {
+				targets[i] = buffer;
+				offsets[i] = buffer.position();
+			} else if (buffer.hasArray() || !gather) {
+				targets[i] = buffer.array();
+				offsets[i] = buffer.arrayOffset() + buffer.position();
+			} else {
+				// read-only heap buffer, its array is not accessible
+				byte[] copy = new byte[buffer.remaining()];
+				buffer.duplicate().get(copy);
+				targets[i] = copy;
+				offsets[i] = 0;
+			}
+			lengths[i] = buffer.remaining();
+		}
+	}
+
+	/**
+	 * Start an operation on one path. Holds off open and close until exit.
+	 */
+	private void enter(Lock path) {
+		lifecycle.readLock().lock();
+		path.lock();
+	}
+
+	/**
+	 * Finish an operation started with enter.
+	 */
+	private void exit(Lock path) {
+		path.unlock();
+		lifecycle.readLock().unlock();
 	}
 
 	/**
@@ -69,19 +368,67 @@ public class Device {
 	 * @since 0.2
 	 */
 	public void eraseEE() throws FTDIException {
-		iFace.eraseEE(ftHandle);
-		return;
+		enter(controlLock);
+		try {
+			iFace.eraseEE(ftHandle);
+		} finally {
+			exit(controlLock);
+		}
 	}
 	
 	/**
-	 * Gets the instantaneous value of the databus.
+	 * Deliver a status change to each listener. Called by the ModemStatusMonitor.
+	 * An exception thrown by a listener goes to the thread's uncaught exception
+	 * handler, so it neither stops the other listeners nor the poller.
+	 */
+	void fireModemStatusChanged(int rising, int falling, int status) {
+		ModemStatusListener[] listeners = modemListeners;
+		for (int i = 0; i < listeners.length; i++) {
+			try {
+				listeners[i].modemStatusChanged(this, rising, falling, status);
+			} catch (RuntimeException e) {
+				Thread thread = Thread.currentThread();
+				thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+			}
+		}
+	}
+
+	/**
+	 * Gets the instantaneous value of the databus. Always reads the hardware,
+	 * since input pins change by themselves; the mode set by setBitMode is
+	 * available without a driver call from {@link #getConfig()}.
 	 *
 	 * @return
 	 * @throws FTDIException
 	 * @since 0.2
 	 */
 	public FTDIBitMode getBitMode() throws FTDIException {
-		return FTDIBitMode.lookup(iFace.getBitMode(ftHandle));
+		enter(controlLock);
+		try {
+			return FTDIBitMode.lookup(iFace.getBitMode(ftHandle));
+		} finally {
+			exit(controlLock);
+		}
+	}
+
+	/**
+	 * Total bytes received through this Device's read methods, including
+	 * transaction responses, over all sessions.
+	 * 
+	 * @since 0.3
+	 */
+	public long getBytesRead() {
+		return bytesRead;
+	}
+
+	/**
+	 * Total bytes sent through this Device's write methods over all
+	 * sessions. Bytes sent by transactions are not included.
+	 * 
+	 * @since 0.3
+	 */
+	public long getBytesWritten() {
+		return bytesWritten;
 	}
 
 	/**
@@ -93,16 +440,102 @@ public class Device {
 		return description;
 	}
 	
+	/**
+	 * Returns a pool of direct buffers sized to this device's USB IN transfer
+	 * size, for reading and writing without per-transfer garbage. A call to
+	 * setUSBParameters that changes the size replaces the pool; buffers from the
+	 * old pool must be released to that pool.
+	 * 
+	 * @since 0.3
+	 */
+	public synchronized BufferPool getBufferPool() {
+		if (bufferPool == null) {
+			bufferPool = new BufferPool(inTransferSize, POOL_CAPACITY, true);
+		}
+		return bufferPool;
+	}
+
+	/**
+	 * The settings known to be in effect, from calls to apply and the
+	 * individual setters since the device was opened. Groups that were never
+	 * set, or whose last setting failed, are unspecified. No driver call is
+	 * made.
+	 * 
+	 * @since 0.3
+	 */
+	public DeviceConfig getConfig() {
+		return applied;
+	}
+
 	/**
 	 * Returns the D2XX driver version as Major.minor.build. NB. Device has to be opened
-	 * before calling this function.
+	 * before calling this function. The version is read once per session.
 	 *
 	 * @return driver version string
 	 * @throws FTDIException
 	 * @since 0.3
 	 */
 	public String getDriverVersion() throws FTDIException {
-		return FTDIInterface.formatVersion(iFace.getDriverVersionRaw(ftHandle));
+		String version = driverVersion;
+		if (version != null)
+			return version;
+		enter(controlLock);
+		try {
+			version = FTDIInterface.formatVersion(iFace.getDriverVersionRaw(ftHandle));
+			driverVersion = version;
+			return version;
+		} finally {
+			exit(controlLock);
+		}
+	}
+
+	/**
+	 * The FT_HANDLE of the current session, or 0 when closed. A device that is
+	 * closed and opened again gets a new handle.
+	 * 
+	 * @since 0.3
+	 */
+	long getHandle() {
+		return ftHandle;
+	}
+
+	/**
+	 * Index of this device in the enumeration it came from, as passed to
+	 * FT_Open.
+	 * 
+	 * @since 0.3
+	 */
+	int getIndex() {
+		return index;
+	}
+
+	/**
+	 * The interface this device was enumerated by.
+	 * 
+	 * @since 0.3
+	 */
+	FTDIInterface getInterface() {
+		return iFace;
+	}
+
+	/**
+	 * Set the handle and opened flag as native open and close would, for
+	 * interfaces with no native device behind them. Zero marks the device
+	 * closed.
+	 */
+	void setHandle(long ftHandle) {
+		this.ftHandle = ftHandle;
+		flags = ftHandle == 0 ? flags & ~FT_FLAGS_OPENED : flags | FT_FLAGS_OPENED;
+	}
+
+	/**
+	 * Location ID from FT_DEVICE_LIST_INFO_NODE, identifying the USB port.
+	 * Channels of a multi-channel chip have consecutive location IDs.
+	 * 
+	 * @since 0.3
+	 */
+	public int getLocationId() {
+		return locationId;
 	}
 
 	/**
@@ -115,11 +548,33 @@ public class Device {
 	 * optimized for protocols requiring faster response times from short data 
 	 * packets.
 	 * 
+	 * The value is served from memory once known, either because it was set
+	 * through this Device or read from the device earlier in the session.
+	 * Use {@link #refresh()} if something else may have changed it.
+	 * 
 	 * @return timeout value in ms
 	 * @throws FTDIException
 	 */
 	public int getLatencyTimer() throws FTDIException {
-		return (0xff & iFace.getLatencyTimer(ftHandle));
+		DeviceConfig config = applied;
+		if (config.isSpecified(DeviceConfig.LATENCY_TIMER))
+			return config.getLatencyTimer();
+		enter(controlLock);
+		try {
+			return readLatencyTimer();
+		} finally {
+			exit(controlLock);
+		}
+	}
+	
+	/**
+	 * Read the latency timer from the device and record it. Caller holds
+	 * controlLock.
+	 */
+	private int readLatencyTimer() throws FTDIException {
+		int timer = 0xff & iFace.getLatencyTimer(ftHandle);
+		applied = applied.merge(DeviceConfig.EMPTY.withLatencyTimer(timer), DeviceConfig.LATENCY_TIMER);
+		return timer;
 	}
 	
 	/**
@@ -129,7 +584,12 @@ public class Device {
 	 * @since 0.3
 	 */
 	public ModemStatus getModemStatus() throws FTDIException {
-		return new ModemStatus(iFace.getModemStatus(ftHandle));
+		statusGate.readLock().lock();
+		try {
+			return new ModemStatus(iFace.getModemStatus(ftHandle));
+		} finally {
+			statusGate.readLock().unlock();
+		}
 	}
 
 	/**
@@ -140,7 +600,20 @@ public class Device {
  	 * @since 0.1
 	 */
 	public int getQueueStatus() throws FTDIException {
-		return iFace.getQueueStatus(ftHandle);
+		statusGate.readLock().lock();
+		try {
+			return iFace.getQueueStatus(ftHandle);
+		} finally {
+			statusGate.readLock().unlock();
+		}
+	}
+
+	/**
+	 * @return the recorder capturing this device's traffic, or null
+	 * @since 0.3
+	 */
+	public TrafficRecorder getRecorder() {
+		return recorder;
 	}
 
 	/**
@@ -152,6 +625,26 @@ public class Device {
 		return serialNumber;
 	}
 
+	/**
+	 * Gets the receive queue, transmit queue, event and modem status in one
+	 * call. The supplied status object is refilled and returned, allowing it to
+	 * be reused across calls.
+	 * 
+	 * @param status object to fill
+	 * @return status
+	 * @throws FTDIException
+	 * @since 0.3
+	 */
+	public DeviceStatus getStatus(DeviceStatus status) throws FTDIException {
+		statusGate.readLock().lock();
+		try {
+			iFace.getStatus(ftHandle, status);
+			return status;
+		} finally {
+			statusGate.readLock().unlock();
+		}
+	}
+
 	/**
 	 * Device type from FT_DEVICE_LIST_INFO_NODE. Mapped to an Enum.
 	 *
@@ -186,11 +679,32 @@ public class Device {
 	 * @since 0.1
 	 */
 	public void open() throws FTDIException {
-		if (isOpen())
-			throw new IllegalStateException("Device in use");
-		iFace.open(this);
+		lifecycle.writeLock().lock();
+		statusGate.writeLock().lock();
+		try {
+			if (isOpen())
+				throw new IllegalStateException("Device in use");
+			iFace.open(this);
+			applied = DeviceConfig.EMPTY;
+			driverVersion = null;
+		} finally {
+			statusGate.writeLock().unlock();
+			lifecycle.writeLock().unlock();
+		}
 	}
 	
+	/**
+	 * Raw modem status for the ModemStatusMonitor.
+	 */
+	int pollModemStatus() throws FTDIException {
+		statusGate.readLock().lock();
+		try {
+			return iFace.getModemStatus(ftHandle);
+		} finally {
+			statusGate.readLock().unlock();
+		}
+	}
+
 	/**
 	 * Read data from the device.
 	 * 
@@ -200,7 +714,253 @@ public class Device {
 	 * @since 0.1
 	 */
 	public int read(byte[] buffer) throws FTDIException {
-		return iFace.read(ftHandle, buffer, buffer.length);
+		enter(rxLock);
+		try {
+			int count = iFace.read(ftHandle, buffer, buffer.length);
+			transferred(TrafficRecorder.READ, buffer, 0, count);
+			return count;
+		} finally {
+			exit(rxLock);
+		}
+	}
+	
+	/**
+	 * Purges the receive and/or transmit buffers in the driver.
+	 * 
+	 * @param mask combination of FT_PURGE_RX and FT_PURGE_TX
+	 * @throws FTDIException
+	 * @since 0.3
+	 */
+	public void purge(int mask) throws FTDIException {
+		enter(controlLock);
+		try {
+			iFace.purge(ftHandle, mask);
+			recordControl(TrafficRecorder.PURGE, (byte) mask);
+		} finally {
+			exit(controlLock);
+		}
+	}
+	
+	/**
+	 * Read into the buffer's remaining space. Blocks, like {@link #read(byte[])},
+	 * until the space is filled or the read timeout expires. Direct buffers are
+	 * filled by the driver with no intermediate copy. The buffer's position is
+	 * advanced by the number of bytes read.
+	 * 
+	 * @param buffer destination, heap or direct
+	 * @return number of bytes actually read
+	 * @throws FTDIException
+	 * @since 0.3
+	 */
+	public int read(ByteBuffer buffer) throws FTDIException {
+		enter(rxLock);
+		try {
+			int position = buffer.position();
+			int count;
+			if (buffer.isDirect()) {
+				count = iFace.readBuffer(ftHandle, buffer, position, buffer.remaining());
+			} else {
+				count = iFace.readBuffer(ftHandle, buffer.array(), buffer.arrayOffset() + position, buffer.remaining());
+			}
+			transferred(TrafficRecorder.READ, buffer, position, count);
+			buffer.position(position + count);
+			return count;
+		} finally {
+			exit(rxLock);
+		}
+	}
+	
+	/**
+	 * Scattering read. Fills the remaining space of each buffer in turn from a
+	 * single FT_Read of their combined size. Blocks, like {@link #read(byte[])},
+	 * until all bytes arrive or the read timeout expires. Each buffer's position
+	 * is advanced by the bytes placed in it.
+	 * 
+	 * @param buffers destinations, heap or direct
+	 * @return total number of bytes actually read
+	 * @throws FTDIException
+	 * @since 0.3
+	 */
+	public int read(ByteBuffer[] buffers) throws FTDIException {
+		enter(rxLock);
+		try {
+			Object[] targets = new Object[buffers.length];
+			int[] offsets = new int[buffers.length];
+			int[] lengths = new int[buffers.length];
+			describe(buffers, false, targets, offsets, lengths);
+			int count = iFace.readScatter(ftHandle, targets, offsets, lengths, buffers.length);
+			transferred(TrafficRecorder.READ, buffers, count);
+			advance(buffers, count);
+			return count;
+		} finally {
+			exit(rxLock);
+		}
+	}
+	
+	/**
+	 * Read the instantaneous value of the data bus, as FT_GetBitMode reports
+	 * it: the eight pins in bit-bang mode, or the four CBUS pins in the low
+	 * nibble in CBUS bit-bang mode.
+	 * 
+	 * @return pin levels, 0 to 255
+	 * @throws FTDIException
+	 * @since 0.3
+	 */
+	public int readPins() throws FTDIException {
+		enter(controlLock);
+		try {
+			return 0xff & iFace.getBitMode(ftHandle);
+		} finally {
+			exit(controlLock);
+		}
+	}
+	
+	/**
+	 * Read the bytes already waiting in the receive queue, up to length, without
+	 * blocking. Equivalent to getQueueStatus followed by read, in a single
+	 * native call.
+	 * 
+	 * @param buffer destination
+	 * @param offset first byte of buffer to fill
+	 * @param length maximum number of bytes to read
+	 * @return number of bytes actually read, possibly zero
+	 * @throws FTDIException
+	 * @since 0.3
+	 */
+	public int readAvailable(byte[] buffer, int offset, int length) throws FTDIException {
+		enter(rxLock);
+		try {
+			checkBounds(buffer, offset, length);
+			int count = iFace.readAvailable(ftHandle, buffer, offset, length);
+			transferred(TrafficRecorder.READ, buffer, offset, count);
+			return count;
+		} finally {
+			exit(rxLock);
+		}
+	}
+	
+	/**
+	 * Read the bytes already waiting in the receive queue, up to the buffer's
+	 * remaining space, without blocking. Direct buffers are filled by the driver
+	 * with no intermediate copy. The buffer's position is advanced by the number
+	 * of bytes read.
+	 * 
+	 * @param buffer destination
+	 * @return number of bytes actually read, possibly zero
+	 * @throws FTDIException
+	 * @since 0.3
+	 */
+	public int readAvailable(ByteBuffer buffer) throws FTDIException {
+		enter(rxLock);
+		try {
+			int position = buffer.position();
+			int count;
+			if (buffer.isDirect()) {
+				count = iFace.readAvailableDirect(ftHandle, buffer, position, buffer.remaining());
+			} else {
+				count = iFace.readAvailable(ftHandle, buffer.array(), buffer.arrayOffset() + position, buffer.remaining());
+			}
+			transferred(TrafficRecorder.READ, buffer, position, count);
+			buffer.position(position + count);
+			return count;
+		} finally {
+			exit(rxLock);
+		}
+	}
+	
+	/**
+	 * Read exactly length bytes, unless the deadline passes first. The read
+	 * loop runs in native code, so a long reply costs a single JNI call.
+	 * 
+	 * The deadline is checked between driver reads, each of which may block for
+	 * up to the read timeout set by {@link #setTimeouts(int, int)}. Choose a read
+	 * timeout no longer than the precision wanted from the deadline.
+	 * 
+	 * @param buffer destination
+	 * @param offset first byte of buffer to fill
+	 * @param length number of bytes wanted
+	 * @param deadlineNanos deadline as a {@link System#nanoTime()} value
+	 * @return number of bytes actually read, less than length if the deadline passed
+	 * @throws FTDIException
+	 * @since 0.3
+	 */
+	public int readFully(byte[] buffer, int offset, int length, long deadlineNanos) throws FTDIException {
+		enter(rxLock);
+		try {
+			checkBounds(buffer, offset, length);
+			int count = iFace.readFully(ftHandle, buffer, offset, length, deadlineNanos - System.nanoTime());
+			transferred(TrafficRecorder.READ, buffer, offset, count);
+			return count;
+		} finally {
+			exit(rxLock);
+		}
+	}
+	
+	/**
+	 * Read until the delimiter is received, length bytes have been read or the
+	 * deadline passes. Bytes following the delimiter are left in the receive
+	 * queue. The read loop runs in native code.
+	 * 
+	 * @param delimiter byte ending the read
+	 * @param buffer destination
+	 * @param offset first byte of buffer to fill
+	 * @param length maximum number of bytes to read
+	 * @param deadlineNanos deadline as a {@link System#nanoTime()} value
+	 * @return number of bytes actually read, including the delimiter. The read
+	 *    ended on the delimiter if the last byte read equals it.
+	 * @throws FTDIException
+	 * @since 0.3
+	 */
+	public int readUntil(byte delimiter, byte[] buffer, int offset, int length, long deadlineNanos) throws FTDIException {
+		enter(rxLock);
+		try {
+			checkBounds(buffer, offset, length);
+			int count = iFace.readUntil(ftHandle, delimiter, buffer, offset, length, deadlineNanos - System.nanoTime());
+			transferred(TrafficRecorder.READ, buffer, offset, count);
+			return count;
+		} finally {
+			exit(rxLock);
+		}
+	}
+	
+	/**
+	 * Read with a receive timestamp for each chunk. The timestamp is taken in
+	 * native code immediately after the driver read completes, so it is not
+	 * skewed by JNI return, garbage collection or scheduling delays on the Java
+	 * side. Times are on the {@link System#nanoTime()} clock, which lets reads
+	 * from several adapters be correlated.
+	 * 
+	 * Waits until the first byte arrives or the deadline passes, then drains
+	 * the receive queue without blocking. Chunk i occupies the buffer from
+	 * ends[i - 1] (offset for the first chunk) up to ends[i] and arrived at
+	 * times[i]. Both side arrays are supplied by the caller and reused, so the
+	 * read allocates nothing.
+	 * 
+	 * @param buffer destination
+	 * @param offset first byte of buffer to fill
+	 * @param length maximum number of bytes to read
+	 * @param times receives the arrival time of each chunk
+	 * @param ends receives the buffer index just past each chunk
+	 * @param deadlineNanos deadline for the first byte as a {@link System#nanoTime()} value
+	 * @return number of chunks read, zero if the deadline passed with nothing received
+	 * @throws FTDIException
+	 * @since 0.3
+	 */
+	public int readTimestamped(byte[] buffer, int offset, int length, long[] times, int[] ends, long deadlineNanos) throws FTDIException {
+		enter(rxLock);
+		try {
+			checkBounds(buffer, offset, length);
+			int maxChunks = Math.min(times.length, ends.length);
+			int chunks = iFace.readTimestamped(ftHandle, buffer, offset, length, times, ends, maxChunks, deadlineNanos - System.nanoTime());
+			int start = offset;
+			for (int i = 0; i < chunks; i++) {
+				transferred(TrafficRecorder.READ, buffer, start, ends[i] - start);
+				start = ends[i];
+			}
+			return chunks;
+		} finally {
+			exit(rxLock);
+		}
 	}
 	
 	/**
@@ -212,9 +972,106 @@ public class Device {
 	 * @since 0.2
 	 */
 	public int readEE(int offset) throws FTDIException {
-		return iFace.readEE(ftHandle, offset);
-	};
+		enter(controlLock);
+		try {
+			return iFace.readEE(ftHandle, offset);
+		} finally {
+			exit(controlLock);
+		}
+	}
+	
+	/**
+	 * Append the groups of config that apply changed to the capture, if
+	 * recording. Timeouts, latency and USB parameters do not affect the line
+	 * and are not recorded.
+	 */
+	private void recordConfig(DeviceConfig config, int changed) {
+		if (recorder == null)
+			return;
+		if ((changed & DeviceConfig.BAUD_RATE) != 0)
+			recordValue(TrafficRecorder.BAUD_RATE, config.getBaudRate());
+		if ((changed & DeviceConfig.DATA_CHARACTERISTICS) != 0)
+			recordControl(TrafficRecorder.DATA_CHARACTERISTICS,
+					config.getWordLength(), config.getStopBits(), config.getParity());
+		if ((changed & DeviceConfig.FLOW_CONTROL) != 0)
+			recordFlowControl(config.getFlowControl(), config.getXOn(), config.getXOff());
+		if ((changed & DeviceConfig.BIT_MODE) != 0)
+			recordControl(TrafficRecorder.BIT_MODE, config.getPinDirection(), config.getBitMode().getMode());
+	}
+	
+	/**
+	 * Append a control record to the capture, if recording.
+	 */
+	private void recordControl(byte type, byte... payload) {
+		TrafficRecorder target = recorder;
+		if (target != null)
+			target.recordControl(type, payload);
+	}
+	
+	private void recordFlowControl(short flowControl, char xOn, char xOff) {
+		recordControl(TrafficRecorder.FLOW_CONTROL,
+				(byte) (flowControl >> 8), (byte) flowControl, (byte) xOn, (byte) xOff);
+	}
+	
+	/**
+	 * Append a control record with an int payload to the capture, if recording.
+	 */
+	private void recordValue(byte type, int value) {
+		TrafficRecorder target = recorder;
+		if (target != null)
+			target.recordValue(type, value);
+	}
+	
+	/**
+	 * Discard the remembered settings and resynchronize with the hardware.
+	 * Only the latency timer can be read back from D2XX; the other groups
+	 * become unspecified, so the next {@link #apply(DeviceConfig)} sends them
+	 * again.
+	 * 
+	 * @throws FTDIException
+	 * @since 0.3
+	 */
+	public void refresh() throws FTDIException {
+		enter(controlLock);
+		try {
+			applied = DeviceConfig.EMPTY;
+			driverVersion = null;
+			readLatencyTimer();
+		} finally {
+			exit(controlLock);
+		}
+	}
 	
+	/**
+	 * Remove a listener previously registered with addModemStatusListener.
+	 *
+	 * @param listener
+	 * @since 0.3
+	 */
+	public void removeModemStatusListener(ModemStatusListener listener) {
+		boolean empty;
+		synchronized (this) {
+			ModemStatusListener[] current = modemListeners;
+			int index = -1;
+			for (int i = 0; i < current.length; i++) {
+				if (current[i] == listener) {
+					index = i;
+					break;
+				}
+			}
+			if (index < 0)
+				return;
+			ModemStatusListener[] updated = new ModemStatusListener[current.length - 1];
+			System.arraycopy(current, 0, updated, 0, index);
+			System.arraycopy(current, index + 1, updated, index, current.length - index - 1);
+			modemListeners = updated;
+			empty = updated.length == 0;
+		}
+		if (empty) {
+			ModemStatusMonitor.unregister(this);
+		}
+	}
+
 	/**
 	 * Sends a reset command to the device.
 	 * 
@@ -222,7 +1079,13 @@ public class Device {
 	 * @since 0.1
 	 */
 	public void reset() throws FTDIException {
-		iFace.reset(ftHandle);
+		enter(controlLock);
+		try {
+			applied = DeviceConfig.EMPTY;
+			iFace.reset(ftHandle);
+		} finally {
+			exit(controlLock);
+		}
 	}
 
 	/**
@@ -233,7 +1096,15 @@ public class Device {
 	 * @since 0.1
 	 */
 	public void setBaudRate(int baudRate) throws FTDIException {
-		iFace.setBaudRate(ftHandle, baudRate);
+		enter(controlLock);
+		try {
+			applied = applied.without(DeviceConfig.BAUD_RATE);
+			iFace.setBaudRate(ftHandle, baudRate);
+			applied = applied.merge(DeviceConfig.EMPTY.withBaudRate(baudRate), DeviceConfig.BAUD_RATE);
+			recordValue(TrafficRecorder.BAUD_RATE, baudRate);
+		} finally {
+			exit(controlLock);
+		}
 	}
 	
 	/**
@@ -245,7 +1116,15 @@ public class Device {
 	 * @since 0.2
 	 */
 	public void setBitMode(byte pinDirection, FTDIBitMode bitMode) throws FTDIException {
-		iFace.setBitMode(ftHandle, pinDirection, (byte)bitMode.getMode());
+		enter(controlLock);
+		try {
+			applied = applied.without(DeviceConfig.BIT_MODE);
+			iFace.setBitMode(ftHandle, pinDirection, (byte)bitMode.getMode());
+			applied = applied.merge(DeviceConfig.EMPTY.withBitMode(pinDirection, bitMode), DeviceConfig.BIT_MODE);
+			recordControl(TrafficRecorder.BIT_MODE, pinDirection, bitMode.getMode());
+		} finally {
+			exit(controlLock);
+		}
 	}
 	
 	/**
@@ -256,10 +1135,16 @@ public class Device {
 	 * @since 0.3
 	 */
 	public void setBreak(boolean breakCondition) throws FTDIException {
-		if (breakCondition) {
-			iFace.setBreakOn(ftHandle);
-		} else {
-			iFace.setBreakOff(ftHandle);
+		enter(controlLock);
+		try {
+			if (breakCondition) {
+				iFace.setBreakOn(ftHandle);
+			} else {
+				iFace.setBreakOff(ftHandle);
+			}
+			recordControl(TrafficRecorder.BREAK, breakCondition ? (byte) 1 : 0);
+		} finally {
+			exit(controlLock);
 		}
 	}
 	
@@ -270,7 +1155,12 @@ public class Device {
 	 * @since 0.2
 	 */
 	public void setChars(char event, boolean eventEnable, char error, boolean errorEnable) throws FTDIException {
-		iFace.setChars(ftHandle, event, eventEnable, error, errorEnable);
+		enter(controlLock);
+		try {
+			iFace.setChars(ftHandle, event, eventEnable, error, errorEnable);
+		} finally {
+			exit(controlLock);
+		}
 	}
 	
 	/**
@@ -283,7 +1173,16 @@ public class Device {
 	 * @since 0.3
 	 */
 	public void setDataCharacteristics(byte wordLength, byte stopBits, byte parity) throws FTDIException {
-		iFace.setDataCharacteristics(ftHandle, wordLength, stopBits, parity);
+		enter(controlLock);
+		try {
+			applied = applied.without(DeviceConfig.DATA_CHARACTERISTICS);
+			iFace.setDataCharacteristics(ftHandle, wordLength, stopBits, parity);
+			applied = applied.merge(DeviceConfig.EMPTY.withDataCharacteristics(wordLength, stopBits, parity),
+					DeviceConfig.DATA_CHARACTERISTICS);
+			recordControl(TrafficRecorder.DATA_CHARACTERISTICS, wordLength, stopBits, parity);
+		} finally {
+			exit(controlLock);
+		}
 	}
 	
 	/**
@@ -294,10 +1193,34 @@ public class Device {
 	 * @since 0.2
 	 */
 	public void setDtr(boolean dtr) throws FTDIException {
-		if (dtr) {
-			iFace.setDtr(ftHandle);
-		} else {
-			iFace.clrDtr(ftHandle);
+		enter(controlLock);
+		try {
+			if (dtr) {
+				iFace.setDtr(ftHandle);
+			} else {
+				iFace.clrDtr(ftHandle);
+			}
+			recordControl(TrafficRecorder.DTR, dtr ? (byte) 1 : 0);
+		} finally {
+			exit(controlLock);
+		}
+	}
+	
+	/**
+	 * Ask the driver to signal a native event, created by
+	 * {@link FTDIInterface#createEvent()}, when any of the masked events occur.
+	 * 
+	 * @param mask combination of FT_EVENT_RXCHAR, FT_EVENT_MODEM_STATUS and FT_EVENT_LINE_STATUS
+	 * @param event native event pointer, or 0 with a mask of zero to stop
+	 * @throws FTDIException
+	 * @since 0.3
+	 */
+	void setEventNotification(int mask, long event) throws FTDIException {
+		enter(controlLock);
+		try {
+			iFace.setEventNotification(ftHandle, mask, event);
+		} finally {
+			exit(controlLock);
 		}
 	}
 	
@@ -311,7 +1234,15 @@ public class Device {
 	 * @since 0.3
 	 */
 	public void setFlowControl(short flowControl, char xOn, char xOff) throws FTDIException {
-		iFace.setFlowControl(ftHandle, flowControl, xOn, xOff);
+		enter(controlLock);
+		try {
+			applied = applied.without(DeviceConfig.FLOW_CONTROL);
+			iFace.setFlowControl(ftHandle, flowControl, xOn, xOff);
+			applied = applied.merge(DeviceConfig.EMPTY.withFlowControl(flowControl, xOn, xOff), DeviceConfig.FLOW_CONTROL);
+			recordFlowControl(flowControl, xOn, xOff);
+		} finally {
+			exit(controlLock);
+		}
 	}
 	
 	/**
@@ -327,7 +1258,28 @@ public class Device {
 	 * @since 0.2
 	 */
 	public void setLatencyTimer(byte timer) throws FTDIException {
-		iFace.setLatencyTimer(ftHandle, timer);
+		enter(controlLock);
+		try {
+			applied = applied.without(DeviceConfig.LATENCY_TIMER);
+			iFace.setLatencyTimer(ftHandle, timer);
+			applied = applied.merge(DeviceConfig.EMPTY.withLatencyTimer(0xff & timer), DeviceConfig.LATENCY_TIMER);
+		} finally {
+			exit(controlLock);
+		}
+	}
+	
+	/**
+	 * Start or stop capturing this device's traffic. Every chunk read or
+	 * written afterwards, and the baud rate, bit mode, line, flow control,
+	 * purge, break, RTS and DTR settings, are appended to the recorder. Bytes
+	 * sent by a {@link Transaction} are not captured, only its response. The
+	 * recorder is not closed when the device is.
+	 * 
+	 * @param recorder destination, or null to stop recording
+	 * @since 0.3
+	 */
+	public void setRecorder(TrafficRecorder recorder) {
+		this.recorder = recorder;
 	}
 	
 	/**
@@ -338,10 +1290,16 @@ public class Device {
 	 * @since 0.2
 	 */
 	public void setRts(boolean rts) throws FTDIException {
-		if (rts) {
-			iFace.setRts(ftHandle);
-		} else {
-			iFace.clrRts(ftHandle);
+		enter(controlLock);
+		try {
+			if (rts) {
+				iFace.setRts(ftHandle);
+			} else {
+				iFace.clrRts(ftHandle);
+			}
+			recordControl(TrafficRecorder.RTS, rts ? (byte) 1 : 0);
+		} finally {
+			exit(controlLock);
 		}
 	}
 	
@@ -354,7 +1312,14 @@ public class Device {
 	 * @since 0.1
 	 */
 	public void setTimeouts(int readTimeout, int writeTimeout) throws FTDIException {
-		iFace.setTimeouts(ftHandle, readTimeout, writeTimeout);
+		enter(controlLock);
+		try {
+			applied = applied.without(DeviceConfig.TIMEOUTS);
+			iFace.setTimeouts(ftHandle, readTimeout, writeTimeout);
+			applied = applied.merge(DeviceConfig.EMPTY.withTimeouts(readTimeout, writeTimeout), DeviceConfig.TIMEOUTS);
+		} finally {
+			exit(controlLock);
+		}
 	}
 	
 	/**
@@ -365,7 +1330,77 @@ public class Device {
 	 * @since 0.2
 	 */
 	public void setUSBParameters(int inTransferSize, int outTransferSize) throws FTDIException {
-		iFace.setUSBParameters(ftHandle, inTransferSize, outTransferSize);
+		enter(controlLock);
+		try {
+			applied = applied.without(DeviceConfig.USB_PARAMETERS);
+			iFace.setUSBParameters(ftHandle, inTransferSize, outTransferSize);
+			applied = applied.merge(DeviceConfig.EMPTY.withUSBParameters(inTransferSize, outTransferSize),
+					DeviceConfig.USB_PARAMETERS);
+			transferSizeChanged(inTransferSize);
+		} finally {
+			exit(controlLock);
+		}
+	}
+	
+	/**
+	 * Replace the buffer pool if the USB IN transfer size has changed.
+	 */
+	private synchronized void transferSizeChanged(int inTransferSize) {
+		if (inTransferSize != this.inTransferSize) {
+			this.inTransferSize = inTransferSize;
+			bufferPool = null;
+		}
+	}
+	
+	/**
+	 * Count a chunk read or written and append it to the capture, if
+	 * recording. Called with the rx or tx lock held, so each counter has a
+	 * single writer at a time.
+	 */
+	private void transferred(byte type, byte[] data, int offset, int count) {
+		if (count <= 0)
+			return;
+		counted(type, count);
+		TrafficRecorder target = recorder;
+		if (target != null)
+			target.record(type, data, offset, count);
+	}
+	
+	/**
+	 * As above, for the count bytes following position in data.
+	 */
+	private void transferred(byte type, ByteBuffer data, int position, int count) {
+		if (count <= 0)
+			return;
+		counted(type, count);
+		TrafficRecorder target = recorder;
+		if (target != null)
+			target.record(type, data, position, count);
+	}
+	
+	/**
+	 * As above, for the first count bytes of a scatter/gather list. Called
+	 * before the positions are advanced.
+	 */
+	private void transferred(byte type, ByteBuffer[] buffers, int count) {
+		if (count <= 0)
+			return;
+		counted(type, count);
+		TrafficRecorder target = recorder;
+		for (int i = 0; target != null && i < buffers.length && count > 0; i++) {
+			int step = Math.min(count, buffers[i].remaining());
+			if (step > 0)
+				target.record(type, buffers[i], buffers[i].position(), step);
+			count -= step;
+		}
+	}
+	
+	private void counted(byte type, int count) {
+		if (type == TrafficRecorder.READ) {
+			bytesRead += count;
+		} else {
+			bytesWritten += count;
+		}
 	}
 	
 	/**
@@ -419,12 +1454,83 @@ public class Device {
 	 * Write data to the device.
 	 * 
 	 * @param buffer bytes to write to device.
+	 * @param numBytesToWrite number of bytes from the start of buffer to write
 	 * @return number of bytes actually written
 	 * @throws FTDIException
+	 * @throws IndexOutOfBoundsException if numBytesToWrite is negative or
+	 *    larger than the buffer
 	 * @since 0.1
 	 */
 	public int write(byte[] buffer, int numBytesToWrite) throws FTDIException {
-		return iFace.write(ftHandle, buffer, numBytesToWrite);
+		checkBounds(buffer, 0, numBytesToWrite);
+		enter(txLock);
+		try {
+			int count = iFace.write(ftHandle, buffer, numBytesToWrite);
+			transferred(TrafficRecorder.WRITE, buffer, 0, count);
+			return count;
+		} finally {
+			exit(txLock);
+		}
+	}
+
+	/**
+	 * Write the buffer's remaining bytes. Direct buffers are passed to the
+	 * driver with no intermediate copy. The buffer's position is advanced by the
+	 * number of bytes written.
+	 * 
+	 * @param buffer source, heap or direct
+	 * @return number of bytes actually written
+	 * @throws FTDIException
+	 * @since 0.3
+	 */
+	public int write(ByteBuffer buffer) throws FTDIException {
+		enter(txLock);
+		try {
+			int position = buffer.position();
+			int count;
+			if (buffer.isDirect()) {
+				count = iFace.writeBuffer(ftHandle, buffer, position, buffer.remaining());
+			} else if (buffer.hasArray()) {
+				count = iFace.writeBuffer(ftHandle, buffer.array(), buffer.arrayOffset() + position, buffer.remaining());
+			} else {
+				// read-only heap buffer, its array is not accessible
+				byte[] copy = new byte[buffer.remaining()];
+				buffer.duplicate().get(copy);
+				count = iFace.writeBuffer(ftHandle, copy, 0, copy.length);
+			}
+			transferred(TrafficRecorder.WRITE, buffer, position, count);
+			buffer.position(position + count);
+			return count;
+		} finally {
+			exit(txLock);
+		}
+	}
+
+	/**
+	 * Gathering write. The remaining bytes of each buffer are combined in native
+	 * memory and sent with a single FT_Write, so a frame built from separate
+	 * header, payload and trailer buffers goes out as one USB transfer. Each
+	 * buffer's position is advanced by the bytes taken from it.
+	 * 
+	 * @param buffers sources, heap or direct
+	 * @return total number of bytes actually written
+	 * @throws FTDIException
+	 * @since 0.3
+	 */
+	public int write(ByteBuffer[] buffers) throws FTDIException {
+		enter(txLock);
+		try {
+			Object[] sources = new Object[buffers.length];
+			int[] offsets = new int[buffers.length];
+			int[] lengths = new int[buffers.length];
+			describe(buffers, true, sources, offsets, lengths);
+			int count = iFace.writeGather(ftHandle, sources, offsets, lengths, buffers.length);
+			transferred(TrafficRecorder.WRITE, buffers, count);
+			advance(buffers, count);
+			return count;
+		} finally {
+			exit(txLock);
+		}
 	}
 
 	/**
@@ -436,8 +1542,12 @@ public class Device {
 	 * @since 0.2
 	 */
 	public void writeEE(int offset, int value) throws FTDIException {
-		iFace.writeEE(ftHandle, offset, value);
-		return;
+		enter(controlLock);
+		try {
+			iFace.writeEE(ftHandle, offset, value);
+		} finally {
+			exit(controlLock);
+		}
 	}
 
 
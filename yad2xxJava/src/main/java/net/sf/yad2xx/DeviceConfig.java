@@ -0,0 +1,396 @@
+/*
+ * Copyright 2026 Stephen Davies
+ * 
+ * This file is part of yad2xx.
+ * 
+ * yad2xx is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * yad2xx is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with yad2xx.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.yad2xx;
+
+/**
+ * An immutable set of device settings, applied in one native call by
+ * {@link Device#apply(DeviceConfig)}.
+ * 
+ * Settings are grouped the way D2XX sets them, one group per FT_ call. A
+ * group is either specified, and applied, or left alone. Start from
+ * {@link #EMPTY} and add groups with the with methods, each of which returns
+ * a new DeviceConfig:
+ * 
+ * <pre>
+ * DeviceConfig modbus = DeviceConfig.EMPTY
+ *     .withBaudRate(19200)
+ *     .withDataCharacteristics(FT_BITS_8, FT_STOP_BITS_1, FT_PARITY_EVEN)
+ *     .withFlowControl(FT_FLOW_NONE, (char) 0, (char) 0)
+ *     .withLatencyTimer(2);
+ * </pre>
+ *
+ * @since October 19, 2026
+ * @since 0.3
+ * @author Stephen Davies
+ */
+public final class DeviceConfig {
+
+	/** FT_SetBaudRate group. */
+	public static final int BAUD_RATE = 0x01;
+	/** FT_SetDataCharacteristics group. */
+	public static final int DATA_CHARACTERISTICS = 0x02;
+	/** FT_SetFlowControl group. */
+	public static final int FLOW_CONTROL = 0x04;
+	/** FT_SetTimeouts group. */
+	public static final int TIMEOUTS = 0x08;
+	/** FT_SetLatencyTimer group. */
+	public static final int LATENCY_TIMER = 0x10;
+	/** FT_SetUSBParameters group. */
+	public static final int USB_PARAMETERS = 0x20;
+	/** FT_SetBitMode group. */
+	public static final int BIT_MODE = 0x40;
+
+	static final int ALL = 0x7f;
+
+	/**
+	 * A config with no groups specified.
+	 */
+	public static final DeviceConfig EMPTY = new DeviceConfig();
+
+	private int specified;
+	private int baudRate;
+	private byte wordLength;
+	private byte stopBits;
+	private byte parity;
+	private short flowControl;
+	private char xOn;
+	private char xOff;
+	private int readTimeout;
+	private int writeTimeout;
+	private int latencyTimer;
+	private int inTransferSize;
+	private int outTransferSize;
+	private byte pinDirection;
+	private FTDIBitMode bitMode;
+
+	private DeviceConfig() {
+	}
+
+	private DeviceConfig copy() {
+		DeviceConfig result = new DeviceConfig();
+		result.specified = specified;
+		result.baudRate = baudRate;
+		result.wordLength = wordLength;
+		result.stopBits = stopBits;
+		result.parity = parity;
+		result.flowControl = flowControl;
+		result.xOn = xOn;
+		result.xOff = xOff;
+		result.readTimeout = readTimeout;
+		result.writeTimeout = writeTimeout;
+		result.latencyTimer = latencyTimer;
+		result.inTransferSize = inTransferSize;
+		result.outTransferSize = outTransferSize;
+		result.pinDirection = pinDirection;
+		result.bitMode = bitMode;
+		return result;
+	}
+
+	public DeviceConfig withBaudRate(int baudRate) {
+		DeviceConfig result = copy();
+		result.specified |= BAUD_RATE;
+		result.baudRate = baudRate;
+		return result;
+	}
+
+	/**
+	 * @param wordLength FT_BITS_8 or FT_BITS_7
+	 * @param stopBits FT_STOP_BITS_1 or FT_STOP_BITS_2
+	 * @param parity one of the FT_PARITY values
+	 */
+	public DeviceConfig withDataCharacteristics(byte wordLength, byte stopBits, byte parity) {
+		DeviceConfig result = copy();
+		result.specified |= DATA_CHARACTERISTICS;
+		result.wordLength = wordLength;
+		result.stopBits = stopBits;
+		result.parity = parity;
+		return result;
+	}
+
+	/**
+	 * @param flowControl one of the FT_FLOW values
+	 * @param xOn Xon character, used with FT_FLOW_XON_XOFF
+	 * @param xOff Xoff character, used with FT_FLOW_XON_XOFF
+	 */
+	public DeviceConfig withFlowControl(short flowControl, char xOn, char xOff) {
+		DeviceConfig result = copy();
+		result.specified |= FLOW_CONTROL;
+		result.flowControl = flowControl;
+		result.xOn = xOn;
+		result.xOff = xOff;
+		return result;
+	}
+
+	/**
+	 * @param readTimeout read timeout in ms, 0 for none
+	 * @param writeTimeout write timeout in ms, 0 for none
+	 */
+	public DeviceConfig withTimeouts(int readTimeout, int writeTimeout) {
+		DeviceConfig result = copy();
+		result.specified |= TIMEOUTS;
+		result.readTimeout = readTimeout;
+		result.writeTimeout = writeTimeout;
+		return result;
+	}
+
+	/**
+	 * @param latencyTimer latency timer in ms, 0 to 255
+	 */
+	public DeviceConfig withLatencyTimer(int latencyTimer) {
+		if (latencyTimer < 0 || latencyTimer > 255)
+			throw new IllegalArgumentException("Latency timer out of range: " + latencyTimer);
+		DeviceConfig result = copy();
+		result.specified |= LATENCY_TIMER;
+		result.latencyTimer = latencyTimer;
+		return result;
+	}
+
+	/**
+	 * @param inTransferSize USB IN request size
+	 * @param outTransferSize USB OUT request size
+	 */
+	public DeviceConfig withUSBParameters(int inTransferSize, int outTransferSize) {
+		DeviceConfig result = copy();
+		result.specified |= USB_PARAMETERS;
+		result.inTransferSize = inTransferSize;
+		result.outTransferSize = outTransferSize;
+		return result;
+	}
+
+	/**
+	 * @param pinDirection pin direction mask, 1 for output
+	 * @param bitMode mode to select
+	 */
+	public DeviceConfig withBitMode(byte pinDirection, FTDIBitMode bitMode) {
+		if (bitMode == null)
+			throw new NullPointerException("bitMode");
+		DeviceConfig result = copy();
+		result.specified |= BIT_MODE;
+		result.pinDirection = pinDirection;
+		result.bitMode = bitMode;
+		return result;
+	}
+
+	/**
+	 * Combination of the group constants that this config specifies.
+	 */
+	public int getSpecified() {
+		return specified;
+	}
+
+	/**
+	 * Test whether all of the given groups are specified.
+	 */
+	public boolean isSpecified(int groups) {
+		return (specified & groups) == groups;
+	}
+
+	public int getBaudRate() {
+		return baudRate;
+	}
+
+	public byte getWordLength() {
+		return wordLength;
+	}
+
+	public byte getStopBits() {
+		return stopBits;
+	}
+
+	public byte getParity() {
+		return parity;
+	}
+
+	public short getFlowControl() {
+		return flowControl;
+	}
+
+	public char getXOn() {
+		return xOn;
+	}
+
+	public char getXOff() {
+		return xOff;
+	}
+
+	public int getReadTimeout() {
+		return readTimeout;
+	}
+
+	public int getWriteTimeout() {
+		return writeTimeout;
+	}
+
+	public int getLatencyTimer() {
+		return latencyTimer;
+	}
+
+	public int getInTransferSize() {
+		return inTransferSize;
+	}
+
+	public int getOutTransferSize() {
+		return outTransferSize;
+	}
+
+	public byte getPinDirection() {
+		return pinDirection;
+	}
+
+	public FTDIBitMode getBitMode() {
+		return bitMode;
+	}
+
+	/**
+	 * Groups specified here that are unspecified in, or differ from, the
+	 * other config. These are the groups that must be sent to a device whose
+	 * current settings are other.
+	 */
+	int changesFrom(DeviceConfig other) {
+		int changed = specified & ~other.specified;
+		int common = specified & other.specified;
+		if ((common & BAUD_RATE) != 0 && baudRate != other.baudRate)
+			changed |= BAUD_RATE;
+		if ((common & DATA_CHARACTERISTICS) != 0 && (wordLength != other.wordLength
+				|| stopBits != other.stopBits || parity != other.parity))
+			changed |= DATA_CHARACTERISTICS;
+		if ((common & FLOW_CONTROL) != 0 && (flowControl != other.flowControl
+				|| xOn != other.xOn || xOff != other.xOff))
+			changed |= FLOW_CONTROL;
+		if ((common & TIMEOUTS) != 0 && (readTimeout != other.readTimeout
+				|| writeTimeout != other.writeTimeout))
+			changed |= TIMEOUTS;
+		if ((common & LATENCY_TIMER) != 0 && latencyTimer != other.latencyTimer)
+			changed |= LATENCY_TIMER;
+		if ((common & USB_PARAMETERS) != 0 && (inTransferSize != other.inTransferSize
+				|| outTransferSize != other.outTransferSize))
+			changed |= USB_PARAMETERS;
+		if ((common & BIT_MODE) != 0 && (pinDirection != other.pinDirection
+				|| bitMode != other.bitMode))
+			changed |= BIT_MODE;
+		return changed;
+	}
+
+	/**
+	 * Copy of this config with the given groups taken from source.
+	 */
+	DeviceConfig merge(DeviceConfig source, int groups) {
+		DeviceConfig result = copy();
+		groups &= source.specified;
+		if ((groups & BAUD_RATE) != 0) {
+			result.baudRate = source.baudRate;
+		}
+		if ((groups & DATA_CHARACTERISTICS) != 0) {
+			result.wordLength = source.wordLength;
+			result.stopBits = source.stopBits;
+			result.parity = source.parity;
+		}
+		if ((groups & FLOW_CONTROL) != 0) {
+			result.flowControl = source.flowControl;
+			result.xOn = source.xOn;
+			result.xOff = source.xOff;
+		}
+		if ((groups & TIMEOUTS) != 0) {
+			result.readTimeout = source.readTimeout;
+			result.writeTimeout = source.writeTimeout;
+		}
+		if ((groups & LATENCY_TIMER) != 0) {
+			result.latencyTimer = source.latencyTimer;
+		}
+		if ((groups & USB_PARAMETERS) != 0) {
+			result.inTransferSize = source.inTransferSize;
+			result.outTransferSize = source.outTransferSize;
+		}
+		if ((groups & BIT_MODE) != 0) {
+			result.pinDirection = source.pinDirection;
+			result.bitMode = source.bitMode;
+		}
+		result.specified |= groups;
+		return result;
+	}
+
+	/**
+	 * Copy of this config with the given groups unspecified.
+	 */
+	DeviceConfig without(int groups) {
+		if ((specified & groups) == 0)
+			return this;
+		DeviceConfig result = copy();
+		result.specified &= ~groups;
+		return result;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (!(obj instanceof DeviceConfig))
+			return false;
+		DeviceConfig other = (DeviceConfig) obj;
+		return specified == other.specified && changesFrom(other) == 0;
+	}
+
+	@Override
+	public int hashCode() {
+		int result = specified;
+		if ((specified & BAUD_RATE) != 0)
+			result = 31 * result + baudRate;
+		if ((specified & DATA_CHARACTERISTICS) != 0)
+			result = 31 * result + (wordLength << 16 | stopBits << 8 | parity);
+		if ((specified & FLOW_CONTROL) != 0)
+			result = 31 * result + (flowControl << 16 ^ xOn << 8 ^ xOff);
+		if ((specified & TIMEOUTS) != 0)
+			result = 31 * (31 * result + readTimeout) + writeTimeout;
+		if ((specified & LATENCY_TIMER) != 0)
+			result = 31 * result + latencyTimer;
+		if ((specified & USB_PARAMETERS) != 0)
+			result = 31 * (31 * result + inTransferSize) + outTransferSize;
+		if ((specified & BIT_MODE) != 0)
+			result = 31 * (31 * result + pinDirection) + bitMode.hashCode();
+		return result;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder result = new StringBuilder("DeviceConfig[");
+		if ((specified & BAUD_RATE) != 0) {
+			result.append(" baud=").append(baudRate);
+		}
+		if ((specified & DATA_CHARACTERISTICS) != 0) {
+			result.append(" bits=").append(wordLength).append(" stop=").append(stopBits).append(" parity=").append(parity);
+		}
+		if ((specified & FLOW_CONTROL) != 0) {
+			result.append(" flow=0x").append(Integer.toHexString(flowControl & 0xffff));
+		}
+		if ((specified & TIMEOUTS) != 0) {
+			result.append(" timeouts=").append(readTimeout).append('/').append(writeTimeout);
+		}
+		if ((specified & LATENCY_TIMER) != 0) {
+			result.append(" latency=").append(latencyTimer);
+		}
+		if ((specified & USB_PARAMETERS) != 0) {
+			result.append(" usb=").append(inTransferSize).append('/').append(outTransferSize);
+		}
+		if ((specified & BIT_MODE) != 0) {
+			result.append(" bitMode=").append(bitMode).append(" pins=0x").append(Integer.toHexString(pinDirection & 0xff));
+		}
+		return result.append(" ]").toString();
+	}
+
+}
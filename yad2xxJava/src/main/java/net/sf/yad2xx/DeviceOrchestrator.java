@@ -0,0 +1,245 @@
+/*
+ * Copyright 2026 Stephen Davies
+ * 
+ * This file is part of yad2xx.
+ * 
+ * yad2xx is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * yad2xx is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with yad2xx.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.yad2xx;
+
+import static net.sf.yad2xx.FTDIConstants.FT_DEVICE_LIST_NOT_READY;
+import static net.sf.yad2xx.FTDIConstants.FT_DEVICE_NOT_FOUND;
+import static net.sf.yad2xx.FTDIConstants.FT_DEVICE_NOT_OPENED;
+import static net.sf.yad2xx.FTDIConstants.FT_INSUFFICIENT_RESOURCES;
+import static net.sf.yad2xx.FTDIConstants.FT_IO_ERROR;
+import static net.sf.yad2xx.FTDIConstants.FT_OTHER_ERROR;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Opens and configures many devices at once, for racks where starting a
+ * hundred adapters one after another takes tens of seconds. Most of each
+ * device's startup is spent waiting on USB control transfers, so running
+ * them side by side brings the total close to the time of the slowest
+ * device.
+ * 
+ * Devices are enumerated once, then a bounded number of worker threads each
+ * take the next device, open it and apply its {@link DeviceConfig}. A failure
+ * with a transient status, such as an I/O error while the USB hub is still
+ * settling, is retried after a delay that doubles with each attempt. Every
+ * device gets a {@link DeviceStartup} reporting its outcome and timing, and
+ * one failure does not stop the others. A runtime exception while starting a
+ * device is not retried, and is reported as an FTDIException with status
+ * FT_OTHER_ERROR and the exception as its cause.
+ *
+ * @since October 19, 2026
+ * @since 0.3
+ * @author Stephen Davies
+ */
+public class DeviceOrchestrator {
+
+	/**
+	 * Attempts made by default before a device is given up.
+	 */
+	public static final int DEFAULT_ATTEMPTS = 3;
+
+	/**
+	 * Delay before the first retry by default, in ms.
+	 */
+	public static final int DEFAULT_RETRY_DELAY = 50;
+
+	private final FTDIInterface iFace;
+	private final int parallelism;
+	private int maxAttempts = DEFAULT_ATTEMPTS;
+	private int retryDelay = DEFAULT_RETRY_DELAY;
+
+	/**
+	 * @param iFace interface enumerating the devices
+	 * @param parallelism most devices started at the same time
+	 */
+	public DeviceOrchestrator(FTDIInterface iFace, int parallelism) {
+		if (parallelism < 1)
+			throw new IllegalArgumentException("Parallelism must be positive");
+		this.iFace = iFace;
+		this.parallelism = parallelism;
+	}
+
+	/**
+	 * Set the retry policy for transient failures.
+	 * 
+	 * @param maxAttempts attempts per device, at least 1
+	 * @param retryDelay delay before the first retry in ms, doubled for each
+	 *    further retry
+	 */
+	public void setRetries(int maxAttempts, int retryDelay) {
+		if (maxAttempts < 1 || retryDelay < 0)
+			throw new IllegalArgumentException("Invalid retry policy");
+		this.maxAttempts = maxAttempts;
+		this.retryDelay = retryDelay;
+	}
+
+	/**
+	 * Open and configure the devices with the given serial numbers. Returns
+	 * when every device has started or been given up. Serial numbers not
+	 * found fail with FT_DEVICE_NOT_FOUND.
+	 * 
+	 * @param configs config to apply to each device, by serial number
+	 * @return one result per entry, in the map's iteration order
+	 * @throws FTDIException if the devices cannot be enumerated
+	 * @throws InterruptedException if interrupted while waiting for the
+	 *    workers; devices already started are left open
+	 * @throws NullPointerException if a serial number or config is null;
+	 *    no device is started
+	 */
+	public List<DeviceStartup> start(Map<String, DeviceConfig> configs) throws FTDIException, InterruptedException {
+		for (Map.Entry<String, DeviceConfig> entry : configs.entrySet()) {
+			if (entry.getKey() == null || entry.getValue() == null)
+				throw new NullPointerException("No config for device " + entry.getKey());
+		}
+
+		Map<String, Device> devices = new HashMap<String, Device>();
+		for (Device device : iFace.getDevices()) {
+			devices.put(device.getSerialNumber(), device);
+		}
+
+		final List<String> serials = new ArrayList<String>(configs.keySet());
+		final Device[] targets = new Device[serials.size()];
+		final DeviceConfig[] targetConfigs = new DeviceConfig[serials.size()];
+		for (int i = 0; i < targets.length; i++) {
+			targets[i] = devices.get(serials.get(i));
+			targetConfigs[i] = configs.get(serials.get(i));
+		}
+		final DeviceStartup[] results = new DeviceStartup[targets.length];
+		final AtomicInteger next = new AtomicInteger();
+		final long submitted = System.nanoTime();
+
+		Thread[] workers = new Thread[Math.min(parallelism, targets.length)];
+		for (int w = 0; w < workers.length; w++) {
+			workers[w] = new Thread("yad2xx-startup-" + w) {
+				@Override
+				public void run() {
+					int i;
+					while ((i = next.getAndIncrement()) < targets.length) {
+						results[i] = startOne(serials.get(i), targets[i], targetConfigs[i], submitted);
+					}
+				}
+			};
+			workers[w].setDaemon(true);
+			workers[w].start();
+		}
+		for (Thread worker : workers) {
+			worker.join();
+		}
+
+		List<DeviceStartup> list = new ArrayList<DeviceStartup>(results.length);
+		for (DeviceStartup result : results) {
+			list.add(result);
+		}
+		return list;
+	}
+
+	/**
+	 * Open and configure one device, retrying transient failures.
+	 */
+	private DeviceStartup startOne(String serialNumber, Device device, DeviceConfig config, long submitted) {
+		long queuedNanos = System.nanoTime() - submitted;
+		if (device == null)
+			return new DeviceStartup(serialNumber, null, new FTDIException(FT_DEVICE_NOT_FOUND, "FT_Open"), 0,
+					queuedNanos, 0, 0, queuedNanos);
+
+		long openNanos = 0;
+		long configureNanos = 0;
+		FTDIException error = null;
+		int attempt = 0;
+		while (attempt < maxAttempts) {
+			if (attempt > 0 && !pause(attempt)) {
+				break;
+			}
+			attempt++;
+			long begin = System.nanoTime();
+			try {
+				if (!device.isOpen()) {
+					device.open();
+				}
+				long opened = System.nanoTime();
+				openNanos += opened - begin;
+				try {
+					device.apply(config);
+				} finally {
+					configureNanos += System.nanoTime() - opened;
+				}
+				return new DeviceStartup(serialNumber, device, null, attempt,
+						queuedNanos, openNanos, configureNanos, System.nanoTime() - submitted);
+			} catch (FTDIException e) {
+				if (!device.isOpen()) {
+					openNanos += System.nanoTime() - begin;
+				}
+				error = e;
+				if (!isTransient(e.getStatus()))
+					break;
+			} catch (RuntimeException e) {
+				error = new FTDIException(FT_OTHER_ERROR, "start");
+				error.initCause(e);
+				break;
+			}
+		}
+
+		if (device.isOpen()) {
+			try {
+				device.close();
+			} catch (FTDIException e) {
+				// report the original failure
+			}
+		}
+		return new DeviceStartup(serialNumber, null, error, attempt,
+				queuedNanos, openNanos, configureNanos, System.nanoTime() - submitted);
+	}
+
+	/**
+	 * Sleep before a retry.
+	 * 
+	 * @return false if interrupted
+	 */
+	private boolean pause(int retry) {
+		try {
+			Thread.sleep((long) retryDelay << Math.min(retry - 1, 16));
+			return true;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return false;
+		}
+	}
+
+	/**
+	 * Statuses worth retrying: the device or its hub may still be settling
+	 * after power-up, or another process may be releasing it.
+	 */
+	static boolean isTransient(int status) {
+		switch (status) {
+		case FT_DEVICE_NOT_OPENED:
+		case FT_IO_ERROR:
+		case FT_INSUFFICIENT_RESOURCES:
+		case FT_OTHER_ERROR:
+		case FT_DEVICE_LIST_NOT_READY:
+			return true;
+		default:
+			return false;
+		}
+	}
+
+}
@@ -0,0 +1,240 @@
+/*
+ * Copyright 2026 Stephen Davies
+ * 
+ * This file is part of yad2xx.
+ * 
+ * yad2xx is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * yad2xx is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with yad2xx.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.yad2xx;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Publishes the receive stream of an open Device as chunks of data, with
+ * demand-driven backpressure. The signals match java.util.concurrent.Flow, so
+ * wrapping a DevicePublisher as a Flow.Publisher takes a few lines on Java 9
+ * and later.
+ * 
+ * A device has a single receive stream, so a publisher accepts one subscriber
+ * at a time. The subscription is served by its own thread, which reads only
+ * while the subscriber has outstanding demand. When the subscriber falls behind
+ * the thread stops polling, and data backs up in the driver and, with flow
+ * control enabled, at the sender. If data is lost because the device overran,
+ * the subscriber receives onOverrun rather than silently missing bytes, once
+ * each time the overrun error is raised.
+ * 
+ * Chunks are newly allocated unless the publisher is given a
+ * {@link BufferPool}, in which case they are taken from the pool and the
+ * subscriber should release each one when it is finished with it.
+ *
+ * @since October 19, 2026
+ * @since 0.3
+ * @author Stephen Davies
+ */
+public class DevicePublisher {
+
+	private final Device device;
+	private final int chunkSize;
+	private final BufferPool pool;
+	private final int pollInterval;
+	private Subscription current;
+
+	/**
+	 * @param device open device to read
+	 * @param chunkSize largest chunk delivered in one onNext
+	 * @param pollInterval milliseconds between queue checks while idle with demand
+	 */
+	public DevicePublisher(Device device, int chunkSize, int pollInterval) {
+		if (chunkSize < 1)
+			throw new IllegalArgumentException("Chunk size must be positive");
+		if (pollInterval < 1)
+			throw new IllegalArgumentException("Poll interval must be at least 1 ms");
+		this.device = device;
+		this.chunkSize = chunkSize;
+		this.pollInterval = pollInterval;
+		this.pool = null;
+	}
+
+	/**
+	 * Publisher whose chunks come from a pool, one buffer per chunk. The
+	 * subscriber releases each chunk to the pool after use.
+	 * 
+	 * @param device open device to read
+	 * @param pool source of chunk buffers, for example {@link Device#getBufferPool()}
+	 * @param pollInterval milliseconds between queue checks while idle with demand
+	 */
+	public DevicePublisher(Device device, BufferPool pool, int pollInterval) {
+		if (pollInterval < 1)
+			throw new IllegalArgumentException("Poll interval must be at least 1 ms");
+		this.device = device;
+		this.chunkSize = pool.getBufferSize();
+		this.pollInterval = pollInterval;
+		this.pool = pool;
+	}
+
+	/**
+	 * Subscribe to the receive stream. If another subscription is active the
+	 * subscriber is rejected with onError.
+	 */
+	public void subscribe(DataSubscriber subscriber) {
+		if (subscriber == null)
+			throw new NullPointerException("subscriber");
+
+		Subscription subscription;
+		synchronized (this) {
+			if (current != null && !current.finished) {
+				subscription = null;
+			} else {
+				subscription = new Subscription(subscriber);
+				current = subscription;
+			}
+		}
+
+		if (subscription == null) {
+			subscriber.onSubscribe(new DataSubscription() {
+				public void request(long n) {
+				}
+				public void cancel() {
+				}
+			});
+			subscriber.onError(new IllegalStateException("Device already has a subscriber"));
+			return;
+		}
+
+		Thread thread = new Thread(subscription, "yad2xx-publisher-" + device.getSerialNumber());
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	/**
+	 * One subscriber's view of the stream, and the thread that serves it.
+	 */
+	private class Subscription implements DataSubscription, Runnable {
+
+		private final DataSubscriber subscriber;
+		private final DeviceStatus status = new DeviceStatus();
+		private long demand;
+		private boolean cancelled;
+		private Throwable protocolError;
+		private boolean overrun;
+		private volatile boolean finished;
+
+		Subscription(DataSubscriber subscriber) {
+			this.subscriber = subscriber;
+		}
+
+		public synchronized void request(long n) {
+			if (n <= 0) {
+				protocolError = new IllegalArgumentException("Demand must be positive");
+			} else {
+				demand += n;
+				if (demand < 0) {
+					demand = Long.MAX_VALUE;	// overflowed, treat as unbounded
+				}
+			}
+			notifyAll();
+		}
+
+		public synchronized void cancel() {
+			cancelled = true;
+			notifyAll();
+		}
+
+		public void run() {
+			try {
+				subscriber.onSubscribe(this);
+				serve();
+			} catch (FTDIException e) {
+				if (device.isOpen()) {
+					subscriber.onError(e);
+				} else {
+					subscriber.onComplete();	// closed under a read
+				}
+			} catch (InterruptedException e) {
+				// treated as cancellation
+			} finally {
+				finished = true;
+			}
+		}
+
+		private void serve() throws FTDIException, InterruptedException {
+			while (true) {
+				synchronized (this) {
+					while (demand == 0 && !cancelled && protocolError == null) {
+						wait();
+					}
+					if (protocolError != null) {
+						cancelled = true;
+						subscriber.onError(protocolError);
+						return;
+					}
+					if (cancelled) {
+						return;
+					}
+				}
+
+				if (!device.isOpen()) {
+					subscriber.onComplete();
+					return;
+				}
+
+				device.getStatus(status);
+				boolean overrunError = ModemStatus.hasOverrunError(status.getModemStatus());
+				if (overrunError && !overrun) {
+					subscriber.onOverrun();
+				}
+				overrun = overrunError;
+
+				int queued = status.getRxQueue();
+				if (queued == 0) {
+					Thread.sleep(pollInterval);
+					continue;
+				}
+
+				ByteBuffer chunk;
+				if (pool == null) {
+					chunk = ByteBuffer.allocate(Math.min(queued, chunkSize));
+				} else {
+					chunk = pool.acquire();
+					chunk.limit(Math.min(queued, chunkSize));
+				}
+				int count = 0;
+				try {
+					count = device.readAvailable(chunk);
+				} finally {
+					if (count == 0 && pool != null) {
+						pool.release(chunk);
+					}
+				}
+				if (count == 0) {
+					continue;
+				}
+				chunk.flip();
+				synchronized (this) {
+					if (cancelled) {
+						if (pool != null) {
+							pool.release(chunk);
+						}
+						return;
+					}
+					if (demand != Long.MAX_VALUE) {
+						demand--;
+					}
+				}
+				subscriber.onNext(chunk);
+			}
+		}
+	}
+
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright 2026 Stephen Davies
+ * 
+ * This file is part of yad2xx.
+ * 
+ * yad2xx is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * yad2xx is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with yad2xx.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.yad2xx;
+
+/**
+ * Outcome of opening and configuring one device with a
+ * {@link DeviceOrchestrator}, with the time each stage took.
+ *
+ * @since October 19, 2026
+ * @since 0.3
+ * @author Stephen Davies
+ */
+public final class DeviceStartup {
+
+	private final String serialNumber;
+	private final Device device;
+	private final FTDIException error;
+	private final int attempts;
+	private final long queuedNanos;
+	private final long openNanos;
+	private final long configureNanos;
+	private final long totalNanos;
+
+	DeviceStartup(String serialNumber, Device device, FTDIException error, int attempts,
+			long queuedNanos, long openNanos, long configureNanos, long totalNanos) {
+		this.serialNumber = serialNumber;
+		this.device = device;
+		this.error = error;
+		this.attempts = attempts;
+		this.queuedNanos = queuedNanos;
+		this.openNanos = openNanos;
+		this.configureNanos = configureNanos;
+		this.totalNanos = totalNanos;
+	}
+
+	/**
+	 * @return serial number requested
+	 */
+	public String getSerialNumber() {
+		return serialNumber;
+	}
+
+	/**
+	 * @return the open, configured device, or null if startup failed
+	 */
+	public Device getDevice() {
+		return device;
+	}
+
+	/**
+	 * @return the last failure, or null if startup succeeded
+	 */
+	public FTDIException getError() {
+		return error;
+	}
+
+	/**
+	 * @return true if the device is open and configured
+	 */
+	public boolean isStarted() {
+		return error == null;
+	}
+
+	/**
+	 * @return number of attempts made, 1 if the first succeeded
+	 */
+	public int getAttempts() {
+		return attempts;
+	}
+
+	/**
+	 * @return time spent waiting for a free worker
+	 */
+	public long getQueuedNanos() {
+		return queuedNanos;
+	}
+
+	/**
+	 * @return time spent in open, over all attempts
+	 */
+	public long getOpenNanos() {
+		return openNanos;
+	}
+
+	/**
+	 * @return time spent applying the config, over all attempts
+	 */
+	public long getConfigureNanos() {
+		return configureNanos;
+	}
+
+	/**
+	 * @return time from submission until the device was started or given up,
+	 *    including retry delays
+	 */
+	public long getTotalNanos() {
+		return totalNanos;
+	}
+
+	@Override
+	public String toString() {
+		return "DeviceStartup(" + serialNumber + ", "
+				+ (error == null ? "started" : "failed " + error.getFunction() + " status " + error.getStatus())
+				+ ", " + attempts + " attempts, " + getTotalNanos() / 1000000 + " ms)";
+	}
+
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2026 Stephen Davies
+ * 
+ * This file is part of yad2xx.
+ * 
+ * yad2xx is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * yad2xx is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with yad2xx.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.yad2xx;
+
+/**
+ * Snapshot of a device's queue, event and modem status, as returned by
+ * FT_GetStatus and FT_GetModemStatus. Instances are mutable and intended to be
+ * allocated once and refilled by {@link Device#getStatus(DeviceStatus)}, so
+ * that status polling loops create no garbage.
+ *
+ * @since October 19, 2026
+ * @since 0.3
+ * @author Stephen Davies
+ */
+public class DeviceStatus {
+
+	// Fields are set directly by the native library.
+	private int rxQueue;
+	private int txQueue;
+	private int eventStatus;
+	private int modemStatus;
+
+	/**
+	 * Number of bytes in the receive queue.
+	 */
+	public int getRxQueue() {
+		return rxQueue;
+	}
+
+	/**
+	 * Number of bytes in the transmit queue.
+	 */
+	public int getTxQueue() {
+		return txQueue;
+	}
+
+	/**
+	 * Current event status. A combination of FT_EVENT_RXCHAR,
+	 * FT_EVENT_MODEM_STATUS and FT_EVENT_LINE_STATUS.
+	 */
+	public int getEventStatus() {
+		return eventStatus;
+	}
+
+	/**
+	 * Raw modem and line status, in the format accepted by {@link ModemStatus}.
+	 * Modem status is the least significant byte, line status the next.
+	 */
+	public int getModemStatus() {
+		return modemStatus;
+	}
+
+	/**
+	 * Fill in all fields, for status not produced by the native library.
+	 */
+	void set(int rxQueue, int txQueue, int eventStatus, int modemStatus) {
+		this.rxQueue = rxQueue;
+		this.txQueue = txQueue;
+		this.eventStatus = eventStatus;
+		this.modemStatus = modemStatus;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder result = new StringBuilder("DeviceStatus(rx: ");
+		result.append(rxQueue);
+		result.append(", tx: ");
+		result.append(txQueue);
+		result.append(", event: ");
+		result.append(Integer.toHexString(eventStatus));
+		result.append(", modem: ");
+		result.append(Integer.toHexString(modemStatus & 0xFF));
+		result.append(", line: ");
+		result.append(Integer.toHexString((modemStatus >> 8) & 0xFF));
+		result.append(")");
+		return result.toString();
+	}
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright 2026 Stephen Davies
+ * 
+ * This file is part of yad2xx.
+ * 
+ * yad2xx is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * yad2xx is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with yad2xx.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.yad2xx;
+
+import static net.sf.yad2xx.FTDIConstants.FT_EVENT_RXCHAR;
+
+/**
+ * Receives frames ending in a terminator byte with low latency, using the
+ * chip's event character.
+ * 
+ * The chip normally holds received bytes until its buffer fills or the
+ * latency timer expires, 16 ms by default, so a short frame can wait that
+ * long before it is sent to the host. Making the terminator the event
+ * character tells the chip to send its buffer as soon as the terminator
+ * arrives. The reader then sleeps on an FT_EVENT_RXCHAR notification rather
+ * than polling, and returns each frame as soon as it is complete. The latency
+ * timer is left alone, so bulk traffic keeps its full USB packets.
+ * 
+ * The reader owns the device's event character and event notification
+ * until it is closed, so it cannot be combined with an
+ * {@link AsyncDispatcher} or {@link ModemStatusMonitor} on the same device.
+ * Frames longer than the maximum are discarded up to the next terminator and
+ * counted by {@link #getDroppedFrames()}. A reader is not thread-safe, and
+ * while in use it should be the only reader of its device.
+ *
+ * @since October 19, 2026
+ * @since 0.3
+ * @author Stephen Davies
+ */
+public class EventFrameReader {
+
+	/**
+	 * Longest wait on the native event, in ms, before the receive queue is
+	 * checked again. Covers notifications lost while no thread was waiting.
+	 */
+	public static final int SAFETY_TIMEOUT = 5;
+
+	private final Device device;
+	private final FTDIInterface iFace;
+	private final ByteScanner scanner = new ByteScanner();
+	private final byte terminator;
+	private final ScanBuffer buffer;
+	private long event;
+
+	/**
+	 * Set the event character and event notification on the device.
+	 * 
+	 * @param device open device to read
+	 * @param terminator byte ending each frame
+	 * @param maxFrameLength longest frame accepted, excluding the terminator
+	 * @throws FTDIException if the device cannot be configured
+	 */
+	public EventFrameReader(Device device, byte terminator, int maxFrameLength) throws FTDIException {
+		if (maxFrameLength < 1)
+			throw new IllegalArgumentException("Maximum frame length must be positive");
+		this.device = device;
+		this.iFace = device.getInterface();
+		this.terminator = terminator;
+		this.buffer = new ScanBuffer(maxFrameLength, 1);
+		this.event = iFace.createEvent();
+		try {
+			device.setChars((char) (terminator & 0xFF), true, (char) 0, false);
+			device.setEventNotification(FT_EVENT_RXCHAR, event);
+		} catch (FTDIException e) {
+			iFace.destroyEvent(event);
+			event = 0;
+			throw e;
+		}
+	}
+
+	/**
+	 * Read the next frame, waiting for it until the deadline.
+	 * 
+	 * @param frame destination for the frame, without its terminator
+	 * @param offset first byte of frame to fill
+	 * @param deadlineNanos System.nanoTime at which to give up
+	 * @return length of the frame, or -1 if no complete frame arrived in time
+	 * @throws FTDIException
+	 * @throws IndexOutOfBoundsException if a frame does not fit at offset
+	 */
+	public int readFrame(byte[] frame, int offset, long deadlineNanos) throws FTDIException {
+		if (event == 0)
+			throw new IllegalStateException("Reader closed");
+		while (true) {
+			int length = nextFrame(frame, offset);
+			if (length >= 0)
+				return length;
+			if (buffer.readAvailable(device) > 0)
+				continue;
+			long remaining = deadlineNanos - System.nanoTime();
+			if (remaining <= 0)
+				return -1;
+			// round up so that a sub-millisecond remainder still waits
+			iFace.waitEvent(event, (int) Math.min(SAFETY_TIMEOUT, (remaining + 999999) / 1000000));
+		}
+	}
+
+	/**
+	 * Discard buffered data, including any partial frame.
+	 */
+	public void reset() {
+		buffer.reset();
+	}
+
+	/**
+	 * Number of frames discarded for being longer than the maximum.
+	 */
+	public long getDroppedFrames() {
+		return buffer.getDropped();
+	}
+
+	/**
+	 * Remove the event notification, disable the event character and free the
+	 * native event. The device stays open.
+	 * 
+	 * @throws FTDIException if the device could not be reconfigured
+	 */
+	public void close() throws FTDIException {
+		if (event == 0)
+			return;
+		try {
+			if (device.isOpen()) {
+				device.setEventNotification(0, 0);
+				device.setChars((char) 0, false, (char) 0, false);
+			}
+		} finally {
+			iFace.destroyEvent(event);
+			event = 0;
+		}
+	}
+
+	/**
+	 * Copy the next complete frame in the buffer to frame.
+	 * 
+	 * @return frame length, or -1 if no complete frame is buffered
+	 */
+	private int nextFrame(byte[] frame, int offset) {
+		while (true) {
+			int index = scanner.indexOf(buffer.data, buffer.scanFrom(), buffer.end, terminator);
+			if (index < 0) {
+				buffer.notFound();
+				return -1;
+			}
+			int frameStart = buffer.consume(index, index + 1);
+			if (frameStart < 0)
+				continue;
+			System.arraycopy(buffer.data, frameStart, frame, offset, index - frameStart);
+			return index - frameStart;
+		}
+	}
+
+}
@@ -0,0 +1,342 @@
+/*
+ * Copyright 2026 Stephen Davies
+ * 
+ * This file is part of yad2xx.
+ * 
+ * yad2xx is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * yad2xx is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with yad2xx.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.yad2xx;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One physical FTDI chip and its channels. D2XX lists each channel of a
+ * multi-channel part, the FT2232C/D, FT2232H and FT4232H, as a separate
+ * device, with a serial number made of the chip's serial and a channel
+ * letter, A to D, and consecutive location IDs. {@link #group(Device[])}
+ * reassembles them; single-channel devices become chips of one channel.
+ * 
+ * A chip can open and close all its channels together and run a
+ * {@link ChannelTask} on each channel, every channel on its own thread.
+ * Channels are separate Devices with separate locks, so a channel blocked in
+ * a long read or write never holds up the others; what they do share is the
+ * USB link, which {@link #sample()} reports on.
+ *
+ * @since October 19, 2026
+ * @since 0.3
+ * @author Stephen Davies
+ */
+public class FTDIChip {
+
+	/**
+	 * Usable bulk throughput of a USB 2.0 High-Speed link, bytes per second,
+	 * measured on FT2232H and FT4232H parts. Well below the 60 MB/s signalling
+	 * rate because of protocol overhead and driver scheduling.
+	 */
+	public static final long HIGH_SPEED_LINK_RATE = 40000000L;
+
+	/**
+	 * Usable bulk throughput of a USB Full-Speed link, bytes per second.
+	 */
+	public static final long FULL_SPEED_LINK_RATE = 1000000L;
+
+	private final String serialBase;
+	private final Device[] channels;
+	private final Engine[] engines;
+	private long sampleTime;
+	private long[] sampleRead;
+	private long[] sampleWritten;
+
+	FTDIChip(String serialBase, Device[] channels) {
+		this.serialBase = serialBase;
+		this.channels = channels;
+		this.engines = new Engine[channels.length];
+		sampleRead = new long[channels.length];
+		sampleWritten = new long[channels.length];
+		sampleTime = System.nanoTime();
+		for (int i = 0; i < channels.length; i++) {
+			sampleRead[i] = channels[i].getBytesRead();
+			sampleWritten[i] = channels[i].getBytesWritten();
+		}
+	}
+
+	/**
+	 * List the chips attached to the system.
+	 * 
+	 * @param iFace interface to enumerate
+	 * @return one entry per physical chip
+	 * @throws FTDIException
+	 */
+	public static FTDIChip[] getChips(FTDIInterface iFace) throws FTDIException {
+		return group(iFace.getDevices());
+	}
+
+	/**
+	 * Group devices into physical chips. Channels of one chip share a serial
+	 * base and differ only in the low nibble of their location ID; within a
+	 * chip they are ordered A, B, C, D. Chips appear in the order of their
+	 * first channel in devices.
+	 */
+	public static FTDIChip[] group(Device[] devices) {
+		Map<String, List<Device>> chips = new LinkedHashMap<String, List<Device>>();
+		for (Device device : devices) {
+			String key = isMultiChannel(device.getType())
+					? serialBase(device) + '/' + Integer.toHexString(device.getLocationId() >> 4)
+					: device.getSerialNumber() + '/' + Integer.toHexString(device.getLocationId());
+			List<Device> channels = chips.get(key);
+			if (channels == null) {
+				channels = new ArrayList<Device>();
+				chips.put(key, channels);
+			}
+			channels.add(device);
+		}
+
+		FTDIChip[] result = new FTDIChip[chips.size()];
+		int i = 0;
+		for (List<Device> channels : chips.values()) {
+			Device[] sorted = channels.toArray(new Device[channels.size()]);
+			Arrays.sort(sorted, new Comparator<Device>() {
+				public int compare(Device a, Device b) {
+					return a.getLocationId() < b.getLocationId() ? -1 : a.getLocationId() == b.getLocationId() ? 0 : 1;
+				}
+			});
+			String base = isMultiChannel(sorted[0].getType()) ? serialBase(sorted[0]) : sorted[0].getSerialNumber();
+			result[i++] = new FTDIChip(base, sorted);
+		}
+		return result;
+	}
+
+	private static boolean isMultiChannel(FTDIDeviceType type) {
+		return type == FTDIDeviceType.FT_DEVICE_2232C || type == FTDIDeviceType.FT_DEVICE_2232H
+				|| type == FTDIDeviceType.FT_DEVICE_4232H;
+	}
+
+	/**
+	 * Serial number without its channel letter.
+	 */
+	private static String serialBase(Device device) {
+		String serial = device.getSerialNumber();
+		int last = serial.length() - 1;
+		if (last >= 0 && serial.charAt(last) >= 'A' && serial.charAt(last) <= 'D')
+			return serial.substring(0, last);
+		return serial;
+	}
+
+	/**
+	 * @return the chip's serial number, without a channel letter
+	 */
+	public String getSerialBase() {
+		return serialBase;
+	}
+
+	/**
+	 * @return chip type, as reported for its channels
+	 */
+	public FTDIDeviceType getType() {
+		return channels[0].getType();
+	}
+
+	/**
+	 * @return number of channels found; a channel in use by another process
+	 *    is still listed
+	 */
+	public int getChannelCount() {
+		return channels.length;
+	}
+
+	/**
+	 * @param index 0 for channel A, 1 for B and so on
+	 */
+	public Device getChannel(int index) {
+		return channels[index];
+	}
+
+	/**
+	 * @return usable bytes per second of the chip's USB link
+	 */
+	public long getLinkRate() {
+		return channels[0].isHighSpeed() ? HIGH_SPEED_LINK_RATE : FULL_SPEED_LINK_RATE;
+	}
+
+	/**
+	 * Open every channel not already open. If one fails, the channels opened
+	 * by this call are closed again.
+	 * 
+	 * @throws FTDIException from the first channel that failed to open
+	 */
+	public void open() throws FTDIException {
+		boolean[] opened = new boolean[channels.length];
+		try {
+			for (int i = 0; i < channels.length; i++) {
+				if (!channels[i].isOpen()) {
+					channels[i].open();
+					opened[i] = true;
+				}
+			}
+		} catch (FTDIException e) {
+			for (int i = 0; i < channels.length; i++) {
+				if (opened[i]) {
+					try {
+						channels[i].close();
+					} catch (FTDIException ignored) {
+						// report the original failure
+					}
+				}
+			}
+			throw e;
+		}
+	}
+
+	/**
+	 * Stop any running tasks and close every open channel. All channels are
+	 * closed even if one fails.
+	 * 
+	 * @throws FTDIException from the first channel that failed to close
+	 */
+	public void close() throws FTDIException, InterruptedException {
+		stop();
+		FTDIException failure = null;
+		for (Device channel : channels) {
+			if (channel.isOpen()) {
+				try {
+					channel.close();
+				} catch (FTDIException e) {
+					if (failure == null) {
+						failure = e;
+					}
+				}
+			}
+		}
+		if (failure != null)
+			throw failure;
+	}
+
+	/**
+	 * Run a task on a channel, on a new thread named after the channel's
+	 * serial number. The task's steps repeat until it returns false, throws,
+	 * or {@link #stop()} is called.
+	 * 
+	 * @param index 0 for channel A
+	 * @param task work to run; the channel should be open
+	 * @throws IllegalStateException if the channel already has a running task
+	 */
+	public synchronized void start(int index, ChannelTask task) {
+		if (engines[index] != null && engines[index].isAlive())
+			throw new IllegalStateException("Channel " + (char) ('A' + index) + " is already running");
+		engines[index] = new Engine(channels[index], task);
+		engines[index].start();
+	}
+
+	/**
+	 * Ask every running task to stop after its current step, and wait for
+	 * them to finish.
+	 */
+	public void stop() throws InterruptedException {
+		Engine[] running;
+		synchronized (this) {
+			running = engines.clone();
+		}
+		for (Engine engine : running) {
+			if (engine != null) {
+				engine.running = false;
+			}
+		}
+		for (Engine engine : running) {
+			if (engine != null) {
+				engine.join();
+			}
+		}
+	}
+
+	/**
+	 * @param index 0 for channel A
+	 * @return true if the channel's task is running
+	 */
+	public synchronized boolean isRunning(int index) {
+		return engines[index] != null && engines[index].isAlive();
+	}
+
+	/**
+	 * @param index 0 for channel A
+	 * @return the exception that stopped the channel's last task, or null
+	 */
+	public synchronized Throwable getError(int index) {
+		return engines[index] == null ? null : engines[index].error;
+	}
+
+	/**
+	 * Throughput of each channel since the previous sample, or since the chip
+	 * was listed. Counts come from {@link Device#getBytesRead()} and
+	 * {@link Device#getBytesWritten()}, so all traffic through the channels'
+	 * Devices is included, whether or not it comes from a ChannelTask.
+	 */
+	public synchronized ChipStatistics sample() {
+		long now = System.nanoTime();
+		long[] read = new long[channels.length];
+		long[] written = new long[channels.length];
+		long[] deltaRead = new long[channels.length];
+		long[] deltaWritten = new long[channels.length];
+		for (int i = 0; i < channels.length; i++) {
+			read[i] = channels[i].getBytesRead();
+			written[i] = channels[i].getBytesWritten();
+			deltaRead[i] = read[i] - sampleRead[i];
+			deltaWritten[i] = written[i] - sampleWritten[i];
+		}
+		ChipStatistics result = new ChipStatistics(now - sampleTime, deltaRead, deltaWritten, getLinkRate());
+		sampleTime = now;
+		sampleRead = read;
+		sampleWritten = written;
+		return result;
+	}
+
+	@Override
+	public String toString() {
+		return "FTDIChip(" + serialBase + ", " + getType() + ", " + channels.length + " channels)";
+	}
+
+	/**
+	 * Thread running one channel's task.
+	 */
+	private static class Engine extends Thread {
+
+		private final Device channel;
+		private final ChannelTask task;
+		volatile boolean running = true;
+		volatile Throwable error;
+
+		Engine(Device channel, ChannelTask task) {
+			super("yad2xx-channel-" + channel.getSerialNumber());
+			setDaemon(true);
+			this.channel = channel;
+			this.task = task;
+		}
+
+		@Override
+		public void run() {
+			try {
+				while (running && task.step(channel)) {
+					// next step
+				}
+			} catch (Exception e) {
+				error = e;
+			}
+		}
+	}
+
+}
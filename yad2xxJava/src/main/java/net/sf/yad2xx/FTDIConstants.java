@@ -29,6 +29,31 @@ public interface FTDIConstants {
 	int FT_FLAGS_OPENED = 1;
 	int FT_FLAGS_HISPEED = 2;
 
+	//
+	// Status codes, as reported by FTDIException.getStatus()
+	//
+
+	int FT_OK = 0;
+	int FT_INVALID_HANDLE = 1;
+	int FT_DEVICE_NOT_FOUND = 2;
+	int FT_DEVICE_NOT_OPENED = 3;
+	int FT_IO_ERROR = 4;
+	int FT_INSUFFICIENT_RESOURCES = 5;
+	int FT_INVALID_PARAMETER = 6;
+	int FT_INVALID_BAUD_RATE = 7;
+	int FT_DEVICE_NOT_OPENED_FOR_ERASE = 8;
+	int FT_DEVICE_NOT_OPENED_FOR_WRITE = 9;
+	int FT_FAILED_TO_WRITE_DEVICE = 10;
+	int FT_EEPROM_READ_FAILED = 11;
+	int FT_EEPROM_WRITE_FAILED = 12;
+	int FT_EEPROM_ERASE_FAILED = 13;
+	int FT_EEPROM_NOT_PRESENT = 14;
+	int FT_EEPROM_NOT_PROGRAMMED = 15;
+	int FT_INVALID_ARGS = 16;
+	int FT_NOT_SUPPORTED = 17;
+	int FT_OTHER_ERROR = 18;
+	int FT_DEVICE_LIST_NOT_READY = 19;
+
 	//
 	// Baud Rates
 	//
@@ -78,4 +103,19 @@ public interface FTDIConstants {
 	short FT_FLOW_DTR_DSR = 0x0200;
 	short FT_FLOW_XON_XOFF = 0x0400;
 
+	//
+	// Purge rx and tx buffers
+	//
+
+	int FT_PURGE_RX = 1;
+	int FT_PURGE_TX = 2;
+
+	//
+	// Events
+	//
+
+	int FT_EVENT_RXCHAR = 1;
+	int FT_EVENT_MODEM_STATUS = 2;
+	int FT_EVENT_LINE_STATUS = 4;
+
 }
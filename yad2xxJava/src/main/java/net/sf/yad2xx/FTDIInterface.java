@@ -18,6 +18,9 @@
  */
 package net.sf.yad2xx;
 
+import java.lang.reflect.InvocationTargetException;
+import java.nio.ByteBuffer;
+
 /**
  * JNI module to adapt FTDI D2XX library to a more OO based approach.
  * 
@@ -36,7 +39,111 @@ public class FTDIInterface {
 	 * library is JVM/platform dependent.
 	 */
 	static {
-		System.loadLibrary("FTDIInterface");
+		UnsatisfiedLinkError error = null;
+		try {
+			System.loadLibrary("FTDIInterface");
+		} catch (UnsatisfiedLinkError e) {
+			error = e;
+		}
+		loadError = error;
+	}
+
+	/**
+	 * Why the native library could not be loaded, or null if it was.
+	 * Subclasses that replace every native method, such as
+	 * {@link ReplayInterface}, work without it.
+	 */
+	private static final UnsatisfiedLinkError loadError;
+
+	/**
+	 * System property selecting the backend returned by {@link #create()}:
+	 * "jni" (the default) or "ffm".
+	 */
+	public static final String BACKEND_PROPERTY = "yad2xx.backend";
+
+	/**
+	 * Why the FFM backend last requested from create() could not be used, or
+	 * null if it was.
+	 */
+	private static volatile Throwable backendError;
+
+	/**
+	 * Create an interface to the D2XX library using the backend named by the
+	 * yad2xx.backend system property. "ffm" selects FfmInterface, which
+	 * calls libftd2xx through java.lang.foreign on Java 22 and later. If that
+	 * backend is not in this build, cannot run on this JVM, or cannot load
+	 * libftd2xx, the JNI library is used instead and the reason is kept for
+	 * {@link #getBackendError()}.
+	 * 
+	 * @throws UnsatisfiedLinkError if the JNI library is needed but could not
+	 *    be loaded
+	 * @since 0.3
+	 */
+	public static FTDIInterface create() {
+		if ("ffm".equalsIgnoreCase(System.getProperty(BACKEND_PROPERTY, "jni"))) {
+			try {
+				FTDIInterface iFace = (FTDIInterface) Class.forName("net.sf.yad2xx.FfmInterface")
+						.getDeclaredConstructor().newInstance();
+				backendError = null;
+				return iFace;
+			} catch (ClassNotFoundException e) {
+				// not built with Java 22
+				backendError = e;
+			} catch (LinkageError e) {
+				// class too new for this JVM, or libftd2xx not loaded by its initializer
+				backendError = e;
+			} catch (InvocationTargetException e) {
+				// the constructor failed
+				backendError = e.getCause();
+			} catch (NoSuchMethodException e) {
+				throw new IllegalStateException(e);
+			} catch (InstantiationException e) {
+				throw new IllegalStateException(e);
+			} catch (IllegalAccessException e) {
+				throw new IllegalStateException(e);
+			}
+		}
+		return new FTDIInterface();
+	}
+
+	/**
+	 * Why the last call to {@link #create()} that asked for the FFM backend
+	 * fell back to JNI: ClassNotFoundException if the library was built
+	 * without it, UnsupportedClassVersionError on a JVM older than Java 22,
+	 * an ExceptionInInitializerError or NoClassDefFoundError if libftd2xx
+	 * could not be loaded, or whatever the backend's constructor threw.
+	 * 
+	 * @return the failure, or null if the FFM backend was created or never
+	 *    requested
+	 * @since 0.3
+	 */
+	public static Throwable getBackendError() {
+		return backendError;
+	}
+
+	/**
+	 * Whether the JNI library was loaded.
+	 */
+	static boolean isLoaded() {
+		return loadError == null;
+	}
+
+	/**
+	 * Create an interface to the D2XX library.
+	 * 
+	 * @throws UnsatisfiedLinkError if the native library could not be loaded
+	 */
+	public FTDIInterface() {
+		this(true);
+	}
+
+	/**
+	 * @param requireNative false for subclasses that do not call the native
+	 *    library
+	 */
+	FTDIInterface(boolean requireNative) {
+		if (requireNative && loadError != null)
+			throw loadError;
 	}
 
 	/**
@@ -123,6 +230,24 @@ public class FTDIInterface {
 	 */
 	public native void setVidPid(int vid, int pid) throws FTDIException;
 
+	/**
+	 * Applies the selected groups of a configuration in one native call, in
+	 * the order USB parameters, baud rate, data characteristics, flow control,
+	 * timeouts, latency timer, bit mode. Stops at the first failure.
+	 * 
+	 * @param ftHandle
+	 * @param groups combination of the DeviceConfig group constants to apply
+	 * @throws FTDIException naming the FT_ function that failed
+	 * @see Device#apply(DeviceConfig)
+	 * @since 0.3
+	 */
+	native void applyConfig(long ftHandle, int groups, int baudRate,
+			byte wordLength, byte stopBits, byte parity,
+			short flowControl, char xOn, char xOff,
+			int readTimeout, int writeTimeout, byte latencyTimer,
+			int inTransferSize, int outTransferSize,
+			byte pinDirection, byte bitMode) throws FTDIException;
+
 	/**
 	 * Close the opened device. Calls FT_Close. ftHandle and flags will be 
 	 * reset at completion.
@@ -152,6 +277,26 @@ public class FTDIInterface {
 	 */
 	native void clrRts(long ftHandle) throws FTDIException;
 	
+	/**
+	 * Creates a native event object that D2XX can signal through
+	 * FT_SetEventNotification: an auto-reset event on Windows, an EVENT_HANDLE
+	 * elsewhere. One event may be shared by any number of devices.
+	 * 
+	 * @return opaque event pointer
+	 * @throws FTDIException if the event could not be allocated
+	 * @see #waitEvent(long, int)
+	 * @since 0.3
+	 */
+	native long createEvent() throws FTDIException;
+
+	/**
+	 * Frees an event from createEvent. No device may still be notifying it.
+	 * 
+	 * @param event
+	 * @since 0.3
+	 */
+	native void destroyEvent(long event);
+
 	/**
 	 * Erases the device EEPROM.
 	 *
@@ -161,6 +306,23 @@ public class FTDIInterface {
 	 */
 	native void eraseEE(long ftHandle) throws FTDIException;
 
+	/**
+	 * Runs a compiled Transaction program in native code.
+	 * 
+	 * @param ftHandle
+	 * @param program compiled transaction steps
+	 * @param attempts number of times to run the program before giving up
+	 * @param timeoutMillis time allowed for each attempt
+	 * @param response destination for bytes read by expect steps
+	 * @param offset first byte of response to fill
+	 * @return number of bytes collected, or the complement (~count) of the
+	 *    number collected by the final attempt if it timed out
+	 * @throws FTDIException
+	 * @see Device#execute(Transaction, byte[], int)
+	 * @since 0.3
+	 */
+	native int execute(long ftHandle, byte[] program, int attempts, int timeoutMillis, byte[] response, int offset) throws FTDIException;
+	
 	/**
 	 * Gets the instantaneous value of the data bus.
 	 * 
@@ -196,6 +358,18 @@ public class FTDIInterface {
 	 */
 	native int getQueueStatus(long ftHandle) throws FTDIException;
 	
+	/**
+	 * Combines FT_GetStatus and FT_GetModemStatus in a single call. Results
+	 * are copied into the supplied status object.
+	 * 
+	 * @param ftHandle
+	 * @param status object to fill
+	 * @throws FTDIException
+	 * @see Device#getStatus(DeviceStatus)
+	 * @since 0.3
+	 */
+	native void getStatus(long ftHandle, DeviceStatus status) throws FTDIException;
+	
 	/**
 	 * Opens the device. Returned handle is recorded in the device. Calls FT_Open.
 	 * 
@@ -206,6 +380,16 @@ public class FTDIInterface {
 	 */
 	native void open(Device dev) throws FTDIException;
 	
+	/**
+	 * Purges the receive and/or transmit buffers. Calls FT_Purge.
+	 * 
+	 * @param ftHandle
+	 * @param mask combination of FT_PURGE_RX and FT_PURGE_TX
+	 * @throws FTDIException
+	 * @since 0.3
+	 */
+	native void purge(long ftHandle, int mask) throws FTDIException;
+	
 	/**
 	 * Reads data from device up to the size of the buffer. Calls FT_Read. Note that
 	 * this call will block if the requested number of bytes is not immediately 
@@ -219,6 +403,121 @@ public class FTDIInterface {
 	 */
 	native int read(long ftHandle, byte[] buffer, int bufferLength) throws FTDIException;
 	
+	/**
+	 * Reads into a byte array or direct ByteBuffer from offset. Direct buffers
+	 * are filled by FT_Read with no intermediate copy.
+	 * 
+	 * @param ftHandle
+	 * @param target byte[] or direct ByteBuffer
+	 * @param offset absolute index of the first byte to fill
+	 * @param length number of bytes to read
+	 * @return number of bytes actually read
+	 * @throws FTDIException
+	 * @see Device#read(ByteBuffer)
+	 * @since 0.3
+	 */
+	native int readBuffer(long ftHandle, Object target, int offset, int length) throws FTDIException;
+
+	/**
+	 * Scattering read. Reads the total length of the list with a single
+	 * FT_Read and distributes the data across the list in order. Each element
+	 * of buffers is either a byte[] or a direct ByteBuffer.
+	 * 
+	 * @param ftHandle
+	 * @param buffers destinations
+	 * @param offsets index of the first byte to fill in each destination
+	 * @param lengths number of bytes wanted in each destination
+	 * @param count number of list elements in use
+	 * @return total number of bytes actually read
+	 * @throws FTDIException
+	 * @see Device#read(ByteBuffer[])
+	 * @since 0.3
+	 */
+	native int readScatter(long ftHandle, Object[] buffers, int[] offsets, int[] lengths, int count) throws FTDIException;
+	
+	/**
+	 * Reads the bytes already in the receive queue, up to length, without
+	 * blocking. Combines FT_GetQueueStatus and FT_Read in one call.
+	 * 
+	 * @param ftHandle
+	 * @param buffer destination
+	 * @param offset first byte of buffer to fill
+	 * @param length maximum number of bytes to read
+	 * @return number of bytes actually read
+	 * @throws FTDIException
+	 * @see Device#readAvailable(byte[], int, int)
+	 * @since 0.3
+	 */
+	native int readAvailable(long ftHandle, byte[] buffer, int offset, int length) throws FTDIException;
+	
+	/**
+	 * As readAvailable, reading straight into a direct buffer's memory. The
+	 * buffer's position is not updated.
+	 * 
+	 * @param ftHandle
+	 * @param buffer direct buffer destination
+	 * @param position index of the first byte to fill
+	 * @param length maximum number of bytes to read
+	 * @return number of bytes actually read
+	 * @throws FTDIException
+	 * @see Device#readAvailable(ByteBuffer)
+	 * @since 0.3
+	 */
+	native int readAvailableDirect(long ftHandle, ByteBuffer buffer, int position, int length) throws FTDIException;
+	
+	/**
+	 * Reads until length bytes have been received or the timeout expires. The
+	 * loop runs in native code; the timeout is checked between FT_Read calls.
+	 * 
+	 * @param ftHandle
+	 * @param buffer destination
+	 * @param offset first byte of buffer to fill
+	 * @param length number of bytes wanted
+	 * @param timeoutNanos time allowed, measured from the call
+	 * @return number of bytes actually read
+	 * @throws FTDIException
+	 * @see Device#readFully(byte[], int, int, long)
+	 * @since 0.3
+	 */
+	native int readFully(long ftHandle, byte[] buffer, int offset, int length, long timeoutNanos) throws FTDIException;
+	
+	/**
+	 * Reads until the delimiter is received, length bytes have been received or
+	 * the timeout expires. No bytes after the delimiter are consumed.
+	 * 
+	 * @param ftHandle
+	 * @param delimiter byte ending the read
+	 * @param buffer destination
+	 * @param offset first byte of buffer to fill
+	 * @param length maximum number of bytes to read
+	 * @param timeoutNanos time allowed, measured from the call
+	 * @return number of bytes actually read, including the delimiter
+	 * @throws FTDIException
+	 * @see Device#readUntil(byte, byte[], int, int, long)
+	 * @since 0.3
+	 */
+	native int readUntil(long ftHandle, byte delimiter, byte[] buffer, int offset, int length, long timeoutNanos) throws FTDIException;
+	
+	/**
+	 * Reads the receive queue in chunks, recording a monotonic timestamp right
+	 * after each FT_Read returns. Waits for the first byte until the timeout
+	 * expires, then drains whatever is queued without blocking.
+	 * 
+	 * @param ftHandle
+	 * @param buffer destination
+	 * @param offset first byte of buffer to fill
+	 * @param length maximum number of bytes to read
+	 * @param times receives the System.nanoTime-compatible time of each chunk
+	 * @param ends receives the buffer index just past each chunk
+	 * @param maxChunks number of entries available in times and ends
+	 * @param timeoutNanos time allowed for the first byte, measured from the call
+	 * @return number of chunks read
+	 * @throws FTDIException
+	 * @see Device#readTimestamped(byte[], int, int, long[], int[], long)
+	 * @since 0.3
+	 */
+	native int readTimestamped(long ftHandle, byte[] buffer, int offset, int length, long[] times, int[] ends, int maxChunks, long timeoutNanos) throws FTDIException;
+	
 	/**
 	 * Read a 16-bit value from an EEPROM location.
 	 * 
@@ -314,6 +613,18 @@ public class FTDIInterface {
 	 */
 	native void setDtr(long ftHandle) throws FTDIException;
 	
+	/**
+	 * Sets the events that signal the native event. A mask of zero stops
+	 * notification.
+	 * 
+	 * @param ftHandle
+	 * @param mask combination of FT_EVENT_RXCHAR, FT_EVENT_MODEM_STATUS and FT_EVENT_LINE_STATUS
+	 * @param event pointer from createEvent, or 0
+	 * @throws FTDIException
+	 * @since 0.3
+	 */
+	native void setEventNotification(long ftHandle, int mask, long event) throws FTDIException;
+
 	/**
 	 * Sets the flow control for the device.
 	 * 
@@ -378,6 +689,19 @@ public class FTDIInterface {
 	 */
 	native void setUSBParameters(long ftHandle, int inTransferSize, int outTransferSize) throws FTDIException;
 
+	/**
+	 * Blocks until the event is signalled or the timeout expires. Signals are
+	 * not counted, and on Linux and OS X a signal sent while no thread is
+	 * waiting is lost, so callers should always re-check device state after
+	 * returning and use a modest timeout.
+	 * 
+	 * @param event pointer from createEvent
+	 * @param timeoutMillis maximum wait
+	 * @return true if signalled, false on timeout
+	 * @since 0.3
+	 */
+	native boolean waitEvent(long event, int timeoutMillis);
+
 	/**
 	 * Write data to the device. Calls FT_Write.
 	 *
@@ -389,6 +713,38 @@ public class FTDIInterface {
 	 */
 	native int write(long ftHandle, byte[] buffer, int numBytesToWrite) throws FTDIException;
 
+	/**
+	 * Writes from a byte array or direct ByteBuffer from offset. Direct buffers
+	 * are handed to FT_Write with no intermediate copy.
+	 * 
+	 * @param ftHandle
+	 * @param source byte[] or direct ByteBuffer
+	 * @param offset absolute index of the first byte to send
+	 * @param length number of bytes to write
+	 * @return number of bytes actually written
+	 * @throws FTDIException
+	 * @see Device#write(ByteBuffer)
+	 * @since 0.3
+	 */
+	native int writeBuffer(long ftHandle, Object source, int offset, int length) throws FTDIException;
+
+	/**
+	 * Gathering write. Copies the list into one native buffer and submits it
+	 * with a single FT_Write. Each element of buffers is either a byte[] or a
+	 * direct ByteBuffer.
+	 *
+	 * @param ftHandle
+	 * @param buffers sources
+	 * @param offsets index of the first byte to send from each source
+	 * @param lengths number of bytes to send from each source
+	 * @param count number of list elements in use
+	 * @return total number of bytes actually written
+	 * @throws FTDIException
+	 * @see Device#write(ByteBuffer[])
+	 * @since 0.3
+	 */
+	native int writeGather(long ftHandle, Object[] buffers, int[] offsets, int[] lengths, int count) throws FTDIException;
+
 	/**
 	 * Write a 16-bit value to an EEPROM location.
 	 *
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2026 Stephen Davies
+ * 
+ * This file is part of yad2xx.
+ * 
+ * yad2xx is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * yad2xx is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with yad2xx.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.yad2xx;
+
+/**
+ * Memory fences for the shared ring, whose header and data live in mapped
+ * memory where no Java field access can order them. Uses the fences of
+ * sun.misc.Unsafe, present from Java 8, which the JIT compiles to the
+ * barrier instructions of the processor. They are implemented by
+ * UnsafeFences, which is built for Java 8 and loaded by name, so the library
+ * still loads on Java 6 and 7.
+ * 
+ * Java 6 and 7 have no fences. There a volatile field access is used
+ * instead, which only orders the plain accesses around it on processors
+ * that keep loads and stores in order (x86 and other TSO machines). Do not
+ * share a ring on weakly ordered processors, such as ARM, with those JVMs;
+ * {@link #isAvailable()} tells which applies.
+ *
+ * @since October 19, 2026
+ * @since 0.3
+ * @author Stephen Davies
+ */
+final class Fences {
+
+	/**
+	 * The fences of one platform.
+	 */
+	interface Barriers {
+
+		void loadFence();
+
+		void storeFence();
+	}
+
+	private static final Barriers BARRIERS = barriers();
+
+	/**
+	 * Ordering point when the real fences are missing.
+	 */
+	private static volatile int fallback;
+
+	private Fences() {
+	}
+
+	/**
+	 * @return the Unsafe fences, or null if this JVM has none
+	 */
+	private static Barriers barriers() {
+		try {
+			Barriers barriers = (Barriers) Class.forName("net.sf.yad2xx.UnsafeFences")
+					.getDeclaredConstructor().newInstance();
+			barriers.storeFence();
+			return barriers;
+		} catch (Throwable t) {
+			// not built, class version too new (Java 6 and 7), or no Unsafe
+			return null;
+		}
+	}
+
+	/**
+	 * @return true if the fences hold on every processor, false if only on
+	 *    TSO processors
+	 */
+	static boolean isAvailable() {
+		return BARRIERS != null;
+	}
+
+	/**
+	 * Loads before the fence complete before loads and stores after it.
+	 */
+	static void loadFence() {
+		if (BARRIERS != null) {
+			BARRIERS.loadFence();
+		} else {
+			int ignored = fallback;
+		}
+	}
+
+	/**
+	 * Loads and stores before the fence complete before stores after it.
+	 */
+	static void storeFence() {
+		if (BARRIERS != null) {
+			BARRIERS.storeFence();
+		} else {
+			fallback = 0;
+		}
+	}
+
+}
@@ -0,0 +1,156 @@
+/*
+ * Copyright 2026 Stephen Davies
+ * 
+ * This file is part of yad2xx.
+ * 
+ * yad2xx is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * yad2xx is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with yad2xx.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.yad2xx;
+
+import java.util.zip.Checksum;
+
+/**
+ * Incrementally splits a byte stream into frames. Data is passed in chunks as
+ * it is read from a Device, and complete frames are handed to a
+ * {@link FrameListener} as views rather than new arrays. A frame that lies
+ * wholly within one chunk, and needs no decoding, is delivered straight from
+ * the caller's buffer. Only frames spanning chunks, or needing unescaping, are
+ * copied into the decoder's reusable frame buffer.
+ * 
+ * Optionally each frame may end with a checksum trailer, which is verified and
+ * removed before delivery. Any java.util.zip.Checksum may be used.
+ * 
+ * Frames that are too long, badly encoded or fail their checksum are dropped
+ * and counted. Empty frames are ignored. Decoders are not thread-safe.
+ *
+ * @since October 19, 2026
+ * @since 0.3
+ * @author Stephen Davies
+ */
+public abstract class FrameDecoder {
+
+	final ByteScanner scanner = new ByteScanner();
+	protected final int maxFrameLength;
+
+	private Checksum checksum;
+	private int checksumSize;
+	private boolean checksumBigEndian;
+	private long droppedFrames;
+
+	/**
+	 * @param maxFrameLength longest frame accepted, including any checksum
+	 */
+	protected FrameDecoder(int maxFrameLength) {
+		if (maxFrameLength < 1)
+			throw new IllegalArgumentException("Maximum frame length must be positive");
+		this.maxFrameLength = maxFrameLength;
+	}
+
+	/**
+	 * Process the next chunk of the stream, delivering any frames it completes.
+	 *
+	 * @param data array holding the chunk
+	 * @param offset index of the first byte of the chunk
+	 * @param length number of bytes in the chunk
+	 * @param listener receives complete frames
+	 */
+	public abstract void decode(byte[] data, int offset, int length, FrameListener listener);
+
+	/**
+	 * Discard any partially received frame.
+	 */
+	public abstract void reset();
+
+	/**
+	 * Read whatever is waiting on a device into buffer, without blocking, and
+	 * decode it.
+	 *
+	 * @param device source of data
+	 * @param buffer reusable read buffer
+	 * @param listener receives complete frames
+	 * @return number of bytes read
+	 * @throws FTDIException
+	 */
+	public int read(Device device, byte[] buffer, FrameListener listener) throws FTDIException {
+		int count = device.readAvailable(buffer, 0, buffer.length);
+		if (count > 0) {
+			decode(buffer, 0, count, listener);
+		}
+		return count;
+	}
+
+	/**
+	 * Verify and strip a checksum trailer on each frame.
+	 *
+	 * @param checksum algorithm, or null for none
+	 * @param size trailer length in bytes, 1 to 8
+	 * @param bigEndian true if the trailer is sent most significant byte first
+	 */
+	public void setChecksum(Checksum checksum, int size, boolean bigEndian) {
+		if (checksum != null && (size < 1 || size > 8))
+			throw new IllegalArgumentException("Checksum size must be 1 to 8 bytes");
+		this.checksum = checksum;
+		this.checksumSize = checksum == null ? 0 : size;
+		this.checksumBigEndian = bigEndian;
+	}
+
+	/**
+	 * Number of frames discarded because they were too long, badly encoded or
+	 * failed their checksum.
+	 */
+	public long getDroppedFrames() {
+		return droppedFrames;
+	}
+
+	/**
+	 * Record a discarded frame.
+	 */
+	protected void drop() {
+		droppedFrames++;
+	}
+
+	/**
+	 * Check and deliver a complete frame.
+	 */
+	protected void emit(byte[] buffer, int offset, int length, FrameListener listener) {
+		if (length == 0) {
+			return;
+		}
+		if (length > maxFrameLength) {
+			drop();
+			return;
+		}
+		if (checksum != null) {
+			length -= checksumSize;
+			if (length < 0 || !verify(buffer, offset, length)) {
+				drop();
+				return;
+			}
+		}
+		listener.frameReceived(buffer, offset, length);
+	}
+
+	private boolean verify(byte[] buffer, int offset, int length) {
+		checksum.reset();
+		checksum.update(buffer, offset, length);
+		long expected = 0;
+		for (int i = 0; i < checksumSize; i++) {
+			int index = checksumBigEndian ? i : checksumSize - 1 - i;
+			expected = (expected << 8) | (buffer[offset + length + index] & 0xFF);
+		}
+		long mask = checksumSize == 8 ? -1L : (1L << (checksumSize * 8)) - 1;
+		return (checksum.getValue() & mask) == expected;
+	}
+
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright 2026 Stephen Davies
+ * 
+ * This file is part of yad2xx.
+ * 
+ * yad2xx is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * yad2xx is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with yad2xx.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.yad2xx;
+
+/**
+ * Receives frames from a {@link FrameDecoder}.
+ *
+ * @since October 19, 2026
+ * @since 0.3
+ * @author Stephen Davies
+ */
+public interface FrameListener {
+
+	/**
+	 * Called for each complete frame. The frame is a view of buffer, which
+	 * belongs to the decoder or the caller's read buffer, and is only valid for
+	 * the duration of the call. Copy it to keep it.
+	 *
+	 * @param buffer array holding the frame
+	 * @param offset index of the first byte of the frame
+	 * @param length number of bytes in the frame
+	 */
+	void frameReceived(byte[] buffer, int offset, int length);
+
+}
@@ -0,0 +1,275 @@
+/*
+ * Copyright 2026 Stephen Davies
+ * 
+ * This file is part of yad2xx.
+ * 
+ * yad2xx is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * yad2xx is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with yad2xx.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.yad2xx;
+
+/**
+ * A group of general purpose I/O pins on a Device.
+ * 
+ * The port keeps the output levels and pin directions it last sent in shadow
+ * registers, so set, clear and toggle are computed in memory and cost a single
+ * write, with no read-back. Changes that leave the pins as they are send
+ * nothing.
+ * 
+ * If sending fails, the shadow registers go back to the last state that
+ * reached the device and the unsent changes are discarded, so repeating the
+ * change sends it again.
+ * 
+ * Between beginBatch and flush, changes are queued instead of sent, and flush
+ * delivers them together. Where the hardware takes pin states as data, as in
+ * bit-bang and MPSSE modes, every intermediate state is kept, so a pulse
+ * queued as set then clear reaches the pins in order in one USB transfer.
+ * 
+ * A port is not thread-safe; confine each port to one thread, or synchronize
+ * externally.
+ *
+ * @since October 19, 2026
+ * @since 0.3
+ * @author Stephen Davies
+ */
+public abstract class GpioPort {
+
+	private static final int BATCH_SIZE = 256;
+
+	protected final Device device;
+	private final int pinMask;
+	private final int stateLength;
+	private final boolean directionInState;
+	private final byte[] commands;
+	private int length;
+	private int direction;
+	private int output;
+	private int sentDirection;
+	private int sentOutput;
+	private boolean batching;
+
+	/**
+	 * @param device device that owns the pins
+	 * @param pinMask pins available on this port, for example 0xff or 0x0f
+	 * @param stateLength bytes per queued state
+	 * @param directionInState true if each encoded state carries the pin
+	 *    directions, false if they are applied by {@link #directionChanged(int)}
+	 */
+	protected GpioPort(Device device, int pinMask, int stateLength, boolean directionInState) {
+		this.device = device;
+		this.pinMask = pinMask;
+		this.stateLength = stateLength;
+		this.directionInState = directionInState;
+		this.commands = new byte[BATCH_SIZE - BATCH_SIZE % stateLength];
+	}
+
+	/**
+	 * Establish the shadow registers, sending the state unconditionally.
+	 * Subclass constructors call this once the hardware mode is set up.
+	 */
+	protected final void init(int direction, int output) throws FTDIException {
+		direction &= pinMask;
+		output &= pinMask;
+		directionChanged(direction);
+		this.direction = direction;
+		sentDirection = direction;
+		append(output, direction);
+		this.output = output;
+		send();
+	}
+
+	/**
+	 * @return pin direction mask, 1 for output
+	 */
+	public int getDirection() {
+		return direction;
+	}
+
+	/**
+	 * @return output levels last written, or queued in a batch, from the
+	 *    shadow register
+	 */
+	public int getOutput() {
+		return output;
+	}
+
+	/**
+	 * @return pins available on this port
+	 */
+	public int getPinMask() {
+		return pinMask;
+	}
+
+	/**
+	 * Change pin directions, keeping output levels.
+	 * 
+	 * @param direction mask, 1 for output
+	 */
+	public void setDirection(int direction) throws FTDIException {
+		change(output, direction);
+	}
+
+	/**
+	 * Set all output levels at once.
+	 */
+	public void write(int value) throws FTDIException {
+		change(value, direction);
+	}
+
+	/**
+	 * Drive the masked pins high.
+	 */
+	public void set(int mask) throws FTDIException {
+		change(output | mask, direction);
+	}
+
+	/**
+	 * Drive the masked pins low.
+	 */
+	public void clear(int mask) throws FTDIException {
+		change(output & ~mask, direction);
+	}
+
+	/**
+	 * Invert the masked pins.
+	 */
+	public void toggle(int mask) throws FTDIException {
+		change(output ^ mask, direction);
+	}
+
+	/**
+	 * Drive some pins high and others low in a single change.
+	 */
+	public void update(int setMask, int clearMask) throws FTDIException {
+		change((output | setMask) & ~clearMask, direction);
+	}
+
+	/**
+	 * Queue changes until {@link #flush()} instead of sending each one.
+	 */
+	public void beginBatch() {
+		batching = true;
+	}
+
+	/**
+	 * @return true between beginBatch and flush
+	 */
+	public boolean isBatching() {
+		return batching;
+	}
+
+	/**
+	 * Send the changes queued since beginBatch and leave batch mode.
+	 */
+	public void flush() throws FTDIException {
+		batching = false;
+		send();
+	}
+
+	/**
+	 * Read the current pin levels from the hardware. Queued changes are sent
+	 * first.
+	 */
+	public int read() throws FTDIException {
+		send();
+		return readPins() & pinMask;
+	}
+
+	/**
+	 * Read the pin levels from the hardware.
+	 */
+	protected abstract int readPins() throws FTDIException;
+
+	/**
+	 * Encode one pin state into the command buffer.
+	 */
+	protected abstract void encode(byte[] buffer, int offset, int output, int direction);
+
+	/**
+	 * Called when the direction changes, before the new state is queued. Ports
+	 * whose direction is set by control request, rather than in each state,
+	 * apply it here; queued states are sent first so the change takes effect
+	 * in order.
+	 */
+	protected void directionChanged(int direction) throws FTDIException {
+	}
+
+	/**
+	 * Deliver encoded states to the device. Writes them as data by default.
+	 */
+	protected void transfer(byte[] buffer, int length) throws FTDIException {
+		device.write(buffer, length);
+	}
+
+	private void change(int newOutput, int newDirection) throws FTDIException {
+		newOutput &= pinMask;
+		newDirection &= pinMask;
+		boolean redirected = newDirection != direction;
+		if (!redirected && newOutput == output)
+			return;
+
+		if (redirected) {
+			if (!directionInState) {
+				send();
+			}
+			directionChanged(newDirection);
+			if (!directionInState) {
+				// applied by the control request, not by a queued state
+				sentDirection = newDirection;
+			}
+			direction = newDirection;
+		}
+		append(newOutput, newDirection);
+		output = newOutput;
+		if (!batching) {
+			send();
+		}
+	}
+
+	/**
+	 * Queue a state, first sending the queue if it is full. The shadow
+	 * registers still hold the previous state, which is what a send here
+	 * delivers last.
+	 */
+	private void append(int newOutput, int newDirection) throws FTDIException {
+		if (length + stateLength > commands.length) {
+			send();
+		}
+		encode(commands, length, newOutput, newDirection);
+		length += stateLength;
+	}
+
+	/**
+	 * Deliver the queued states. On failure the queue is discarded and the
+	 * shadow registers return to the last state sent.
+	 */
+	private void send() throws FTDIException {
+		if (length == 0)
+			return;
+		boolean sent = false;
+		try {
+			transfer(commands, length);
+			sent = true;
+		} finally {
+			length = 0;
+			if (sent) {
+				sentOutput = output;
+				sentDirection = direction;
+			} else {
+				output = sentOutput;
+				direction = sentDirection;
+			}
+		}
+	}
+
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright 2026 Stephen Davies
+ * 
+ * This file is part of yad2xx.
+ * 
+ * yad2xx is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * yad2xx is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with yad2xx.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.yad2xx;
+
+/**
+ * Consumes the result of an asynchronous operation on an {@link AsyncDevice}.
+ * Mirrors java.nio.channels.CompletionHandler, which this project's Java level
+ * does not provide.
+ *
+ * @param <V> result type
+ * @param <A> attachment type
+ * @since October 19, 2026
+ * @since 0.3
+ * @author Stephen Davies
+ */
+public interface IoCompletionHandler<V, A> {
+
+	/**
+	 * Called when the operation completes successfully.
+	 */
+	void completed(V result, A attachment);
+
+	/**
+	 * Called when the operation fails.
+	 */
+	void failed(Throwable exc, A attachment);
+
+}
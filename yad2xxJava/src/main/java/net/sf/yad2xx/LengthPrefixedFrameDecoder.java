@@ -0,0 +1,120 @@
+/*
+ * Copyright 2026 Stephen Davies
+ * 
+ * This file is part of yad2xx.
+ * 
+ * yad2xx is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * yad2xx is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with yad2xx.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.yad2xx;
+
+/**
+ * Frames preceded by a binary length field giving the number of bytes that
+ * follow it. The length field is not included in the delivered frame.
+ *
+ * There is no way to resynchronise a length-prefixed stream, so a length
+ * greater than the maximum is counted as a dropped frame and decoding
+ * continues with the following byte.
+ *
+ * @since October 19, 2026
+ * @since 0.3
+ * @author Stephen Davies
+ */
+public class LengthPrefixedFrameDecoder extends FrameDecoder {
+
+	private final int headerSize;
+	private final boolean bigEndian;
+	private final byte[] frame;
+	private int buffered;
+	private int expected;
+
+	/**
+	 * @param headerSize length field size in bytes, 1, 2 or 4
+	 * @param bigEndian true if the length is sent most significant byte first
+	 * @param maxFrameLength longest frame accepted, excluding the length field
+	 */
+	public LengthPrefixedFrameDecoder(int headerSize, boolean bigEndian, int maxFrameLength) {
+		super(maxFrameLength);
+		if (headerSize != 1 && headerSize != 2 && headerSize != 4)
+			throw new IllegalArgumentException("Header size must be 1, 2 or 4");
+		this.headerSize = headerSize;
+		this.bigEndian = bigEndian;
+		this.frame = new byte[headerSize + maxFrameLength];
+	}
+
+	@Override
+	public void decode(byte[] data, int offset, int count, FrameListener listener) {
+		int end = offset + count;
+		int position = offset;
+
+		while (position < end) {
+			if (buffered == 0 && end - position >= headerSize) {
+				int frameLength = frameLength(data, position);
+				if (frameLength < 0 || frameLength > maxFrameLength) {
+					drop();
+					position++;
+					continue;
+				}
+				if (end - position - headerSize >= frameLength) {
+					// whole frame in this chunk, deliver in place
+					emit(data, position + headerSize, frameLength, listener);
+					position += headerSize + frameLength;
+					continue;
+				}
+			}
+
+			if (buffered < headerSize) {
+				int step = Math.min(headerSize - buffered, end - position);
+				System.arraycopy(data, position, frame, buffered, step);
+				buffered += step;
+				position += step;
+				if (buffered == headerSize) {
+					expected = frameLength(frame, 0);
+					if (expected < 0 || expected > maxFrameLength) {
+						drop();
+						// retry from the second header byte
+						System.arraycopy(frame, 1, frame, 0, headerSize - 1);
+						buffered = headerSize - 1;
+						continue;
+					}
+				}
+			}
+
+			if (buffered >= headerSize) {
+				int step = Math.min(headerSize + expected - buffered, end - position);
+				System.arraycopy(data, position, frame, buffered, step);
+				buffered += step;
+				position += step;
+				if (buffered == headerSize + expected) {
+					emit(frame, headerSize, expected, listener);
+					buffered = 0;
+				}
+			}
+		}
+	}
+
+	@Override
+	public void reset() {
+		buffered = 0;
+	}
+
+	private int frameLength(byte[] data, int offset) {
+		int value = 0;
+		for (int i = 0; i < headerSize; i++) {
+			int index = bigEndian ? i : headerSize - 1 - i;
+			value = (value << 8) | (data[offset + index] & 0xFF);
+		}
+		return value;
+	}
+
+}
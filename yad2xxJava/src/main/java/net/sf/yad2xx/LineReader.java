@@ -0,0 +1,247 @@
+/*
+ * Copyright 2026 Stephen Davies
+ * 
+ * This file is part of yad2xx.
+ * 
+ * yad2xx is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * yad2xx is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with yad2xx.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.yad2xx;
+
+import java.nio.CharBuffer;
+
+/**
+ * Reads text lines from a Device, for ASCII instrument protocols. Received
+ * bytes are gathered in bulk into a reusable buffer, terminators are found
+ * with a {@link ByteScanner}, and each line is decoded into a reusable
+ * CharBuffer, so reading a line allocates nothing.
+ * 
+ * Bytes are mapped to chars one for one as ISO-8859-1, a superset of ASCII,
+ * which needs no CharsetDecoder.
+ * 
+ * Lines longer than the maximum are discarded up to the next terminator and
+ * counted by {@link #getDroppedLines()}. A reader is not thread-safe, and
+ * while in use it should be the only reader of its device.
+ *
+ * @since October 19, 2026
+ * @since 0.3
+ * @author Stephen Davies
+ */
+public class LineReader {
+
+	private static final byte CR = '\r';
+	private static final byte LF = '\n';
+
+	/**
+	 * Standard line endings.
+	 */
+	public enum Terminator {
+		/** Carriage return alone. */
+		CR,
+		/** Line feed alone. */
+		LF,
+		/** Carriage return followed by line feed. A lone CR or LF is text. */
+		CRLF,
+		/** Any of CR, LF or CRLF; CRLF ends one line, not two. */
+		ANY
+	}
+
+	private final Device device;
+	private final ByteScanner scanner = new ByteScanner();
+	private final Terminator terminator;
+	private final byte[] sequence;
+	private final ScanBuffer buffer;
+	private final byte[] data;
+	private final char[] chars;
+	private final CharBuffer line;
+	private boolean skipLf;
+
+	/**
+	 * @param device open device to read
+	 * @param terminator line ending in use
+	 * @param maxLineLength longest line accepted, excluding the terminator
+	 */
+	public LineReader(Device device, Terminator terminator, int maxLineLength) {
+		this(device, terminator, null, maxLineLength);
+	}
+
+	/**
+	 * Reader for lines ending in a custom byte sequence, for example a prompt.
+	 * 
+	 * @param device open device to read
+	 * @param terminator bytes ending each line
+	 * @param maxLineLength longest line accepted, excluding the terminator
+	 */
+	public LineReader(Device device, byte[] terminator, int maxLineLength) {
+		this(device, null, terminator.clone(), maxLineLength);
+		if (terminator.length == 0)
+			throw new IllegalArgumentException("Terminator must not be empty");
+	}
+
+	private LineReader(Device device, Terminator terminator, byte[] sequence, int maxLineLength) {
+		if (maxLineLength < 1)
+			throw new IllegalArgumentException("Maximum line length must be positive");
+		this.device = device;
+		this.terminator = terminator;
+		this.sequence = sequence;
+		this.buffer = new ScanBuffer(maxLineLength,
+				sequence != null ? sequence.length : terminator == Terminator.CRLF ? 2 : 1);
+		this.data = buffer.data;
+		this.chars = new char[maxLineLength];
+		this.line = CharBuffer.wrap(chars);
+	}
+
+	/**
+	 * Read the next line, waiting for it until the deadline.
+	 * 
+	 * @param deadlineNanos System.nanoTime at which to give up
+	 * @return the line, without its terminator, valid until the next call on
+	 *    this reader; or null if no complete line arrived in time
+	 * @throws FTDIException
+	 */
+	public CharSequence readLine(long deadlineNanos) throws FTDIException {
+		while (true) {
+			if (nextLine())
+				return line;
+			if (System.nanoTime() - deadlineNanos >= 0)
+				return null;
+			buffer.fill(device, deadlineNanos);
+		}
+	}
+
+	/**
+	 * Read whatever is waiting on the device, without blocking, and deliver
+	 * every complete line.
+	 * 
+	 * @param listener receives the lines
+	 * @return number of lines delivered
+	 * @throws FTDIException
+	 */
+	public int poll(LineListener listener) throws FTDIException {
+		buffer.readAvailable(device);
+		int lines = 0;
+		while (nextLine()) {
+			listener.lineReceived(line);
+			lines++;
+		}
+		return lines;
+	}
+
+	/**
+	 * Discard buffered data, including any partial line.
+	 */
+	public void reset() {
+		buffer.reset();
+		skipLf = false;
+	}
+
+	/**
+	 * Number of lines discarded for being longer than the maximum.
+	 */
+	public long getDroppedLines() {
+		return buffer.getDropped();
+	}
+
+	/**
+	 * Find the next complete line in the buffer and decode it into line.
+	 * 
+	 * @return false if no complete line is buffered
+	 */
+	private boolean nextLine() {
+		while (true) {
+			if (skipLf && buffer.start < buffer.end) {
+				if (data[buffer.start] == LF) {
+					buffer.start++;
+				}
+				skipLf = false;
+			}
+			int from = buffer.scanFrom();
+			int index;
+			int lineEnd;
+			if (sequence != null) {
+				index = findSequence(from);
+				lineEnd = index - (sequence.length - 1);
+			} else {
+				switch (terminator) {
+				case CR:
+					index = scanner.indexOf(data, from, buffer.end, CR);
+					break;
+				case LF:
+					index = scanner.indexOf(data, from, buffer.end, LF);
+					break;
+				case CRLF:
+					index = findCrLf(from);
+					break;
+				default:
+					index = scanner.indexOfEither(data, from, buffer.end, CR, LF);
+					if (index >= 0 && data[index] == CR) {
+						skipLf = true;
+					}
+					break;
+				}
+				lineEnd = terminator == Terminator.CRLF ? index - 1 : index;
+			}
+			if (index < 0) {
+				buffer.notFound();
+				return false;
+			}
+
+			int lineStart = buffer.consume(lineEnd, index + 1);
+			if (lineStart < 0)
+				continue;
+			int length = lineEnd - lineStart;
+			for (int i = 0; i < length; i++) {
+				chars[i] = (char) (data[lineStart + i] & 0xFF);
+			}
+			line.clear();
+			line.limit(length);
+			return true;
+		}
+	}
+
+	/**
+	 * @return index of an LF preceded by CR, or -1
+	 */
+	private int findCrLf(int from) {
+		while (true) {
+			int index = scanner.indexOf(data, from, buffer.end, LF);
+			if (index < 0 || (index > buffer.start && data[index - 1] == CR))
+				return index;
+			from = index + 1;
+		}
+	}
+
+	/**
+	 * @return index of the last byte of the custom terminator, or -1
+	 */
+	private int findSequence(int from) {
+		int last = sequence.length - 1;
+		while (true) {
+			int index = scanner.indexOf(data, from, buffer.end, sequence[last]);
+			if (index < 0)
+				return -1;
+			if (index - last >= buffer.start && matches(index - last))
+				return index;
+			from = index + 1;
+		}
+	}
+
+	private boolean matches(int offset) {
+		for (int i = 0; i < sequence.length - 1; i++) {
+			if (data[offset + i] != sequence[i])
+				return false;
+		}
+		return true;
+	}
+
+}
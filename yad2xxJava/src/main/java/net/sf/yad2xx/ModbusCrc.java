@@ -0,0 +1,81 @@
+/*
+ * Copyright 2026 Stephen Davies
+ * 
+ * This file is part of yad2xx.
+ * 
+ * yad2xx is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * yad2xx is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with yad2xx.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.yad2xx;
+
+import java.util.zip.Checksum;
+
+/**
+ * CRC-16/MODBUS, as used to check Modbus RTU frames: polynomial 0x8005,
+ * reflected, initial value 0xFFFF. Computed a byte at a time from a 256 entry
+ * table. The CRC is sent least significant byte first, so a
+ * {@link FrameDecoder} checks RTU frames with
+ * {@code setChecksum(new ModbusCrc(), 2, false)}.
+ *
+ * @since October 19, 2026
+ * @since 0.3
+ * @author Stephen Davies
+ */
+public class ModbusCrc implements Checksum {
+
+	private static final char[] TABLE = new char[256];
+
+	static {
+		for (int i = 0; i < 256; i++) {
+			int crc = i;
+			for (int bit = 0; bit < 8; bit++) {
+				crc = (crc & 1) != 0 ? (crc >>> 1) ^ 0xA001 : crc >>> 1;
+			}
+			TABLE[i] = (char) crc;
+		}
+	}
+
+	private int crc = 0xFFFF;
+
+	/**
+	 * CRC of part of an array, without creating a ModbusCrc.
+	 */
+	public static int compute(byte[] data, int offset, int length) {
+		int crc = 0xFFFF;
+		for (int i = offset; i < offset + length; i++) {
+			crc = (crc >>> 8) ^ TABLE[(crc ^ data[i]) & 0xFF];
+		}
+		return crc;
+	}
+
+	public void update(int b) {
+		crc = (crc >>> 8) ^ TABLE[(crc ^ b) & 0xFF];
+	}
+
+	public void update(byte[] b, int off, int len) {
+		int value = crc;
+		for (int i = off; i < off + len; i++) {
+			value = (value >>> 8) ^ TABLE[(value ^ b[i]) & 0xFF];
+		}
+		crc = value;
+	}
+
+	public long getValue() {
+		return crc;
+	}
+
+	public void reset() {
+		crc = 0xFFFF;
+	}
+
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2026 Stephen Davies
+ * 
+ * This file is part of yad2xx.
+ * 
+ * yad2xx is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * yad2xx is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with yad2xx.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.yad2xx;
+
+/**
+ * A Modbus request that did not succeed: the slave answered with an
+ * exception response, or the response was missing or damaged. The code is
+ * the slave's exception code, or one of the negative codes for failures
+ * detected by the master.
+ *
+ * @since October 19, 2026
+ * @since 0.3
+ * @author Stephen Davies
+ */
+public class ModbusException extends Exception {
+
+	private static final long serialVersionUID = 4830385519272071630L;
+
+	/** No complete response arrived within the response timeout. */
+	public static final int TIMEOUT = -1;
+	/** The response failed its CRC check. */
+	public static final int CRC_ERROR = -2;
+	/** The response came from the wrong slave, or did not match the request. */
+	public static final int BAD_RESPONSE = -3;
+
+	/** Slave exception: function code not supported. */
+	public static final int ILLEGAL_FUNCTION = 1;
+	/** Slave exception: register address not available. */
+	public static final int ILLEGAL_DATA_ADDRESS = 2;
+	/** Slave exception: value or count not allowed. */
+	public static final int ILLEGAL_DATA_VALUE = 3;
+	/** Slave exception: unrecoverable error in the slave. */
+	public static final int SLAVE_DEVICE_FAILURE = 4;
+
+	private final int slave;
+	private final int code;
+
+	public ModbusException(int slave, int code) {
+		super(describe(code) + " from slave " + slave);
+		this.slave = slave;
+		this.code = code;
+	}
+
+	private static String describe(int code) {
+		switch (code) {
+		case TIMEOUT:
+			return "No response";
+		case CRC_ERROR:
+			return "CRC error";
+		case BAD_RESPONSE:
+			return "Unexpected response";
+		default:
+			return "Exception " + code;
+		}
+	}
+
+	public int getSlave() {
+		return slave;
+	}
+
+	public int getCode() {
+		return code;
+	}
+
+	/**
+	 * @return true if the slave answered with an exception code, false if
+	 *    the master detected the failure
+	 */
+	public boolean isSlaveException() {
+		return code > 0;
+	}
+}
@@ -0,0 +1,192 @@
+/*
+ * Copyright 2026 Stephen Davies
+ * 
+ * This file is part of yad2xx.
+ * 
+ * yad2xx is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * yad2xx is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with yad2xx.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.yad2xx;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Modbus RTU master for RS-485 adapters. Each request runs as a
+ * {@link Transaction}, so clearing stale input, the inter-frame silence,
+ * sending the frame and collecting the head of the response take a single
+ * native call; the rest of a normal response follows with one read.
+ * 
+ * The silence before each request is the 3.5 character time of the line
+ * speed set with {@link Device#setBaudRate(int)} or
+ * {@link Device#apply(DeviceConfig)}, or 1.75 ms above 19200 baud, as the
+ * Modbus serial line specification requires. The device's read timeout
+ * should be short, 10 ms or so, so that a missing response is detected close
+ * to the response timeout.
+ * 
+ * For repeated polling of many registers, see {@link ModbusPoller}. A master
+ * may be shared between threads; requests are serialized.
+ *
+ * @since October 19, 2026
+ * @since 0.3
+ * @author Stephen Davies
+ */
+public class ModbusMaster {
+
+	public static final int READ_HOLDING_REGISTERS = 3;
+	public static final int READ_INPUT_REGISTERS = 4;
+	public static final int WRITE_SINGLE_REGISTER = 6;
+
+	/**
+	 * Most registers one read may return, set by the 253 byte PDU limit.
+	 */
+	public static final int MAX_READ_REGISTERS = 125;
+
+	/**
+	 * Default time allowed for a response, in milliseconds.
+	 */
+	public static final int DEFAULT_RESPONSE_TIMEOUT = 100;
+
+	private final Device device;
+	private final byte[] response = new byte[ModbusRequest.HEAD_LENGTH + 2 * MAX_READ_REGISTERS];
+	private volatile int responseTimeout = DEFAULT_RESPONSE_TIMEOUT;
+
+	/**
+	 * @param device open device, with its baud rate set
+	 */
+	public ModbusMaster(Device device) {
+		this.device = device;
+	}
+
+	/**
+	 * Silence required between frames, 3.5 character times of 11 bits, or a
+	 * fixed 1750 us above 19200 baud.
+	 * 
+	 * @return microseconds, rounded up
+	 */
+	public static int getSilenceMicros(int baudRate) {
+		if (baudRate > 19200)
+			return 1750;
+		return (int) ((38500000L + baudRate - 1) / baudRate);
+	}
+
+	public Device getDevice() {
+		return device;
+	}
+
+	/**
+	 * @param millis time allowed for each response
+	 */
+	public void setResponseTimeout(int millis) {
+		if (millis < 1)
+			throw new IllegalArgumentException("Response timeout must be positive");
+		this.responseTimeout = millis;
+	}
+
+	public int getResponseTimeout() {
+		return responseTimeout;
+	}
+
+	/**
+	 * Read a run of holding or input registers.
+	 * 
+	 * @param slave slave address, 1 to 247
+	 * @param function READ_HOLDING_REGISTERS or READ_INPUT_REGISTERS
+	 * @param address first register
+	 * @param count number of registers, 1 to {@link #MAX_READ_REGISTERS}
+	 * @param values receives the registers, as unsigned 16-bit values
+	 * @param offset index in values of the first register
+	 * @throws FTDIException if the device fails
+	 * @throws ModbusException if the request fails
+	 */
+	public void readRegisters(int slave, int function, int address, int count, int[] values, int offset)
+			throws FTDIException, ModbusException {
+		execute(readRequest(slave, function, address, count), values, offset);
+	}
+
+	/**
+	 * Write a single holding register.
+	 * 
+	 * @param slave slave address, 1 to 247
+	 * @param address register to write
+	 * @param value 16-bit value
+	 * @throws FTDIException if the device fails
+	 * @throws ModbusException if the request fails
+	 */
+	public void writeRegister(int slave, int address, int value) throws FTDIException, ModbusException {
+		// the normal response echoes the request
+		execute(new ModbusRequest(slave, WRITE_SINGLE_REGISTER, address, value & 0xFFFF, 8), null, 0);
+	}
+
+	/**
+	 * Build a read request, checking its parameters.
+	 */
+	static ModbusRequest readRequest(int slave, int function, int address, int count) {
+		if (function != READ_HOLDING_REGISTERS && function != READ_INPUT_REGISTERS)
+			throw new IllegalArgumentException("Not a register read function: " + function);
+		if (count < 1 || count > MAX_READ_REGISTERS)
+			throw new IllegalArgumentException("Register count must be 1 to " + MAX_READ_REGISTERS);
+		if (address < 0 || address + count > 0x10000)
+			throw new IllegalArgumentException("Registers out of range");
+		return new ModbusRequest(slave, function, address, count, ModbusRequest.HEAD_LENGTH + 2 * count);
+	}
+
+	/**
+	 * Send a request and check its response.
+	 * 
+	 * @param values receives the registers of a read response, or null for
+	 *    a request whose response echoes it
+	 */
+	synchronized void execute(ModbusRequest request, int[] values, int offset) throws FTDIException, ModbusException {
+		DeviceConfig config = device.getConfig();
+		if (!config.isSpecified(DeviceConfig.BAUD_RATE))
+			throw new IllegalStateException("Baud rate not set");
+		int timeout = responseTimeout;
+		Transaction transaction = request.getTransaction(getSilenceMicros(config.getBaudRate()), timeout);
+
+		if (device.execute(transaction, response, 0) < 0)
+			throw new ModbusException(request.slave, ModbusException.TIMEOUT);
+		if ((response[0] & 0xFF) != request.slave)
+			throw new ModbusException(request.slave, ModbusException.BAD_RESPONSE);
+		int function = response[1] & 0xFF;
+		if (function == (request.function | 0x80)) {
+			if (ModbusCrc.compute(response, 0, ModbusRequest.HEAD_LENGTH) != 0)
+				throw new ModbusException(request.slave, ModbusException.CRC_ERROR);
+			throw new ModbusException(request.slave, response[2] & 0xFF);
+		}
+		if (function != request.function)
+			throw new ModbusException(request.slave, ModbusException.BAD_RESPONSE);
+
+		int rest = request.responseLength - ModbusRequest.HEAD_LENGTH;
+		long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout);
+		if (device.readFully(response, ModbusRequest.HEAD_LENGTH, rest, deadline) < rest)
+			throw new ModbusException(request.slave, ModbusException.TIMEOUT);
+		// the CRC of a frame followed by its own CRC is zero
+		if (ModbusCrc.compute(response, 0, request.responseLength) != 0)
+			throw new ModbusException(request.slave, ModbusException.CRC_ERROR);
+
+		if (values == null) {
+			for (int i = 2; i < 6; i++) {
+				if (response[i] != request.frame[i])
+					throw new ModbusException(request.slave, ModbusException.BAD_RESPONSE);
+			}
+		} else {
+			int count = (request.responseLength - ModbusRequest.HEAD_LENGTH) / 2;
+			if ((response[2] & 0xFF) != 2 * count)
+				throw new ModbusException(request.slave, ModbusException.BAD_RESPONSE);
+			for (int i = 0; i < count; i++) {
+				values[offset + i] = ((response[3 + 2 * i] & 0xFF) << 8) | (response[4 + 2 * i] & 0xFF);
+			}
+		}
+	}
+
+}
@@ -0,0 +1,288 @@
+/*
+ * Copyright 2026 Stephen Davies
+ * 
+ * This file is part of yad2xx.
+ * 
+ * yad2xx is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * yad2xx is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with yad2xx.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.yad2xx;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Polls register ranges on a Modbus RTU bus with as few requests as
+ * possible. Ranges are added individually; before polling they are sorted,
+ * and adjacent or overlapping ranges of the same slave and function are
+ * merged into one read of up to {@link ModbusMaster#MAX_READ_REGISTERS}
+ * registers. Optionally, ranges separated by a small gap are merged too, at
+ * the cost of reading the registers in between; only allow that where the
+ * slaves implement the gap registers, or they will answer with an exception.
+ * 
+ * A bus can carry only one request at a time, so cycle time is set by the
+ * number of requests and the time each takes. Besides merging, a poll
+ * reuses each request's frame and Transaction from cycle to cycle, and once
+ * a slave fails to answer its remaining requests in that cycle are skipped
+ * rather than each waiting for the response timeout.
+ * 
+ * Ranges may be read from any thread while polling continues.
+ *
+ * @since October 19, 2026
+ * @since 0.3
+ * @author Stephen Davies
+ */
+public class ModbusPoller {
+
+	/**
+	 * A run of registers to poll, and their most recent values.
+	 */
+	public static final class Range {
+
+		private final int slave;
+		private final int function;
+		private final int address;
+		private final int count;
+		private final int[] values;
+		private long updated;
+		private Exception error;
+
+		Range(int slave, int function, int address, int count) {
+			this.slave = slave;
+			this.function = function;
+			this.address = address;
+			this.count = count;
+			this.values = new int[count];
+		}
+
+		public int getSlave() {
+			return slave;
+		}
+
+		public int getFunction() {
+			return function;
+		}
+
+		public int getAddress() {
+			return address;
+		}
+
+		public int getCount() {
+			return count;
+		}
+
+		/**
+		 * @param register address of a register in this range
+		 * @return value from the last successful poll
+		 */
+		public synchronized int getValue(int register) {
+			return values[register - address];
+		}
+
+		/**
+		 * Copy all values from the last successful poll.
+		 */
+		public synchronized void getValues(int[] target, int offset) {
+			System.arraycopy(values, 0, target, offset, count);
+		}
+
+		/**
+		 * @return System.nanoTime of the last successful poll, 0 if never
+		 */
+		public synchronized long getUpdated() {
+			return updated;
+		}
+
+		/**
+		 * @return why the last poll failed, a ModbusException or
+		 *    FTDIException, or null if it succeeded
+		 */
+		public synchronized Exception getError() {
+			return error;
+		}
+
+		synchronized void update(int[] source, int offset, long now) {
+			System.arraycopy(source, offset, values, 0, count);
+			updated = now;
+			error = null;
+		}
+
+		synchronized void fail(Exception error) {
+			this.error = error;
+		}
+	}
+
+	/**
+	 * One merged read and the ranges it serves.
+	 */
+	private static final class Block {
+
+		final ModbusRequest request;
+		final int address;
+		final int[] values;
+		final Range[] ranges;
+
+		Block(int address, int count, List<Range> ranges) {
+			Range first = ranges.get(0);
+			this.request = ModbusMaster.readRequest(first.slave, first.function, address, count);
+			this.address = address;
+			this.values = new int[count];
+			this.ranges = ranges.toArray(new Range[ranges.size()]);
+		}
+	}
+
+	private static final Comparator<Range> ORDER = new Comparator<Range>() {
+		public int compare(Range a, Range b) {
+			if (a.slave != b.slave)
+				return a.slave - b.slave;
+			if (a.function != b.function)
+				return a.function - b.function;
+			return a.address - b.address;
+		}
+	};
+
+	private final ModbusMaster master;
+	private final int maxGap;
+	private final List<Range> ranges = new ArrayList<Range>();
+	private final ModbusException[] silent = new ModbusException[248];
+	private Block[] plan;
+
+	/**
+	 * Poller merging only adjacent or overlapping ranges.
+	 */
+	public ModbusPoller(ModbusMaster master) {
+		this(master, 0);
+	}
+
+	/**
+	 * @param master bus to poll
+	 * @param maxGap most unrequested registers read to join two ranges
+	 */
+	public ModbusPoller(ModbusMaster master, int maxGap) {
+		if (maxGap < 0)
+			throw new IllegalArgumentException("Negative gap");
+		this.master = master;
+		this.maxGap = maxGap;
+	}
+
+	/**
+	 * Add a range to poll from the next cycle on.
+	 * 
+	 * @param slave slave address, 1 to 247
+	 * @param function READ_HOLDING_REGISTERS or READ_INPUT_REGISTERS
+	 * @param address first register
+	 * @param count number of registers, 1 to {@link ModbusMaster#MAX_READ_REGISTERS}
+	 * @return the range, through which values are read
+	 */
+	public synchronized Range add(int slave, int function, int address, int count) {
+		// validates the parameters
+		ModbusMaster.readRequest(slave, function, address, count);
+		Range range = new Range(slave, function, address, count);
+		ranges.add(range);
+		plan = null;
+		return range;
+	}
+
+	/**
+	 * Stop polling a range.
+	 */
+	public synchronized void remove(Range range) {
+		if (ranges.remove(range)) {
+			plan = null;
+		}
+	}
+
+	/**
+	 * @return number of requests each cycle makes
+	 */
+	public synchronized int getRequestCount() {
+		return plan().length;
+	}
+
+	/**
+	 * Run one polling cycle. Failures of individual requests are recorded on
+	 * their ranges; a failure of the device itself ends the cycle.
+	 * 
+	 * @return number of requests that failed or were skipped
+	 * @throws FTDIException if the device fails
+	 */
+	public synchronized int poll() throws FTDIException {
+		Arrays.fill(silent, null);
+		int failures = 0;
+		for (Block block : plan()) {
+			ModbusRequest request = block.request;
+			ModbusException error = silent[request.slave];
+			if (error == null) {
+				try {
+					master.execute(request, block.values, 0);
+					long now = System.nanoTime();
+					for (Range range : block.ranges) {
+						range.update(block.values, range.address - block.address, now);
+					}
+					continue;
+				} catch (ModbusException e) {
+					error = e;
+					if (e.getCode() == ModbusException.TIMEOUT) {
+						silent[request.slave] = e;
+					}
+				}
+			}
+			failures++;
+			for (Range range : block.ranges) {
+				range.fail(error);
+			}
+		}
+		return failures;
+	}
+
+	/**
+	 * Merge the ranges into requests, if not done since they last changed.
+	 */
+	private Block[] plan() {
+		if (plan != null)
+			return plan;
+
+		List<Range> sorted = new ArrayList<Range>(ranges);
+		Collections.sort(sorted, ORDER);
+		List<Block> blocks = new ArrayList<Block>();
+		List<Range> members = new ArrayList<Range>();
+		int start = 0;
+		int end = 0;
+		for (Range range : sorted) {
+			if (!members.isEmpty()) {
+				Range first = members.get(0);
+				int merged = Math.max(end, range.address + range.count);
+				if (range.slave != first.slave || range.function != first.function
+						|| range.address > end + maxGap || merged - start > ModbusMaster.MAX_READ_REGISTERS) {
+					blocks.add(new Block(start, end - start, members));
+					members.clear();
+				}
+			}
+			if (members.isEmpty()) {
+				start = range.address;
+				end = range.address;
+			}
+			members.add(range);
+			end = Math.max(end, range.address + range.count);
+		}
+		if (!members.isEmpty()) {
+			blocks.add(new Block(start, end - start, members));
+		}
+		plan = blocks.toArray(new Block[blocks.size()]);
+		return plan;
+	}
+
+}
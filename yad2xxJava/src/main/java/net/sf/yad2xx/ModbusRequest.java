@@ -0,0 +1,89 @@
+/*
+ * Copyright 2026 Stephen Davies
+ * 
+ * This file is part of yad2xx.
+ * 
+ * yad2xx is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * yad2xx is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with yad2xx.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.yad2xx;
+
+/**
+ * One Modbus RTU request frame, with the Transaction that sends it. The
+ * transaction is rebuilt only when the line speed or response timeout
+ * changes, so a request polled repeatedly costs no allocation.
+ *
+ * @since October 19, 2026
+ * @since 0.3
+ * @author Stephen Davies
+ */
+final class ModbusRequest {
+
+	/**
+	 * Bytes of every response read by the transaction: slave, function, then
+	 * an exception code or the first data byte, and a two byte CRC, which an
+	 * exception response ends with.
+	 */
+	static final int HEAD_LENGTH = 5;
+
+	final int slave;
+	final int function;
+	final byte[] frame;
+	final int responseLength;
+	private Transaction transaction;
+	private int silenceMicros;
+	private int timeout;
+
+	/**
+	 * @param slave slave address, 1 to 247
+	 * @param function function code
+	 * @param first first 16-bit field, usually a register address
+	 * @param second second 16-bit field, a count or value
+	 * @param responseLength length of a normal response, including its CRC
+	 */
+	ModbusRequest(int slave, int function, int first, int second, int responseLength) {
+		if (slave < 1 || slave > 247)
+			throw new IllegalArgumentException("Slave address must be 1 to 247");
+		this.slave = slave;
+		this.function = function;
+		this.responseLength = responseLength;
+		frame = new byte[] {
+				(byte) slave, (byte) function,
+				(byte) (first >> 8), (byte) first,
+				(byte) (second >> 8), (byte) second,
+				0, 0 };
+		int crc = ModbusCrc.compute(frame, 0, 6);
+		frame[6] = (byte) crc;
+		frame[7] = (byte) (crc >> 8);
+	}
+
+	/**
+	 * The transaction for this request: clear stale input, keep the line
+	 * silent for the inter-frame gap, send the frame and collect the head of
+	 * the response.
+	 */
+	Transaction getTransaction(int silenceMicros, int timeout) {
+		if (transaction == null || silenceMicros != this.silenceMicros || timeout != this.timeout) {
+			transaction = new Transaction()
+					.purge(FTDIConstants.FT_PURGE_RX)
+					.delay(silenceMicros)
+					.write(frame)
+					.expect(HEAD_LENGTH)
+					.timeout(timeout);
+			this.silenceMicros = silenceMicros;
+			this.timeout = timeout;
+		}
+		return transaction;
+	}
+
+}
@@ -21,68 +21,101 @@ package net.sf.yad2xx;
 /**
  * Convenience class to simplify the handling of calls to GetModemStatus.
  *
+ * The static methods test bits directly on the raw status value, avoiding the
+ * allocation of a ModemStatus when polling.
+ *
  * @since December 14, 2014
  * @since 0.3
  * @author Stephen Davies
  */
 public class ModemStatus {
 
-	// bit masks defined by FTDI
-	private static final byte BI_MASK = 0x10;			// Break Interrupt
-	private static final byte CTS_MASK = 0x10;			// Clear to Send
-	private static final byte DCD_MASK = (byte) 0x80;	// Data Carrier Detect
-	private static final byte DSR_MASK = 0x20;			// Data Set Ready
-	private static final byte FE_MASK = 0x08;			// Framing Error
-	private static final byte OE_MASK = 0x02;			// Overrun error
-	private static final byte PE_MASK = 0x04;			// Parity Error
-	private static final byte RI_MASK = 0x40;			// Ring Indicator
-	
-	private byte modemStatus;
-	private byte lineStatus;
+	// bit masks defined by FTDI, modem status in LSB, line status in next byte
+	public static final int CTS = 0x0010;		// Clear to Send
+	public static final int DSR = 0x0020;		// Data Set Ready
+	public static final int RI = 0x0040;		// Ring Indicator
+	public static final int DCD = 0x0080;		// Data Carrier Detect
+	public static final int OE = 0x0200;		// Overrun error
+	public static final int PE = 0x0400;		// Parity Error
+	public static final int FE = 0x0800;		// Framing Error
+	public static final int BI = 0x1000;		// Break Interrupt
+	
+	private int status;
 	
 	public ModemStatus(int status) {
-		this.modemStatus = (byte) (status & 0xFF);
-		this.lineStatus = (byte) ((status >> 8) & 0xFF);
+		this.status = status;
+	}
+	
+	public static boolean hasBreakInterrupt(int status) {
+		return (status & BI) != 0;
+	}
+	
+	public static boolean hasCTS(int status) {
+		return (status & CTS) != 0;
+	}
+	
+	public static boolean hasDCD(int status) {
+		return (status & DCD) != 0;
+	}
+	
+	public static boolean hasDSR(int status) {
+		return (status & DSR) != 0;
+	}
+	
+	public static boolean hasFramingError(int status) {
+		return (status & FE) != 0;
+	}
+	
+	public static boolean hasOverrunError(int status) {
+		return (status & OE) != 0;
+	}
+	
+	public static boolean hasParityError(int status) {
+		return (status & PE) != 0;
+	}
+	
+	public static boolean hasRI(int status) {
+		return (status & RI) != 0;
 	}
 	
 	public boolean hasBreakInterrupt() {
-		return (lineStatus & BI_MASK) != 0;
+		return hasBreakInterrupt(status);
 	}
 	
 	public boolean hasCTS() {
-		return (modemStatus & CTS_MASK) != 0; 
+		return hasCTS(status);
 	}
 	
 	public boolean hasDCD() {
-		return (modemStatus & DCD_MASK) != 0; 
+		return hasDCD(status);
 	}
 	
 	public boolean hasDSR() {
-		return (modemStatus & DSR_MASK) != 0; 
+		return hasDSR(status);
 	}
 
 	public boolean hasFramingError() {
-		return (lineStatus & FE_MASK) != 0;
+		return hasFramingError(status);
 	}
 	
 	public boolean hasOverrunError() {
-		return (lineStatus & OE_MASK) != 0;
+		return hasOverrunError(status);
 	}
 	
 	public boolean hasParityError() {
-		return (lineStatus & PE_MASK) != 0;
+		return hasParityError(status);
 	}
 	
 	public boolean hasRI() {
-		return (modemStatus & RI_MASK) != 0; 
+		return hasRI(status);
 	}
 	
 	@Override
 	public String toString() {
 		StringBuilder result = new StringBuilder("ModemStatus(modem: ");
-		result.append(Integer.toHexString(modemStatus));
+		result.append(Integer.toHexString(status & 0xFF));
 		result.append(", line: ");
-		result.append(Integer.toHexString(lineStatus));
+		result.append(Integer.toHexString((status >> 8) & 0xFF));
 		result.append(")");
 		return result.toString();
 	}
@@ -0,0 +1,47 @@
+/*
+ * Copyright 2026 Stephen Davies
+ * 
+ * This file is part of yad2xx.
+ * 
+ * yad2xx is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * yad2xx is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with yad2xx.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.yad2xx;
+
+/**
+ * Receives modem and line status changes from a {@link Device}. Only edges
+ * are delivered; a listener is not called while the status is unchanged.
+ * Listeners are called from the shared polling thread, so they should return
+ * quickly. One that throws does not affect the others; the exception goes to
+ * the polling thread's uncaught exception handler.
+ *
+ * @see Device#addModemStatusListener(ModemStatusListener)
+ * @since October 19, 2026
+ * @since 0.3
+ * @author Stephen Davies
+ */
+public interface ModemStatusListener {
+
+	/**
+	 * Called when one or more of the CTS, DSR, RI, DCD, OE, PE, FE or BI bits
+	 * change. Test the rising and falling masks against the ModemStatus
+	 * constants, for example {@code (rising & ModemStatus.CTS) != 0}.
+	 *
+	 * @param device the device whose status changed
+	 * @param rising bits that have become set
+	 * @param falling bits that have become clear
+	 * @param status the new raw modem and line status
+	 */
+	void modemStatusChanged(Device device, int rising, int falling, int status);
+
+}
@@ -0,0 +1,175 @@
+/*
+ * Copyright 2026 Stephen Davies
+ * 
+ * This file is part of yad2xx.
+ * 
+ * yad2xx is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * yad2xx is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with yad2xx.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.yad2xx;
+
+import static net.sf.yad2xx.ModemStatus.BI;
+import static net.sf.yad2xx.ModemStatus.CTS;
+import static net.sf.yad2xx.ModemStatus.DCD;
+import static net.sf.yad2xx.ModemStatus.DSR;
+import static net.sf.yad2xx.ModemStatus.FE;
+import static net.sf.yad2xx.ModemStatus.OE;
+import static net.sf.yad2xx.ModemStatus.PE;
+import static net.sf.yad2xx.ModemStatus.RI;
+
+/**
+ * Single low-rate poller shared by every Device with a ModemStatusListener.
+ * Each poll makes one FT_GetModemStatus call per monitored device and compares
+ * the raw value with the previous sample, so no objects are created while the
+ * lines are steady. The polling thread is started when the first device is
+ * registered and exits when the last is removed.
+ *
+ * @since October 19, 2026
+ * @since 0.3
+ * @author Stephen Davies
+ */
+public final class ModemStatusMonitor {
+
+	/**
+	 * Status bits watched for changes. The remaining line status bits (data
+	 * ready, transmitter empty etc.) follow every byte of traffic.
+	 */
+	private static final int WATCHED = CTS | DSR | RI | DCD | OE | PE | FE | BI;
+
+	private static final Device[] NO_DEVICES = new Device[0];
+
+	private static volatile Device[] devices = NO_DEVICES;
+	private static volatile int pollInterval = 10;
+	private static Thread thread;
+
+	private ModemStatusMonitor() {
+	}
+
+	/**
+	 * Returns the interval between polls in milliseconds.
+	 */
+	public static int getPollInterval() {
+		return pollInterval;
+	}
+
+	/**
+	 * Sets the interval between polls. Defaults to 10 ms.
+	 *
+	 * @param millis poll interval in milliseconds, at least 1
+	 */
+	public static void setPollInterval(int millis) {
+		if (millis < 1)
+			throw new IllegalArgumentException("Poll interval must be at least 1 ms");
+		pollInterval = millis;
+	}
+
+	/**
+	 * Start monitoring a device. Has no effect if already monitored.
+	 */
+	static synchronized void register(Device device) {
+		Device[] current = devices;
+		for (int i = 0; i < current.length; i++) {
+			if (current[i] == device)
+				return;
+		}
+		Device[] updated = new Device[current.length + 1];
+		System.arraycopy(current, 0, updated, 0, current.length);
+		updated[current.length] = device;
+		device.lastModemStatus = -1;
+		devices = updated;
+
+		if (thread == null) {
+			thread = new Thread(new Runnable() {
+				public void run() {
+					poll();
+				}
+			}, "yad2xx-modem-monitor");
+			thread.setDaemon(true);
+			thread.start();
+		}
+	}
+
+	/**
+	 * Stop monitoring a device. Has no effect if not monitored.
+	 */
+	static synchronized void unregister(Device device) {
+		Device[] current = devices;
+		for (int i = 0; i < current.length; i++) {
+			if (current[i] == device) {
+				Device[] updated = new Device[current.length - 1];
+				System.arraycopy(current, 0, updated, 0, i);
+				System.arraycopy(current, i + 1, updated, i, current.length - i - 1);
+				devices = updated;
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Polling loop. Exits once no devices remain.
+	 */
+	private static void poll() {
+		while (true) {
+			Device[] current = devices;
+			if (current.length == 0) {
+				synchronized (ModemStatusMonitor.class) {
+					if (devices.length == 0) {
+						thread = null;
+						return;
+					}
+				}
+				continue;
+			}
+
+			for (int i = 0; i < current.length; i++) {
+				sample(current[i]);
+			}
+
+			try {
+				Thread.sleep(pollInterval);
+			} catch (InterruptedException e) {
+				// keep polling, exit is controlled by registration
+			}
+		}
+	}
+
+	/**
+	 * Read one device's status and notify its listeners of any change.
+	 */
+	private static void sample(Device device) {
+		if (!device.isOpen()) {
+			device.lastModemStatus = -1;
+			return;
+		}
+
+		int status;
+		try {
+			status = device.pollModemStatus();
+		} catch (FTDIException e) {
+			// Device may be closing or unplugged, skip this round
+			return;
+		}
+
+		int previous = device.lastModemStatus;
+		device.lastModemStatus = status;
+		if (previous == -1) {
+			return;  // first sample establishes the baseline
+		}
+
+		int changed = (previous ^ status) & WATCHED;
+		if (changed != 0) {
+			device.fireModemStatusChanged(changed & status, changed & previous, status);
+		}
+	}
+
+}
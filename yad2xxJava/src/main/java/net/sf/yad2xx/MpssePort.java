@@ -0,0 +1,95 @@
+/*
+ * Copyright 2026 Stephen Davies
+ * 
+ * This file is part of yad2xx.
+ * 
+ * yad2xx is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * yad2xx is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with yad2xx.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.yad2xx;
+
+import static net.sf.yad2xx.FTDIConstants.FT_IO_ERROR;
+
+/**
+ * The low (ADBUS) or high (ACBUS) byte of an MPSSE channel used as GPIO. Each
+ * state is a three byte Set Data Bits command carrying both levels and
+ * directions, so batched changes, including direction changes, travel in one
+ * USB transfer.
+ * 
+ * The device must already be in FT_BITMODE_MPSSE. On the low byte, pins 0 to 3
+ * belong to the serial engine while it is in use; leave them out of the
+ * direction and output masks unless the engine is idle.
+ *
+ * @since October 19, 2026
+ * @since 0.3
+ * @author Stephen Davies
+ */
+public class MpssePort extends GpioPort {
+
+	/** Set Data Bits Low Byte command. */
+	public static final byte SET_BITS_LOW = (byte) 0x80;
+	/** Read Data Bits Low Byte command. */
+	public static final byte GET_BITS_LOW = (byte) 0x81;
+	/** Set Data Bits High Byte command. */
+	public static final byte SET_BITS_HIGH = (byte) 0x82;
+	/** Read Data Bits High Byte command. */
+	public static final byte GET_BITS_HIGH = (byte) 0x83;
+	/** Send Immediate command, flushes the reply to the host. */
+	public static final byte SEND_IMMEDIATE = (byte) 0x87;
+
+	/**
+	 * How long read waits for the device's reply, in ns.
+	 */
+	private static final long READ_TIMEOUT = 1000000000L;
+
+	private final boolean high;
+	private final byte[] query = new byte[2];
+	private final byte[] reply = new byte[1];
+
+	/**
+	 * Drive the initial state on one byte of an MPSSE channel.
+	 * 
+	 * @param device open device in MPSSE mode
+	 * @param high true for the high byte, false for the low byte
+	 * @param direction pin direction mask, 1 for output
+	 * @param output initial output levels
+	 * @throws FTDIException
+	 * @throws IllegalStateException if the device is known to be in another mode
+	 */
+	public MpssePort(Device device, boolean high, int direction, int output) throws FTDIException {
+		super(device, 0xff, 3, true);
+		DeviceConfig config = device.getConfig();
+		if (config.isSpecified(DeviceConfig.BIT_MODE) && config.getBitMode() != FTDIBitMode.FT_BITMODE_MPSSE)
+			throw new IllegalStateException("Device is not in MPSSE mode");
+		this.high = high;
+		init(direction, output);
+	}
+
+	@Override
+	protected void encode(byte[] buffer, int offset, int output, int direction) {
+		buffer[offset] = high ? SET_BITS_HIGH : SET_BITS_LOW;
+		buffer[offset + 1] = (byte) output;
+		buffer[offset + 2] = (byte) direction;
+	}
+
+	@Override
+	protected int readPins() throws FTDIException {
+		query[0] = high ? GET_BITS_HIGH : GET_BITS_LOW;
+		query[1] = SEND_IMMEDIATE;
+		device.write(query);
+		if (device.readFully(reply, 0, 1, System.nanoTime() + READ_TIMEOUT) < 1)
+			throw new FTDIException(FT_IO_ERROR, "MPSSE read data bits");
+		return reply[0] & 0xff;
+	}
+
+}
@@ -0,0 +1,613 @@
+/*
+ * Copyright 2026 Stephen Davies
+ * 
+ * This file is part of yad2xx.
+ * 
+ * yad2xx is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * yad2xx is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with yad2xx.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.yad2xx;
+
+import static net.sf.yad2xx.FTDIConstants.FT_DEVICE_NOT_OPENED;
+import static net.sf.yad2xx.FTDIConstants.FT_EVENT_RXCHAR;
+import static net.sf.yad2xx.FTDIConstants.FT_INVALID_HANDLE;
+import static net.sf.yad2xx.FTDIConstants.FT_INVALID_PARAMETER;
+import static net.sf.yad2xx.FTDIConstants.FT_IO_ERROR;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * An FTDIInterface that plays a capture made by {@link TrafficRecorder} back
+ * through the Device API, so that code written against a Device can be
+ * exercised without hardware. It offers a single device, serial number
+ * "REPLAY". Opening it starts the clock: each recorded read becomes
+ * available in the receive queue at its original offset from the start of
+ * the capture, divided by the speed. Reads block and time out as FT_Read
+ * would, and return early once the capture is exhausted.
+ * 
+ * Writes are accepted and discarded, and purges and control operations have
+ * no effect; the capture is played back regardless of what is sent, and
+ * bytes that were purged when it was recorded were never read, so are not
+ * in it. Transactions run with their expectations met from the capture. The
+ * native library is not needed.
+ *
+ * @since October 19, 2026
+ * @since 0.3
+ * @author Stephen Davies
+ */
+public class ReplayInterface extends FTDIInterface {
+
+	private static final long HANDLE = 1;
+	private static final long EVENT = 1;
+
+	private final File capture;
+	private final double speed;
+	private final Device device;
+
+	// Replay state, guarded by this
+	private TrafficReader reader;
+	private boolean loaded;
+	private boolean exhausted;
+	private boolean timed;
+	private long origin;
+	private long start;
+	private byte[] queue = new byte[Device.DEFAULT_TRANSFER_SIZE];
+	private int head;
+	private int count;
+	private int readTimeout;
+	private byte latencyTimer = 16;
+
+	/**
+	 * Replay at the speed the capture was recorded.
+	 */
+	public ReplayInterface(File capture) {
+		this(capture, 1.0);
+	}
+
+	/**
+	 * @param capture file written by a TrafficRecorder
+	 * @param speed playback rate, 2.0 for twice as fast; zero or less makes
+	 *    the whole capture available as soon as the device is opened
+	 */
+	public ReplayInterface(File capture, double speed) {
+		super(false);
+		this.capture = capture;
+		this.speed = speed;
+		device = new Device(this, 0, 0, 0, 0, 0, "REPLAY", capture.getName(), 0);
+	}
+
+	@Override
+	public int getDeviceCount() {
+		return 1;
+	}
+
+	@Override
+	public Device[] getDevices() {
+		return new Device[] { device };
+	}
+
+	@Override
+	int getDriverVersionRaw(long ftHandle) throws FTDIException {
+		check(ftHandle, "FT_GetDriverVersion");
+		return 0;
+	}
+
+	@Override
+	public int getLibraryVersionInt() {
+		return 0;
+	}
+
+	@Override
+	int getModemStatus(long ftHandle) throws FTDIException {
+		check(ftHandle, "FT_GetModemStatus");
+		return 0;
+	}
+
+	@Override
+	public void setVidPid(int vid, int pid) {
+	}
+
+	@Override
+	void applyConfig(long ftHandle, int groups, int baudRate, byte wordLength, byte stopBits, byte parity,
+			short flowControl, char xOn, char xOff, int readTimeout, int writeTimeout, byte latencyTimer,
+			int inTransferSize, int outTransferSize, byte pinDirection, byte bitMode) throws FTDIException {
+		check(ftHandle, "FT_SetBaudRate");
+		if ((groups & DeviceConfig.TIMEOUTS) != 0)
+			setTimeouts(ftHandle, readTimeout, writeTimeout);
+		if ((groups & DeviceConfig.LATENCY_TIMER) != 0)
+			setLatencyTimer(ftHandle, latencyTimer);
+	}
+
+	@Override
+	synchronized void close(Device dev) throws FTDIException {
+		check(dev.getHandle(), "FT_Close");
+		try {
+			reader.close();
+		} catch (IOException e) {
+			// nothing more to read from it either way
+		}
+		reader = null;
+		dev.setHandle(0);
+		notifyAll();
+	}
+
+	@Override
+	void clrDtr(long ftHandle) throws FTDIException {
+		check(ftHandle, "FT_ClrDtr");
+	}
+
+	@Override
+	void clrRts(long ftHandle) throws FTDIException {
+		check(ftHandle, "FT_ClrRts");
+	}
+
+	@Override
+	long createEvent() {
+		return EVENT;
+	}
+
+	@Override
+	void destroyEvent(long event) {
+	}
+
+	@Override
+	void eraseEE(long ftHandle) throws FTDIException {
+		check(ftHandle, "FT_EraseEE");
+	}
+
+	/**
+	 * Runs the program with expectations met from the capture. Writes,
+	 * delays, purges and control changes are skipped.
+	 */
+	@Override
+	synchronized int execute(long ftHandle, byte[] program, int attempts, int timeoutMillis, byte[] response, int offset) throws FTDIException {
+		check(ftHandle, "FT_Read");
+		int total = 0;
+		boolean complete = false;
+		for (int attempt = 0; attempt < attempts && !complete; attempt++) {
+			long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+			total = 0;
+			complete = true;
+			int pc = 0;
+			while (pc < program.length && complete) {
+				int length;
+				int taken;
+				switch (program[pc++]) {
+				case Transaction.OP_WRITE:
+					pc += 4 + Transaction.getInt(program, pc);
+					break;
+				case Transaction.OP_EXPECT:
+					length = Transaction.getInt(program, pc);
+					pc += 4;
+					checkCapacity(length, response.length - offset - total);
+					awaitData(length, deadline);
+					taken = take(response, offset + total, length);
+					complete = taken == length;
+					total += taken;
+					break;
+				case Transaction.OP_EXPECT_DELIMITER:
+					byte delimiter = program[pc++];
+					length = Transaction.getInt(program, pc);
+					pc += 4;
+					checkCapacity(length, response.length - offset - total);
+					taken = readUntil(ftHandle, delimiter, response, offset + total, length, deadline - System.nanoTime());
+					complete = taken > 0 && response[offset + total + taken - 1] == delimiter;
+					total += taken;
+					break;
+				case Transaction.OP_DELAY:
+					pc += 4;
+					break;
+				case Transaction.OP_PURGE:
+				case Transaction.OP_RTS:
+				case Transaction.OP_DTR:
+					pc++;
+					break;
+				default:
+					throw new FTDIException(FT_INVALID_PARAMETER, "execute");
+				}
+			}
+		}
+		return complete ? total : ~total;
+	}
+
+	@Override
+	byte getBitMode(long ftHandle) throws FTDIException {
+		check(ftHandle, "FT_GetBitMode");
+		return 0;
+	}
+
+	@Override
+	synchronized byte getLatencyTimer(long ftHandle) throws FTDIException {
+		check(ftHandle, "FT_GetLatencyTimer");
+		return latencyTimer;
+	}
+
+	@Override
+	synchronized int getQueueStatus(long ftHandle) throws FTDIException {
+		check(ftHandle, "FT_GetQueueStatus");
+		fill();
+		return count;
+	}
+
+	@Override
+	synchronized void getStatus(long ftHandle, DeviceStatus status) throws FTDIException {
+		check(ftHandle, "FT_GetStatus");
+		fill();
+		status.set(count, 0, count > 0 ? FT_EVENT_RXCHAR : 0, 0);
+	}
+
+	@Override
+	synchronized void open(Device dev) throws FTDIException {
+		if (reader != null)
+			throw new FTDIException(FT_DEVICE_NOT_OPENED, "FT_Open");
+		try {
+			reader = new TrafficReader(capture);
+		} catch (IOException e) {
+			throw new FTDIException(FT_IO_ERROR, "FT_Open");
+		}
+		loaded = false;
+		exhausted = false;
+		timed = false;
+		head = 0;
+		count = 0;
+		readTimeout = 0;
+		start = System.nanoTime();
+		dev.setHandle(HANDLE);
+	}
+
+	@Override
+	void purge(long ftHandle, int mask) throws FTDIException {
+		check(ftHandle, "FT_Purge");
+	}
+
+	@Override
+	synchronized int read(long ftHandle, byte[] buffer, int bufferLength) throws FTDIException {
+		check(ftHandle, "FT_Read");
+		awaitData(bufferLength, readDeadline());
+		return take(buffer, 0, bufferLength);
+	}
+
+	@Override
+	synchronized int readBuffer(long ftHandle, Object target, int offset, int length) throws FTDIException {
+		check(ftHandle, "FT_Read");
+		awaitData(length, readDeadline());
+		return take(target, offset, length);
+	}
+
+	@Override
+	synchronized int readScatter(long ftHandle, Object[] buffers, int[] offsets, int[] lengths, int count) throws FTDIException {
+		check(ftHandle, "FT_Read");
+		int total = 0;
+		for (int i = 0; i < count; i++) {
+			total += lengths[i];
+		}
+		awaitData(total, readDeadline());
+		int result = 0;
+		for (int i = 0; i < count; i++) {
+			result += take(buffers[i], offsets[i], lengths[i]);
+		}
+		return result;
+	}
+
+	@Override
+	synchronized int readAvailable(long ftHandle, byte[] buffer, int offset, int length) throws FTDIException {
+		check(ftHandle, "FT_Read");
+		fill();
+		return take(buffer, offset, length);
+	}
+
+	@Override
+	synchronized int readAvailableDirect(long ftHandle, ByteBuffer buffer, int position, int length) throws FTDIException {
+		check(ftHandle, "FT_Read");
+		fill();
+		return take(buffer, position, length);
+	}
+
+	@Override
+	synchronized int readFully(long ftHandle, byte[] buffer, int offset, int length, long timeoutNanos) throws FTDIException {
+		check(ftHandle, "FT_Read");
+		awaitData(length, System.nanoTime() + timeoutNanos);
+		return take(buffer, offset, length);
+	}
+
+	@Override
+	synchronized int readUntil(long ftHandle, byte delimiter, byte[] buffer, int offset, int length, long timeoutNanos) throws FTDIException {
+		check(ftHandle, "FT_Read");
+		long deadline = System.nanoTime() + timeoutNanos;
+		int scanned = 0;
+		while (true) {
+			fill();
+			for (; scanned < count && scanned < length; scanned++) {
+				if (queue[head + scanned] == delimiter)
+					return take(buffer, offset, scanned + 1);
+			}
+			if (scanned == length || exhausted || !await(deadline))
+				return take(buffer, offset, scanned);
+		}
+	}
+
+	@Override
+	synchronized int readTimestamped(long ftHandle, byte[] buffer, int offset, int length, long[] times, int[] ends, int maxChunks, long timeoutNanos) throws FTDIException {
+		check(ftHandle, "FT_Read");
+		if (maxChunks == 0)
+			return 0;
+		awaitData(1, System.nanoTime() + timeoutNanos);
+		int count = take(buffer, offset, length);
+		if (count == 0)
+			return 0;
+		times[0] = System.nanoTime();
+		ends[0] = offset + count;
+		return 1;
+	}
+
+	@Override
+	int readEE(long ftHandle, int wordOffset) throws FTDIException {
+		check(ftHandle, "FT_ReadEE");
+		return 0xffff;
+	}
+
+	@Override
+	void reset(long ftHandle) throws FTDIException {
+		check(ftHandle, "FT_ResetDevice");
+	}
+
+	@Override
+	void setBaudRate(long ftHandle, int baudRate) throws FTDIException {
+		check(ftHandle, "FT_SetBaudRate");
+	}
+
+	@Override
+	void setBitMode(long ftHandle, byte pinDirection, byte mode) throws FTDIException {
+		check(ftHandle, "FT_SetBitMode");
+	}
+
+	@Override
+	void setBreakOff(long ftHandle) throws FTDIException {
+		check(ftHandle, "FT_SetBreakOff");
+	}
+
+	@Override
+	void setBreakOn(long ftHandle) throws FTDIException {
+		check(ftHandle, "FT_SetBreakOn");
+	}
+
+	@Override
+	void setChars(long ftHandle, char event, boolean eventEnable, char error, boolean errorEnable) throws FTDIException {
+		check(ftHandle, "FT_SetChars");
+	}
+
+	@Override
+	void setDataCharacteristics(long ftHandle, byte wordLength, byte stopBits, byte parity) throws FTDIException {
+		check(ftHandle, "FT_SetDataCharacteristics");
+	}
+
+	@Override
+	void setDtr(long ftHandle) throws FTDIException {
+		check(ftHandle, "FT_SetDtr");
+	}
+
+	@Override
+	void setEventNotification(long ftHandle, int mask, long event) throws FTDIException {
+		check(ftHandle, "FT_SetEventNotification");
+	}
+
+	@Override
+	void setFlowControl(long ftHandle, short flowControl, char xOn, char xOff) throws FTDIException {
+		check(ftHandle, "FT_SetFlowControl");
+	}
+
+	@Override
+	void setRts(long ftHandle) throws FTDIException {
+		check(ftHandle, "FT_SetRts");
+	}
+
+	@Override
+	synchronized void setLatencyTimer(long ftHandle, byte timer) throws FTDIException {
+		check(ftHandle, "FT_SetLatencyTimer");
+		latencyTimer = timer;
+	}
+
+	@Override
+	synchronized void setTimeouts(long ftHandle, int readTimeout, int writeTimeout) throws FTDIException {
+		check(ftHandle, "FT_SetTimeouts");
+		this.readTimeout = readTimeout;
+	}
+
+	@Override
+	void setUSBParameters(long ftHandle, int inTransferSize, int outTransferSize) throws FTDIException {
+		check(ftHandle, "FT_SetUSBParameters");
+	}
+
+	/**
+	 * Waits until recorded data is due, the timeout expires, or the device
+	 * is closed.
+	 */
+	@Override
+	synchronized boolean waitEvent(long event, int timeoutMillis) {
+		long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+		try {
+			while (reader != null) {
+				fill();
+				if (count > 0)
+					return true;
+				if (exhausted || !await(deadline))
+					return false;
+			}
+		} catch (FTDIException e) {
+			return true;	// let the caller's next read report it
+		}
+		return false;
+	}
+
+	@Override
+	int write(long ftHandle, byte[] buffer, int numBytesToWrite) throws FTDIException {
+		check(ftHandle, "FT_Write");
+		return numBytesToWrite;
+	}
+
+	@Override
+	int writeBuffer(long ftHandle, Object source, int offset, int length) throws FTDIException {
+		check(ftHandle, "FT_Write");
+		return length;
+	}
+
+	@Override
+	int writeGather(long ftHandle, Object[] buffers, int[] offsets, int[] lengths, int count) throws FTDIException {
+		check(ftHandle, "FT_Write");
+		int total = 0;
+		for (int i = 0; i < count; i++) {
+			total += lengths[i];
+		}
+		return total;
+	}
+
+	@Override
+	void writeEE(long ftHandle, int wordOffset, int value) throws FTDIException {
+		check(ftHandle, "FT_WriteEE");
+	}
+
+	/**
+	 * Append bytes to the receive queue, compacting or growing it as needed.
+	 */
+	private void append(int length) {
+		if (head + count + length > queue.length) {
+			byte[] target = queue;
+			if (count + length > queue.length) {
+				target = new byte[Math.max(queue.length * 2, count + length)];
+			}
+			System.arraycopy(queue, head, target, 0, count);
+			queue = target;
+			head = 0;
+		}
+		reader.getPayload(queue, head + count);
+		count += length;
+	}
+
+	/**
+	 * Wait for the next recorded read to fall due, or until deadline.
+	 * 
+	 * @return false if the deadline has passed or the device was closed
+	 */
+	private boolean await(long deadline) {
+		long now = System.nanoTime();
+		if (now - deadline >= 0 || reader == null)
+			return false;
+		long until = loaded && due() - deadline < 0 ? due() : deadline;
+		try {
+			TimeUnit.NANOSECONDS.timedWait(this, until - now);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return false;
+		}
+		return reader != null;
+	}
+
+	/**
+	 * Wait until wanted bytes are queued, the capture is exhausted or the
+	 * deadline passes.
+	 */
+	private void awaitData(int wanted, long deadline) throws FTDIException {
+		do {
+			fill();
+		} while (count < wanted && !exhausted && await(deadline));
+	}
+
+	/**
+	 * Fail as the native layer does when an expect step would overrun the
+	 * response.
+	 */
+	private static void checkCapacity(int length, int capacity) throws FTDIException {
+		if (length < 0 || length > capacity)
+			throw new FTDIException(FT_INVALID_PARAMETER, "execute");
+	}
+
+	private void check(long ftHandle, String function) throws FTDIException {
+		synchronized (this) {
+			if (reader == null || ftHandle != HANDLE)
+				throw new FTDIException(FT_INVALID_HANDLE, function);
+		}
+	}
+
+	/**
+	 * @return System.nanoTime at which the loaded record falls due
+	 */
+	private long due() {
+		if (speed <= 0)
+			return start;
+		return start + (long) ((reader.getTimestamp() - origin) / speed);
+	}
+
+	/**
+	 * Queue every recorded read that has fallen due.
+	 */
+	private void fill() throws FTDIException {
+		if (reader == null)
+			return;
+		try {
+			while (!exhausted) {
+				if (!loaded) {
+					if (!reader.next()) {
+						exhausted = true;
+						return;
+					}
+					if (!timed) {
+						origin = reader.getTimestamp();
+						timed = true;
+					}
+					loaded = reader.getType() == TrafficRecorder.READ;
+					continue;
+				}
+				if (due() - System.nanoTime() > 0)
+					return;
+				append(reader.getLength());
+				loaded = false;
+			}
+		} catch (IOException e) {
+			throw new FTDIException(FT_IO_ERROR, "FT_Read");
+		}
+	}
+
+	/**
+	 * Deadline for a blocking read under the current timeouts.
+	 */
+	private long readDeadline() {
+		// FT_Read with a zero timeout waits for ever; deadlines are compared by
+		// difference, so for ever is a long time that cannot overflow
+		long timeout = readTimeout == 0 ? Long.MAX_VALUE / 2 : TimeUnit.MILLISECONDS.toNanos(readTimeout);
+		return System.nanoTime() + timeout;
+	}
+
+	/**
+	 * Move up to length bytes from the head of the queue into a byte array or
+	 * direct buffer.
+	 */
+	private int take(Object target, int offset, int length) {
+		int n = Math.min(length, count);
+		if (target instanceof ByteBuffer) {
+			ByteBuffer destination = ((ByteBuffer) target).duplicate();
+			destination.position(offset);
+			destination.put(queue, head, n);
+		} else {
+			System.arraycopy(queue, head, (byte[]) target, offset, n);
+		}
+		head += n;
+		count -= n;
+		if (count == 0)
+			head = 0;
+		return n;
+	}
+
+}
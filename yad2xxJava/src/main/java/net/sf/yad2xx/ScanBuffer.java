@@ -0,0 +1,152 @@
+/*
+ * Copyright 2026 Stephen Davies
+ * 
+ * This file is part of yad2xx.
+ * 
+ * yad2xx is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * yad2xx is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with yad2xx.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.yad2xx;
+
+/**
+ * The receive buffer shared by the readers that split a device's stream at
+ * terminators. Bytes are read in bulk into a reusable array, records are
+ * consumed from start, and scanned remembers how far the search for a
+ * terminator has got so that bytes are not searched twice.
+ * 
+ * A record longer than the maximum is dropped: if it fills the buffer the
+ * bytes so far are discarded, keeping only a possible partial terminator,
+ * and the remainder is discarded when its terminator arrives.
+ *
+ * @since October 19, 2026
+ * @since 0.3
+ * @author Stephen Davies
+ */
+final class ScanBuffer {
+
+	final byte[] data;
+	int start;
+	int end;
+
+	private final int maxLength;
+	private final int trailer;
+	private int scanned;
+	private boolean discarding;
+	private long dropped;
+
+	/**
+	 * @param maxLength longest record accepted, excluding the terminator
+	 * @param terminatorLength longest terminator
+	 */
+	ScanBuffer(int maxLength, int terminatorLength) {
+		this.maxLength = maxLength;
+		this.trailer = terminatorLength - 1;
+		// room for a full record and its terminator, with as much again for bulk reads
+		this.data = new byte[Math.max(Device.DEFAULT_TRANSFER_SIZE, 2 * (maxLength + terminatorLength))];
+	}
+
+	/**
+	 * Take whatever is waiting on the device, without blocking.
+	 * 
+	 * @return number of bytes added
+	 */
+	int readAvailable(Device device) throws FTDIException {
+		compact();
+		int count = device.readAvailable(data, end, data.length - end);
+		end += count;
+		return count;
+	}
+
+	/**
+	 * Wait for at least one byte, then take everything else already queued.
+	 */
+	void fill(Device device, long deadlineNanos) throws FTDIException {
+		if (readAvailable(device) == 0 && device.readFully(data, end, 1, deadlineNanos) > 0) {
+			end++;
+			end += device.readAvailable(data, end, data.length - end);
+		}
+	}
+
+	/**
+	 * @return first index not yet searched for a terminator
+	 */
+	int scanFrom() {
+		return Math.max(start, scanned);
+	}
+
+	/**
+	 * Record that no terminator was found in the buffered bytes. All but a
+	 * possible partial terminator need not be searched again.
+	 */
+	void notFound() {
+		scanned = Math.max(start, end - trailer);
+	}
+
+	/**
+	 * Consume a record and its terminator.
+	 * 
+	 * @param recordEnd index just past the record
+	 * @param terminatorEnd index just past its terminator
+	 * @return index of the first byte of the record, or -1 if it was dropped
+	 *    for being too long
+	 */
+	int consume(int recordEnd, int terminatorEnd) {
+		int recordStart = start;
+		start = terminatorEnd;
+		scanned = start;
+		if (discarding || recordEnd - recordStart > maxLength) {
+			discarding = false;
+			dropped++;
+			return -1;
+		}
+		return recordStart;
+	}
+
+	/**
+	 * Discard buffered data, including any partial record.
+	 */
+	void reset() {
+		start = 0;
+		end = 0;
+		scanned = 0;
+		discarding = false;
+	}
+
+	/**
+	 * @return number of records dropped for being longer than the maximum
+	 */
+	long getDropped() {
+		return dropped;
+	}
+
+	/**
+	 * Move unread bytes to the front of the buffer, discarding the start of an
+	 * overlong record if the buffer is full.
+	 */
+	private void compact() {
+		if (start > 0) {
+			System.arraycopy(data, start, data, 0, end - start);
+			end -= start;
+			scanned -= start;
+			start = 0;
+		}
+		if (end > maxLength + trailer) {
+			// keep a possible partial terminator, drop the rest
+			System.arraycopy(data, end - trailer, data, 0, trailer);
+			end = trailer;
+			scanned = 0;
+			discarding = true;
+		}
+	}
+
+}
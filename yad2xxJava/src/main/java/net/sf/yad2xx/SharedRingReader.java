@@ -0,0 +1,208 @@
+/*
+ * Copyright 2026 Stephen Davies
+ * 
+ * This file is part of yad2xx.
+ * 
+ * yad2xx is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * yad2xx is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with yad2xx.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.yad2xx;
+
+import static net.sf.yad2xx.SharedRingWriter.CAPACITY_OFFSET;
+import static net.sf.yad2xx.SharedRingWriter.CLAIM_OFFSET;
+import static net.sf.yad2xx.SharedRingWriter.CLOSED_OFFSET;
+import static net.sf.yad2xx.SharedRingWriter.COMMIT_OFFSET;
+import static net.sf.yad2xx.SharedRingWriter.HEADER_SIZE;
+import static net.sf.yad2xx.SharedRingWriter.MAGIC;
+import static net.sf.yad2xx.SharedRingWriter.MAGIC_OFFSET;
+import static net.sf.yad2xx.SharedRingWriter.OVERRUNS_OFFSET;
+import static net.sf.yad2xx.SharedRingWriter.VERSION;
+import static net.sf.yad2xx.SharedRingWriter.VERSION_OFFSET;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Consumes a device stream broadcast by a {@link SharedRingWriter}, possibly
+ * in another process. Each reader keeps its own position and never writes
+ * to the ring, so readers are independent of each other and of the writer.
+ * 
+ * A reader that falls more than the ring's capacity behind has been lapped:
+ * the bytes it had not yet read are gone. It then skips to the oldest bytes
+ * still in the ring and adds the gap to {@link #getLostBytes()}, so the loss
+ * is visible rather than silent.
+ * 
+ * A reader is not thread-safe; give each consuming thread its own.
+ *
+ * @since October 19, 2026
+ * @since 0.3
+ * @author Stephen Davies
+ */
+public class SharedRingReader implements Closeable {
+
+	private static final long IDLE_PARK_NANOS = 50000;
+
+	private final RandomAccessFile file;
+	private final ByteBuffer ring;
+	private final ByteBuffer view;
+	private final int capacity;
+	private final int mask;
+	private long position;
+	private long lostBytes;
+
+	/**
+	 * Map a ring file and start reading at its current end, so that only
+	 * data written from now on is received.
+	 * 
+	 * @throws IOException if the file cannot be mapped or is not a ring
+	 */
+	public SharedRingReader(File ringFile) throws IOException {
+		file = new RandomAccessFile(ringFile, "r");
+		try {
+			long size = file.length();
+			if (size < HEADER_SIZE)
+				throw new IOException("Not a ring file: " + ringFile);
+			ring = file.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, size);
+		} catch (IOException e) {
+			file.close();
+			throw e;
+		}
+		if (ring.getLong(MAGIC_OFFSET) != MAGIC) {
+			file.close();
+			throw new IOException("Not a ring file: " + ringFile);
+		}
+		Fences.loadFence();
+		if (ring.getInt(VERSION_OFFSET) != VERSION) {
+			file.close();
+			throw new IOException("Unsupported ring version " + ring.getInt(VERSION_OFFSET));
+		}
+		capacity = ring.getInt(CAPACITY_OFFSET);
+		if (HEADER_SIZE + (long) capacity > ring.capacity()) {
+			file.close();
+			throw new IOException("Truncated ring file: " + ringFile);
+		}
+		mask = capacity - 1;
+		view = ring.duplicate();
+		position = ring.getLong(COMMIT_OFFSET);
+	}
+
+	/**
+	 * Copy available bytes without waiting.
+	 * 
+	 * @return number of bytes copied, zero if none are available, or -1 if
+	 *    the writer has closed the ring and everything has been read
+	 */
+	public int read(byte[] buffer, int offset, int length) {
+		if (offset < 0 || length < 0 || length > buffer.length - offset)
+			throw new IndexOutOfBoundsException();
+		while (true) {
+			// read closed before commit: data committed before closing is still drained
+			boolean closed = ring.getInt(CLOSED_OFFSET) != 0;
+			Fences.loadFence();
+			long commit = ring.getLong(COMMIT_OFFSET);
+			Fences.loadFence();
+			if (commit - position > capacity) {
+				skipTo(commit - capacity);
+			}
+			int count = (int) Math.min(length, commit - position);
+			if (count <= 0)
+				return closed ? -1 : 0;
+			
+			int index = (int) (position & mask);
+			int first = Math.min(count, capacity - index);
+			view.position(HEADER_SIZE + index);
+			view.get(buffer, offset, first);
+			if (first < count) {
+				view.position(HEADER_SIZE);
+				view.get(buffer, offset + first, count - first);
+			}
+			
+			Fences.loadFence();
+			long claim = ring.getLong(CLAIM_OFFSET);
+			if (claim - position > capacity) {
+				// overwritten while copying, start again from the oldest bytes
+				skipTo(claim - capacity);
+				continue;
+			}
+			position += count;
+			return count;
+		}
+	}
+
+	/**
+	 * Copy available bytes, waiting until some are available, the ring is
+	 * closed, or the deadline passes.
+	 * 
+	 * @param deadlineNanos System.nanoTime at which to give up
+	 * @return as {@link #read(byte[], int, int)}
+	 */
+	public int read(byte[] buffer, int offset, int length, long deadlineNanos) {
+		int spins = 0;
+		while (true) {
+			int count = read(buffer, offset, length);
+			if (count != 0 || length == 0 || System.nanoTime() - deadlineNanos >= 0)
+				return count;
+			// spin briefly for low latency, then back off to spare the CPU
+			if (++spins < 100) {
+				Thread.yield();
+			} else {
+				LockSupport.parkNanos(IDLE_PARK_NANOS);
+			}
+		}
+	}
+
+	/**
+	 * @return number of bytes the writer has made available that this reader
+	 *    has not yet read, which may exceed capacity if lapped
+	 */
+	public long available() {
+		return ring.getLong(COMMIT_OFFSET) - position;
+	}
+
+	/**
+	 * @return stream position of the next byte to be read
+	 */
+	public long getPosition() {
+		return position;
+	}
+
+	/**
+	 * @return total bytes skipped because this reader was lapped
+	 */
+	public long getLostBytes() {
+		return lostBytes;
+	}
+
+	/**
+	 * @return number of receive overruns the owning process has seen on the
+	 *    device, data lost before it reached the ring
+	 */
+	public int getDeviceOverruns() {
+		return ring.getInt(OVERRUNS_OFFSET);
+	}
+
+	public void close() throws IOException {
+		file.close();
+	}
+
+	private void skipTo(long oldest) {
+		lostBytes += oldest - position;
+		position = oldest;
+	}
+
+}
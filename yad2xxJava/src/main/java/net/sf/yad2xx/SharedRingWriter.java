@@ -0,0 +1,235 @@
+/*
+ * Copyright 2026 Stephen Davies
+ * 
+ * This file is part of yad2xx.
+ * 
+ * yad2xx is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * yad2xx is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with yad2xx.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.yad2xx;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Broadcasts a device's receive stream to other processes on the same host
+ * through a memory-mapped ring file. Only one process can open an FTDI
+ * device; that process subscribes a SharedRingWriter to a
+ * {@link DevicePublisher}, and any number of {@link SharedRingReader}s, in
+ * this or other JVMs, map the same file and consume the stream at memory
+ * speed.
+ * 
+ * The ring never applies backpressure: the writer always accepts data and
+ * overwrites the oldest bytes, and a reader that falls more than a ring's
+ * length behind detects that it has been lapped and skips ahead. Size the
+ * ring for the longest pause a reader must survive.
+ * 
+ * <h3>Protocol</h3>
+ * The file holds a header followed by capacity bytes of data. Bytes are
+ * addressed by an absolute stream position; byte n lives at n % capacity.
+ * The header carries two positions, each on its own cache line:
+ * <pre>
+ * CLAIM   end of the write in progress, stored before the data is copied
+ * COMMIT  end of the data readers may consume, stored after the copy
+ * </pre>
+ * A reader copies what lies below COMMIT, then rereads CLAIM; if CLAIM has
+ * moved more than capacity past the start of the copy, the writer may have
+ * overwritten it and the copy is discarded. There are no locks, and readers
+ * never write to the file, so they cannot disturb the writer or each other.
+ * 
+ * The writer puts a store fence between storing CLAIM and copying the data,
+ * and another between the copy and storing COMMIT. The reader puts a load
+ * fence between loading COMMIT and copying, and another between the copy and
+ * loading CLAIM again. On Java 6 and 7 the protocol is only safe on x86 and
+ * other TSO processors, see {@link Fences}. The header positions are aligned
+ * longs, which are read and written whole.
+ * 
+ * A writer is used from the single thread delivering its signals.
+ *
+ * @since October 19, 2026
+ * @since 0.3
+ * @author Stephen Davies
+ */
+public class SharedRingWriter implements DataSubscriber, Closeable {
+
+	/** File signature, "YAD2XRNG" in ASCII. */
+	public static final long MAGIC = 0x5941443258524e47L;
+	/** File format version. */
+	public static final int VERSION = 1;
+
+	// Header layout, one cache line per field written by the writer
+	static final int MAGIC_OFFSET = 0;
+	static final int VERSION_OFFSET = 8;
+	static final int CAPACITY_OFFSET = 12;
+	static final int CLAIM_OFFSET = 64;
+	static final int COMMIT_OFFSET = 128;
+	static final int OVERRUNS_OFFSET = 192;
+	static final int CLOSED_OFFSET = 196;
+	static final int HEADER_SIZE = 256;
+
+	private final RandomAccessFile file;
+	private final MappedByteBuffer ring;
+	private final int capacity;
+	private final int mask;
+	private final BufferPool pool;
+	private long position;
+	private int overruns;
+	private DataSubscription subscription;
+	private boolean closed;
+
+	/**
+	 * Create, or replace, a ring file.
+	 * 
+	 * @param ringFile file to map; readers open the same path
+	 * @param capacity bytes of stream kept, a power of two
+	 */
+	public SharedRingWriter(File ringFile, int capacity) throws IOException {
+		this(ringFile, capacity, null);
+	}
+
+	/**
+	 * Create, or replace, a ring file, for a publisher whose chunks come from
+	 * a pool. Chunks are released to the pool once copied into the ring.
+	 * 
+	 * @param ringFile file to map; readers open the same path
+	 * @param capacity bytes of stream kept, a power of two
+	 * @param pool pool to return chunks to, or null
+	 */
+	public SharedRingWriter(File ringFile, int capacity, BufferPool pool) throws IOException {
+		if (capacity < 1 || (capacity & (capacity - 1)) != 0)
+			throw new IllegalArgumentException("Capacity must be a power of two");
+		this.capacity = capacity;
+		this.mask = capacity - 1;
+		this.pool = pool;
+		file = new RandomAccessFile(ringFile, "rw");
+		try {
+			file.setLength(0);
+			file.setLength(HEADER_SIZE + (long) capacity);
+			ring = file.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + (long) capacity);
+		} catch (IOException e) {
+			file.close();
+			throw e;
+		}
+		ring.putInt(VERSION_OFFSET, VERSION);
+		ring.putInt(CAPACITY_OFFSET, capacity);
+		Fences.storeFence();
+		// readers check the signature last, so they never see a partial header
+		ring.putLong(MAGIC_OFFSET, MAGIC);
+	}
+
+	/**
+	 * Append the remaining bytes of data to the ring, advancing its position.
+	 * Writes larger than the ring keep only their last capacity bytes.
+	 */
+	public void write(ByteBuffer data) {
+		int length = data.remaining();
+		if (length > capacity) {
+			// nothing could read the front before it was overwritten
+			position += length - capacity;
+			data.position(data.position() + length - capacity);
+			length = capacity;
+		}
+		long end = position + length;
+		ring.putLong(CLAIM_OFFSET, end);
+		Fences.storeFence();
+		int index = (int) (position & mask);
+		int first = Math.min(length, capacity - index);
+		ByteBuffer target = ring.duplicate();
+		target.position(HEADER_SIZE + index);
+		int limit = data.limit();
+		data.limit(data.position() + first);
+		target.put(data);
+		data.limit(limit);
+		if (first < length) {
+			target.position(HEADER_SIZE);
+			target.put(data);
+		}
+		Fences.storeFence();
+		ring.putLong(COMMIT_OFFSET, end);
+		position = end;
+	}
+
+	/**
+	 * Append length bytes of data from offset.
+	 */
+	public void write(byte[] data, int offset, int length) {
+		write(ByteBuffer.wrap(data, offset, length));
+	}
+
+	/**
+	 * @return number of bytes written since the ring was created
+	 */
+	public long getPosition() {
+		return position;
+	}
+
+	/**
+	 * Mark the stream ended; readers drain what is left and then see end of
+	 * stream. Cancels the subscription, if any.
+	 */
+	public void close() throws IOException {
+		if (closed)
+			return;
+		closed = true;
+		if (subscription != null) {
+			subscription.cancel();
+		}
+		Fences.storeFence();
+		ring.putInt(CLOSED_OFFSET, 1);
+		ring.force();
+		file.close();
+	}
+
+	public void onSubscribe(DataSubscription subscription) {
+		this.subscription = subscription;
+		// the ring overwrites rather than pushing back, so demand is unbounded
+		subscription.request(Long.MAX_VALUE);
+	}
+
+	public void onNext(ByteBuffer chunk) {
+		if (!closed) {
+			write(chunk);
+		}
+		if (pool != null) {
+			pool.release(chunk);
+		}
+	}
+
+	public void onOverrun() {
+		if (!closed) {
+			ring.putInt(OVERRUNS_OFFSET, ++overruns);
+		}
+	}
+
+	public void onError(Throwable throwable) {
+		closeQuietly();
+	}
+
+	public void onComplete() {
+		closeQuietly();
+	}
+
+	private void closeQuietly() {
+		try {
+			close();
+		} catch (IOException e) {
+			// readers see the closed flag regardless, it is in mapped memory
+		}
+	}
+
+}
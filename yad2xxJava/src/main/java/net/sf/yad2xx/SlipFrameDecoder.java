@@ -0,0 +1,113 @@
+/*
+ * Copyright 2026 Stephen Davies
+ * 
+ * This file is part of yad2xx.
+ * 
+ * yad2xx is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * yad2xx is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with yad2xx.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.yad2xx;
+
+/**
+ * Serial Line Internet Protocol (RFC 1055) framing. Frames end with END
+ * (0xC0); END and ESC bytes within a frame are escaped. A frame containing no
+ * escapes is delivered in place, others are unescaped into the frame buffer.
+ *
+ * @since October 19, 2026
+ * @since 0.3
+ * @author Stephen Davies
+ */
+public class SlipFrameDecoder extends FrameDecoder {
+
+	public static final byte END = (byte) 0xC0;
+	public static final byte ESC = (byte) 0xDB;
+	public static final byte ESC_END = (byte) 0xDC;
+	public static final byte ESC_ESC = (byte) 0xDD;
+
+	private final byte[] frame;
+	private int length;
+	private boolean escape;
+	private boolean error;
+
+	/**
+	 * @param maxFrameLength longest decoded frame accepted
+	 */
+	public SlipFrameDecoder(int maxFrameLength) {
+		super(maxFrameLength);
+		this.frame = new byte[maxFrameLength];
+	}
+
+	@Override
+	public void decode(byte[] data, int offset, int count, FrameListener listener) {
+		int end = offset + count;
+		int start = offset;
+
+		while (start < end) {
+			int index = scanner.indexOf(data, start, end, END);
+			int segmentEnd = index < 0 ? end : index;
+
+			if (index >= 0 && length == 0 && !escape && !error
+					&& scanner.indexOf(data, start, segmentEnd, ESC) < 0) {
+				// whole unescaped frame in this chunk, deliver in place
+				emit(data, start, segmentEnd - start, listener);
+			} else {
+				unescape(data, start, segmentEnd);
+				if (index >= 0) {
+					if (error || escape) {
+						drop();
+					} else {
+						emit(frame, 0, length, listener);
+					}
+					reset();
+				}
+			}
+
+			if (index < 0)
+				return;
+			start = index + 1;
+		}
+	}
+
+	@Override
+	public void reset() {
+		length = 0;
+		escape = false;
+		error = false;
+	}
+
+	private void unescape(byte[] data, int from, int to) {
+		for (int i = from; i < to && !error; i++) {
+			byte value = data[i];
+			if (escape) {
+				escape = false;
+				if (value == ESC_END) {
+					value = END;
+				} else if (value == ESC_ESC) {
+					value = ESC;
+				} else {
+					error = true;
+					return;
+				}
+			} else if (value == ESC) {
+				escape = true;
+				continue;
+			}
+			if (length == frame.length) {
+				error = true;
+				return;
+			}
+			frame[length++] = value;
+		}
+	}
+
+}
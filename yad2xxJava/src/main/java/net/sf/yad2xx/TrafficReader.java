@@ -0,0 +1,186 @@
+/*
+ * Copyright 2026 Stephen Davies
+ * 
+ * This file is part of yad2xx.
+ * 
+ * yad2xx is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * yad2xx is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with yad2xx.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.yad2xx;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Reads the records of a capture file written by {@link TrafficRecorder}, in
+ * order. The file is mapped one window at a time.
+ * 
+ * <pre>
+ * TrafficReader reader = new TrafficReader(file);
+ * while (reader.next()) {
+ *     if (reader.getType() == TrafficRecorder.READ) ...
+ * }
+ * </pre>
+ *
+ * @since October 19, 2026
+ * @since 0.3
+ * @author Stephen Davies
+ */
+public class TrafficReader implements Closeable {
+
+	private final RandomAccessFile file;
+	private final FileChannel channel;
+	private final int windowSize;
+	private final long startMillis;
+	private ByteBuffer window;
+	private ByteBuffer view;
+	private long windowStart;
+	private long timestamp;
+	private byte type;
+	private int length;
+	private int payload;
+
+	/**
+	 * Open a capture file.
+	 * 
+	 * @throws IOException if the file cannot be read or is not a capture
+	 */
+	public TrafficReader(File capture) throws IOException {
+		file = new RandomAccessFile(capture, "r");
+		channel = file.getChannel();
+		try {
+			ByteBuffer header = ByteBuffer.allocate(TrafficRecorder.HEADER_SIZE);
+			while (header.hasRemaining() && channel.read(header) >= 0) {
+				// keep reading
+			}
+			header.flip();
+			if (header.remaining() < TrafficRecorder.HEADER_SIZE || header.getLong() != TrafficRecorder.MAGIC)
+				throw new IOException("Not a capture file: " + capture);
+			int version = header.getInt();
+			if (version != TrafficRecorder.VERSION)
+				throw new IOException("Unsupported capture version " + version);
+			windowSize = header.getInt();
+			startMillis = header.getLong();
+			map(0);
+			payload = TrafficRecorder.HEADER_SIZE;
+		} catch (IOException e) {
+			file.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Advance to the next record.
+	 * 
+	 * @return false at the end of the capture
+	 */
+	public boolean next() throws IOException {
+		if (window == null)
+			return false;
+		window.position(payload + length);
+		while (true) {
+			if (window.remaining() < TrafficRecorder.RECORD_HEADER_SIZE) {
+				windowStart += windowSize;
+				if (windowStart >= channel.size()) {
+					window = null;
+					return false;
+				}
+				map(windowStart);
+				continue;
+			}
+			timestamp = window.getLong();
+			type = window.get();
+			length = window.getInt();
+			payload = window.position();
+			if (type == 0) {
+				window = null;
+				return false;
+			}
+			if (type == TrafficRecorder.PAD) {
+				window.position(window.limit());
+				continue;
+			}
+			return true;
+		}
+	}
+
+	/**
+	 * @return System.nanoTime at which the current record was made
+	 */
+	public long getTimestamp() {
+		return timestamp;
+	}
+
+	/**
+	 * @return type of the current record, one of the TrafficRecorder constants
+	 */
+	public byte getType() {
+		return type;
+	}
+
+	/**
+	 * @return payload length of the current record
+	 */
+	public int getLength() {
+		return length;
+	}
+
+	/**
+	 * Copy the current record's payload.
+	 * 
+	 * @param buffer destination, with room for getLength() bytes from offset
+	 */
+	public void getPayload(byte[] buffer, int offset) {
+		view.position(payload);
+		view.get(buffer, offset, length);
+	}
+
+	/**
+	 * @return payload byte at index
+	 */
+	public byte getPayloadByte(int index) {
+		if (index < 0 || index >= length)
+			throw new IndexOutOfBoundsException();
+		return window.get(payload + index);
+	}
+
+	/**
+	 * @return payload of a record written with recordValue
+	 */
+	public int getValue() {
+		return window.getInt(payload);
+	}
+
+	/**
+	 * @return System.currentTimeMillis when the capture was started
+	 */
+	public long getStartMillis() {
+		return startMillis;
+	}
+
+	public void close() throws IOException {
+		window = null;
+		file.close();
+	}
+
+	private void map(long position) throws IOException {
+		long size = Math.min(windowSize, channel.size() - position);
+		window = channel.map(FileChannel.MapMode.READ_ONLY, position, size);
+		view = window.duplicate();
+	}
+
+}
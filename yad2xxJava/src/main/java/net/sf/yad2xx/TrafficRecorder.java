@@ -0,0 +1,257 @@
+/*
+ * Copyright 2026 Stephen Davies
+ * 
+ * This file is part of yad2xx.
+ * 
+ * yad2xx is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * yad2xx is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with yad2xx.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.yad2xx;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Records a Device's traffic to an append-only, memory-mapped capture file.
+ * Attach with {@link Device#setRecorder(TrafficRecorder)}; every chunk read
+ * or written, and the control operations that shape the line, are appended
+ * with a System.nanoTime timestamp. Read a capture back with
+ * {@link TrafficReader}, or replay it through the Device API with
+ * {@link ReplayInterface}.
+ * 
+ * Appending is a copy into mapped memory, with no system call except when a
+ * window fills and the next one is mapped, so recording adds little to the
+ * I/O path. An IOException while recording does not disturb the device: the
+ * recorder stops and keeps the exception for {@link #getError()}.
+ * 
+ * <h3>File format</h3>
+ * The file is a sequence of windows of equal size. The first window begins
+ * with a header:
+ * <pre>
+ * long  MAGIC
+ * int   VERSION
+ * int   window size
+ * long  start time, System.currentTimeMillis
+ * long  reserved
+ * </pre>
+ * followed by records, each
+ * <pre>
+ * long  timestamp, System.nanoTime
+ * byte  type
+ * int   payload length
+ * byte[] payload
+ * </pre>
+ * Integers are big-endian. Records never cross a window boundary: a record of
+ * type PAD fills the rest of a window, unless fewer bytes than a record header
+ * remain, and larger chunks are split. The first record with type zero marks
+ * the end of the capture.
+ *
+ * @since October 19, 2026
+ * @since 0.3
+ * @author Stephen Davies
+ */
+public class TrafficRecorder implements Closeable {
+
+	/** File signature, "YAD2XCAP" in ASCII. */
+	public static final long MAGIC = 0x5941443258434150L;
+	/** Format version written by this class. */
+	public static final int VERSION = 1;
+	/** Bytes in the file header. */
+	public static final int HEADER_SIZE = 32;
+	/** Bytes in a record header. */
+	public static final int RECORD_HEADER_SIZE = 13;
+	/** Default window size, 16 MiB. */
+	public static final int DEFAULT_WINDOW_SIZE = 16 << 20;
+
+	/** Filler to the end of a window. */
+	public static final byte PAD = -1;
+	/** Bytes received. */
+	public static final byte READ = 1;
+	/** Bytes sent. */
+	public static final byte WRITE = 2;
+	/** Baud rate set; payload is the rate as an int. */
+	public static final byte BAUD_RATE = 3;
+	/** Bit mode set; payload is the pin direction and mode bytes. */
+	public static final byte BIT_MODE = 4;
+	/** RTS changed; payload is one byte, 1 for set. */
+	public static final byte RTS = 5;
+	/** DTR changed; payload is one byte, 1 for set. */
+	public static final byte DTR = 6;
+	/** Data characteristics set; payload is word length, stop bits and parity. */
+	public static final byte DATA_CHARACTERISTICS = 7;
+	/** Flow control set; payload is the flow control short and the Xon and Xoff bytes. */
+	public static final byte FLOW_CONTROL = 8;
+	/** Queues purged; payload is the mask byte. */
+	public static final byte PURGE = 9;
+	/** Break changed; payload is one byte, 1 for on. */
+	public static final byte BREAK = 10;
+
+	private final RandomAccessFile file;
+	private final FileChannel channel;
+	private final int windowSize;
+	private MappedByteBuffer window;
+	private long windowStart;
+	private IOException error;
+	private boolean closed;
+
+	/**
+	 * Create or overwrite a capture file with the default window size.
+	 */
+	public TrafficRecorder(File capture) throws IOException {
+		this(capture, DEFAULT_WINDOW_SIZE);
+	}
+
+	/**
+	 * Create or overwrite a capture file.
+	 * 
+	 * @param capture file to write
+	 * @param windowSize bytes mapped at a time, at least 4 KiB
+	 */
+	public TrafficRecorder(File capture, int windowSize) throws IOException {
+		if (windowSize < 4096)
+			throw new IllegalArgumentException("Window size must be at least 4096");
+		this.windowSize = windowSize;
+		file = new RandomAccessFile(capture, "rw");
+		file.setLength(0);
+		channel = file.getChannel();
+		window = channel.map(FileChannel.MapMode.READ_WRITE, 0, windowSize);
+		window.putLong(MAGIC);
+		window.putInt(VERSION);
+		window.putInt(windowSize);
+		window.putLong(System.currentTimeMillis());
+		window.putLong(0);
+	}
+
+	/**
+	 * Append a data record, splitting it if it does not fit in a window.
+	 */
+	public synchronized void record(byte type, byte[] data, int offset, int length) {
+		do {
+			int chunk = reserve(type, length);
+			if (chunk < 0)
+				return;
+			window.put(data, offset, chunk);
+			offset += chunk;
+			length -= chunk;
+		} while (length > 0);
+	}
+
+	/**
+	 * Append a data record taken from a buffer's contents between position
+	 * and position + length, without moving the buffer's position.
+	 */
+	public synchronized void record(byte type, ByteBuffer data, int position, int length) {
+		ByteBuffer source = data.duplicate();
+		source.position(position);
+		do {
+			int chunk = reserve(type, length);
+			if (chunk < 0)
+				return;
+			source.limit(source.position() + chunk);
+			window.put(source);
+			length -= chunk;
+		} while (length > 0);
+	}
+
+	/**
+	 * Append a control record with a short payload given as bytes.
+	 */
+	public void recordControl(byte type, byte... payload) {
+		record(type, payload, 0, payload.length);
+	}
+
+	/**
+	 * Append a control record whose payload is a single int.
+	 */
+	public synchronized void recordValue(byte type, int value) {
+		if (reserve(type, 4) == 4) {
+			window.putInt(value);
+		}
+	}
+
+	/**
+	 * @return total bytes written to the capture, including headers
+	 */
+	public synchronized long getLength() {
+		return window == null ? windowStart : windowStart + window.position();
+	}
+
+	/**
+	 * @return the exception that stopped recording, or null
+	 */
+	public synchronized IOException getError() {
+		return error;
+	}
+
+	/**
+	 * Stop recording and close the file. The file keeps its mapped length;
+	 * the end of the capture is marked by the zero bytes after the last
+	 * record.
+	 */
+	public synchronized void close() throws IOException {
+		if (closed)
+			return;
+		closed = true;
+		if (window != null) {
+			window.force();
+			window = null;
+		}
+		file.close();
+	}
+
+	/**
+	 * Write a record header and make room for its payload, moving to the next
+	 * window if needed.
+	 * 
+	 * @return payload bytes that fit, at most length; -1 if not recording
+	 */
+	private int reserve(byte type, int length) {
+		if (window == null)
+			return -1;
+		// keep room for the end marker, a zero type byte after the last record
+		int room = window.remaining() - RECORD_HEADER_SIZE - 1;
+		if (room < Math.min(length, 64) || room < 0) {
+			if (!nextWindow())
+				return -1;
+			room = window.remaining() - RECORD_HEADER_SIZE - 1;
+		}
+		int chunk = Math.min(length, room);
+		window.putLong(System.nanoTime());
+		window.put(type);
+		window.putInt(chunk);
+		return chunk;
+	}
+
+	private boolean nextWindow() {
+		try {
+			if (window.remaining() >= RECORD_HEADER_SIZE) {
+				window.putLong(0);
+				window.put(PAD);
+				window.putInt(window.remaining() - 4);
+			}
+			windowStart += windowSize;
+			window = channel.map(FileChannel.MapMode.READ_WRITE, windowStart, windowSize);
+			return true;
+		} catch (IOException e) {
+			error = e;
+			window = null;
+			return false;
+		}
+	}
+
+}
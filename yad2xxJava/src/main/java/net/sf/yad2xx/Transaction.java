@@ -0,0 +1,212 @@
+/*
+ * Copyright 2026 Stephen Davies
+ * 
+ * This file is part of yad2xx.
+ * 
+ * yad2xx is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * yad2xx is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with yad2xx.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.yad2xx;
+
+import java.io.ByteArrayOutputStream;
+
+/**
+ * A short request/response exchange, compiled to a byte program that a Device
+ * executes entirely in native code. Steps run in the order added:
+ * 
+ * <pre>
+ * Transaction query = new Transaction()
+ *     .purge(FT_PURGE_RX)
+ *     .write(command)
+ *     .expect(8);
+ * int count = device.execute(query, response, 0);
+ * </pre>
+ * 
+ * Only the bytes read by expect and expectDelimiter steps are returned. If an
+ * expectation is not met within the timeout, or a write step times out before
+ * sending all its data, the whole program is run again, up to the number of
+ * attempts. A transaction may be reused and shared between
+ * devices once built.
+ *
+ * @since October 19, 2026
+ * @since 0.3
+ * @author Stephen Davies
+ */
+public class Transaction {
+
+	// Program op codes, must match FTDIInterface.c
+	static final int OP_WRITE = 1;				// int length, data
+	static final int OP_EXPECT = 2;				// int count
+	static final int OP_EXPECT_DELIMITER = 3;	// byte delimiter, int maximum count
+	static final int OP_DELAY = 4;				// int microseconds
+	static final int OP_PURGE = 5;				// byte mask
+	static final int OP_RTS = 6;				// byte state
+	static final int OP_DTR = 7;				// byte state
+
+	private ByteArrayOutputStream program = new ByteArrayOutputStream();
+	private byte[] compiled;
+	private int responseCapacity;
+	private int attempts = 1;
+	private int timeout = 1000;
+
+	/**
+	 * Send data to the device.
+	 */
+	public Transaction write(byte[] data) {
+		return write(data, 0, data.length);
+	}
+
+	/**
+	 * Send part of an array to the device. The data is copied into the program.
+	 */
+	public Transaction write(byte[] data, int offset, int length) {
+		op(OP_WRITE);
+		putInt(length);
+		program.write(data, offset, length);
+		return this;
+	}
+
+	/**
+	 * Read exactly count bytes into the response.
+	 */
+	public synchronized Transaction expect(int count) {
+		if (count < 0)
+			throw new IllegalArgumentException("Negative count");
+		op(OP_EXPECT);
+		putInt(count);
+		responseCapacity += count;
+		return this;
+	}
+
+	/**
+	 * Read into the response up to and including the delimiter, accepting at
+	 * most maximum bytes. Bytes after the delimiter are left in the receive queue.
+	 */
+	public synchronized Transaction expectDelimiter(byte delimiter, int maximum) {
+		if (maximum < 1)
+			throw new IllegalArgumentException("Maximum must be positive");
+		op(OP_EXPECT_DELIMITER);
+		program.write(delimiter);
+		putInt(maximum);
+		responseCapacity += maximum;
+		return this;
+	}
+
+	/**
+	 * Pause. Resolution is platform dependent, typically 1 ms on Windows.
+	 */
+	public Transaction delay(int micros) {
+		if (micros < 0)
+			throw new IllegalArgumentException("Negative delay");
+		op(OP_DELAY);
+		putInt(micros);
+		return this;
+	}
+
+	/**
+	 * Purge the receive and/or transmit buffers.
+	 *
+	 * @param mask combination of FT_PURGE_RX and FT_PURGE_TX
+	 */
+	public Transaction purge(int mask) {
+		op(OP_PURGE);
+		program.write(mask);
+		return this;
+	}
+
+	/**
+	 * Set or clear the Request To Send (RTS) control signal.
+	 */
+	public Transaction setRts(boolean rts) {
+		op(OP_RTS);
+		program.write(rts ? 1 : 0);
+		return this;
+	}
+
+	/**
+	 * Set or clear the Data Terminal Ready (DTR) control signal.
+	 */
+	public Transaction setDtr(boolean dtr) {
+		op(OP_DTR);
+		program.write(dtr ? 1 : 0);
+		return this;
+	}
+
+	/**
+	 * Number of times to run the program before giving up. Defaults to 1.
+	 */
+	public Transaction attempts(int attempts) {
+		if (attempts < 1)
+			throw new IllegalArgumentException("At least one attempt required");
+		this.attempts = attempts;
+		return this;
+	}
+
+	/**
+	 * Time allowed for each attempt, in milliseconds. Defaults to 1000.
+	 */
+	public Transaction timeout(int millis) {
+		if (millis < 0)
+			throw new IllegalArgumentException("Negative timeout");
+		this.timeout = millis;
+		return this;
+	}
+
+	public int getAttempts() {
+		return attempts;
+	}
+
+	/**
+	 * Largest number of bytes the transaction can return. The response buffer
+	 * passed to {@link Device#execute(Transaction, byte[], int)} must have at
+	 * least this much room.
+	 */
+	public synchronized int getResponseCapacity() {
+		return responseCapacity;
+	}
+
+	public int getTimeout() {
+		return timeout;
+	}
+
+	/**
+	 * The compiled program.
+	 */
+	synchronized byte[] getProgram() {
+		if (compiled == null) {
+			compiled = program.toByteArray();
+		}
+		return compiled;
+	}
+
+	/**
+	 * Read back an int written by putInt.
+	 */
+	static int getInt(byte[] program, int pc) {
+		return ((program[pc] & 0xFF) << 24) | ((program[pc + 1] & 0xFF) << 16)
+				| ((program[pc + 2] & 0xFF) << 8) | (program[pc + 3] & 0xFF);
+	}
+
+	private synchronized void op(int code) {
+		compiled = null;
+		program.write(code);
+	}
+
+	private void putInt(int value) {
+		program.write(value >>> 24);
+		program.write(value >>> 16);
+		program.write(value >>> 8);
+		program.write(value);
+	}
+
+}
@@ -0,0 +1,712 @@
+/*
+ * Copyright 2026 Stephen Davies
+ * 
+ * This file is part of yad2xx.
+ * 
+ * yad2xx is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * yad2xx is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with yad2xx.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.sf.yad2xx;
+
+import static java.lang.foreign.ValueLayout.ADDRESS;
+import static java.lang.foreign.ValueLayout.JAVA_BYTE;
+import static java.lang.foreign.ValueLayout.JAVA_INT;
+import static java.lang.foreign.ValueLayout.JAVA_LONG;
+import static java.lang.foreign.ValueLayout.JAVA_SHORT;
+import static net.sf.yad2xx.FTDIConstants.FT_NOT_SUPPORTED;
+import static net.sf.yad2xx.FTDIConstants.FT_OK;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.FunctionDescriptor;
+import java.lang.foreign.Linker;
+import java.lang.foreign.MemoryLayout;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.SymbolLookup;
+import java.lang.invoke.MethodHandle;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * D2XX backend that calls libftd2xx directly through the Foreign Function and
+ * Memory API of Java 22, with no JNI wrapper library. Select it with the
+ * system property {@code yad2xx.backend=ffm} and {@link FTDIInterface#create()},
+ * or construct it directly.
+ * 
+ * Direct ByteBuffers, including those from
+ * {@link MemorySegment#asByteBuffer()} over arena-allocated memory, are read
+ * into and written from in place. Byte arrays go through a per-thread native
+ * buffer, as the JNI library's stack buffer does. Devices are built as plain
+ * Java objects rather than with NewObject and field lookups.
+ * 
+ * The native event functions (createEvent, waitEvent and
+ * setEventNotification) and Transaction programs depend on platform event
+ * structures and are still served by the JNI library when it is loaded.
+ * Without it they fail with FT_NOT_SUPPORTED.
+ * 
+ * This class is compiled only by the Java22 build profile. Run with
+ * --enable-native-access=ALL-UNNAMED to silence the restricted method
+ * warning.
+ *
+ * @since October 19, 2026
+ * @since 0.3
+ * @author Stephen Davies
+ */
+public class FfmInterface extends FTDIInterface {
+
+	/**
+	 * System property naming the D2XX library to load, as a file name or path.
+	 * Defaults to the platform name for ftd2xx.
+	 */
+	public static final String LIBRARY_PROPERTY = "yad2xx.ftd2xx";
+
+	private static final int IO_CHUNK_SIZE = 16384;
+
+	// FT_DEVICE_LIST_INFO_NODE, with 32-bit ULONG and DWORD
+	private static final long NODE_FLAGS = 0;
+	private static final long NODE_TYPE = 4;
+	private static final long NODE_ID = 8;
+	private static final long NODE_LOC_ID = 12;
+	private static final long NODE_SERIAL = 16;
+	private static final int SERIAL_LENGTH = 16;
+	private static final long NODE_DESCRIPTION = 32;
+	private static final int DESCRIPTION_LENGTH = 64;
+	private static final long NODE_HANDLE = 96;
+	private static final long NODE_SIZE = 104;
+
+	private static final Linker LINKER = Linker.nativeLinker();
+	private static final SymbolLookup D2XX = SymbolLookup.libraryLookup(
+			System.getProperty(LIBRARY_PROPERTY, System.mapLibraryName("ftd2xx")), Arena.global());
+
+	private static final MethodHandle FT_CREATE_DEVICE_INFO_LIST = function("FT_CreateDeviceInfoList", ADDRESS);
+	private static final MethodHandle FT_GET_DEVICE_INFO_LIST = function("FT_GetDeviceInfoList", ADDRESS, ADDRESS);
+	private static final MethodHandle FT_OPEN = function("FT_Open", JAVA_INT, ADDRESS);
+	private static final MethodHandle FT_CLOSE = function("FT_Close", ADDRESS);
+	private static final MethodHandle FT_READ = function("FT_Read", ADDRESS, ADDRESS, JAVA_INT, ADDRESS);
+	private static final MethodHandle FT_WRITE = function("FT_Write", ADDRESS, ADDRESS, JAVA_INT, ADDRESS);
+	private static final MethodHandle FT_GET_QUEUE_STATUS = function("FT_GetQueueStatus", ADDRESS, ADDRESS);
+	private static final MethodHandle FT_GET_STATUS = function("FT_GetStatus", ADDRESS, ADDRESS, ADDRESS, ADDRESS);
+	private static final MethodHandle FT_GET_MODEM_STATUS = function("FT_GetModemStatus", ADDRESS, ADDRESS);
+	private static final MethodHandle FT_GET_DRIVER_VERSION = function("FT_GetDriverVersion", ADDRESS, ADDRESS);
+	private static final MethodHandle FT_GET_LIBRARY_VERSION = function("FT_GetLibraryVersion", ADDRESS);
+	private static final MethodHandle FT_SET_VID_PID = function("FT_SetVIDPID", JAVA_INT, JAVA_INT);
+	private static final MethodHandle FT_CLR_DTR = function("FT_ClrDtr", ADDRESS);
+	private static final MethodHandle FT_SET_DTR = function("FT_SetDtr", ADDRESS);
+	private static final MethodHandle FT_CLR_RTS = function("FT_ClrRts", ADDRESS);
+	private static final MethodHandle FT_SET_RTS = function("FT_SetRts", ADDRESS);
+	private static final MethodHandle FT_SET_BREAK_ON = function("FT_SetBreakOn", ADDRESS);
+	private static final MethodHandle FT_SET_BREAK_OFF = function("FT_SetBreakOff", ADDRESS);
+	private static final MethodHandle FT_RESET_DEVICE = function("FT_ResetDevice", ADDRESS);
+	private static final MethodHandle FT_ERASE_EE = function("FT_EraseEE", ADDRESS);
+	private static final MethodHandle FT_READ_EE = function("FT_ReadEE", ADDRESS, JAVA_INT, ADDRESS);
+	private static final MethodHandle FT_WRITE_EE = function("FT_WriteEE", ADDRESS, JAVA_INT, JAVA_SHORT);
+	private static final MethodHandle FT_GET_BIT_MODE = function("FT_GetBitMode", ADDRESS, ADDRESS);
+	private static final MethodHandle FT_SET_BIT_MODE = function("FT_SetBitMode", ADDRESS, JAVA_BYTE, JAVA_BYTE);
+	private static final MethodHandle FT_GET_LATENCY_TIMER = function("FT_GetLatencyTimer", ADDRESS, ADDRESS);
+	private static final MethodHandle FT_SET_LATENCY_TIMER = function("FT_SetLatencyTimer", ADDRESS, JAVA_BYTE);
+	private static final MethodHandle FT_PURGE = function("FT_Purge", ADDRESS, JAVA_INT);
+	private static final MethodHandle FT_SET_BAUD_RATE = function("FT_SetBaudRate", ADDRESS, JAVA_INT);
+	private static final MethodHandle FT_SET_CHARS = function("FT_SetChars", ADDRESS, JAVA_BYTE, JAVA_BYTE, JAVA_BYTE, JAVA_BYTE);
+	private static final MethodHandle FT_SET_DATA_CHARACTERISTICS = function("FT_SetDataCharacteristics", ADDRESS, JAVA_BYTE, JAVA_BYTE, JAVA_BYTE);
+	private static final MethodHandle FT_SET_FLOW_CONTROL = function("FT_SetFlowControl", ADDRESS, JAVA_SHORT, JAVA_BYTE, JAVA_BYTE);
+	private static final MethodHandle FT_SET_TIMEOUTS = function("FT_SetTimeouts", ADDRESS, JAVA_INT, JAVA_INT);
+	private static final MethodHandle FT_SET_USB_PARAMETERS = function("FT_SetUSBParameters", ADDRESS, JAVA_INT, JAVA_INT);
+
+	/**
+	 * Per-thread native memory: IO_CHUNK_SIZE bytes of data buffer followed
+	 * by room for the output parameters of a call.
+	 */
+	private static final ThreadLocal<MemorySegment> SCRATCH = new ThreadLocal<MemorySegment>() {
+		@Override
+		protected MemorySegment initialValue() {
+			return Arena.ofAuto().allocate(IO_CHUNK_SIZE + 4 * JAVA_LONG.byteSize(), JAVA_LONG.byteAlignment());
+		}
+	};
+
+	/**
+	 * Create an interface to the D2XX library through FFM.
+	 * 
+	 * @throws ExceptionInInitializerError if libftd2xx could not be loaded
+	 */
+	public FfmInterface() {
+		super(false);
+	}
+
+	/**
+	 * Look up a D2XX function returning FT_STATUS.
+	 * 
+	 * @return downcall handle, or null if the library does not export it
+	 */
+	private static MethodHandle function(String name, MemoryLayout... arguments) {
+		return D2XX.find(name)
+				.map(address -> LINKER.downcallHandle(address, FunctionDescriptor.of(JAVA_INT, arguments)))
+				.orElse(null);
+	}
+
+	private static MemorySegment handle(long ftHandle) {
+		return MemorySegment.ofAddress(ftHandle);
+	}
+
+	private static MemorySegment buffer() {
+		return SCRATCH.get().asSlice(0, IO_CHUNK_SIZE);
+	}
+
+	/**
+	 * @return the output parameter slot index of the per-thread scratch memory
+	 */
+	private static MemorySegment out(int index) {
+		return SCRATCH.get().asSlice(IO_CHUNK_SIZE + index * JAVA_LONG.byteSize(), JAVA_LONG.byteSize());
+	}
+
+	/**
+	 * The whole of a direct buffer, independent of its position and limit.
+	 */
+	private static MemorySegment whole(ByteBuffer buffer) {
+		if (!buffer.isDirect())
+			throw new IllegalArgumentException("Not a direct buffer");
+		return MemorySegment.ofBuffer(buffer.duplicate().clear());
+	}
+
+	private static void check(int status, String function) throws FTDIException {
+		if (status != FT_OK)
+			throw new FTDIException(status, function);
+	}
+
+	private static RuntimeException propagate(Throwable t) {
+		if (t instanceof RuntimeException)
+			return (RuntimeException) t;
+		if (t instanceof Error)
+			throw (Error) t;
+		return new IllegalStateException(t);
+	}
+
+	/**
+	 * Call a D2XX function off the data path, checking its status.
+	 */
+	private static void call(MethodHandle function, String name, Object... arguments) throws FTDIException {
+		if (function == null)
+			throw new FTDIException(FT_NOT_SUPPORTED, name);
+		int status;
+		try {
+			status = (int) function.invokeWithArguments(arguments);
+		} catch (Throwable t) {
+			throw propagate(t);
+		}
+		check(status, name);
+	}
+
+	private static int ftRead(MemorySegment ftHandle, MemorySegment buffer, int length) throws FTDIException {
+		MemorySegment count = out(0);
+		int status;
+		try {
+			status = (int) FT_READ.invokeExact(ftHandle, buffer, length, count);
+		} catch (Throwable t) {
+			throw propagate(t);
+		}
+		check(status, "FT_Read");
+		return count.get(JAVA_INT, 0);
+	}
+
+	private static int ftWrite(MemorySegment ftHandle, MemorySegment buffer, int length) throws FTDIException {
+		MemorySegment count = out(0);
+		int status;
+		try {
+			status = (int) FT_WRITE.invokeExact(ftHandle, buffer, length, count);
+		} catch (Throwable t) {
+			throw propagate(t);
+		}
+		check(status, "FT_Write");
+		return count.get(JAVA_INT, 0);
+	}
+
+	private static int ftGetQueueStatus(MemorySegment ftHandle) throws FTDIException {
+		MemorySegment queued = out(1);
+		int status;
+		try {
+			status = (int) FT_GET_QUEUE_STATUS.invokeExact(ftHandle, queued);
+		} catch (Throwable t) {
+			throw propagate(t);
+		}
+		check(status, "FT_GetQueueStatus");
+		return queued.get(JAVA_INT, 0);
+	}
+
+	/**
+	 * Read into a byte array through the scratch buffer, a chunk at a time,
+	 * stopping early when a read times out.
+	 */
+	private static int readArray(MemorySegment ftHandle, byte[] target, int offset, int length) throws FTDIException {
+		MemorySegment buffer = buffer();
+		int total = 0;
+		while (total < length) {
+			int wanted = Math.min(length - total, IO_CHUNK_SIZE);
+			int count = ftRead(ftHandle, buffer, wanted);
+			MemorySegment.copy(buffer, JAVA_BYTE, 0, target, offset + total, count);
+			total += count;
+			if (count < wanted)
+				break;  // timed out
+		}
+		return total;
+	}
+
+	/**
+	 * Write from a byte array in a single FT_Write, through the scratch buffer
+	 * or a temporary one if the data does not fit.
+	 */
+	private static int writeArray(MemorySegment ftHandle, byte[] source, int offset, int length) throws FTDIException {
+		if (length <= IO_CHUNK_SIZE) {
+			MemorySegment buffer = buffer();
+			MemorySegment.copy(source, offset, buffer, JAVA_BYTE, 0, length);
+			return ftWrite(ftHandle, buffer, length);
+		}
+		try (Arena arena = Arena.ofConfined()) {
+			MemorySegment buffer = arena.allocate(length);
+			MemorySegment.copy(source, offset, buffer, JAVA_BYTE, 0, length);
+			return ftWrite(ftHandle, buffer, length);
+		}
+	}
+
+	@Override
+	public int getDeviceCount() throws FTDIException {
+		call(FT_CREATE_DEVICE_INFO_LIST, "FT_CreateDeviceInfoList", out(0));
+		return out(0).get(JAVA_INT, 0);
+	}
+
+	@Override
+	public Device[] getDevices() throws FTDIException {
+		int count = getDeviceCount();
+		if (count == 0)
+			return new Device[0];
+
+		try (Arena arena = Arena.ofConfined()) {
+			MemorySegment nodes = arena.allocate(NODE_SIZE * count, JAVA_LONG.byteAlignment());
+			MemorySegment returned = arena.allocate(JAVA_INT);
+			returned.set(JAVA_INT, 0, count);
+			call(FT_GET_DEVICE_INFO_LIST, "FT_GetDeviceInfoList", nodes, returned);
+			count = Math.min(count, returned.get(JAVA_INT, 0));
+
+			Device[] devices = new Device[count];
+			for (int i = 0; i < count; i++) {
+				MemorySegment node = nodes.asSlice(i * NODE_SIZE, NODE_SIZE);
+				devices[i] = new Device(this, i,
+						node.get(JAVA_INT, NODE_FLAGS),
+						node.get(JAVA_INT, NODE_TYPE),
+						node.get(JAVA_INT, NODE_ID),
+						node.get(JAVA_INT, NODE_LOC_ID),
+						string(node, NODE_SERIAL, SERIAL_LENGTH),
+						string(node, NODE_DESCRIPTION, DESCRIPTION_LENGTH),
+						node.get(ADDRESS, NODE_HANDLE).address());
+			}
+			return devices;
+		}
+	}
+
+	/**
+	 * Decode a NUL-terminated C string held in a fixed-size field.
+	 */
+	private static String string(MemorySegment node, long offset, int size) {
+		byte[] bytes = new byte[size];
+		MemorySegment.copy(node, JAVA_BYTE, offset, bytes, 0, size);
+		int length = 0;
+		while (length < size && bytes[length] != 0) {
+			length++;
+		}
+		return new String(bytes, 0, length, StandardCharsets.UTF_8);
+	}
+
+	@Override
+	int getDriverVersionRaw(long ftHandle) throws FTDIException {
+		call(FT_GET_DRIVER_VERSION, "FT_GetDriverVersion", handle(ftHandle), out(0));
+		return out(0).get(JAVA_INT, 0);
+	}
+
+	@Override
+	public int getLibraryVersionInt() throws FTDIException {
+		call(FT_GET_LIBRARY_VERSION, "FT_GetLibraryVersion", out(0));
+		return out(0).get(JAVA_INT, 0);
+	}
+
+	@Override
+	int getModemStatus(long ftHandle) throws FTDIException {
+		call(FT_GET_MODEM_STATUS, "FT_GetModemStatus", handle(ftHandle), out(0));
+		return out(0).get(JAVA_INT, 0);
+	}
+
+	@Override
+	public void setVidPid(int vid, int pid) throws FTDIException {
+		if (FT_SET_VID_PID == null)
+			return;  // not exported on Windows, a no-op as in the JNI library
+		call(FT_SET_VID_PID, "FT_SetVIDPID", vid, pid);
+	}
+
+	@Override
+	void applyConfig(long ftHandle, int groups, int baudRate,
+			byte wordLength, byte stopBits, byte parity,
+			short flowControl, char xOn, char xOff,
+			int readTimeout, int writeTimeout, byte latencyTimer,
+			int inTransferSize, int outTransferSize,
+			byte pinDirection, byte bitMode) throws FTDIException {
+		// same order as the JNI library
+		if ((groups & DeviceConfig.USB_PARAMETERS) != 0)
+			setUSBParameters(ftHandle, inTransferSize, outTransferSize);
+		if ((groups & DeviceConfig.BAUD_RATE) != 0)
+			setBaudRate(ftHandle, baudRate);
+		if ((groups & DeviceConfig.DATA_CHARACTERISTICS) != 0)
+			setDataCharacteristics(ftHandle, wordLength, stopBits, parity);
+		if ((groups & DeviceConfig.FLOW_CONTROL) != 0)
+			setFlowControl(ftHandle, flowControl, xOn, xOff);
+		if ((groups & DeviceConfig.TIMEOUTS) != 0)
+			setTimeouts(ftHandle, readTimeout, writeTimeout);
+		if ((groups & DeviceConfig.LATENCY_TIMER) != 0)
+			setLatencyTimer(ftHandle, latencyTimer);
+		if ((groups & DeviceConfig.BIT_MODE) != 0)
+			setBitMode(ftHandle, pinDirection, bitMode);
+	}
+
+	@Override
+	void open(Device dev) throws FTDIException {
+		call(FT_OPEN, "FT_Open", dev.getIndex(), out(0));
+		dev.setHandle(out(0).get(ADDRESS, 0).address());
+	}
+
+	@Override
+	void close(Device device) throws FTDIException {
+		call(FT_CLOSE, "FT_Close", handle(device.getHandle()));
+		device.setHandle(0);
+	}
+
+	@Override
+	void clrDtr(long ftHandle) throws FTDIException {
+		call(FT_CLR_DTR, "FT_ClrDtr", handle(ftHandle));
+	}
+
+	@Override
+	void clrRts(long ftHandle) throws FTDIException {
+		call(FT_CLR_RTS, "FT_ClrRts", handle(ftHandle));
+	}
+
+	@Override
+	long createEvent() throws FTDIException {
+		if (!isLoaded())
+			throw new FTDIException(FT_NOT_SUPPORTED, "createEvent");
+		return super.createEvent();
+	}
+
+	@Override
+	void destroyEvent(long event) {
+		if (isLoaded()) {
+			super.destroyEvent(event);
+		}
+	}
+
+	@Override
+	void eraseEE(long ftHandle) throws FTDIException {
+		call(FT_ERASE_EE, "FT_EraseEE", handle(ftHandle));
+	}
+
+	@Override
+	int execute(long ftHandle, byte[] program, int attempts, int timeoutMillis, byte[] response, int offset) throws FTDIException {
+		if (!isLoaded())
+			throw new FTDIException(FT_NOT_SUPPORTED, "execute");
+		return super.execute(ftHandle, program, attempts, timeoutMillis, response, offset);
+	}
+
+	@Override
+	byte getBitMode(long ftHandle) throws FTDIException {
+		call(FT_GET_BIT_MODE, "FT_GetBitMode", handle(ftHandle), out(0));
+		return out(0).get(JAVA_BYTE, 0);
+	}
+
+	@Override
+	byte getLatencyTimer(long ftHandle) throws FTDIException {
+		call(FT_GET_LATENCY_TIMER, "FT_GetLatencyTimer", handle(ftHandle), out(0));
+		return out(0).get(JAVA_BYTE, 0);
+	}
+
+	@Override
+	int getQueueStatus(long ftHandle) throws FTDIException {
+		return ftGetQueueStatus(handle(ftHandle));
+	}
+
+	@Override
+	void getStatus(long ftHandle, DeviceStatus status) throws FTDIException {
+		MemorySegment device = handle(ftHandle);
+		call(FT_GET_STATUS, "FT_GetStatus", device, out(0), out(1), out(2));
+		call(FT_GET_MODEM_STATUS, "FT_GetModemStatus", device, out(3));
+		status.set(out(0).get(JAVA_INT, 0), out(1).get(JAVA_INT, 0),
+				out(2).get(JAVA_INT, 0), out(3).get(JAVA_INT, 0));
+	}
+
+	@Override
+	void purge(long ftHandle, int mask) throws FTDIException {
+		call(FT_PURGE, "FT_Purge", handle(ftHandle), mask);
+	}
+
+	@Override
+	int read(long ftHandle, byte[] buffer, int bufferLength) throws FTDIException {
+		return readArray(handle(ftHandle), buffer, 0, bufferLength);
+	}
+
+	@Override
+	int readBuffer(long ftHandle, Object target, int offset, int length) throws FTDIException {
+		if (target instanceof byte[])
+			return readArray(handle(ftHandle), (byte[]) target, offset, length);
+		return ftRead(handle(ftHandle), whole((ByteBuffer) target).asSlice(offset, length), length);
+	}
+
+	@Override
+	int readScatter(long ftHandle, Object[] buffers, int[] offsets, int[] lengths, int count) throws FTDIException {
+		int total = 0;
+		for (int i = 0; i < count; i++) {
+			total += lengths[i];
+		}
+		if (total <= IO_CHUNK_SIZE)
+			return scatter(ftRead(handle(ftHandle), buffer(), total), buffer(), buffers, offsets, lengths, count);
+		try (Arena arena = Arena.ofConfined()) {
+			MemorySegment data = arena.allocate(total);
+			return scatter(ftRead(handle(ftHandle), data, total), data, buffers, offsets, lengths, count);
+		}
+	}
+
+	/**
+	 * Copy limit bytes of data out to a scatter list.
+	 * 
+	 * @return limit
+	 */
+	private static int scatter(int limit, MemorySegment data, Object[] buffers, int[] offsets, int[] lengths, int count) {
+		int done = 0;
+		for (int i = 0; i < count && done < limit; i++) {
+			int length = Math.min(lengths[i], limit - done);
+			if (buffers[i] instanceof byte[]) {
+				MemorySegment.copy(data, JAVA_BYTE, done, (byte[]) buffers[i], offsets[i], length);
+			} else {
+				MemorySegment.copy(data, done, whole((ByteBuffer) buffers[i]), offsets[i], length);
+			}
+			done += length;
+		}
+		return limit;
+	}
+
+	@Override
+	int readAvailable(long ftHandle, byte[] buffer, int offset, int length) throws FTDIException {
+		MemorySegment device = handle(ftHandle);
+		int queued = Math.min(ftGetQueueStatus(device), length);
+		return queued == 0 ? 0 : readArray(device, buffer, offset, queued);
+	}
+
+	@Override
+	int readAvailableDirect(long ftHandle, ByteBuffer buffer, int position, int length) throws FTDIException {
+		MemorySegment device = handle(ftHandle);
+		int queued = Math.min(ftGetQueueStatus(device), length);
+		return queued == 0 ? 0 : ftRead(device, whole(buffer).asSlice(position, queued), queued);
+	}
+
+	@Override
+	int readFully(long ftHandle, byte[] buffer, int offset, int length, long timeoutNanos) throws FTDIException {
+		MemorySegment device = handle(ftHandle);
+		MemorySegment scratch = buffer();
+		long deadline = System.nanoTime() + timeoutNanos;
+		int total = 0;
+		while (total < length) {
+			int count = ftRead(device, scratch, Math.min(length - total, IO_CHUNK_SIZE));
+			MemorySegment.copy(scratch, JAVA_BYTE, 0, buffer, offset + total, count);
+			total += count;
+			if (total < length && System.nanoTime() - deadline >= 0)
+				break;  // deadline passed
+		}
+		return total;
+	}
+
+	@Override
+	int readUntil(long ftHandle, byte delimiter, byte[] buffer, int offset, int length, long timeoutNanos) throws FTDIException {
+		MemorySegment device = handle(ftHandle);
+		MemorySegment one = buffer().asSlice(0, 1);
+		long deadline = System.nanoTime() + timeoutNanos;
+		int total = 0;
+		while (total < length) {
+			if (ftRead(device, one, 1) == 1) {
+				byte b = one.get(JAVA_BYTE, 0);
+				buffer[offset + total++] = b;
+				if (b == delimiter)
+					break;
+			}
+			if (System.nanoTime() - deadline >= 0)
+				break;  // deadline passed
+		}
+		return total;
+	}
+
+	@Override
+	int readTimestamped(long ftHandle, byte[] buffer, int offset, int length, long[] times, int[] ends, int maxChunks, long timeoutNanos) throws FTDIException {
+		MemorySegment device = handle(ftHandle);
+		MemorySegment scratch = buffer();
+		long deadline = System.nanoTime() + timeoutNanos;
+		int total = 0;
+		int chunks = 0;
+		while (chunks < maxChunks && total < length) {
+			int queued = ftGetQueueStatus(device);
+			int wanted;
+			if (queued == 0) {
+				if (chunks > 0)
+					break;  // queue drained
+				wanted = 1;  // wait for the first byte, bounded by the read timeout
+			} else {
+				wanted = Math.min(Math.min(length - total, queued), IO_CHUNK_SIZE);
+			}
+			int count = ftRead(device, scratch, wanted);
+			long stamp = System.nanoTime();
+			if (count > 0) {
+				MemorySegment.copy(scratch, JAVA_BYTE, 0, buffer, offset + total, count);
+				total += count;
+				times[chunks] = stamp;
+				ends[chunks] = offset + total;
+				chunks++;
+			} else if (stamp - deadline >= 0) {
+				break;  // deadline passed
+			}
+		}
+		return chunks;
+	}
+
+	@Override
+	int readEE(long ftHandle, int wordOffset) throws FTDIException {
+		call(FT_READ_EE, "FT_ReadEE", handle(ftHandle), wordOffset, out(0));
+		return out(0).get(JAVA_SHORT, 0) & 0xffff;
+	}
+
+	@Override
+	void reset(long ftHandle) throws FTDIException {
+		call(FT_RESET_DEVICE, "FT_ResetDevice", handle(ftHandle));
+	}
+
+	@Override
+	void setBaudRate(long ftHandle, int baudRate) throws FTDIException {
+		call(FT_SET_BAUD_RATE, "FT_SetBaudRate", handle(ftHandle), baudRate);
+	}
+
+	@Override
+	void setBitMode(long ftHandle, byte pinDirection, byte mode) throws FTDIException {
+		call(FT_SET_BIT_MODE, "FT_SetBitMode", handle(ftHandle), pinDirection, mode);
+	}
+
+	@Override
+	void setBreakOff(long ftHandle) throws FTDIException {
+		call(FT_SET_BREAK_OFF, "FT_SetBreakOff", handle(ftHandle));
+	}
+
+	@Override
+	void setBreakOn(long ftHandle) throws FTDIException {
+		call(FT_SET_BREAK_ON, "FT_SetBreakOn", handle(ftHandle));
+	}
+
+	@Override
+	void setChars(long ftHandle, char event, boolean eventEnable, char error, boolean errorEnable) throws FTDIException {
+		call(FT_SET_CHARS, "FT_SetChars", handle(ftHandle),
+				(byte) event, (byte) (eventEnable ? 1 : 0), (byte) error, (byte) (errorEnable ? 1 : 0));
+	}
+
+	@Override
+	void setDataCharacteristics(long ftHandle, byte wordLength, byte stopBits, byte parity) throws FTDIException {
+		call(FT_SET_DATA_CHARACTERISTICS, "FT_SetDataCharacteristics", handle(ftHandle), wordLength, stopBits, parity);
+	}
+
+	@Override
+	void setDtr(long ftHandle) throws FTDIException {
+		call(FT_SET_DTR, "FT_SetDtr", handle(ftHandle));
+	}
+
+	@Override
+	void setEventNotification(long ftHandle, int mask, long event) throws FTDIException {
+		if (!isLoaded())
+			throw new FTDIException(FT_NOT_SUPPORTED, "FT_SetEventNotification");
+		super.setEventNotification(ftHandle, mask, event);
+	}
+
+	@Override
+	void setFlowControl(long ftHandle, short flowControl, char xOn, char xOff) throws FTDIException {
+		call(FT_SET_FLOW_CONTROL, "FT_SetFlowControl", handle(ftHandle), flowControl, (byte) xOn, (byte) xOff);
+	}
+
+	@Override
+	void setRts(long ftHandle) throws FTDIException {
+		call(FT_SET_RTS, "FT_SetRts", handle(ftHandle));
+	}
+
+	@Override
+	void setLatencyTimer(long ftHandle, byte timer) throws FTDIException {
+		call(FT_SET_LATENCY_TIMER, "FT_SetLatencyTimer", handle(ftHandle), timer);
+	}
+
+	@Override
+	void setTimeouts(long ftHandle, int readTimeout, int writeTimeout) throws FTDIException {
+		call(FT_SET_TIMEOUTS, "FT_SetTimeouts", handle(ftHandle), readTimeout, writeTimeout);
+	}
+
+	@Override
+	void setUSBParameters(long ftHandle, int inTransferSize, int outTransferSize) throws FTDIException {
+		call(FT_SET_USB_PARAMETERS, "FT_SetUSBParameters", handle(ftHandle), inTransferSize, outTransferSize);
+	}
+
+	@Override
+	boolean waitEvent(long event, int timeoutMillis) {
+		return isLoaded() && super.waitEvent(event, timeoutMillis);
+	}
+
+	@Override
+	int write(long ftHandle, byte[] buffer, int numBytesToWrite) throws FTDIException {
+		return writeArray(handle(ftHandle), buffer, 0, numBytesToWrite);
+	}
+
+	@Override
+	int writeBuffer(long ftHandle, Object source, int offset, int length) throws FTDIException {
+		if (source instanceof byte[])
+			return writeArray(handle(ftHandle), (byte[]) source, offset, length);
+		return ftWrite(handle(ftHandle), whole((ByteBuffer) source).asSlice(offset, length), length);
+	}
+
+	@Override
+	int writeGather(long ftHandle, Object[] buffers, int[] offsets, int[] lengths, int count) throws FTDIException {
+		int total = 0;
+		for (int i = 0; i < count; i++) {
+			total += lengths[i];
+		}
+		if (total <= IO_CHUNK_SIZE)
+			return ftWrite(handle(ftHandle), gather(buffer(), buffers, offsets, lengths, count), total);
+		try (Arena arena = Arena.ofConfined()) {
+			return ftWrite(handle(ftHandle), gather(arena.allocate(total), buffers, offsets, lengths, count), total);
+		}
+	}
+
+	/**
+	 * Copy a gather list into data.
+	 * 
+	 * @return data
+	 */
+	private static MemorySegment gather(MemorySegment data, Object[] buffers, int[] offsets, int[] lengths, int count) {
+		long done = 0;
+		for (int i = 0; i < count; i++) {
+			if (buffers[i] instanceof byte[]) {
+				MemorySegment.copy((byte[]) buffers[i], offsets[i], data, JAVA_BYTE, done, lengths[i]);
+			} else {
+				MemorySegment.copy(whole((ByteBuffer) buffers[i]), offsets[i], data, done, lengths[i]);
+			}
+			done += lengths[i];
+		}
+		return data;
+	}
+
+	@Override
+	void writeEE(long ftHandle, int wordOffset, int value) throws FTDIException {
+		call(FT_WRITE_EE, "FT_WriteEE", handle(ftHandle), wordOffset, (short) value);
+	}
+
+}
@@ -0,0 +1,127 @@
+package net.sf.yad2xx;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousCloseException;
+import java.nio.channels.ClosedChannelException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+
+/**
+ * Unit test AsyncDevice reads and writes through an AsyncDispatcher, against
+ * a replayed capture.
+ *
+ * @since October 19, 2026
+ * @since 0.3
+ * @author Stephen Davies
+ */
+public class AsyncDispatcherTest {
+
+	private static final long PATIENCE = 5000;
+
+	@Rule
+	public ReplayFixture fixture = new ReplayFixture();
+
+	private final ExecutorService executor = Executors.newSingleThreadExecutor();
+	private AsyncDispatcher dispatcher;
+
+	@After
+	public void tearDown() throws InterruptedException {
+		if (dispatcher != null) {
+			dispatcher.shutdown();
+		}
+		executor.shutdown();
+	}
+
+	private AsyncDevice open(Device device) throws FTDIException {
+		dispatcher = new AsyncDispatcher(device.getInterface(), executor);
+		return new AsyncDevice(device, dispatcher);
+	}
+
+	private static Throwable failure(Future<Integer> future) throws Exception {
+		try {
+			future.get(PATIENCE, TimeUnit.MILLISECONDS);
+		} catch (ExecutionException e) {
+			return e.getCause();
+		}
+		fail();
+		return null;
+	}
+
+	@Test
+	public void testRead() throws Exception {
+		AsyncDevice async = open(fixture.replay(50, "ab".getBytes(), "cd".getBytes()));
+		ByteBuffer buffer = ByteBuffer.allocate(8);
+		assertEquals(2, async.read(buffer).get(PATIENCE, TimeUnit.MILLISECONDS).intValue());
+		assertEquals(2, async.read(buffer).get(PATIENCE, TimeUnit.MILLISECONDS).intValue());
+		assertEquals("abcd", new String(buffer.array(), 0, buffer.position()));
+		assertEquals(1, dispatcher.getRegisteredCount());
+	}
+
+	@Test
+	public void testHandler() throws Exception {
+		AsyncDevice async = open(fixture.replay("xyz".getBytes()));
+		final BlockingQueue<Object> results = new LinkedBlockingQueue<Object>();
+		IoCompletionHandler<Integer, String> handler = new IoCompletionHandler<Integer, String>() {
+			public void completed(Integer result, String attachment) {
+				results.add(attachment + result);
+			}
+			public void failed(Throwable exc, String attachment) {
+				results.add(exc);
+			}
+		};
+		async.read(ByteBuffer.allocate(8), "read ", handler);
+		assertEquals("read 3", results.poll(PATIENCE, TimeUnit.MILLISECONDS));
+		ByteBuffer src = ByteBuffer.wrap("hello".getBytes());
+		async.write(src, "wrote ", handler);
+		assertEquals("wrote 5", results.poll(PATIENCE, TimeUnit.MILLISECONDS));
+		assertFalse(src.hasRemaining());
+	}
+
+	/**
+	 * A pending read fails when the device closes, and the dispatcher lets
+	 * go of the device.
+	 */
+	@Test
+	public void testClose() throws Exception {
+		Device device = fixture.replay();
+		AsyncDevice async = open(device);
+		Future<Integer> read = async.read(ByteBuffer.allocate(8));
+		try {
+			async.read(ByteBuffer.allocate(8));
+			fail();
+		} catch (IllegalStateException e) {
+			// one read at a time
+		}
+		assertFalse(read.isDone());
+		device.close();
+		assertTrue(failure(read) instanceof AsynchronousCloseException);
+		assertTrue(failure(async.read(ByteBuffer.allocate(8))) instanceof ClosedChannelException);
+		assertEquals(0, dispatcher.getRegisteredCount());
+		assertTrue(failure(async.write(ByteBuffer.allocate(8))) instanceof ClosedChannelException);
+	}
+
+	@Test
+	public void testShutdown() throws Exception {
+		AsyncDevice async = open(fixture.replay());
+		Future<Integer> read = async.read(ByteBuffer.allocate(8));
+		dispatcher.shutdown();
+		assertTrue(failure(read) instanceof AsynchronousCloseException);
+		assertEquals(0, dispatcher.getRegisteredCount());
+		assertTrue(failure(async.read(ByteBuffer.allocate(8))) instanceof ClosedChannelException);
+	}
+
+}
@@ -0,0 +1,68 @@
+package net.sf.yad2xx;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+
+import org.junit.Test;
+
+/**
+ * Unit test BufferPool reuse and debug checks.
+ * 
+ * @since October 19, 2026
+ * @since 0.3
+ * @author Stephen Davies
+ */
+public class BufferPoolTest {
+
+	@Test
+	public void testReuse() {
+		BufferPool pool = new BufferPool(64, 2, true, false);
+		ByteBuffer first = pool.acquire();
+		assertTrue(first.isDirect());
+		assertEquals(64, first.capacity());
+
+		first.put((byte) 1).flip();
+		pool.release(first);
+		assertEquals(1, pool.getAvailable());
+
+		ByteBuffer second = pool.acquire();
+		assertSame(first, second);
+		assertEquals(0, second.position());
+		assertEquals(64, second.limit());
+	}
+
+	@Test
+	public void testCapacity() {
+		BufferPool pool = new BufferPool(16, 1, false, false);
+		ByteBuffer a = pool.acquire();
+		ByteBuffer b = pool.acquire();
+		pool.release(a);
+		pool.release(b);
+		assertEquals(1, pool.getAvailable());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testForeignBuffer() {
+		new BufferPool(16, 1, false, false).release(ByteBuffer.allocate(32));
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testDoubleRelease() {
+		BufferPool pool = new BufferPool(16, 4, false, true);
+		ByteBuffer buffer = pool.acquire();
+		pool.release(buffer);
+		pool.release(buffer);
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testDoubleReleaseWithoutDebug() {
+		BufferPool pool = new BufferPool(16, 4, false, false);
+		ByteBuffer buffer = pool.acquire();
+		pool.release(buffer);
+		pool.release(buffer);
+	}
+
+}
@@ -0,0 +1,79 @@
+package net.sf.yad2xx;
+
+import static net.sf.yad2xx.FTDIConstants.*;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Unit test DeviceConfig change detection.
+ * 
+ * @since October 19, 2026
+ * @since 0.3
+ * @author Stephen Davies
+ */
+public class DeviceConfigTest {
+
+	private static final DeviceConfig SERIAL = DeviceConfig.EMPTY
+		.withBaudRate(115200)
+		.withDataCharacteristics(FT_BITS_8, FT_STOP_BITS_1, FT_PARITY_NONE)
+		.withFlowControl(FT_FLOW_NONE, (char) 0, (char) 0)
+		.withLatencyTimer(2);
+
+	@Test
+	public void testSpecified() {
+		assertEquals(0, DeviceConfig.EMPTY.getSpecified());
+		assertEquals(DeviceConfig.BAUD_RATE | DeviceConfig.DATA_CHARACTERISTICS
+				| DeviceConfig.FLOW_CONTROL | DeviceConfig.LATENCY_TIMER, SERIAL.getSpecified());
+		assertFalse(SERIAL.isSpecified(DeviceConfig.TIMEOUTS));
+	}
+
+	@Test
+	public void testChanges() {
+		assertEquals(SERIAL.getSpecified(), SERIAL.changesFrom(DeviceConfig.EMPTY));
+		assertEquals(0, SERIAL.changesFrom(SERIAL));
+		assertEquals(0, DeviceConfig.EMPTY.changesFrom(SERIAL));
+
+		DeviceConfig modbus = SERIAL
+			.withBaudRate(19200)
+			.withDataCharacteristics(FT_BITS_8, FT_STOP_BITS_1, FT_PARITY_EVEN);
+		assertEquals(DeviceConfig.BAUD_RATE | DeviceConfig.DATA_CHARACTERISTICS, modbus.changesFrom(SERIAL));
+
+		// a superset of what is recorded only sends the new group
+		DeviceConfig timed = SERIAL.withTimeouts(100, 100);
+		assertEquals(DeviceConfig.TIMEOUTS, timed.changesFrom(SERIAL));
+	}
+
+	@Test
+	public void testMerge() {
+		DeviceConfig recorded = DeviceConfig.EMPTY.withTimeouts(100, 100).withBaudRate(9600);
+		DeviceConfig merged = recorded.merge(SERIAL, SERIAL.changesFrom(recorded));
+		assertEquals(115200, merged.getBaudRate());
+		assertEquals(100, merged.getReadTimeout());
+		assertTrue(merged.isSpecified(SERIAL.getSpecified() | DeviceConfig.TIMEOUTS));
+		assertEquals(0, SERIAL.changesFrom(merged));
+
+		DeviceConfig forgotten = merged.without(DeviceConfig.BAUD_RATE);
+		assertEquals(DeviceConfig.BAUD_RATE, SERIAL.changesFrom(forgotten));
+	}
+
+	@Test
+	public void testEquals() {
+		DeviceConfig copy = DeviceConfig.EMPTY
+			.withLatencyTimer(2)
+			.withFlowControl(FT_FLOW_NONE, (char) 0, (char) 0)
+			.withDataCharacteristics(FT_BITS_8, FT_STOP_BITS_1, FT_PARITY_NONE)
+			.withBaudRate(115200);
+		assertEquals(SERIAL, copy);
+		assertEquals(SERIAL.hashCode(), copy.hashCode());
+		assertFalse(SERIAL.equals(SERIAL.withBitMode((byte) 0xff, FTDIBitMode.FT_BITMODE_ASYNC_BITBANG)));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testLatencyRange() {
+		DeviceConfig.EMPTY.withLatencyTimer(256);
+	}
+
+}
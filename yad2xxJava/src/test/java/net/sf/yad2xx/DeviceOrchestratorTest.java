@@ -0,0 +1,147 @@
+package net.sf.yad2xx;
+
+import static net.sf.yad2xx.FTDIConstants.FT_DEVICE_NOT_FOUND;
+import static net.sf.yad2xx.FTDIConstants.FT_INVALID_PARAMETER;
+import static net.sf.yad2xx.FTDIConstants.FT_IO_ERROR;
+import static net.sf.yad2xx.FTDIConstants.FT_OTHER_ERROR;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Rule;
+import org.junit.Test;
+
+/**
+ * Unit test DeviceOrchestrator results, retries and timing against a replay
+ * device whose open fails a given number of times.
+ * 
+ * @since October 19, 2026
+ * @since 0.3
+ * @author Stephen Davies
+ */
+public class DeviceOrchestratorTest {
+
+	private static final DeviceConfig CONFIG = DeviceConfig.EMPTY.withBaudRate(115200).withLatencyTimer(2);
+
+	@Rule
+	public ReplayFixture fixture = new ReplayFixture();
+
+	/**
+	 * Replay interface whose open fails with status, failures times.
+	 */
+	private FTDIInterface failing(final int status, final int failures) throws Exception {
+		return new ReplayInterface(fixture.record(0)) {
+			private int failed;
+
+			@Override
+			synchronized void open(Device dev) throws FTDIException {
+				if (failed < failures) {
+					failed++;
+					throw new FTDIException(status, "FT_Open");
+				}
+				super.open(dev);
+			}
+		};
+	}
+
+	private static Map<String, DeviceConfig> configs(String... serials) {
+		Map<String, DeviceConfig> configs = new LinkedHashMap<String, DeviceConfig>();
+		for (String serial : serials) {
+			configs.put(serial, CONFIG);
+		}
+		return configs;
+	}
+
+	@Test
+	public void testStart() throws Exception {
+		DeviceOrchestrator orchestrator = new DeviceOrchestrator(new ReplayInterface(fixture.record(0)), 4);
+		List<DeviceStartup> results = orchestrator.start(configs("MISSING", "REPLAY"));
+		assertEquals(2, results.size());
+
+		DeviceStartup missing = results.get(0);
+		assertEquals("MISSING", missing.getSerialNumber());
+		assertFalse(missing.isStarted());
+		assertNull(missing.getDevice());
+		assertEquals(FT_DEVICE_NOT_FOUND, missing.getError().getStatus());
+
+		DeviceStartup started = results.get(1);
+		assertTrue(started.isStarted());
+		assertEquals(1, started.getAttempts());
+		assertTrue(started.getDevice().isOpen());
+		assertEquals(CONFIG, started.getDevice().getConfig());
+		assertTrue(started.getTotalNanos() >= started.getOpenNanos() + started.getConfigureNanos());
+		started.getDevice().close();
+	}
+
+	@Test
+	public void testRetry() throws Exception {
+		DeviceOrchestrator orchestrator = new DeviceOrchestrator(failing(FT_IO_ERROR, 2), 1);
+		orchestrator.setRetries(3, 10);
+		DeviceStartup result = orchestrator.start(configs("REPLAY")).get(0);
+		assertTrue(result.isStarted());
+		assertEquals(3, result.getAttempts());
+		// 10 ms then 20 ms between attempts
+		assertTrue(result.getTotalNanos() >= 30000000L);
+		result.getDevice().close();
+	}
+
+	@Test
+	public void testGiveUp() throws Exception {
+		DeviceOrchestrator orchestrator = new DeviceOrchestrator(failing(FT_IO_ERROR, 5), 1);
+		orchestrator.setRetries(2, 0);
+		DeviceStartup result = orchestrator.start(configs("REPLAY")).get(0);
+		assertFalse(result.isStarted());
+		assertEquals(2, result.getAttempts());
+		assertEquals(FT_IO_ERROR, result.getError().getStatus());
+	}
+
+	@Test
+	public void testPermanentFailure() throws Exception {
+		DeviceOrchestrator orchestrator = new DeviceOrchestrator(failing(FT_INVALID_PARAMETER, 1), 1);
+		DeviceStartup result = orchestrator.start(configs("REPLAY")).get(0);
+		assertFalse(result.isStarted());
+		assertEquals(1, result.getAttempts());
+	}
+
+	/**
+	 * A runtime exception fails its own device, not the whole start.
+	 */
+	@Test
+	public void testRuntimeFailure() throws Exception {
+		final IllegalStateException thrown = new IllegalStateException();
+		FTDIInterface iFace = new ReplayInterface(fixture.record(0)) {
+			@Override
+			synchronized void setLatencyTimer(long ftHandle, byte timer) {
+				throw thrown;
+			}
+		};
+		DeviceStartup result = new DeviceOrchestrator(iFace, 1).start(configs("REPLAY")).get(0);
+		assertFalse(result.isStarted());
+		assertEquals(1, result.getAttempts());
+		assertEquals(FT_OTHER_ERROR, result.getError().getStatus());
+		assertSame(thrown, result.getError().getCause());
+		assertFalse(iFace.getDevices()[0].isOpen());
+	}
+
+	@Test
+	public void testNullConfig() throws Exception {
+		FTDIInterface iFace = new ReplayInterface(fixture.record(0));
+		Map<String, DeviceConfig> configs = configs("REPLAY");
+		configs.put("OTHER", null);
+		try {
+			new DeviceOrchestrator(iFace, 1).start(configs);
+			fail();
+		} catch (NullPointerException e) {
+			// rejected before any device starts
+		}
+		assertFalse(iFace.getDevices()[0].isOpen());
+	}
+
+}
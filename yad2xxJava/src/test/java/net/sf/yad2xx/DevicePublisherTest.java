@@ -0,0 +1,186 @@
+package net.sf.yad2xx;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Rule;
+import org.junit.Test;
+
+/**
+ * Unit test DevicePublisher demand, cancellation, completion, errors and
+ * overrun signalling, publishing a replayed capture.
+ *
+ * @since October 19, 2026
+ * @since 0.3
+ * @author Stephen Davies
+ */
+public class DevicePublisherTest {
+
+	private static final long PATIENCE = 5000;
+	private static final long QUIET = 100;
+	private static final String SUBSCRIBED = "subscribed";
+	private static final String COMPLETE = "complete";
+
+	@Rule
+	public ReplayFixture fixture = new ReplayFixture();
+
+	/**
+	 * Queues the signals it receives for the test thread. Chunks are queued
+	 * as strings.
+	 */
+	private static class Subscriber implements DataSubscriber {
+
+		final BlockingQueue<Object> signals = new LinkedBlockingQueue<Object>();
+		volatile DataSubscription subscription;
+		volatile int overruns;
+
+		public void onSubscribe(DataSubscription subscription) {
+			this.subscription = subscription;
+			signals.add(SUBSCRIBED);
+		}
+
+		public void onNext(ByteBuffer chunk) {
+			byte[] data = new byte[chunk.remaining()];
+			chunk.get(data);
+			signals.add(new String(data));
+		}
+
+		public void onOverrun() {
+			overruns++;
+		}
+
+		public void onError(Throwable throwable) {
+			signals.add(throwable);
+		}
+
+		public void onComplete() {
+			signals.add(COMPLETE);
+		}
+
+		Object next() throws InterruptedException {
+			Object signal = signals.poll(PATIENCE, TimeUnit.MILLISECONDS);
+			assertNotNull(signal);
+			return signal;
+		}
+
+		void assertQuiet() throws InterruptedException {
+			assertNull(signals.poll(QUIET, TimeUnit.MILLISECONDS));
+		}
+	}
+
+	private static Subscriber subscribe(DevicePublisher publisher) throws InterruptedException {
+		Subscriber subscriber = new Subscriber();
+		publisher.subscribe(subscriber);
+		assertEquals(SUBSCRIBED, subscriber.next());
+		return subscriber;
+	}
+
+	@Test
+	public void testDemand() throws Exception {
+		Device device = fixture.replay("abcdef".getBytes());
+		Subscriber subscriber = subscribe(new DevicePublisher(device, 2, 1));
+		subscriber.assertQuiet();
+
+		subscriber.subscription.request(2);
+		assertEquals("ab", subscriber.next());
+		assertEquals("cd", subscriber.next());
+		subscriber.assertQuiet();
+		assertEquals(2, device.getQueueStatus());
+
+		subscriber.subscription.request(1);
+		assertEquals("ef", subscriber.next());
+		subscriber.subscription.cancel();
+	}
+
+	@Test
+	public void testCancel() throws Exception {
+		Device device = fixture.replay("abcd".getBytes());
+		Subscriber subscriber = subscribe(new DevicePublisher(device, 2, 1));
+		subscriber.subscription.cancel();
+		subscriber.subscription.request(1);
+		subscriber.assertQuiet();
+		assertEquals(4, device.getQueueStatus());
+	}
+
+	@Test
+	public void testComplete() throws Exception {
+		Device device = fixture.replay();
+		Subscriber subscriber = subscribe(new DevicePublisher(device, 2, 1));
+		subscriber.subscription.request(1);
+		device.close();
+		assertEquals(COMPLETE, subscriber.next());
+		subscriber.assertQuiet();
+	}
+
+	@Test
+	public void testProtocolError() throws Exception {
+		DevicePublisher publisher = new DevicePublisher(fixture.replay(), 2, 1);
+		Subscriber first = subscribe(publisher);
+		Subscriber second = subscribe(publisher);
+		assertTrue(second.next() instanceof IllegalStateException);
+
+		first.subscription.request(0);
+		assertTrue(first.next() instanceof IllegalArgumentException);
+		first.assertQuiet();
+	}
+
+	/**
+	 * A failed read ends the stream with onError and returns the chunk to
+	 * the pool; a read that finds nothing is not delivered.
+	 */
+	@Test
+	public void testReadError() throws Exception {
+		ReplayInterface iFace = new ReplayInterface(fixture.record(0, "ab".getBytes()), 0) {
+			private int reads;
+
+			@Override
+			synchronized int readAvailable(long ftHandle, byte[] buffer, int offset, int length) throws FTDIException {
+				if (reads++ == 0)
+					return 0;
+				throw new FTDIException(FTDIConstants.FT_IO_ERROR, "FT_Read");
+			}
+		};
+		BufferPool pool = new BufferPool(16, 2, false, true);
+		Subscriber subscriber = subscribe(new DevicePublisher(fixture.open(iFace), pool, 1));
+		subscriber.subscription.request(1);
+		assertTrue(subscriber.next() instanceof FTDIException);
+		subscriber.assertQuiet();
+		assertEquals(1, pool.getAvailable());
+		assertEquals(0, pool.getLeakCount());
+	}
+
+	/**
+	 * onOverrun fires when the overrun error is raised, not on every poll
+	 * while it stays raised.
+	 */
+	@Test
+	public void testOverrunEdge() throws Exception {
+		ReplayInterface iFace = new ReplayInterface(fixture.record(0), 0) {
+			private int polls;
+
+			@Override
+			synchronized void getStatus(long ftHandle, DeviceStatus status) throws FTDIException {
+				int poll = polls++;
+				status.set(0, 0, 0, poll < 3 || poll == 4 || poll > 6 ? ModemStatus.OE : 0);
+				if (poll == 8) {
+					notifyAll();
+				}
+			}
+		};
+		Subscriber subscriber = subscribe(new DevicePublisher(fixture.open(iFace), 2, 1));
+		synchronized (iFace) {
+			subscriber.subscription.request(1);
+			iFace.wait(PATIENCE);
+		}
+		subscriber.subscription.cancel();
+		assertEquals(3, subscriber.overruns);
+	}
+
+}
@@ -0,0 +1,116 @@
+package net.sf.yad2xx;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Rule;
+import org.junit.Test;
+
+/**
+ * Unit test Device concurrency: a blocking read, a write, status polling and
+ * a close, each on its own thread, against a replayed capture.
+ *
+ * @since October 19, 2026
+ * @since 0.3
+ * @author Stephen Davies
+ */
+public class DeviceTest {
+
+	private static final long PATIENCE = 5000;
+
+	@Rule
+	public ReplayFixture fixture = new ReplayFixture();
+
+	/**
+	 * A device operation run on its own thread.
+	 */
+	private abstract static class Call extends Thread {
+
+		volatile Exception failure;
+
+		abstract void call() throws Exception;
+
+		@Override
+		public void run() {
+			try {
+				call();
+			} catch (Exception e) {
+				failure = e;
+			}
+		}
+
+		/**
+		 * Wait until the thread blocks, or fail.
+		 */
+		void awaitBlocked() throws InterruptedException {
+			long deadline = System.currentTimeMillis() + PATIENCE;
+			while (getState() != State.WAITING && getState() != State.TIMED_WAITING) {
+				assertTrue(isAlive() && System.currentTimeMillis() < deadline);
+				Thread.sleep(1);
+			}
+		}
+
+		/**
+		 * Wait for the call to finish, or fail.
+		 */
+		void finish(long millis) throws Exception {
+			join(millis);
+			assertFalse(isAlive());
+			if (failure != null)
+				throw failure;
+		}
+	}
+
+	@Test
+	public void testStatusDuringPendingClose() throws Exception {
+		final Device device = fixture.replay(1000, new byte[] { 1 }, new byte[] { 2, 3 });
+		final byte[] received = new byte[3];
+
+		Call reader = new Call() {
+			@Override
+			void call() throws Exception {
+				assertEquals(3, device.read(received));
+			}
+		};
+		reader.start();
+		reader.awaitBlocked();
+
+		Call writer = new Call() {
+			@Override
+			void call() throws Exception {
+				assertEquals(2, device.write(new byte[] { 4, 5 }));
+			}
+		};
+		writer.start();
+		writer.finish(PATIENCE);
+		assertTrue("write waited for read", reader.isAlive());
+
+		Call closer = new Call() {
+			@Override
+			void call() throws Exception {
+				device.close();
+			}
+		};
+		closer.start();
+		closer.awaitBlocked();
+
+		Call poller = new Call() {
+			@Override
+			void call() throws Exception {
+				device.getQueueStatus();
+				device.getStatus(new DeviceStatus());
+				device.getModemStatus();
+			}
+		};
+		poller.start();
+		poller.finish(PATIENCE);
+		assertTrue("status waited for close", reader.isAlive() && closer.isAlive());
+
+		reader.finish(PATIENCE);
+		closer.finish(PATIENCE);
+		assertEquals(3, received[2]);
+		assertFalse(device.isOpen());
+	}
+
+}
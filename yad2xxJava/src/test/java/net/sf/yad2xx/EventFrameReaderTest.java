@@ -0,0 +1,70 @@
+package net.sf.yad2xx;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Rule;
+import org.junit.Test;
+
+/**
+ * Unit test EventFrameReader framing, overlong frames and deadlines, reading
+ * from a replayed capture.
+ * 
+ * @since October 19, 2026
+ * @since 0.3
+ * @author Stephen Davies
+ */
+public class EventFrameReaderTest {
+
+	private static final byte ETX = 0x7E;
+
+	@Rule
+	public ReplayFixture fixture = new ReplayFixture();
+
+	@Test
+	public void testFrames() throws Exception {
+		Device device = fixture.replay(
+				new byte[] { 1, 2, ETX, 3 },
+				new byte[] { 4, 5, ETX, ETX, 6 });
+		EventFrameReader reader = new EventFrameReader(device, ETX, 16);
+		byte[] frame = new byte[16];
+		assertEquals(2, reader.readFrame(frame, 0, System.nanoTime() + 20000000L));
+		assertEquals(1, frame[0]);
+		assertEquals(2, frame[1]);
+		assertEquals(3, reader.readFrame(frame, 1, System.nanoTime() + 20000000L));
+		assertEquals(3, frame[1]);
+		assertEquals(5, frame[3]);
+		assertEquals(0, reader.readFrame(frame, 0, System.nanoTime() + 20000000L));
+		// 6 is never terminated
+		assertEquals(-1, reader.readFrame(frame, 0, System.nanoTime() + 20000000L));
+		reader.close();
+		assertTrue(device.isOpen());
+	}
+
+	@Test
+	public void testOverlong() throws Exception {
+		byte[] longFrame = new byte[40];
+		longFrame[longFrame.length - 1] = ETX;
+		EventFrameReader reader = new EventFrameReader(fixture.replay(
+				longFrame, new byte[] { 7, ETX }), ETX, 8);
+		byte[] frame = new byte[8];
+		assertEquals(1, reader.readFrame(frame, 0, System.nanoTime() + 20000000L));
+		assertEquals(7, frame[0]);
+		assertEquals(1, reader.getDroppedFrames());
+		reader.close();
+	}
+
+	@Test
+	public void testWakesOnArrival() throws Exception {
+		Device device = fixture.replay(30, new byte[] { 1 }, new byte[] { ETX });
+		EventFrameReader reader = new EventFrameReader(device, ETX, 8);
+		byte[] frame = new byte[8];
+		long start = System.nanoTime();
+		assertEquals(1, reader.readFrame(frame, 0, start + 1000000000L));
+		long elapsed = System.nanoTime() - start;
+		// waited for the terminator, then returned long before the deadline
+		assertTrue(elapsed >= 20000000L && elapsed < 500000000L);
+		reader.close();
+	}
+
+}
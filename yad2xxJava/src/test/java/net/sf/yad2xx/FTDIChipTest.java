@@ -0,0 +1,64 @@
+package net.sf.yad2xx;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Unit test grouping of channels into FTDIChips, and ChipStatistics rates.
+ * 
+ * @since October 19, 2026
+ * @since 0.3
+ * @author Stephen Davies
+ */
+public class FTDIChipTest {
+
+	private static final int FT_4232H = FTDIDeviceType.FT_DEVICE_4232H.ordinal();
+	private static final int FT_232R = FTDIDeviceType.FT_DEVICE_232R.ordinal();
+
+	private static Device device(int index, int type, int locationId, String serial) {
+		return new Device(null, index, FTDIConstants.FT_FLAGS_HISPEED, type, 0, locationId, serial, "", 0);
+	}
+
+	@Test
+	public void testGroup() {
+		Device b = device(0, FT_4232H, 0x2112, "FT123456B");
+		Device a = device(1, FT_4232H, 0x2111, "FT123456A");
+		Device uart = device(2, FT_232R, 0x2120, "A900ABCD");
+		Device other = device(3, FT_4232H, 0x2131, "FT654321A");
+		Device c = device(4, FT_4232H, 0x2113, "FT123456C");
+
+		FTDIChip[] chips = FTDIChip.group(new Device[] { b, a, uart, other, c });
+		assertEquals(3, chips.length);
+
+		assertEquals("FT123456", chips[0].getSerialBase());
+		assertEquals(3, chips[0].getChannelCount());
+		assertSame(a, chips[0].getChannel(0));
+		assertSame(b, chips[0].getChannel(1));
+		assertSame(c, chips[0].getChannel(2));
+		assertEquals(FTDIChip.HIGH_SPEED_LINK_RATE, chips[0].getLinkRate());
+
+		// a serial ending in A..D is not a channel letter on a single-channel part
+		assertEquals("A900ABCD", chips[1].getSerialBase());
+		assertEquals(1, chips[1].getChannelCount());
+		assertEquals("FT654321", chips[2].getSerialBase());
+	}
+
+	@Test
+	public void testStatistics() {
+		ChipStatistics stats = new ChipStatistics(500000000L, new long[] { 1000000, 0 },
+				new long[] { 0, 17000000 }, FTDIChip.HIGH_SPEED_LINK_RATE);
+		assertEquals(2000000.0, stats.getReadRate(0), 0.1);
+		assertEquals(34000000.0, stats.getWriteRate(1), 0.1);
+		assertEquals(36000000.0, stats.getTotalRate(), 0.1);
+		assertEquals(0.9, stats.getUtilization(), 1e-9);
+		assertTrue(stats.isSaturated());
+
+		stats = new ChipStatistics(1000000000L, new long[] { 1000 }, new long[] { 1000 }, FTDIChip.FULL_SPEED_LINK_RATE);
+		assertFalse(stats.isSaturated());
+	}
+
+}
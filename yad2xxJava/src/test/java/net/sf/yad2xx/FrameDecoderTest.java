@@ -0,0 +1,156 @@
+package net.sf.yad2xx;
+
+import static org.junit.Assert.assertEquals;
+
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.CRC32;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit test the FrameDecoder implementations.
+ * 
+ * @since October 19, 2026
+ * @since 0.3
+ * @author Stephen Davies
+ */
+public class FrameDecoderTest {
+
+	private static final Charset LATIN1 = Charset.forName("ISO-8859-1");
+
+	/**
+	 * Collects copies of delivered frames as strings.
+	 */
+	private List<String> frames;
+	private FrameListener listener;
+	
+	@Before
+	public void setUp() {
+		frames = new ArrayList<String>();
+		listener = new FrameListener() {
+			public void frameReceived(byte[] buffer, int offset, int length) {
+				frames.add(new String(buffer, offset, length, LATIN1));
+			}
+		};
+	}
+	
+	/**
+	 * Feed data to a decoder in chunks of the given size.
+	 */
+	private void feed(FrameDecoder decoder, byte[] data, int chunkSize) {
+		for (int i = 0; i < data.length; i += chunkSize) {
+			decoder.decode(data, i, Math.min(chunkSize, data.length - i), listener);
+		}
+	}
+	
+	@Test
+	public void testDelimited() {
+		byte[] data = "first\nsecond frame is longer\n\nthird\npartial".getBytes();
+		for (int chunk = 1; chunk <= data.length; chunk++) {
+			frames.clear();
+			FrameDecoder decoder = new DelimitedFrameDecoder((byte) '\n', 64);
+			feed(decoder, data, chunk);
+			assertEquals("chunk " + chunk, Arrays.asList("first", "second frame is longer", "third"), frames);
+		}
+	}
+	
+	@Test
+	public void testDelimitedOverflow() {
+		FrameDecoder decoder = new DelimitedFrameDecoder((byte) '\n', 4);
+		feed(decoder, "ok\ntoo long\nfine\n".getBytes(), 3);
+		assertEquals(Arrays.asList("ok", "fine"), frames);
+		assertEquals(1, decoder.getDroppedFrames());
+	}
+	
+	@Test
+	public void testLengthPrefixed() {
+		byte[] data = { 0, 3, 'a', 'b', 'c', 0, 1, 'd', 0, 5, 'e', 'f', 'g', 'h', 'i', 0, 9 };
+		for (int chunk = 1; chunk <= data.length; chunk++) {
+			frames.clear();
+			FrameDecoder decoder = new LengthPrefixedFrameDecoder(2, true, 16);
+			feed(decoder, data, chunk);
+			assertEquals("chunk " + chunk, Arrays.asList("abc", "d", "efghi"), frames);
+		}
+	}
+	
+	@Test
+	public void testSlip() {
+		byte[] data = { (byte) 0xC0, 'a', 'b', (byte) 0xC0, 'c', (byte) 0xDB, (byte) 0xDC, 'd',
+				(byte) 0xDB, (byte) 0xDD, (byte) 0xC0, 'x', (byte) 0xDB, 'y', (byte) 0xC0, 'e', (byte) 0xC0 };
+		for (int chunk = 1; chunk <= data.length; chunk++) {
+			frames.clear();
+			SlipFrameDecoder decoder = new SlipFrameDecoder(16);
+			feed(decoder, data, chunk);
+			assertEquals("chunk " + chunk, Arrays.asList("ab", "c\u00C0d\u00DB", "e"), frames);
+			assertEquals(1, decoder.getDroppedFrames());
+		}
+	}
+	
+	@Test
+	public void testCobs() {
+		// 11 22 00 33 encodes as 03 11 22 02 33, then 00 encodes as 01 01
+		byte[] data = { 3, 0x41, 0x42, 2, 0x43, 0, 1, 1, 0, 2, 0x44, 0 };
+		for (int chunk = 1; chunk <= data.length; chunk++) {
+			frames.clear();
+			FrameDecoder decoder = new CobsFrameDecoder(16);
+			feed(decoder, data, chunk);
+			assertEquals("chunk " + chunk, Arrays.asList("AB\u0000C", "\u0000", "D"), frames);
+		}
+	}
+	
+	@Test
+	public void testCobsLongRun() {
+		byte[] decoded = new byte[300];
+		Arrays.fill(decoded, (byte) 'z');
+		byte[] data = new byte[303];
+		data[0] = (byte) 0xFF;
+		System.arraycopy(decoded, 0, data, 1, 254);
+		data[255] = 47;
+		System.arraycopy(decoded, 254, data, 256, 46);
+		data[302] = 0;
+		FrameDecoder decoder = new CobsFrameDecoder(300);
+		feed(decoder, data, 7);
+		assertEquals(Arrays.asList(new String(decoded)), frames);
+	}
+	
+	@Test
+	public void testChecksum() {
+		byte[] payload = "checked".getBytes();
+		CRC32 crc = new CRC32();
+		crc.update(payload);
+		long value = crc.getValue();
+		byte[] frame = new byte[payload.length + 5];
+		System.arraycopy(payload, 0, frame, 0, payload.length);
+		for (int i = 0; i < 4; i++) {
+			frame[payload.length + i] = (byte) (value >> (8 * i));		// little endian
+		}
+		frame[frame.length - 1] = '\n';
+		
+		FrameDecoder decoder = new DelimitedFrameDecoder((byte) '\n', 32);
+		decoder.setChecksum(new CRC32(), 4, false);
+		feed(decoder, frame, frame.length);
+		frame[0] ^= 1;
+		feed(decoder, frame, frame.length);
+		assertEquals(Arrays.asList("checked"), frames);
+		assertEquals(1, decoder.getDroppedFrames());
+	}
+	
+	@Test
+	public void testScanner() {
+		ByteScanner scanner = new ByteScanner();
+		byte[] data = new byte[40];
+		for (int i = 0; i < data.length; i++) {
+			data[i] = (byte) (0x80 + i);
+		}
+		for (int i = 0; i < data.length; i++) {
+			assertEquals(i, scanner.indexOf(data, 0, data.length, data[i]));
+			assertEquals(-1, scanner.indexOf(data, i + 1, data.length, data[i]));
+			assertEquals(i, scanner.indexOfEither(data, 0, data.length, (byte) 1, data[i]));
+		}
+	}
+	
+}
@@ -0,0 +1,205 @@
+package net.sf.yad2xx;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * Unit test GpioPort shadow registers, batching and command encoding, with
+ * transfers captured instead of sent.
+ * 
+ * @since October 19, 2026
+ * @since 0.3
+ * @author Stephen Davies
+ */
+public class GpioPortTest {
+
+	private static final Device DEVICE = new Device(null, 0, 0, 0, 0, 0, "TEST", "Test", 0);
+
+	/**
+	 * MpssePort recording each transfer.
+	 */
+	private static class CapturedMpsse extends MpssePort {
+
+		List<byte[]> transfers;
+		boolean failing;
+
+		CapturedMpsse(boolean high, int direction, int output) throws FTDIException {
+			super(DEVICE, high, direction, output);
+		}
+
+		@Override
+		protected void transfer(byte[] buffer, int length) throws FTDIException {
+			if (failing)
+				throw new FTDIException(FTDIConstants.FT_IO_ERROR, "FT_Write");
+			if (transfers == null) {
+				transfers = new ArrayList<byte[]>();
+			}
+			ByteArrayOutputStream copy = new ByteArrayOutputStream();
+			copy.write(buffer, 0, length);
+			transfers.add(copy.toByteArray());
+		}
+	}
+
+	/**
+	 * BitBangPort recording transfers and direction changes in order.
+	 */
+	private static class CapturedBitBang extends BitBangPort {
+
+		List<String> events;
+
+		CapturedBitBang(int direction, int output) throws FTDIException {
+			super(DEVICE, false, direction, output);
+		}
+
+		private void record(String event) {
+			if (events == null) {
+				events = new ArrayList<String>();
+			}
+			events.add(event);
+		}
+
+		@Override
+		protected void directionChanged(int direction) {
+			record("dir " + Integer.toHexString(direction));
+		}
+
+		@Override
+		protected void transfer(byte[] buffer, int length) {
+			StringBuilder data = new StringBuilder("data");
+			for (int i = 0; i < length; i++) {
+				data.append(' ').append(Integer.toHexString(buffer[i] & 0xff));
+			}
+			record(data.toString());
+		}
+	}
+
+	@Test
+	public void testMpsseEncoding() throws FTDIException {
+		CapturedMpsse port = new CapturedMpsse(false, 0xf0, 0x10);
+		port.set(0x20);
+		port.clear(0x10);
+		port.toggle(0x40);
+
+		assertEquals(4, port.transfers.size());
+		assertArrayEquals(new byte[] { (byte) 0x80, 0x10, (byte) 0xf0 }, port.transfers.get(0));
+		assertArrayEquals(new byte[] { (byte) 0x80, 0x30, (byte) 0xf0 }, port.transfers.get(1));
+		assertArrayEquals(new byte[] { (byte) 0x80, 0x20, (byte) 0xf0 }, port.transfers.get(2));
+		assertArrayEquals(new byte[] { (byte) 0x80, 0x60, (byte) 0xf0 }, port.transfers.get(3));
+		assertEquals(0x60, port.getOutput());
+
+		CapturedMpsse high = new CapturedMpsse(true, 0xff, 0);
+		assertArrayEquals(new byte[] { (byte) 0x82, 0, (byte) 0xff }, high.transfers.get(0));
+	}
+
+	@Test
+	public void testUnchangedElided() throws FTDIException {
+		CapturedMpsse port = new CapturedMpsse(false, 0xff, 0x01);
+		port.set(0x01);
+		port.clear(0x02);
+		port.update(0x01, 0x02);
+		assertEquals(1, port.transfers.size());
+	}
+
+	@Test
+	public void testFailedSendRolledBack() throws FTDIException {
+		CapturedMpsse port = new CapturedMpsse(false, 0xff, 0x01);
+		port.failing = true;
+		try {
+			port.set(0x02);
+			fail("transfer failure not propagated");
+		} catch (FTDIException e) {
+			// expected
+		}
+		assertEquals(0x01, port.getOutput());
+
+		port.beginBatch();
+		port.set(0x04);
+		port.setDirection(0x0f);
+		try {
+			port.flush();
+			fail("transfer failure not propagated");
+		} catch (FTDIException e) {
+			// expected
+		}
+		assertEquals(0x01, port.getOutput());
+		assertEquals(0xff, port.getDirection());
+
+		// the same change again is sent, not elided
+		port.failing = false;
+		port.set(0x02);
+		assertEquals(2, port.transfers.size());
+		assertArrayEquals(new byte[] { (byte) 0x80, 0x03, (byte) 0xff }, port.transfers.get(1));
+	}
+
+	@Test
+	public void testBatch() throws FTDIException {
+		CapturedMpsse port = new CapturedMpsse(false, 0xff, 0);
+		port.beginBatch();
+		port.set(0x80);
+		port.clear(0x80);
+		port.setDirection(0x0f);
+		assertEquals(1, port.transfers.size());
+		port.flush();
+
+		assertEquals(2, port.transfers.size());
+		assertArrayEquals(new byte[] {
+				(byte) 0x80, (byte) 0x80, (byte) 0xff,
+				(byte) 0x80, 0, (byte) 0xff,
+				(byte) 0x80, 0, 0x0f }, port.transfers.get(1));
+	}
+
+	@Test
+	public void testBitBangDirection() throws FTDIException {
+		CapturedBitBang port = new CapturedBitBang(0x0f, 0x01);
+		port.beginBatch();
+		port.set(0x02);
+		port.setDirection(0xff);
+		port.set(0x80);
+		port.flush();
+
+		String[] expected = { "dir f", "data 1", "data 3", "dir ff", "data 3 83" };
+		assertArrayEquals(expected, port.events.toArray());
+	}
+
+	@Test
+	public void testCbusFinalState() throws FTDIException {
+		CapturedCbus port = new CapturedCbus(0x0f, 0x00);
+		port.beginBatch();
+		port.set(0x01);
+		port.set(0x04);
+		port.clear(0x01);
+		port.flush();
+
+		assertEquals(2, port.requests.size());
+		assertEquals(Integer.valueOf(0xf0), port.requests.get(0));
+		assertEquals(Integer.valueOf(0xf4), port.requests.get(1));
+	}
+
+	/**
+	 * CbusPort recording the bit mode byte of each request.
+	 */
+	private static class CapturedCbus extends CbusPort {
+
+		List<Integer> requests;
+
+		CapturedCbus(int direction, int output) throws FTDIException {
+			super(DEVICE, direction, output);
+		}
+
+		@Override
+		protected void transfer(byte[] buffer, int length) {
+			if (requests == null) {
+				requests = new ArrayList<Integer>();
+			}
+			requests.add(Integer.valueOf(buffer[length - 1] & 0xff));
+		}
+	}
+
+}
@@ -0,0 +1,115 @@
+package net.sf.yad2xx;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+
+/**
+ * Unit test LineReader terminators, chunk boundaries and overlong lines,
+ * reading from a replayed capture.
+ * 
+ * @since October 19, 2026
+ * @since 0.3
+ * @author Stephen Davies
+ */
+public class LineReaderTest {
+
+	@Rule
+	public ReplayFixture fixture = new ReplayFixture();
+
+	/**
+	 * Open a device that replays the given chunks, each as a separate read.
+	 */
+	private Device replay(String... chunks) throws Exception {
+		byte[][] data = new byte[chunks.length][];
+		for (int i = 0; i < chunks.length; i++) {
+			data[i] = chunks[i].getBytes("ISO-8859-1");
+		}
+		Device device = fixture.replay(data);
+		device.setTimeouts(5, 5);
+		return device;
+	}
+
+	private static List<String> readAll(LineReader reader) throws FTDIException {
+		List<String> lines = new ArrayList<String>();
+		CharSequence line;
+		while ((line = reader.readLine(System.nanoTime() + 20000000L)) != null) {
+			lines.add(line.toString());
+		}
+		return lines;
+	}
+
+	@Test
+	public void testLf() throws Exception {
+		LineReader reader = new LineReader(replay("*IDN?\nVOLT 1.5", "00\n\nend"), LineReader.Terminator.LF, 80);
+		List<String> lines = readAll(reader);
+		assertEquals(3, lines.size());
+		assertEquals("*IDN?", lines.get(0));
+		assertEquals("VOLT 1.500", lines.get(1));
+		assertEquals("", lines.get(2));
+	}
+
+	@Test
+	public void testCrLf() throws Exception {
+		LineReader reader = new LineReader(replay("one\r", "\ntwo\nstill two\r\n"), LineReader.Terminator.CRLF, 80);
+		List<String> lines = readAll(reader);
+		assertEquals(2, lines.size());
+		assertEquals("one", lines.get(0));
+		assertEquals("two\nstill two", lines.get(1));
+	}
+
+	@Test
+	public void testAny() throws Exception {
+		LineReader reader = new LineReader(replay("a\rb\r", "\nc\nd\r\n"), LineReader.Terminator.ANY, 80);
+		List<String> lines = readAll(reader);
+		assertEquals(4, lines.size());
+		assertEquals("a", lines.get(0));
+		assertEquals("b", lines.get(1));
+		assertEquals("c", lines.get(2));
+		assertEquals("d", lines.get(3));
+	}
+
+	@Test
+	public void testCustom() throws Exception {
+		LineReader reader = new LineReader(replay("OK\r\n>", ">ERR\r", "\n>>"), ">>".getBytes(), 80);
+		List<String> lines = readAll(reader);
+		assertEquals(2, lines.size());
+		assertEquals("OK\r\n", lines.get(0));
+		assertEquals("ERR\r\n", lines.get(1));
+	}
+
+	@Test
+	public void testOverlong() throws Exception {
+		StringBuilder longLine = new StringBuilder();
+		for (int i = 0; i < 10000; i++) {
+			longLine.append('x');
+		}
+		LineReader reader = new LineReader(replay("short\n", longLine.toString(), "\nok\n"), LineReader.Terminator.LF, 16);
+		List<String> lines = readAll(reader);
+		assertEquals(2, lines.size());
+		assertEquals("short", lines.get(0));
+		assertEquals("ok", lines.get(1));
+		assertEquals(1, reader.getDroppedLines());
+	}
+
+	@Test
+	public void testPoll() throws Exception {
+		LineReader reader = new LineReader(replay("1\n2\n3"), LineReader.Terminator.LF, 80);
+		final List<String> lines = new ArrayList<String>();
+		LineListener listener = new LineListener() {
+			public void lineReceived(CharSequence line) {
+				lines.add(line.toString());
+			}
+		};
+		assertEquals(2, reader.poll(listener));
+		assertEquals("2", lines.get(1));
+		assertEquals(0, reader.poll(listener));
+		assertNull(reader.readLine(System.nanoTime()));
+	}
+
+}
@@ -0,0 +1,176 @@
+package net.sf.yad2xx;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.Rule;
+import org.junit.Test;
+
+/**
+ * Unit test the Modbus RTU CRC, timing, request merging and response
+ * handling, with slave responses replayed from a capture.
+ * 
+ * @since October 19, 2026
+ * @since 0.3
+ * @author Stephen Davies
+ */
+public class ModbusTest {
+
+	@Rule
+	public ReplayFixture fixture = new ReplayFixture();
+
+	/**
+	 * Append a CRC to a frame.
+	 */
+	private static byte[] frame(int... bytes) {
+		byte[] frame = new byte[bytes.length + 2];
+		for (int i = 0; i < bytes.length; i++) {
+			frame[i] = (byte) bytes[i];
+		}
+		int crc = ModbusCrc.compute(frame, 0, bytes.length);
+		frame[bytes.length] = (byte) crc;
+		frame[bytes.length + 1] = (byte) (crc >> 8);
+		return frame;
+	}
+
+	/**
+	 * A master on a device that replays the given slave responses, all
+	 * available at once.
+	 */
+	private ModbusMaster master(byte[]... responses) throws Exception {
+		return master(0, 20, responses);
+	}
+
+	/**
+	 * A master on a device that replays the given slave responses in real
+	 * time, one every interval.
+	 */
+	private ModbusMaster master(int interval, int responseTimeout, byte[]... responses) throws Exception {
+		Device device = fixture.replay(interval, responses);
+		device.setTimeouts(5, 5);
+		device.setBaudRate(19200);
+		ModbusMaster master = new ModbusMaster(device);
+		master.setResponseTimeout(responseTimeout);
+		return master;
+	}
+
+	@Test
+	public void testCrc() {
+		byte[] request = { 0x01, 0x03, 0x00, 0x00, 0x00, 0x0A };
+		assertEquals(0xCDC5, ModbusCrc.compute(request, 0, request.length));
+
+		ModbusCrc crc = new ModbusCrc();
+		crc.update(request, 0, 3);
+		for (int i = 3; i < request.length; i++) {
+			crc.update(request[i]);
+		}
+		assertEquals(0xCDC5, crc.getValue());
+		crc.reset();
+		assertEquals(0xFFFF, crc.getValue());
+	}
+
+	@Test
+	public void testSilence() {
+		assertEquals(4011, ModbusMaster.getSilenceMicros(9600));
+		assertEquals(2006, ModbusMaster.getSilenceMicros(19200));
+		assertEquals(1750, ModbusMaster.getSilenceMicros(115200));
+	}
+
+	@Test
+	public void testRequestFrame() {
+		ModbusRequest request = ModbusMaster.readRequest(1, ModbusMaster.READ_HOLDING_REGISTERS, 0, 10);
+		assertEquals(0xC5, request.frame[6] & 0xFF);
+		assertEquals(0xCD, request.frame[7] & 0xFF);
+		assertEquals(25, request.responseLength);
+	}
+
+	@Test
+	public void testMerge() {
+		ModbusPoller poller = new ModbusPoller(new ModbusMaster(null));
+		poller.add(1, ModbusMaster.READ_HOLDING_REGISTERS, 10, 10);
+		poller.add(1, ModbusMaster.READ_HOLDING_REGISTERS, 0, 10);
+		poller.add(1, ModbusMaster.READ_HOLDING_REGISTERS, 5, 3);
+		assertEquals(1, poller.getRequestCount());
+
+		poller.add(1, ModbusMaster.READ_HOLDING_REGISTERS, 25, 5);
+		poller.add(1, ModbusMaster.READ_INPUT_REGISTERS, 20, 1);
+		poller.add(2, ModbusMaster.READ_HOLDING_REGISTERS, 20, 1);
+		assertEquals(4, poller.getRequestCount());
+
+		ModbusPoller gaps = new ModbusPoller(new ModbusMaster(null), 5);
+		gaps.add(1, ModbusMaster.READ_HOLDING_REGISTERS, 0, 20);
+		gaps.add(1, ModbusMaster.READ_HOLDING_REGISTERS, 25, 5);
+		assertEquals(1, gaps.getRequestCount());
+
+		// the PDU limit splits long runs
+		gaps.add(1, ModbusMaster.READ_HOLDING_REGISTERS, 30, 100);
+		assertEquals(2, gaps.getRequestCount());
+	}
+
+	@Test
+	public void testRead() throws Exception {
+		ModbusMaster master = master(frame(0x11, 0x03, 0x04, 0x12, 0x34, 0xFF, 0xFE));
+		int[] values = new int[3];
+		master.readRegisters(0x11, ModbusMaster.READ_HOLDING_REGISTERS, 100, 2, values, 1);
+		assertEquals(0x1234, values[1]);
+		assertEquals(0xFFFE, values[2]);
+	}
+
+	@Test
+	public void testFailures() throws Exception {
+		byte[] damaged = frame(0x11, 0x03, 0x02, 0x00, 0x01);
+		damaged[4] = 2;
+		ModbusMaster master = master(frame(0x11, 0x83, 0x02), damaged);
+		int[] values = new int[1];
+		try {
+			master.readRegisters(0x11, ModbusMaster.READ_HOLDING_REGISTERS, 0, 1, values, 0);
+			fail();
+		} catch (ModbusException e) {
+			assertEquals(ModbusException.ILLEGAL_DATA_ADDRESS, e.getCode());
+			assertTrue(e.isSlaveException());
+		}
+		try {
+			master.readRegisters(0x11, ModbusMaster.READ_HOLDING_REGISTERS, 0, 1, values, 0);
+			fail();
+		} catch (ModbusException e) {
+			assertEquals(ModbusException.CRC_ERROR, e.getCode());
+		}
+		try {
+			master.readRegisters(0x11, ModbusMaster.READ_HOLDING_REGISTERS, 0, 1, values, 0);
+			fail();
+		} catch (ModbusException e) {
+			assertEquals(ModbusException.TIMEOUT, e.getCode());
+		}
+	}
+
+	@Test
+	public void testPoll() throws Exception {
+		// slave 1 answers one merged read at once, slave 2 is silent, and
+		// slave 3 answers after slave 2's timeout
+		ModbusMaster master = master(80, 50,
+				frame(1, 0x03, 0x06, 0, 1, 0, 2, 0, 3),
+				frame(3, 0x04, 0x02, 0, 9));
+		ModbusPoller poller = new ModbusPoller(master);
+		ModbusPoller.Range a = poller.add(1, ModbusMaster.READ_HOLDING_REGISTERS, 0, 2);
+		ModbusPoller.Range b = poller.add(1, ModbusMaster.READ_HOLDING_REGISTERS, 2, 1);
+		ModbusPoller.Range silent1 = poller.add(2, ModbusMaster.READ_HOLDING_REGISTERS, 0, 1);
+		ModbusPoller.Range silent2 = poller.add(2, ModbusMaster.READ_HOLDING_REGISTERS, 50, 1);
+		ModbusPoller.Range c = poller.add(3, ModbusMaster.READ_INPUT_REGISTERS, 7, 1);
+		assertEquals(4, poller.getRequestCount());
+
+		assertEquals(2, poller.poll());
+
+		assertEquals(2, a.getValue(1));
+		assertEquals(3, b.getValue(2));
+		assertEquals(9, c.getValue(7));
+		assertNull(c.getError());
+		assertEquals(ModbusException.TIMEOUT, ((ModbusException) silent1.getError()).getCode());
+		// the second request to the silent slave was skipped, not timed out
+		assertSame(silent1.getError(), silent2.getError());
+		assertTrue(a.getUpdated() != 0);
+	}
+
+}
@@ -46,4 +46,16 @@ public class ModemStatusTest {
 		assertTrue("Parity error failed", status.hasParityError());
 	}
 	
+	@Test
+	public void testStaticHelpers() {
+		assertFalse("CTS failed", ModemStatus.hasCTS(0x1460));
+		assertTrue("DSR failed", ModemStatus.hasDSR(0x1460));
+		assertTrue("RI failed", ModemStatus.hasRI(0x1460));
+		assertFalse("DCD failed", ModemStatus.hasDCD(0x1460));
+		assertTrue("Break interrupt failed", ModemStatus.hasBreakInterrupt(0x1460));
+		assertFalse("Framing error failed", ModemStatus.hasFramingError(0x1460));
+		assertFalse("Overrun error failed", ModemStatus.hasOverrunError(0x1460));
+		assertTrue("Parity error failed", ModemStatus.hasParityError(0x1460));
+	}
+	
 }
@@ -0,0 +1,131 @@
+package net.sf.yad2xx;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.junit.rules.ExternalResource;
+
+/**
+ * Test rule giving each test a device that replays received data from a
+ * temporary capture, and optionally a second capture of the traffic the test
+ * sends through it. The device is closed and the captures deleted after the
+ * test.
+ * 
+ * <pre>
+ * &#64;Rule
+ * public ReplayFixture fixture = new ReplayFixture();
+ * </pre>
+ * 
+ * @since October 19, 2026
+ * @since 0.3
+ * @author Stephen Davies
+ */
+public class ReplayFixture extends ExternalResource {
+
+	private File capture;
+	private Device device;
+	private File traffic;
+	private TrafficRecorder recorder;
+	private TrafficReader reader;
+
+	@Override
+	protected void before() throws IOException {
+		capture = File.createTempFile("yad2xx", ".cap");
+	}
+
+	@Override
+	protected void after() {
+		try {
+			if (device != null && device.isOpen()) {
+				device.close();
+			}
+			if (reader != null) {
+				reader.close();
+			}
+		} catch (FTDIException e) {
+			throw new IllegalStateException(e);
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		} finally {
+			capture.delete();
+			if (traffic != null) {
+				traffic.delete();
+			}
+		}
+	}
+
+	/**
+	 * @return the capture replayed by the fixture's devices
+	 */
+	public File getCapture() {
+		return capture;
+	}
+
+	/**
+	 * Open a device that replays the given chunks, each as a separate read,
+	 * all available at once.
+	 */
+	public Device replay(byte[]... chunks) throws IOException, InterruptedException, FTDIException {
+		return replay(0, chunks);
+	}
+
+	/**
+	 * Open a device that replays the given chunks, each as a separate read.
+	 * 
+	 * @param interval milliseconds between chunks; if positive, the chunks
+	 *    are replayed in real time
+	 */
+	public Device replay(int interval, byte[]... chunks) throws IOException, InterruptedException, FTDIException {
+		return open(new ReplayInterface(record(interval, chunks), interval > 0 ? 1 : 0));
+	}
+
+	/**
+	 * Write the capture without opening a device, for tests that replay it
+	 * through their own ReplayInterface.
+	 * 
+	 * @param interval milliseconds between chunks
+	 * @return the capture
+	 */
+	public File record(int interval, byte[]... chunks) throws IOException, InterruptedException {
+		TrafficRecorder recorder = new TrafficRecorder(capture);
+		for (int i = 0; i < chunks.length; i++) {
+			if (i > 0 && interval > 0) {
+				Thread.sleep(interval);
+			}
+			recorder.record(TrafficRecorder.READ, chunks[i], 0, chunks[i].length);
+		}
+		recorder.close();
+		return capture;
+	}
+
+	/**
+	 * Open the device of an interface replaying the capture. It is closed
+	 * after the test.
+	 */
+	public Device open(ReplayInterface iFace) throws FTDIException {
+		device = iFace.getDevices()[0];
+		device.open();
+		return device;
+	}
+
+	/**
+	 * Start recording a device's traffic to a second temporary capture.
+	 */
+	public void recordTraffic(Device device) throws IOException {
+		traffic = File.createTempFile("yad2xx", ".cap");
+		recorder = new TrafficRecorder(traffic);
+		device.setRecorder(recorder);
+	}
+
+	/**
+	 * Stop recording the device's traffic and read it back. The reader is
+	 * closed after the test.
+	 */
+	public TrafficReader readTraffic(Device device) throws IOException {
+		device.setRecorder(null);
+		recorder.close();
+		reader = new TrafficReader(traffic);
+		return reader;
+	}
+
+}
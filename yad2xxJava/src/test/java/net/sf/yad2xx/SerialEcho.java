@@ -36,12 +36,12 @@ public class SerialEcho {
 					out.println(dev.getModemStatus());
 					out.println("Sending data");
 					byte[] data = { (byte)0x61, (byte)0x62 };
+					byte[] input = new byte[2];
 					for (int i = 0; i < 100; i++) {
 						dev.write(data);
 						try { Thread.sleep(100); }
 						catch (InterruptedException ie) {}
 
-						byte[] input = new byte[2];
 						out.println("Reading bytes: " + dev.read(input));
 						out.println(input[0] + " " + input[1]);
 					}
@@ -0,0 +1,126 @@
+package net.sf.yad2xx;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit test the SharedRingWriter and SharedRingReader protocol, with both
+ * ends in one process.
+ * 
+ * @since October 19, 2026
+ * @since 0.3
+ * @author Stephen Davies
+ */
+public class SharedRingTest {
+
+	private File ringFile;
+
+	@Before
+	public void setUp() throws IOException {
+		ringFile = File.createTempFile("yad2xx", ".ring");
+	}
+
+	@After
+	public void tearDown() {
+		ringFile.delete();
+	}
+
+	@Test
+	public void testWrapAround() throws IOException {
+		SharedRingWriter writer = new SharedRingWriter(ringFile, 16);
+		SharedRingReader reader = new SharedRingReader(ringFile);
+		byte[] buffer = new byte[16];
+
+		writer.write(new byte[] { 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12 }, 0, 12);
+		assertEquals(12, reader.read(buffer, 0, 16));
+		writer.write(new byte[] { 13, 14, 15, 16, 17, 18, 19, 20 }, 0, 8);
+		assertEquals(8, reader.read(buffer, 0, 16));
+		assertArrayEquals(new byte[] { 13, 14, 15, 16, 17, 18, 19, 20 }, copyOf(buffer, 8));
+		assertEquals(0, reader.read(buffer, 0, 16));
+		assertEquals(20, reader.getPosition());
+		assertEquals(0, reader.getLostBytes());
+
+		writer.close();
+		assertEquals(-1, reader.read(buffer, 0, 16));
+		reader.close();
+	}
+
+	@Test
+	public void testLapped() throws IOException {
+		SharedRingWriter writer = new SharedRingWriter(ringFile, 16);
+		SharedRingReader reader = new SharedRingReader(ringFile);
+		byte[] data = new byte[40];
+		for (int i = 0; i < data.length; i++) {
+			data[i] = (byte) i;
+		}
+		writer.write(data, 0, 10);
+		writer.write(data, 10, 30);
+
+		byte[] buffer = new byte[32];
+		assertEquals(16, reader.read(buffer, 0, 32));
+		assertEquals(24, reader.getLostBytes());
+		assertEquals(24, buffer[0]);
+		assertEquals(39, buffer[15]);
+		writer.close();
+		reader.close();
+	}
+
+	@Test
+	public void testSubscriber() throws IOException {
+		SharedRingWriter writer = new SharedRingWriter(ringFile, 64);
+		SharedRingReader reader = new SharedRingReader(ringFile);
+		final long[] requested = new long[1];
+		writer.onSubscribe(new DataSubscription() {
+			public void request(long n) {
+				requested[0] = n;
+			}
+			public void cancel() {
+			}
+		});
+		assertEquals(Long.MAX_VALUE, requested[0]);
+
+		writer.onNext(ByteBuffer.wrap("abc".getBytes()));
+		SharedRingReader late = new SharedRingReader(ringFile);
+		writer.onOverrun();
+		writer.onNext(ByteBuffer.wrap("def".getBytes()));
+		writer.onComplete();
+
+		byte[] buffer = new byte[8];
+		assertEquals(6, reader.read(buffer, 0, 8, System.nanoTime()));
+		assertEquals("abcdef", new String(buffer, 0, 6));
+		assertEquals(1, reader.getDeviceOverruns());
+		assertEquals(3, late.read(buffer, 0, 8));
+		assertEquals("def", new String(buffer, 0, 3));
+		assertEquals(-1, late.read(buffer, 0, 8));
+		reader.close();
+		late.close();
+	}
+
+	/**
+	 * The protocol is only safe on weakly ordered processors with real
+	 * fences, which every JVM since Java 8 has.
+	 */
+	@Test
+	public void testFences() {
+		String version = System.getProperty("java.specification.version");
+		assumeTrue(!version.equals("1.6") && !version.equals("1.7"));
+		assertTrue(Fences.isAvailable());
+	}
+
+	private static byte[] copyOf(byte[] buffer, int length) {
+		byte[] result = new byte[length];
+		System.arraycopy(buffer, 0, result, 0, length);
+		return result;
+	}
+
+}
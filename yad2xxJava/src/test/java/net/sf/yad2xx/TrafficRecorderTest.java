@@ -0,0 +1,227 @@
+package net.sf.yad2xx;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import org.junit.Rule;
+import org.junit.Test;
+
+/**
+ * Unit test TrafficRecorder captures, read back with TrafficReader and
+ * replayed through ReplayInterface.
+ * 
+ * @since October 19, 2026
+ * @since 0.3
+ * @author Stephen Davies
+ */
+public class TrafficRecorderTest {
+
+	@Rule
+	public ReplayFixture fixture = new ReplayFixture();
+
+	@Test
+	public void testRoundTrip() throws IOException {
+		TrafficRecorder recorder = new TrafficRecorder(fixture.getCapture(), 4096);
+		recorder.recordValue(TrafficRecorder.BAUD_RATE, 115200);
+		recorder.record(TrafficRecorder.WRITE, new byte[] { 1, 2, 3 }, 0, 3);
+		recorder.record(TrafficRecorder.READ, ByteBuffer.wrap(new byte[] { 9, 4, 5, 9 }), 1, 2);
+		recorder.recordControl(TrafficRecorder.RTS, (byte) 1);
+		recorder.close();
+
+		TrafficReader reader = new TrafficReader(fixture.getCapture());
+		assertTrue(reader.next());
+		assertEquals(TrafficRecorder.BAUD_RATE, reader.getType());
+		assertEquals(115200, reader.getValue());
+		long first = reader.getTimestamp();
+
+		assertTrue(reader.next());
+		assertEquals(TrafficRecorder.WRITE, reader.getType());
+		byte[] payload = new byte[reader.getLength()];
+		reader.getPayload(payload, 0);
+		assertArrayEquals(new byte[] { 1, 2, 3 }, payload);
+		assertTrue(reader.getTimestamp() >= first);
+
+		assertTrue(reader.next());
+		assertEquals(TrafficRecorder.READ, reader.getType());
+		assertEquals(2, reader.getLength());
+		assertEquals(4, reader.getPayloadByte(0));
+		assertEquals(5, reader.getPayloadByte(1));
+
+		assertTrue(reader.next());
+		assertEquals(TrafficRecorder.RTS, reader.getType());
+		assertEquals(1, reader.getPayloadByte(0));
+
+		assertFalse(reader.next());
+		reader.close();
+	}
+
+	@Test
+	public void testWindowCrossing() throws IOException {
+		TrafficRecorder recorder = new TrafficRecorder(fixture.getCapture(), 4096);
+		byte[] chunk = new byte[1000];
+		for (int i = 0; i < 20; i++) {
+			chunk[0] = (byte) i;
+			recorder.record(TrafficRecorder.READ, chunk, 0, chunk.length);
+		}
+		recorder.record(TrafficRecorder.WRITE, new byte[10000], 0, 10000);
+		recorder.close();
+
+		TrafficReader reader = new TrafficReader(fixture.getCapture());
+		int reads = 0;
+		int written = 0;
+		while (reader.next()) {
+			if (reader.getType() == TrafficRecorder.READ) {
+				// four chunks fit in each window with too little left over to split one
+				assertEquals(chunk.length, reader.getLength());
+				assertEquals(reads++, reader.getPayloadByte(0));
+			} else {
+				assertEquals(TrafficRecorder.WRITE, reader.getType());
+				written += reader.getLength();
+			}
+		}
+		reader.close();
+		assertEquals(20, reads);
+		assertEquals(10000, written);
+	}
+
+	@Test
+	public void testReplay() throws IOException, FTDIException {
+		TrafficRecorder recorder = new TrafficRecorder(fixture.getCapture());
+		recorder.recordValue(TrafficRecorder.BAUD_RATE, 9600);
+		recorder.record(TrafficRecorder.READ, "hello\n".getBytes(), 0, 6);
+		recorder.record(TrafficRecorder.WRITE, "ignored".getBytes(), 0, 7);
+		recorder.record(TrafficRecorder.READ, "world".getBytes(), 0, 5);
+		recorder.close();
+
+		Device device = new ReplayInterface(fixture.getCapture(), 0).getDevices()[0];
+		assertFalse(device.isOpen());
+		device.open();
+		assertTrue(device.isOpen());
+		device.setTimeouts(10, 10);
+		assertEquals(11, device.getQueueStatus());
+
+		byte[] line = new byte[16];
+		assertEquals(6, device.readUntil((byte) '\n', line, 0, line.length, System.nanoTime() + 1000000));
+		assertEquals(5, device.read(line));
+		assertEquals("world", new String(line, 0, 5));
+		assertEquals(0, device.read(line));
+		device.close();
+		assertFalse(device.isOpen());
+	}
+
+	@Test
+	public void testGatherReadOnly() throws Exception {
+		Device device = fixture.replay();
+		fixture.recordTraffic(device);
+		ByteBuffer header = ByteBuffer.wrap("head".getBytes()).asReadOnlyBuffer();
+		ByteBuffer body = ByteBuffer.allocateDirect(4);
+		body.put("body".getBytes()).flip();
+		assertEquals(8, device.write(new ByteBuffer[] { header, body }));
+		assertEquals(0, header.remaining());
+		assertEquals(0, body.remaining());
+
+		TrafficReader reader = fixture.readTraffic(device);
+		byte[] payload = new byte[8];
+		int length = 0;
+		while (reader.next()) {
+			if (reader.getType() == TrafficRecorder.WRITE) {
+				reader.getPayload(payload, length);
+				length += reader.getLength();
+			}
+		}
+		assertEquals("headbody", new String(payload, 0, length));
+	}
+
+	@Test
+	public void testPurgeRecord() throws Exception {
+		Device device = fixture.replay();
+		fixture.recordTraffic(device);
+		device.purge(FTDIConstants.FT_PURGE_RX | FTDIConstants.FT_PURGE_TX);
+
+		TrafficReader reader = fixture.readTraffic(device);
+		assertTrue(reader.next());
+		assertEquals(TrafficRecorder.PURGE, reader.getType());
+		assertEquals(1, reader.getLength());
+		assertEquals(3, reader.getPayloadByte(0));
+	}
+
+	@Test
+	public void testReadTimestamped() throws Exception {
+		Device device = fixture.replay("abc".getBytes());
+		byte[] buffer = new byte[16];
+		long[] times = new long[4];
+		int[] ends = new int[4];
+		long before = System.nanoTime();
+		assertEquals(1, device.readTimestamped(buffer, 2, 10, times, ends, System.nanoTime() + 1000000));
+		assertEquals(5, ends[0]);
+		assertEquals("abc", new String(buffer, 2, 3));
+		assertTrue(times[0] - before >= 0 && System.nanoTime() - times[0] >= 0);
+		assertEquals(3, device.getBytesRead());
+		assertEquals(0, device.readTimestamped(buffer, 0, 16, times, ends, System.nanoTime()));
+	}
+
+	@Test
+	public void testExecuteRecords() throws Exception {
+		Device device = fixture.replay("ok\nxy".getBytes());
+		fixture.recordTraffic(device);
+		Transaction transaction = new Transaction()
+			.purge(FTDIConstants.FT_PURGE_RX)
+			.setRts(true)
+			.write("hi".getBytes())
+			.expectDelimiter((byte) '\n', 8)
+			.expect(2);
+		assertEquals(5, device.execute(transaction, new byte[transaction.getResponseCapacity()], 0));
+		assertEquals(5, device.getBytesRead());
+		assertEquals(2, device.getBytesWritten());
+
+		TrafficReader reader = fixture.readTraffic(device);
+		assertTrue(reader.next());
+		assertEquals(TrafficRecorder.PURGE, reader.getType());
+		assertEquals(FTDIConstants.FT_PURGE_RX, reader.getPayloadByte(0));
+		assertTrue(reader.next());
+		assertEquals(TrafficRecorder.RTS, reader.getType());
+		assertEquals(1, reader.getPayloadByte(0));
+		assertRecord(reader, TrafficRecorder.WRITE, "hi");
+		assertRecord(reader, TrafficRecorder.READ, "ok\n");
+		assertRecord(reader, TrafficRecorder.READ, "xy");
+		assertFalse(reader.next());
+	}
+
+	@Test
+	public void testTimestampedChunkRecords() throws Exception {
+		Device device = fixture.open(new ReplayInterface(fixture.record(0), 0) {
+			@Override
+			int readTimestamped(long ftHandle, byte[] buffer, int offset, int length, long[] times, int[] ends, int maxChunks, long timeoutNanos) {
+				System.arraycopy("abcde".getBytes(), 0, buffer, offset, 5);
+				times[0] = times[1] = System.nanoTime();
+				ends[0] = offset + 2;
+				ends[1] = offset + 5;
+				return 2;
+			}
+		});
+		fixture.recordTraffic(device);
+		assertEquals(2, device.readTimestamped(new byte[8], 1, 7, new long[2], new int[2], System.nanoTime()));
+
+		TrafficReader reader = fixture.readTraffic(device);
+		assertRecord(reader, TrafficRecorder.READ, "ab");
+		assertRecord(reader, TrafficRecorder.READ, "cde");
+		assertFalse(reader.next());
+	}
+
+	/**
+	 * Check the next record's type and payload.
+	 */
+	private static void assertRecord(TrafficReader reader, byte type, String payload) throws IOException {
+		assertTrue(reader.next());
+		assertEquals(type, reader.getType());
+		byte[] data = new byte[reader.getLength()];
+		reader.getPayload(data, 0);
+		assertEquals(payload, new String(data));
+	}
+
+}
@@ -0,0 +1,73 @@
+package net.sf.yad2xx;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import org.junit.Rule;
+import org.junit.Test;
+
+/**
+ * Unit test Transaction program compilation.
+ * 
+ * @since October 19, 2026
+ * @since 0.3
+ * @author Stephen Davies
+ */
+public class TransactionTest {
+
+	@Rule
+	public ReplayFixture fixture = new ReplayFixture();
+
+	@Test
+	public void testProgram() {
+		Transaction transaction = new Transaction()
+			.purge(FTDIConstants.FT_PURGE_RX)
+			.write(new byte[] { 0x41, 0x42 })
+			.expect(3)
+			.expectDelimiter((byte) '\n', 0x120)
+			.delay(1000)
+			.setRts(true);
+		
+		byte[] expected = {
+			Transaction.OP_PURGE, 1,
+			Transaction.OP_WRITE, 0, 0, 0, 2, 0x41, 0x42,
+			Transaction.OP_EXPECT, 0, 0, 0, 3,
+			Transaction.OP_EXPECT_DELIMITER, '\n', 0, 0, 1, 0x20,
+			Transaction.OP_DELAY, 0, 0, 0x03, (byte) 0xE8,
+			Transaction.OP_RTS, 1
+		};
+		assertArrayEquals(expected, transaction.getProgram());
+		assertEquals(3 + 0x120, transaction.getResponseCapacity());
+	}
+	
+	@Test
+	public void testRecompile() {
+		Transaction transaction = new Transaction().expect(1);
+		assertEquals(5, transaction.getProgram().length);
+		transaction.setDtr(false);
+		assertEquals(7, transaction.getProgram().length);
+	}
+	
+	@Test(expected = IllegalArgumentException.class)
+	public void testAttempts() {
+		new Transaction().attempts(0);
+	}
+
+	/**
+	 * The interface rejects a program whose expectations overrun the response,
+	 * whatever capacity the caller checked.
+	 */
+	@Test
+	public void testOverrunRejected() throws Exception {
+		Device device = fixture.replay(new byte[] { 1, 2, 3, 4 });
+		byte[] program = new Transaction().expect(2).expectDelimiter((byte) 4, 2).getProgram();
+		try {
+			device.getInterface().execute(device.getHandle(), program, 1, 100, new byte[5], 2);
+			fail();
+		} catch (FTDIException e) {
+			assertEquals(FTDIConstants.FT_INVALID_PARAMETER, e.getStatus());
+		}
+	}
+
+}